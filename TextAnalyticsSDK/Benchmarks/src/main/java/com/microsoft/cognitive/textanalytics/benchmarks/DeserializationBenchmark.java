@@ -0,0 +1,117 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.microsoft.cognitive.textanalytics.model.adapter.ModelTypeAdapterFactory;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Large response bodies read the way Retrofit's Gson converter reads them, from UTF-8 bytes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeserializationBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Param({"adapters", "reflection"})
+    public String gson;
+
+    @Param({"1000", "10000"})
+    public int documents;
+
+    private Gson mGson;
+    private TypeAdapter<SentimentResponse> mSentimentAdapter;
+    private TypeAdapter<LanguageResponse> mLanguageAdapter;
+    private TypeAdapter<TopicResponse> mTopicAdapter;
+    private byte[] mSentimentJson;
+    private byte[] mLanguageJson;
+    private byte[] mTopicJson;
+
+    @Setup
+    public void setUp() {
+        mGson = "adapters".equals(gson) ? ModelTypeAdapterFactory.createGson() : new Gson();
+        mSentimentAdapter = mGson.getAdapter(SentimentResponse.class);
+        mLanguageAdapter = mGson.getAdapter(LanguageResponse.class);
+        mTopicAdapter = mGson.getAdapter(TopicResponse.class);
+        mSentimentJson = Payloads.sentimentJson(documents).getBytes(UTF_8);
+        mLanguageJson = Payloads.languageJson(documents).getBytes(UTF_8);
+        mTopicJson = Payloads.topicJson(documents).getBytes(UTF_8);
+    }
+
+    @Benchmark
+    public SentimentResponse sentimentResponse() throws IOException {
+        return read(mSentimentAdapter, mSentimentJson);
+    }
+
+    @Benchmark
+    public LanguageResponse languageResponse() throws IOException {
+        return read(mLanguageAdapter, mLanguageJson);
+    }
+
+    @Benchmark
+    public TopicResponse topicResponse() throws IOException {
+        return read(mTopicAdapter, mTopicJson);
+    }
+
+    private <T> T read(TypeAdapter<T> adapter, byte[] json) throws IOException {
+        return adapter.read(mGson.newJsonReader(new InputStreamReader(new ByteArrayInputStream(json), UTF_8)));
+    }
+
+}
@@ -0,0 +1,140 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.benchmarks;
+
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+import com.microsoft.cognitive.textanalytics.topics.TopicJobTracker;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Whole calls through {@link ServiceRequestClient} against a local {@link MockTextAnalyticsServer}: request
+ * serialization and compression, transport, and response conversion
+ *
+ * The server's simulated processing time is turned off, so the scores are the latency the client adds; loopback
+ * hides the time saved on a slow uplink, which the printed request bytes per call show instead. Run with
+ * "-prof gc" to see the allocations per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    @Param({"100", "1000"})
+    public int documents;
+
+    // Passed to setGzipRequestThreshold, -1 sends bodies uncompressed
+    @Param({"-1", "0", "16384"})
+    public long gzipThreshold;
+
+    private MockTextAnalyticsServer mServer;
+    private ServiceRequestClient mClient;
+    private TextRequest mTextRequest;
+    private String mOperationUrl;
+    private long mBodyBytes;
+    private long mRequests;
+
+    @Setup
+    public void setUp() throws IOException {
+        mServer = new MockTextAnalyticsServer()
+                .setLatency(0, 0, 0, TimeUnit.MILLISECONDS)
+                .setTopicsProcessingTime(0, TimeUnit.MILLISECONDS);
+        mServer.start();
+
+        mClient = new ServiceRequestClient.Builder("benchmark")
+                .setBaseUrl(mServer.getBaseUrl())
+                .setGzipRequestThreshold(gzipThreshold)
+                .build();
+
+        mTextRequest = Payloads.textRequest(documents);
+        Response<ResponseBody> submitted = mClient.getTopicsUrlRx(Payloads.topicRequest(documents))
+                .toBlocking().single();
+        mOperationUrl = submitted.headers().get(TopicJobTracker.HEADER_OPERATION_LOCATION);
+        submitted.body().close();
+
+        // Setup calls are left out of the bytes per call
+        mBodyBytes = mServer.getRequestBodyBytes();
+        mRequests = mServer.getRequestCount();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        long requests = mServer.getRequestCount() - mRequests;
+        if (requests > 0) {
+            System.out.println();
+            System.out.println(documents + " documents, gzip threshold " + gzipThreshold + ": "
+                    + (mServer.getRequestBodyBytes() - mBodyBytes) / requests + " request body bytes per call");
+        }
+        mServer.shutdown();
+    }
+
+    @Benchmark
+    public SentimentResponse sentiment() {
+        return mClient.getSentimentRx(mTextRequest).toBlocking().single();
+    }
+
+    @Benchmark
+    public KeyPhrasesResponse keyPhrases() {
+        return mClient.getKeyPhrasesRx(mTextRequest).toBlocking().single();
+    }
+
+    @Benchmark
+    public TopicResponse topics() {
+        return mClient.getTopicsRx(mOperationUrl).toBlocking().single();
+    }
+
+}
@@ -0,0 +1,286 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.benchmarks;
+
+import com.google.gson.GsonBuilder;
+import com.microsoft.cognitive.textanalytics.metrics.LatencyHistogram;
+import com.microsoft.cognitive.textanalytics.metrics.RequestMetrics;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+import com.microsoft.cognitive.textanalytics.resilience.ResiliencePolicy;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+import com.microsoft.cognitive.textanalytics.routing.RegionPolicy;
+import com.microsoft.cognitive.textanalytics.topics.PollingPolicy;
+import com.microsoft.cognitive.textanalytics.topics.TopicJobTracker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.ResponseBody;
+import retrofit2.Response;
+
+/**
+ * Drives a {@link ServiceRequestClient} with concurrent callers and reports throughput and latency percentiles
+ *
+ * Runs against a {@link MockTextAnalyticsServer} started in-process, or any server given as baseUrl. Arguments are
+ * key=value pairs, e.g. ./gradlew :Benchmarks:loadTest -PloadArgs="endpoint=mixed concurrency=32 throttle=200":
+ *
+ * endpoint     languages, keyPhrases, sentiment, topics or mixed (default sentiment)
+ * concurrency  calling threads (default 16)
+ * seconds      measured duration, after a warm-up of a fifth of it (default 30)
+ * documents    documents per request, at least 100 for topics (default 100)
+ * latencyMs    simulated processing time per call (default 20)
+ * errorRate    share of calls failing with 500 (default 0)
+ * throttle     requests per second above which calls get 429 (default 0, off)
+ * retries      client retries with ResiliencePolicy (default 0, off)
+ * regions      in-process servers, routed by latency with RegionPolicy (default 1)
+ * regionRttMs  round trip added per region, region n gets n times this (default 20)
+ * baseUrl      server to test instead of the in-process one
+ */
+public class LoadDriver {
+
+    private static final String[] MIXED = {"languages", "keyPhrases", "sentiment", "topics"};
+
+    // Polls fast enough for the mock server's short processing time
+    private static final PollingPolicy POLLING = new PollingPolicy(200, 1000, 1.5, 60000, TimeUnit.MILLISECONDS);
+
+    private final Map<String, String> mArgs;
+    private final int mDocuments;
+    private final LanguageRequest mLanguageRequest;
+    private final TextRequest mTextRequest;
+    private final TopicRequest mTopicRequest;
+    private final Map<String, LatencyHistogram> mLatencies = new HashMap<>();
+    private final Map<String, AtomicLong> mFailures = new HashMap<>();
+
+    public LoadDriver(Map<String, String> args) {
+        this.mArgs = args;
+        this.mDocuments = intArg("documents", 100);
+        this.mLanguageRequest = Payloads.languageRequest(mDocuments);
+        this.mTextRequest = Payloads.textRequest(mDocuments);
+        this.mTopicRequest = Payloads.topicRequest(Math.max(mDocuments, 100));
+        for (String endpoint : MIXED) {
+            mLatencies.put(endpoint, new LatencyHistogram());
+            mFailures.put(endpoint, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value: " + arg);
+            }
+            args.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        new LoadDriver(args).run();
+    }
+
+    public void run() throws Exception {
+        List<MockTextAnalyticsServer> servers = new ArrayList<>();
+        RegionPolicy regions = null;
+        String baseUrl = mArgs.get("baseUrl");
+        if (baseUrl == null) {
+            int count = intArg("regions", 1);
+            if (count > 1) {
+                regions = new RegionPolicy();
+            }
+            // Regions are added slowest first, so the router has to measure to find the fastest
+            for (int i = count - 1; i >= 0; i--) {
+                MockTextAnalyticsServer server = new MockTextAnalyticsServer()
+                        .setRoundTripDelay(i * intArg("regionRttMs", 20), TimeUnit.MILLISECONDS)
+                        .setLatency(intArg("latencyMs", 20), 0, intArg("latencyMs", 20) / 2, TimeUnit.MILLISECONDS)
+                        .setErrorRate(doubleArg("errorRate", 0))
+                        .setThrottle(doubleArg("throttle", 0))
+                        .setTopicsProcessingTime(1, TimeUnit.SECONDS);
+                server.start();
+                servers.add(server);
+                if (regions != null) {
+                    regions.addRegion("region" + i, server.getBaseUrl());
+                }
+            }
+            baseUrl = servers.get(0).getBaseUrl();
+        }
+
+        String endpoint = stringArg("endpoint", "sentiment");
+        int concurrency = intArg("concurrency", 16);
+        int seconds = intArg("seconds", 30);
+
+        // Separate clients on the same transport, so warm-up calls are not in the measured metrics
+        ServiceRequestClient.Builder builder = new ServiceRequestClient.Builder(stringArg("key", "load-test"))
+                .setBaseUrl(baseUrl)
+                .setMaxRequests(concurrency * 2)
+                .setMaxRequestsPerHost(concurrency * 2)
+                .setMaxIdleConnections(concurrency);
+        if (regions != null) {
+            builder.setRegionPolicy(regions);
+        }
+        if (intArg("retries", 0) > 0) {
+            builder.setResiliencePolicy(new ResiliencePolicy().setMaxRetries(intArg("retries", 0)));
+        }
+        ServiceRequestClient warmUpClient = builder.build();
+        RequestMetrics metrics = new RequestMetrics();
+        ServiceRequestClient client = builder.setRequestMetrics(metrics).build();
+
+        System.out.println(String.format(Locale.US, "Endpoint %s, %d threads, %d documents per request, %d s on %s",
+                endpoint, concurrency, mDocuments, seconds, baseUrl));
+        drive(warmUpClient, endpoint, concurrency, Math.max(1, seconds / 5), false);
+        long started = System.nanoTime();
+        long calls = drive(client, endpoint, concurrency, seconds, true);
+        double elapsed = (System.nanoTime() - started) / 1e9;
+
+        report(calls, elapsed);
+        for (MockTextAnalyticsServer server : servers) {
+            System.out.println(String.format(Locale.US, "Server %s: %d requests, %d throttled, %d errors",
+                    server.getBaseUrl(), server.getRequestCount(), server.getThrottledCount(),
+                    server.getErrorCount()));
+            server.shutdown();
+        }
+        if (regions != null) {
+            System.out.println("Regions: " + client.getRegionRouter().getRegion() + " chosen, "
+                    + client.getRegionRouter().getFailoverCount() + " failovers");
+        }
+        System.out.println("HTTP: " + new GsonBuilder().setPrettyPrinting().create().toJson(metrics.snapshot()));
+    }
+
+    private long drive(final ServiceRequestClient client, final String endpoint, int concurrency, int seconds,
+                       final boolean record) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        final AtomicLong calls = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            final int worker = i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (long n = worker; System.nanoTime() < deadline; n++) {
+                            String target = "mixed".equals(endpoint) ? MIXED[(int) (n % MIXED.length)] : endpoint;
+                            long start = System.nanoTime();
+                            boolean successful = call(client, target);
+                            if (record) {
+                                calls.incrementAndGet();
+                                mLatencies.get(target).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                                if (!successful) {
+                                    mFailures.get(target).incrementAndGet();
+                                }
+                            }
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "load-" + i);
+            thread.start();
+        }
+        done.await();
+        return calls.get();
+    }
+
+    private boolean call(ServiceRequestClient client, String endpoint) {
+        switch (endpoint) {
+            case "languages":
+                return isSuccessful(client.getLanguages(mLanguageRequest, 1));
+            case "keyPhrases":
+                return isSuccessful(client.callKeyPhrases(mTextRequest));
+            case "sentiment":
+                return isSuccessful(client.callSentiments(mTextRequest));
+            case "topics":
+                return detectTopics(client);
+            default:
+                throw new IllegalArgumentException("Unknown endpoint " + endpoint);
+        }
+    }
+
+    private static boolean isSuccessful(Response<?> response) {
+        return response != null && response.isSuccessful();
+    }
+
+    // Submit and poll until finished, timed as one call
+    private boolean detectTopics(ServiceRequestClient client) {
+        try {
+            Response<ResponseBody> submitted = client.getTopicsUrlRx(mTopicRequest).toBlocking().single();
+            String operationLocation = submitted.headers().get(TopicJobTracker.HEADER_OPERATION_LOCATION);
+            ResponseBody body = submitted.isSuccessful() ? submitted.body() : submitted.errorBody();
+            if (body != null) {
+                body.close();
+            }
+            return operationLocation != null
+                    && client.pollTopicsRx(operationLocation, POLLING).toBlocking().single() != null;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private void report(long calls, double elapsed) {
+        System.out.println(String.format(Locale.US, "Total: %d calls in %.1f s, %.1f calls/s, %.0f documents/s",
+                calls, elapsed, calls / elapsed, calls * mDocuments / elapsed));
+        List<String> endpoints = new ArrayList<>();
+        for (String endpoint : MIXED) {
+            if (mLatencies.get(endpoint).getCount() > 0) {
+                endpoints.add(endpoint);
+            }
+        }
+        for (String endpoint : endpoints) {
+            LatencyHistogram latency = mLatencies.get(endpoint);
+            System.out.println(String.format(Locale.US,
+                    "  %-10s %7d calls %6d failed %8.1f calls/s   p50 %7.1f  p90 %7.1f  p99 %7.1f  max %7.1f ms",
+                    endpoint, latency.getCount(), mFailures.get(endpoint).get(), latency.getCount() / elapsed,
+                    latency.getPercentileMillis(50), latency.getPercentileMillis(90),
+                    latency.getPercentileMillis(99), latency.getMaxMillis()));
+        }
+    }
+
+    private String stringArg(String name, String defaultValue) {
+        String value = mArgs.get(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private int intArg(String name, int defaultValue) {
+        String value = mArgs.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private double doubleArg(String name, double defaultValue) {
+        String value = mArgs.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+}
@@ -0,0 +1,520 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.GzipSource;
+
+/**
+ * Local stand-in for the Text Analytics service, for load tests without a subscription or quota
+ *
+ * Implements languages, keyPhrases and sentiment, and topics with its submit and poll phases. Results are cheap
+ * word-list heuristics; what matters is the protocol, the payload sizes and the tunable behavior: simulated
+ * processing latency, a random server error rate and a request rate above which calls are throttled with 429.
+ * The settings may be changed while the server is running.
+ *
+ * Requests and responses are handled with plain Gson trees, independently of the client's model adapters.
+ */
+public class MockTextAnalyticsServer {
+
+    public static final String API_PATH = "/text/analytics/v2.0/";
+
+    private static final String HEADER_SUBSCRIPTION_KEY = "ocp-apim-subscription-key";
+    private static final int MIN_TOPIC_DOCUMENTS = 100;
+
+    private static final List<String> POSITIVE = Arrays.asList("great", "fast", "friendly", "excellent", "works",
+            "good", "love", "happy");
+    private static final List<String> NEGATIVE = Arrays.asList("terrible", "slow", "broken", "crashes", "refund",
+            "bad", "hate", "not");
+
+    private final MockWebServer mServer = new MockWebServer();
+    private final Gson mGson = new Gson();
+    private final Map<String, Operation> mOperations = new ConcurrentHashMap<>();
+    private final AtomicLong mRequests = new AtomicLong();
+    private final AtomicLong mThrottled = new AtomicLong();
+    private final AtomicLong mErrors = new AtomicLong();
+    private final AtomicLong mRequestBodyBytes = new AtomicLong();
+
+    private volatile long mRoundTripNanos;
+    private volatile long mLatencyNanos = TimeUnit.MILLISECONDS.toNanos(20);
+    private volatile long mLatencyPerDocumentNanos = TimeUnit.MICROSECONDS.toNanos(50);
+    private volatile long mJitterNanos = TimeUnit.MILLISECONDS.toNanos(10);
+    private volatile double mErrorRate;
+    private volatile double mRequestsPerSecond;
+    private volatile long mTopicsProcessingMillis = TimeUnit.SECONDS.toMillis(2);
+
+    // Fixed one second window for throttling
+    private long mWindowStart;
+    private int mWindowRequests;
+
+    public MockTextAnalyticsServer() {
+        mServer.setServerSocketFactory(NoDelaySockets.serverSocketFactory());
+        mServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                try {
+                    return handle(request);
+                } catch (RuntimeException | IOException e) {
+                    return error(400, "BadRequest", "Invalid request: " + e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Network round trip added to every response, including errors, e.g. to stand in for a distant region
+     */
+    public MockTextAnalyticsServer setRoundTripDelay(long delay, TimeUnit unit) {
+        this.mRoundTripNanos = unit.toNanos(delay);
+        return this;
+    }
+
+    /**
+     * Processing time of every call, plus a per-document share and uniformly distributed jitter
+     */
+    public MockTextAnalyticsServer setLatency(long base, long perDocument, long jitter, TimeUnit unit) {
+        this.mLatencyNanos = unit.toNanos(base);
+        this.mLatencyPerDocumentNanos = unit.toNanos(perDocument);
+        this.mJitterNanos = unit.toNanos(jitter);
+        return this;
+    }
+
+    /**
+     * @param errorRate share of calls answered with 500, between 0 and 1
+     */
+    public MockTextAnalyticsServer setErrorRate(double errorRate) {
+        this.mErrorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * @param requestsPerSecond calls above this rate are answered with 429, 0 for no throttling
+     */
+    public MockTextAnalyticsServer setThrottle(double requestsPerSecond) {
+        this.mRequestsPerSecond = requestsPerSecond;
+        return this;
+    }
+
+    /**
+     * How long a topic detection operation is "Running" before it succeeds
+     */
+    public MockTextAnalyticsServer setTopicsProcessingTime(long duration, TimeUnit unit) {
+        this.mTopicsProcessingMillis = unit.toMillis(duration);
+        return this;
+    }
+
+    public void start() throws IOException {
+        mServer.start(InetAddress.getByName("127.0.0.1"), 0);
+    }
+
+    public void shutdown() throws IOException {
+        mServer.shutdown();
+    }
+
+    /**
+     * @return base URL for {@link com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient.Builder#setBaseUrl}
+     */
+    public String getBaseUrl() {
+        return mServer.url(API_PATH).toString();
+    }
+
+    public long getRequestCount() {
+        return mRequests.get();
+    }
+
+    public long getThrottledCount() {
+        return mThrottled.get();
+    }
+
+    public long getErrorCount() {
+        return mErrors.get();
+    }
+
+    /**
+     * @return request body bytes received as sent, i.e. compressed for gzip-encoded requests
+     */
+    public long getRequestBodyBytes() {
+        return mRequestBodyBytes.get();
+    }
+
+    private MockResponse handle(RecordedRequest request) throws IOException {
+        mRequests.incrementAndGet();
+        mRequestBodyBytes.addAndGet(request.getBodySize());
+        sleep(mRoundTripNanos);
+        if (request.getHeader(HEADER_SUBSCRIPTION_KEY) == null) {
+            return new MockResponse().setResponseCode(401).setBody(
+                    "{\"statusCode\":401,\"message\":\"Access denied due to missing subscription key.\"}");
+        }
+        if (isThrottled()) {
+            mThrottled.incrementAndGet();
+            return new MockResponse().setResponseCode(429).setHeader("Retry-After", "1").setBody(
+                    "{\"statusCode\":429,\"message\":\"Rate limit is exceeded. Try again in 1 seconds.\"}");
+        }
+
+        HttpUrl url = mServer.url(request.getPath());
+        List<String> segments = url.pathSegments();
+        String endpoint = segments.get(segments.size() - 1);
+        if ("GET".equals(request.getMethod()) && segments.size() >= 2
+                && "operations".equals(segments.get(segments.size() - 2))) {
+            simulateLatency(0);
+            return operation(endpoint);
+        }
+        if (!"POST".equals(request.getMethod())) {
+            return error(404, "NotFound", "Resource not found.");
+        }
+
+        JsonArray documents = parse(request).getAsJsonArray("documents");
+        if (documents == null) {
+            return error(400, "BadRequest", "Request body must contain documents.");
+        }
+        simulateLatency(documents.size());
+        if (mErrorRate > 0 && ThreadLocalRandom.current().nextDouble() < mErrorRate) {
+            mErrors.incrementAndGet();
+            return error(500, "InternalServerError", "Internal server error.");
+        }
+
+        switch (endpoint) {
+            case "languages":
+                String count = url.queryParameter("numberOfLanguagesToDetect");
+                return json(languages(documents, count != null ? Integer.parseInt(count) : 1));
+            case "keyPhrases":
+                return json(keyPhrases(documents));
+            case "sentiment":
+                return json(sentiment(documents));
+            case "topics":
+                return submitTopics(documents);
+            default:
+                return error(404, "NotFound", "Resource not found.");
+        }
+    }
+
+    private synchronized boolean isThrottled() {
+        double limit = mRequestsPerSecond;
+        if (limit <= 0) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - mWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+            mWindowStart = now;
+            mWindowRequests = 0;
+        }
+        return ++mWindowRequests > limit;
+    }
+
+    private void simulateLatency(int documents) {
+        long nanos = mLatencyNanos + documents * mLatencyPerDocumentNanos;
+        if (mJitterNanos > 0) {
+            nanos += ThreadLocalRandom.current().nextLong(mJitterNanos);
+        }
+        sleep(nanos);
+    }
+
+    private static void sleep(long nanos) {
+        if (nanos <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private JsonObject parse(RecordedRequest request) throws IOException {
+        Buffer body = request.getBody();
+        if ("gzip".equalsIgnoreCase(request.getHeader("Content-Encoding"))) {
+            Buffer inflated = new Buffer();
+            GzipSource source = new GzipSource(body);
+            while (source.read(inflated, Long.MAX_VALUE) != -1) {
+                // Read the whole body
+            }
+            body = inflated;
+        }
+        return new JsonParser().parse(body.readUtf8()).getAsJsonObject();
+    }
+
+    private Map<String, Object> languages(JsonArray documents, int count) {
+        List<Object> docs = new ArrayList<>();
+        List<Object> errors = new ArrayList<>();
+        for (JsonElement element : documents) {
+            JsonObject document = element.getAsJsonObject();
+            String id = document.get("id").getAsString();
+            String text = text(document);
+            if (text.isEmpty()) {
+                errors.add(documentError(id));
+                continue;
+            }
+            List<Object> detected = new ArrayList<>();
+            String[][] candidates = rankLanguages(text);
+            for (int i = 0; i < Math.min(Math.max(count, 1), candidates.length); i++) {
+                Map<String, Object> language = new LinkedHashMap<>();
+                language.put("name", candidates[i][0]);
+                language.put("iso6391Name", candidates[i][1]);
+                language.put("score", i == 0 ? 1.0 : 0.0);
+                detected.add(language);
+            }
+            Map<String, Object> doc = new LinkedHashMap<>();
+            doc.put("id", id);
+            doc.put("detectedLanguages", detected);
+            docs.add(doc);
+        }
+        return result(docs, errors);
+    }
+
+    private static String[][] rankLanguages(String text) {
+        String lower = " " + text.toLowerCase(Locale.ROOT) + " ";
+        if (lower.contains(" el ") || lower.contains(" los ") || lower.contains(" es ")) {
+            return new String[][]{{"Spanish", "es"}, {"English", "en"}, {"French", "fr"}};
+        }
+        if (lower.contains(" le ") || lower.contains(" les ") || lower.contains(" est ")) {
+            return new String[][]{{"French", "fr"}, {"English", "en"}, {"Spanish", "es"}};
+        }
+        return new String[][]{{"English", "en"}, {"French", "fr"}, {"Spanish", "es"}};
+    }
+
+    private Map<String, Object> keyPhrases(JsonArray documents) {
+        List<Object> docs = new ArrayList<>();
+        List<Object> errors = new ArrayList<>();
+        for (JsonElement element : documents) {
+            JsonObject document = element.getAsJsonObject();
+            String id = document.get("id").getAsString();
+            String text = text(document);
+            if (text.isEmpty()) {
+                errors.add(documentError(id));
+                continue;
+            }
+            List<String> phrases = new ArrayList<>();
+            for (String word : words(text)) {
+                if (word.length() > 4 && !phrases.contains(word) && phrases.size() < 5) {
+                    phrases.add(word);
+                }
+            }
+            Map<String, Object> doc = new LinkedHashMap<>();
+            doc.put("keyPhrases", phrases);
+            doc.put("id", id);
+            docs.add(doc);
+        }
+        return result(docs, errors);
+    }
+
+    private Map<String, Object> sentiment(JsonArray documents) {
+        List<Object> docs = new ArrayList<>();
+        List<Object> errors = new ArrayList<>();
+        for (JsonElement element : documents) {
+            JsonObject document = element.getAsJsonObject();
+            String id = document.get("id").getAsString();
+            String text = text(document);
+            if (text.isEmpty()) {
+                errors.add(documentError(id));
+                continue;
+            }
+            int score = 0;
+            for (String word : words(text)) {
+                if (POSITIVE.contains(word)) {
+                    score++;
+                } else if (NEGATIVE.contains(word)) {
+                    score--;
+                }
+            }
+            Map<String, Object> doc = new LinkedHashMap<>();
+            doc.put("score", Math.max(0.0, Math.min(1.0, 0.5 + 0.1 * score)));
+            doc.put("id", id);
+            docs.add(doc);
+        }
+        return result(docs, errors);
+    }
+
+    private MockResponse submitTopics(JsonArray documents) {
+        if (documents.size() < MIN_TOPIC_DOCUMENTS) {
+            return error(400, "BadRequest", "At least " + MIN_TOPIC_DOCUMENTS + " documents are required.");
+        }
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (JsonElement element : documents) {
+            JsonObject document = element.getAsJsonObject();
+            texts.put(document.get("id").getAsString(), text(document));
+        }
+        String id = UUID.randomUUID().toString();
+        mOperations.put(id, new Operation(texts, System.currentTimeMillis() + mTopicsProcessingMillis));
+        return new MockResponse().setResponseCode(202)
+                .setHeader("Operation-Location", mServer.url(API_PATH + "operations/" + id).toString());
+    }
+
+    private MockResponse operation(String id) {
+        Operation operation = mOperations.get(id);
+        if (operation == null) {
+            return error(404, "NotFound", "Operation " + id + " not found.");
+        }
+        Map<String, Object> response = new LinkedHashMap<>();
+        if (System.currentTimeMillis() < operation.mReadyAt) {
+            response.put("status", "Running");
+            return json(response);
+        }
+        response.put("status", "Succeeded");
+        response.put("operationProcessingResult", operation.result());
+        return json(response);
+    }
+
+    private static String text(JsonObject document) {
+        JsonElement text = document.get("text");
+        return text != null && !text.isJsonNull() ? text.getAsString().trim() : "";
+    }
+
+    private static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static Map<String, Object> documentError(String id) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("id", id);
+        error.put("message", "Document text is empty.");
+        return error;
+    }
+
+    private static Map<String, Object> result(List<Object> documents, List<Object> errors) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("documents", documents);
+        result.put("errors", errors);
+        return result;
+    }
+
+    private MockResponse json(Object body) {
+        return new MockResponse().setHeader("Content-Type", "application/json; charset=utf-8")
+                .setBody(mGson.toJson(body));
+    }
+
+    private MockResponse error(int code, String errorCode, String message) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("code", errorCode);
+        body.put("message", message);
+        return json(body).setResponseCode(code);
+    }
+
+    /**
+     * Submitted topic detection job, its result is computed on the first poll after it is ready
+     */
+    private static class Operation {
+
+        private final long mReadyAt;
+        private Map<String, String> mTexts;
+        private Map<String, Object> mResult;
+
+        Operation(Map<String, String> texts, long readyAt) {
+            this.mTexts = texts;
+            this.mReadyAt = readyAt;
+        }
+
+        // One topic per distinct longest word, every document is assigned to the topic of its longest word
+        synchronized Map<String, Object> result() {
+            if (mResult != null) {
+                return mResult;
+            }
+            Map<String, String> topicIds = new HashMap<>();
+            Map<String, Integer> scores = new LinkedHashMap<>();
+            List<Object> assignments = new ArrayList<>();
+            Random random = new Random(mTexts.size());
+            for (Map.Entry<String, String> entry : mTexts.entrySet()) {
+                String longest = "";
+                for (String word : words(entry.getValue())) {
+                    if (word.length() > longest.length()) {
+                        longest = word;
+                    }
+                }
+                if (longest.isEmpty()) {
+                    continue;
+                }
+                String topicId = topicIds.get(longest);
+                if (topicId == null) {
+                    topicId = UUID.nameUUIDFromBytes(longest.getBytes()).toString();
+                    topicIds.put(longest, topicId);
+                    scores.put(longest, 0);
+                }
+                scores.put(longest, scores.get(longest) + 1);
+
+                Map<String, Object> assignment = new LinkedHashMap<>();
+                assignment.put("documentId", entry.getKey());
+                assignment.put("topicId", topicId);
+                assignment.put("distance", Math.round(random.nextDouble() * 10000) / 10000.0);
+                assignments.add(assignment);
+            }
+
+            List<Object> topics = new ArrayList<>();
+            for (Map.Entry<String, Integer> entry : scores.entrySet()) {
+                Map<String, Object> topic = new LinkedHashMap<>();
+                topic.put("id", topicIds.get(entry.getKey()));
+                topic.put("score", entry.getValue());
+                topic.put("keyPhrase", entry.getKey());
+                topics.add(topic);
+            }
+
+            mResult = new LinkedHashMap<>();
+            mResult.put("topics", topics);
+            mResult.put("topicAssignments", assignments);
+            mTexts = null;
+            return mResult;
+        }
+    }
+
+}
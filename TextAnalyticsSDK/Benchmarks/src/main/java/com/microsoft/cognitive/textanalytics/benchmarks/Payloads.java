@@ -0,0 +1,162 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.benchmarks;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Deterministic requests and service responses of a given size
+ */
+final class Payloads {
+
+    private static final String[] WORDS = {
+            "service", "battery", "screen", "delivery", "price", "quality", "support", "update", "camera",
+            "great", "terrible", "slow", "fast", "friendly", "broken", "excellent", "refund", "order", "the",
+            "was", "and", "very", "not", "after", "with", "my", "phone", "app", "crashes", "works"
+    };
+
+    private static final String[][] LANGUAGES = {
+            {"English", "en"}, {"Spanish", "es"}, {"French", "fr"}, {"German", "de"}, {"Japanese", "ja"}
+    };
+
+    private Payloads() {
+    }
+
+    static String text(Random random, int words) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                builder.append(' ');
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return builder.append('.').toString();
+    }
+
+    static LanguageRequest languageRequest(int documents) {
+        Random random = new Random(documents);
+        List<RequestDoc> docs = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            docs.add(new RequestDoc(String.valueOf(i), text(random, 20)));
+        }
+        return new LanguageRequest(docs);
+    }
+
+    static TextRequest textRequest(int documents) {
+        Random random = new Random(documents);
+        List<RequestDocIncludeLanguage> docs = new ArrayList<>(documents);
+        for (int i = 0; i < documents; i++) {
+            RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+            doc.setId(String.valueOf(i));
+            doc.setText(text(random, 20));
+            doc.setLanguage("en");
+            docs.add(doc);
+        }
+        return new TextRequest(docs);
+    }
+
+    static TopicRequest topicRequest(int documents) {
+        Random random = new Random(documents);
+        TopicRequest request = new TopicRequest();
+        for (int i = 0; i < documents; i++) {
+            request.addDocument(new RequestDoc(String.valueOf(i), text(random, 20)));
+        }
+        request.getStopWords().add("the");
+        request.getStopPhrases().add("my phone");
+        return request;
+    }
+
+    static String sentimentJson(int documents) {
+        Random random = new Random(documents);
+        StringBuilder json = new StringBuilder("{\"documents\":[");
+        for (int i = 0; i < documents; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"score\":").append(String.format(Locale.US, "%.6f", random.nextDouble()))
+                    .append(",\"id\":\"").append(i).append("\"}");
+        }
+        return json.append("],\"errors\":[]}").toString();
+    }
+
+    static String languageJson(int documents) {
+        Random random = new Random(documents);
+        StringBuilder json = new StringBuilder("{\"documents\":[");
+        for (int i = 0; i < documents; i++) {
+            String[] language = LANGUAGES[random.nextInt(LANGUAGES.length)];
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"").append(i).append("\",\"detectedLanguages\":[{\"name\":\"")
+                    .append(language[0]).append("\",\"iso6391Name\":\"").append(language[1])
+                    .append("\",\"score\":1.0}]}");
+        }
+        return json.append("],\"errors\":[]}").toString();
+    }
+
+    /**
+     * @param documents number of topic assignments, with one topic per 10 documents
+     */
+    static String topicJson(int documents) {
+        Random random = new Random(documents);
+        int topics = Math.max(1, documents / 10);
+        StringBuilder json = new StringBuilder("{\"status\":\"Succeeded\",\"operationProcessingResult\":{\"topics\":[");
+        for (int i = 0; i < topics; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"t").append(i).append("\",\"score\":").append(1 + random.nextInt(50))
+                    .append(",\"keyPhrase\":\"").append(text(random, 2)).append("\"}");
+        }
+        json.append("],\"topicAssignments\":[");
+        for (int i = 0; i < documents; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"documentId\":\"").append(i).append("\",\"topicId\":\"t").append(random.nextInt(topics))
+                    .append("\",\"distance\":").append(String.format(Locale.US, "%.4f", random.nextDouble()))
+                    .append('}');
+        }
+        return json.append("]}}").toString();
+    }
+
+}
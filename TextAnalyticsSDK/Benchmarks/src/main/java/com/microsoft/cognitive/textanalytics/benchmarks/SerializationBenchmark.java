@@ -0,0 +1,114 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.benchmarks;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonWriter;
+import com.microsoft.cognitive.textanalytics.model.adapter.ModelTypeAdapterFactory;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import okio.Buffer;
+
+/**
+ * Request bodies written the way Retrofit's Gson converter writes them, with the hand-written model adapters
+ * and with Gson's reflective adapters as the baseline
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Param({"adapters", "reflection"})
+    public String gson;
+
+    @Param({"10", "1000"})
+    public int documents;
+
+    private TypeAdapter<TextRequest> mTextAdapter;
+    private TypeAdapter<TopicRequest> mTopicAdapter;
+    private Gson mGson;
+    private TextRequest mTextRequest;
+    private TopicRequest mTopicRequest;
+
+    @Setup
+    public void setUp() {
+        mGson = "adapters".equals(gson) ? ModelTypeAdapterFactory.createGson() : new Gson();
+        mTextAdapter = mGson.getAdapter(TextRequest.class);
+        mTopicAdapter = mGson.getAdapter(TopicRequest.class);
+        mTextRequest = Payloads.textRequest(documents);
+        mTopicRequest = Payloads.topicRequest(documents);
+    }
+
+    @Benchmark
+    public long textRequest() throws IOException {
+        return write(mTextAdapter, mTextRequest);
+    }
+
+    @Benchmark
+    public long topicRequest() throws IOException {
+        return write(mTopicAdapter, mTopicRequest);
+    }
+
+    private <T> long write(TypeAdapter<T> adapter, T value) throws IOException {
+        Buffer buffer = new Buffer();
+        JsonWriter writer = mGson.newJsonWriter(new OutputStreamWriter(buffer.outputStream(), UTF_8));
+        adapter.write(writer, value);
+        writer.close();
+        return buffer.size();
+    }
+
+}
@@ -0,0 +1,118 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.analysis;
+
+import java.util.List;
+
+/**
+ * Language, sentiment and key phrases of one document, joined by id
+ */
+public class AnalyzedDocument {
+
+    private final String id;
+    private String iso6391Name;
+    private String languageName;
+    private double languageScore = Double.NaN;
+    private double sentiment = Double.NaN;
+    private List<String> keyPhrases;
+    private String error;
+
+    AnalyzedDocument(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * @return ISO 639-1 code of the detected language, null if detection failed
+     */
+    public String getIso6391Name() {
+        return iso6391Name;
+    }
+
+    public String getLanguageName() {
+        return languageName;
+    }
+
+    public double getLanguageScore() {
+        return languageScore;
+    }
+
+    /**
+     * @return sentiment score from 0 (negative) to 1 (positive), NaN when not analyzed
+     */
+    public double getSentiment() {
+        return sentiment;
+    }
+
+    public boolean hasSentiment() {
+        return !Double.isNaN(sentiment);
+    }
+
+    /**
+     * @return key phrases, null when not analyzed
+     */
+    public List<String> getKeyPhrases() {
+        return keyPhrases;
+    }
+
+    /**
+     * @return the first error the service reported for the document, null if none
+     */
+    public String getError() {
+        return error;
+    }
+
+    void setLanguage(String iso6391Name, String languageName, double languageScore) {
+        this.iso6391Name = iso6391Name;
+        this.languageName = languageName;
+        this.languageScore = languageScore;
+    }
+
+    void setSentiment(double sentiment) {
+        this.sentiment = sentiment;
+    }
+
+    void setKeyPhrases(List<String> keyPhrases) {
+        this.keyPhrases = keyPhrases;
+    }
+
+    void setError(String error) {
+        if (this.error == null) {
+            this.error = error;
+        }
+    }
+
+}
@@ -0,0 +1,292 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.analysis;
+
+import com.microsoft.cognitive.textanalytics.batch.DocumentBatcher;
+import com.microsoft.cognitive.textanalytics.langid.LanguagePreDetector;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Action2;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.schedulers.Schedulers;
+
+/**
+ * Detects the language of each document, then scores sentiment and extracts key phrases in that language
+ *
+ * Each batch takes two round trips: language detection, then the sentiment and key phrase requests in parallel.
+ * With a {@link LanguagePreDetector} the first is skipped for batches whose languages are all detected on the
+ * device.
+ * Both endpoints accept documents of mixed languages, so the detected languages are grouped only to leave out
+ * languages an endpoint does not support, and documents whose language could not be detected. Batches are
+ * analyzed concurrently and results are returned in input order, joined by document id.
+ */
+public class DocumentAnalyzer {
+
+    private final ServiceRequestClient mClient;
+    private final Scheduler mScheduler;
+    private int mBatchSize = DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST;
+    private int mMaxInFlight = 2;
+    private Set<String> mSentimentLanguages;
+    private Set<String> mKeyPhraseLanguages;
+    private LanguagePreDetector mPreDetector;
+
+    public DocumentAnalyzer(ServiceRequestClient client) {
+        this(client, Schedulers.io());
+    }
+
+    /**
+     * @param client
+     * @param scheduler scheduler the requests are executed on
+     */
+    public DocumentAnalyzer(ServiceRequestClient client, Scheduler scheduler) {
+        this.mClient = client;
+        this.mScheduler = scheduler;
+    }
+
+    /**
+     * @param batchSize documents per request, up to {@link DocumentBatcher#MAX_DOCUMENTS_PER_REQUEST}
+     */
+    public DocumentAnalyzer setBatchSize(int batchSize) {
+        if (batchSize < 1 || batchSize > DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST) {
+            throw new IllegalArgumentException("Batch size must be between 1 and "
+                    + DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST);
+        }
+        this.mBatchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * @param maxInFlight batches analyzed at the same time
+     */
+    public DocumentAnalyzer setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in flight must be positive");
+        }
+        this.mMaxInFlight = maxInFlight;
+        return this;
+    }
+
+    /**
+     * @param languages ISO 639-1 codes sent for sentiment, null (the default) to send every detected language
+     */
+    public DocumentAnalyzer setSentimentLanguages(Collection<String> languages) {
+        this.mSentimentLanguages = languages != null ? new HashSet<>(languages) : null;
+        return this;
+    }
+
+    /**
+     * @param languages ISO 639-1 codes sent for key phrases, null (the default) to send every detected language
+     */
+    public DocumentAnalyzer setKeyPhraseLanguages(Collection<String> languages) {
+        this.mKeyPhraseLanguages = languages != null ? new HashSet<>(languages) : null;
+        return this;
+    }
+
+    /**
+     * @param preDetector detects languages on the device, sending only ambiguous documents to the languages
+     *                    endpoint, null (the default) to send every document
+     */
+    public DocumentAnalyzer setLanguagePreDetector(LanguagePreDetector preDetector) {
+        this.mPreDetector = preDetector;
+        return this;
+    }
+
+    /**
+     * @param documents documents with unique ids
+     * @return one result per document, in input order
+     */
+    public Observable<List<AnalyzedDocument>> analyze(List<RequestDoc> documents) {
+        final int size = documents.size();
+        List<List<RequestDoc>> batches = new ArrayList<>();
+        for (int i = 0; i < documents.size(); i += mBatchSize) {
+            batches.add(documents.subList(i, Math.min(documents.size(), i + mBatchSize)));
+        }
+
+        return Observable.from(batches)
+                .concatMapEager(new Func1<List<RequestDoc>, Observable<List<AnalyzedDocument>>>() {
+                    @Override
+                    public Observable<List<AnalyzedDocument>> call(List<RequestDoc> batch) {
+                        return analyzeBatch(batch);
+                    }
+                }, mMaxInFlight, mMaxInFlight)
+                .collect(new Func0<List<AnalyzedDocument>>() {
+                    @Override
+                    public List<AnalyzedDocument> call() {
+                        return new ArrayList<>(size);
+                    }
+                }, new Action2<List<AnalyzedDocument>, List<AnalyzedDocument>>() {
+                    @Override
+                    public void call(List<AnalyzedDocument> all, List<AnalyzedDocument> batch) {
+                        all.addAll(batch);
+                    }
+                });
+    }
+
+    private Observable<List<AnalyzedDocument>> analyzeBatch(final List<RequestDoc> batch) {
+        LanguageRequest request = new LanguageRequest(new ArrayList<>(batch));
+        Observable<LanguageResponse> languages = mPreDetector != null
+                ? mPreDetector.getLanguagesRx(request)
+                : mClient.getLanguagesRx(request, 1);
+        return languages
+                .subscribeOn(mScheduler)
+                .flatMap(new Func1<LanguageResponse, Observable<List<AnalyzedDocument>>>() {
+                    @Override
+                    public Observable<List<AnalyzedDocument>> call(LanguageResponse languages) {
+                        return analyzeDetected(batch, languages);
+                    }
+                });
+    }
+
+    private Observable<List<AnalyzedDocument>> analyzeDetected(List<RequestDoc> batch, LanguageResponse languages) {
+        final Map<String, AnalyzedDocument> results = new LinkedHashMap<>();
+        for (RequestDoc doc : batch) {
+            results.put(doc.getId(), new AnalyzedDocument(doc.getId()));
+        }
+        for (LanguageResponseDoc doc : languages.getDocuments()) {
+            AnalyzedDocument result = results.get(doc.getId());
+            if (result != null && doc.getDetectedLanguages() != null && !doc.getDetectedLanguages().isEmpty()) {
+                Language language = doc.getDetectedLanguages().get(0);
+                result.setLanguage(language.getIso6391Name(), language.getName(), language.getScoreValue());
+            }
+        }
+        addErrors(results, languages.getErrors());
+
+        // Documents by detected language
+        Map<String, List<RequestDocIncludeLanguage>> groups = new LinkedHashMap<>();
+        for (RequestDoc doc : batch) {
+            String language = results.get(doc.getId()).getIso6391Name();
+            if (!isDetected(language)) {
+                continue;
+            }
+            List<RequestDocIncludeLanguage> group = groups.get(language);
+            if (group == null) {
+                group = new ArrayList<>();
+                groups.put(language, group);
+            }
+            RequestDocIncludeLanguage docIncludeLanguage = new RequestDocIncludeLanguage();
+            docIncludeLanguage.setId(doc.getId());
+            docIncludeLanguage.setText(doc.getText());
+            docIncludeLanguage.setLanguage(language);
+            group.add(docIncludeLanguage);
+        }
+
+        List<RequestDocIncludeLanguage> sentimentDocs = select(groups, mSentimentLanguages);
+        List<RequestDocIncludeLanguage> keyPhraseDocs = select(groups, mKeyPhraseLanguages);
+        Observable<SentimentResponse> sentiment = sentimentDocs.isEmpty()
+                ? Observable.just(new SentimentResponse())
+                : mClient.getSentimentRx(new TextRequest(sentimentDocs)).subscribeOn(mScheduler);
+        Observable<KeyPhrasesResponse> keyPhrases = keyPhraseDocs.isEmpty()
+                ? Observable.just(new KeyPhrasesResponse())
+                : mClient.getKeyPhrasesRx(new TextRequest(keyPhraseDocs)).subscribeOn(mScheduler);
+
+        return Observable.zip(sentiment, keyPhrases,
+                new Func2<SentimentResponse, KeyPhrasesResponse, List<AnalyzedDocument>>() {
+                    @Override
+                    public List<AnalyzedDocument> call(SentimentResponse sentiment, KeyPhrasesResponse keyPhrases) {
+                        for (SentimentResponseDoc doc : sentiment.getDocuments()) {
+                            AnalyzedDocument result = results.get(doc.getId());
+                            if (result != null) {
+                                result.setSentiment(doc.getScoreValue());
+                            }
+                        }
+                        addErrors(results, sentiment.getErrors());
+                        for (KeyPhrasesResponseDoc doc : keyPhrases.getDocuments()) {
+                            AnalyzedDocument result = results.get(doc.getId());
+                            if (result != null) {
+                                result.setKeyPhrases(doc.getKeyPhrases());
+                            }
+                        }
+                        addErrors(results, keyPhrases.getErrors());
+                        return new ArrayList<>(results.values());
+                    }
+                });
+    }
+
+    /**
+     * @param language ISO 639-1 code
+     * @return false for a missing code or the "(Unknown)" the service returns for undetectable text
+     */
+    static boolean isDetected(String language) {
+        return language != null && !language.isEmpty() && !language.startsWith("(");
+    }
+
+    private static List<RequestDocIncludeLanguage> select(Map<String, List<RequestDocIncludeLanguage>> groups,
+                                                          Set<String> languages) {
+        List<RequestDocIncludeLanguage> selected = new ArrayList<>();
+        for (Map.Entry<String, List<RequestDocIncludeLanguage>> group : groups.entrySet()) {
+            if (languages == null || languages.contains(group.getKey())) {
+                selected.addAll(group.getValue());
+            }
+        }
+        return selected;
+    }
+
+    private static void addErrors(Map<String, AnalyzedDocument> results, List<Object> errors) {
+        if (errors == null) {
+            return;
+        }
+        // Errors are deserialized as generic maps of {id, message}
+        for (Object error : errors) {
+            if (error instanceof Map) {
+                AnalyzedDocument result = results.get(String.valueOf(((Map) error).get("id")));
+                if (result != null) {
+                    result.setError(String.valueOf(((Map) error).get("message")));
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,569 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.batch;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.topics.ProcessingResult;
+import com.microsoft.cognitive.textanalytics.model.response.topics.Topic;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicAssignment;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+import com.microsoft.cognitive.textanalytics.topics.TopicJobTracker;
+import com.microsoft.cognitive.textanalytics.topics.TopicPoller;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+
+/**
+ * Packs documents into as few requests as the service limits allow, by estimated serialized size and count
+ *
+ * Text and language requests are packed first fit decreasing: the largest documents are placed first, each into
+ * the first request with room left, which keeps the number of requests close to the minimum when text lengths
+ * vary. Topic requests are split into the fewest requests of at least {@link #MIN_TOPIC_DOCUMENTS} documents,
+ * spreading the bytes evenly. Requests are sent concurrently and their responses merged back by document id,
+ * in input order.
+ */
+public class BatchPacker {
+
+    // Maximum size of a request body the service accepts
+    public static final long MAX_REQUEST_BYTES = 1024 * 1024;
+    public static final int MIN_TOPIC_DOCUMENTS = 100;
+    public static final int MAX_TOPIC_DOCUMENTS = 5000;
+    public static final long MAX_TOPIC_REQUEST_BYTES = 30L * 1024 * 1024;
+
+    // {"documents":[]}
+    private static final int ENVELOPE_BYTES = 16;
+
+    private final ServiceRequestClient mClient;
+    private final Scheduler mScheduler;
+    private long mMaxBytes = MAX_REQUEST_BYTES;
+    private int mMaxDocuments = DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST;
+    private long mMaxTopicBytes = MAX_TOPIC_REQUEST_BYTES;
+    private int mMaxTopicDocuments = MAX_TOPIC_DOCUMENTS;
+    private int mMaxInFlight = 2;
+
+    public BatchPacker(ServiceRequestClient client) {
+        this(client, Schedulers.io());
+    }
+
+    /**
+     * @param client
+     * @param scheduler scheduler the requests are executed on
+     */
+    public BatchPacker(ServiceRequestClient client, Scheduler scheduler) {
+        this.mClient = client;
+        this.mScheduler = scheduler;
+    }
+
+    /**
+     * @param maxBytes     estimated body size of a text or language request
+     * @param maxDocuments documents of a text or language request, up to
+     *                     {@link DocumentBatcher#MAX_DOCUMENTS_PER_REQUEST}
+     */
+    public BatchPacker setLimits(long maxBytes, int maxDocuments) {
+        if (maxBytes <= ENVELOPE_BYTES) {
+            throw new IllegalArgumentException("Max bytes must be greater than " + ENVELOPE_BYTES);
+        }
+        if (maxDocuments < 1 || maxDocuments > DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST) {
+            throw new IllegalArgumentException("Max documents must be between 1 and "
+                    + DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST);
+        }
+        this.mMaxBytes = maxBytes;
+        this.mMaxDocuments = maxDocuments;
+        return this;
+    }
+
+    /**
+     * @param maxBytes     estimated body size of a topic request
+     * @param maxDocuments documents of a topic request, at least {@link #MIN_TOPIC_DOCUMENTS}
+     */
+    public BatchPacker setTopicLimits(long maxBytes, int maxDocuments) {
+        if (maxBytes <= ENVELOPE_BYTES) {
+            throw new IllegalArgumentException("Max bytes must be greater than " + ENVELOPE_BYTES);
+        }
+        if (maxDocuments < MIN_TOPIC_DOCUMENTS) {
+            throw new IllegalArgumentException("Max topic documents must be at least " + MIN_TOPIC_DOCUMENTS);
+        }
+        this.mMaxTopicBytes = maxBytes;
+        this.mMaxTopicDocuments = maxDocuments;
+        return this;
+    }
+
+    /**
+     * @param maxInFlight requests sent at the same time
+     */
+    public BatchPacker setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("Max in flight must be positive");
+        }
+        this.mMaxInFlight = maxInFlight;
+        return this;
+    }
+
+    //region Packing
+
+    /**
+     * @param documents documents with unique ids
+     * @return requests within the limits, a document too large on its own is sent alone
+     */
+    public List<LanguageRequest> packLanguages(List<? extends RequestDoc> documents) {
+        List<LanguageRequest> requests = new ArrayList<>();
+        for (List<RequestDoc> batch
+                : BatchPacker.<RequestDoc>pack(documents, mMaxBytes - ENVELOPE_BYTES, mMaxDocuments)) {
+            requests.add(new LanguageRequest(batch));
+        }
+        return requests;
+    }
+
+    /**
+     * @param documents documents with unique ids
+     * @return requests within the limits, a document too large on its own is sent alone
+     */
+    public List<TextRequest> packText(List<? extends RequestDocIncludeLanguage> documents) {
+        List<TextRequest> requests = new ArrayList<>();
+        for (List<RequestDocIncludeLanguage> batch
+                : BatchPacker.<RequestDocIncludeLanguage>pack(documents, mMaxBytes - ENVELOPE_BYTES, mMaxDocuments)) {
+            requests.add(new TextRequest(batch));
+        }
+        return requests;
+    }
+
+    /**
+     * @param request request with at least {@link #MIN_TOPIC_DOCUMENTS} documents
+     * @return the request itself when within the limits, otherwise requests of at least
+     * {@link #MIN_TOPIC_DOCUMENTS} documents sharing its stop words and stop phrases
+     * @throws IllegalArgumentException when there are too few documents, or they cannot be split within the limits
+     */
+    public List<TopicRequest> packTopics(TopicRequest request) {
+        long maxBytes = mMaxTopicBytes - ENVELOPE_BYTES - estimateBytes(request.getStopWords())
+                - estimateBytes(request.getStopPhrases());
+        List<List<RequestDoc>> batches = packBalanced(request.getDocuments(), maxBytes, mMaxTopicDocuments,
+                MIN_TOPIC_DOCUMENTS);
+        if (batches.size() == 1) {
+            return Collections.singletonList(request);
+        }
+
+        List<TopicRequest> requests = new ArrayList<>(batches.size());
+        for (List<RequestDoc> batch : batches) {
+            TopicRequest split = new TopicRequest();
+            split.setDocuments(batch);
+            split.setStopWords(request.getStopWords());
+            split.setStopPhrases(request.getStopPhrases());
+            requests.add(split);
+        }
+        return requests;
+    }
+
+    /**
+     * First fit decreasing by bytes, with at most maxDocuments per batch
+     */
+    static <D extends RequestDoc> List<List<D>> pack(List<? extends D> documents, long maxBytes, int maxDocuments) {
+        final long[] sizes = sizesOf(documents);
+        List<Integer> bySize = indicesBySizeDescending(sizes);
+
+        List<List<Integer>> bins = new ArrayList<>();
+        List<Long> binBytes = new ArrayList<>();
+        for (int index : bySize) {
+            int bin = 0;
+            while (bin < bins.size() && (bins.get(bin).size() >= maxDocuments
+                    || binBytes.get(bin) + sizes[index] > maxBytes)) {
+                bin++;
+            }
+            if (bin == bins.size()) {
+                bins.add(new ArrayList<Integer>());
+                binBytes.add(0L);
+            }
+            bins.get(bin).add(index);
+            binBytes.set(bin, binBytes.get(bin) + sizes[index]);
+        }
+        return toBatches(documents, bins);
+    }
+
+    /**
+     * Fewest batches of at least minDocuments, with document counts within one of each other and each document
+     * placed into the batch with the fewest bytes so far
+     */
+    static <D extends RequestDoc> List<List<D>> packBalanced(List<? extends D> documents, long maxBytes,
+                                                           int maxDocuments, int minDocuments) {
+        int count = documents.size();
+        if (count < minDocuments) {
+            throw new IllegalArgumentException("At least " + minDocuments + " documents are required, got " + count);
+        }
+        final long[] sizes = sizesOf(documents);
+        List<Integer> bySize = indicesBySizeDescending(sizes);
+        long total = 0;
+        for (long size : sizes) {
+            total += size;
+        }
+
+        int maxBins = count / minDocuments;
+        int binCount = (int) Math.max((total + maxBytes - 1) / maxBytes, (count + maxDocuments - 1) / maxDocuments);
+        for (binCount = Math.max(binCount, 1); binCount <= maxBins; binCount++) {
+            List<List<Integer>> bins = new ArrayList<>(binCount);
+            long[] binBytes = new long[binCount];
+            int[] capacity = new int[binCount];
+            for (int bin = 0; bin < binCount; bin++) {
+                bins.add(new ArrayList<Integer>());
+                capacity[bin] = count / binCount + (bin < count % binCount ? 1 : 0);
+            }
+
+            boolean fits = true;
+            for (int index : bySize) {
+                int lightest = -1;
+                for (int bin = 0; bin < binCount; bin++) {
+                    if (bins.get(bin).size() < capacity[bin] && (lightest < 0 || binBytes[bin] < binBytes[lightest])) {
+                        lightest = bin;
+                    }
+                }
+                bins.get(lightest).add(index);
+                binBytes[lightest] += sizes[index];
+                if (binBytes[lightest] > maxBytes) {
+                    fits = false;
+                    break;
+                }
+            }
+            if (fits) {
+                return toBatches(documents, bins);
+            }
+        }
+        throw new IllegalArgumentException("Documents cannot be split into requests of at least " + minDocuments
+                + " documents within " + maxBytes + " bytes");
+    }
+
+    private static long[] sizesOf(List<? extends RequestDoc> documents) {
+        long[] sizes = new long[documents.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = estimateBytes(documents.get(i));
+        }
+        return sizes;
+    }
+
+    private static List<Integer> indicesBySizeDescending(final long[] sizes) {
+        List<Integer> indices = new ArrayList<>(sizes.length);
+        for (int i = 0; i < sizes.length; i++) {
+            indices.add(i);
+        }
+        Collections.sort(indices, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return sizes[a] < sizes[b] ? 1 : sizes[a] > sizes[b] ? -1 : 0;
+            }
+        });
+        return indices;
+    }
+
+    /**
+     * @return batches ordered by their first document, each keeping the input order of its documents
+     */
+    private static <D> List<List<D>> toBatches(List<? extends D> documents, List<List<Integer>> bins) {
+        for (List<Integer> bin : bins) {
+            Collections.sort(bin);
+        }
+        Collections.sort(bins, new Comparator<List<Integer>>() {
+            @Override
+            public int compare(List<Integer> a, List<Integer> b) {
+                return a.get(0).compareTo(b.get(0));
+            }
+        });
+
+        List<List<D>> batches = new ArrayList<>(bins.size());
+        for (List<Integer> bin : bins) {
+            List<D> batch = new ArrayList<>(bin.size());
+            for (int index : bin) {
+                batch.add(documents.get(index));
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * @return upper bound of the document's size in a request body, including the separating comma
+     */
+    static long estimateBytes(RequestDoc doc) {
+        // {"id":"","text":""},
+        long bytes = 20 + estimateBytes(doc.getId()) + estimateBytes(doc.getText());
+        if (doc instanceof RequestDocIncludeLanguage && ((RequestDocIncludeLanguage) doc).getLanguage() != null) {
+            // "language":"",
+            bytes += 14 + estimateBytes(((RequestDocIncludeLanguage) doc).getLanguage());
+        }
+        return bytes;
+    }
+
+    /**
+     * @return UTF-8 size of the string as escaped by Gson, which also escapes HTML characters by default
+     */
+    static long estimateBytes(String value) {
+        if (value == null) {
+            return 4;
+        }
+        long bytes = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\' || c == '\n' || c == '\r' || c == '\t' || c == '\b' || c == '\f') {
+                bytes += 2;
+            } else if (c < 0x20 || c == '<' || c == '>' || c == '&' || c == '=' || c == '\''
+                    || c == 0x2028 || c == 0x2029) {
+                bytes += 6;
+            } else if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isSurrogate(c)) {
+                // 4 bytes per pair
+                bytes += 2;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimateBytes(List<String> values) {
+        // ,"stopWords":[]
+        long bytes = 16;
+        if (values != null) {
+            for (String value : values) {
+                bytes += estimateBytes(value) + 3;
+            }
+        }
+        return bytes;
+    }
+
+    //endregion
+
+    //region Sending
+
+    /**
+     * Same as {@link ServiceRequestClient#getLanguagesRx(LanguageRequest, int)}, split into packed requests
+     *
+     * @return one response with the documents and errors of all requests, documents in request order
+     */
+    public Observable<LanguageResponse> getLanguagesRx(final LanguageRequest request, final int numLanguages) {
+        return Observable.from(packLanguages(request.getDocuments()))
+                .flatMap(new Func1<LanguageRequest, Observable<LanguageResponse>>() {
+                    @Override
+                    public Observable<LanguageResponse> call(LanguageRequest packed) {
+                        return mClient.getLanguagesRx(packed, numLanguages).subscribeOn(mScheduler);
+                    }
+                }, mMaxInFlight)
+                .toList()
+                .map(new Func1<List<LanguageResponse>, LanguageResponse>() {
+                    @Override
+                    public LanguageResponse call(List<LanguageResponse> responses) {
+                        Map<String, LanguageResponseDoc> byId = new HashMap<>();
+                        List<Object> errors = new ArrayList<>();
+                        for (LanguageResponse response : responses) {
+                            for (LanguageResponseDoc doc : response.getDocuments()) {
+                                byId.put(doc.getId(), doc);
+                            }
+                            addAll(errors, response.getErrors());
+                        }
+                        return new LanguageResponse(inRequestOrder(request.getDocuments(), byId), errors);
+                    }
+                });
+    }
+
+    /**
+     * Same as {@link ServiceRequestClient#getKeyPhrasesRx(TextRequest)}, split into packed requests
+     *
+     * @return one response with the documents and errors of all requests, documents in request order
+     */
+    public Observable<KeyPhrasesResponse> getKeyPhrasesRx(final TextRequest request) {
+        return Observable.from(packText(request.getDocuments()))
+                .flatMap(new Func1<TextRequest, Observable<KeyPhrasesResponse>>() {
+                    @Override
+                    public Observable<KeyPhrasesResponse> call(TextRequest packed) {
+                        return mClient.getKeyPhrasesRx(packed).subscribeOn(mScheduler);
+                    }
+                }, mMaxInFlight)
+                .toList()
+                .map(new Func1<List<KeyPhrasesResponse>, KeyPhrasesResponse>() {
+                    @Override
+                    public KeyPhrasesResponse call(List<KeyPhrasesResponse> responses) {
+                        Map<String, KeyPhrasesResponseDoc> byId = new HashMap<>();
+                        List<Object> errors = new ArrayList<>();
+                        for (KeyPhrasesResponse response : responses) {
+                            for (KeyPhrasesResponseDoc doc : response.getDocuments()) {
+                                byId.put(doc.getId(), doc);
+                            }
+                            addAll(errors, response.getErrors());
+                        }
+                        return new KeyPhrasesResponse(inRequestOrder(request.getDocuments(), byId), errors);
+                    }
+                });
+    }
+
+    /**
+     * Same as {@link ServiceRequestClient#getSentimentRx(TextRequest)}, split into packed requests
+     *
+     * @return one response with the documents and errors of all requests, documents in request order
+     */
+    public Observable<SentimentResponse> getSentimentRx(final TextRequest request) {
+        return Observable.from(packText(request.getDocuments()))
+                .flatMap(new Func1<TextRequest, Observable<SentimentResponse>>() {
+                    @Override
+                    public Observable<SentimentResponse> call(TextRequest packed) {
+                        return mClient.getSentimentRx(packed).subscribeOn(mScheduler);
+                    }
+                }, mMaxInFlight)
+                .toList()
+                .map(new Func1<List<SentimentResponse>, SentimentResponse>() {
+                    @Override
+                    public SentimentResponse call(List<SentimentResponse> responses) {
+                        Map<String, SentimentResponseDoc> byId = new HashMap<>();
+                        List<Object> errors = new ArrayList<>();
+                        for (SentimentResponse response : responses) {
+                            for (SentimentResponseDoc doc : response.getDocuments()) {
+                                byId.put(doc.getId(), doc);
+                            }
+                            addAll(errors, response.getErrors());
+                        }
+                        return new SentimentResponse(inRequestOrder(request.getDocuments(), byId), errors);
+                    }
+                });
+    }
+
+    /**
+     * Submit topic detection split into packed requests and wait for all of them
+     *
+     * Topics are detected per request; topics with the same key phrase are merged, adding up their scores and
+     * moving their assignments to the first one. The status is "Failed" if any request failed.
+     *
+     * @param tracker tracker submitting and polling the operations
+     * @param request request with at least {@link #MIN_TOPIC_DOCUMENTS} documents
+     * @return the merged final response
+     */
+    public Observable<TopicResponse> detectTopicsRx(final TopicJobTracker tracker, TopicRequest request) {
+        return Observable.from(packTopics(request))
+                .flatMap(new Func1<TopicRequest, Observable<TopicResponse>>() {
+                    @Override
+                    public Observable<TopicResponse> call(TopicRequest packed) {
+                        return tracker.submit(packed);
+                    }
+                }, mMaxInFlight)
+                .toList()
+                .map(new Func1<List<TopicResponse>, TopicResponse>() {
+                    @Override
+                    public TopicResponse call(List<TopicResponse> responses) {
+                        return mergeTopics(responses);
+                    }
+                });
+    }
+
+    static TopicResponse mergeTopics(List<TopicResponse> responses) {
+        if (responses.size() == 1) {
+            return responses.get(0);
+        }
+
+        String status = TopicPoller.STATUS_SUCCEEDED;
+        Map<String, Topic> byKeyPhrase = new LinkedHashMap<>();
+        Map<String, String> mergedIds = new HashMap<>();
+        List<TopicAssignment> assignments = new ArrayList<>();
+        for (TopicResponse response : responses) {
+            if (!TopicPoller.STATUS_SUCCEEDED.equals(response.getStatus())) {
+                status = TopicPoller.STATUS_FAILED;
+            }
+            ProcessingResult result = response.getProcessingResult();
+            if (result == null) {
+                continue;
+            }
+            for (Topic topic : result.getTopics()) {
+                Topic first = byKeyPhrase.get(topic.getKeyPhrase());
+                if (first == null) {
+                    byKeyPhrase.put(topic.getKeyPhrase(), topic);
+                    continue;
+                }
+                mergedIds.put(topic.getId(), first.getId());
+                if (first.hasScore() && topic.hasScore()) {
+                    first.setScoreValue(first.getScoreValue() + topic.getScoreValue());
+                }
+            }
+            for (TopicAssignment assignment : result.getTopicAssignments()) {
+                String topicId = mergedIds.get(assignment.getTopicId());
+                if (topicId != null) {
+                    assignment.setTopicId(topicId);
+                }
+                assignments.add(assignment);
+            }
+        }
+
+        ProcessingResult merged = new ProcessingResult();
+        merged.setTopics(new ArrayList<>(byKeyPhrase.values()));
+        merged.setTopicAssignments(assignments);
+        TopicResponse response = new TopicResponse();
+        response.setStatus(status);
+        response.setProcessingResult(merged);
+        return response;
+    }
+
+    private static <R> List<R> inRequestOrder(List<? extends RequestDoc> documents, Map<String, R> byId) {
+        List<R> ordered = new ArrayList<>(byId.size());
+        for (RequestDoc doc : documents) {
+            R result = byId.get(doc.getId());
+            if (result != null) {
+                ordered.add(result);
+            }
+        }
+        return ordered;
+    }
+
+    private static void addAll(List<Object> errors, List<Object> more) {
+        if (more != null) {
+            errors.addAll(more);
+        }
+    }
+
+    //endregion
+
+}
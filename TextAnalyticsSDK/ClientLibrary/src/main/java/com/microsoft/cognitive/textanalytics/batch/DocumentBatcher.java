@@ -0,0 +1,409 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.batch;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceCallback;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceException;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.schedulers.Schedulers;
+import rx.subjects.AsyncSubject;
+
+/**
+ * Batching front-end over {@link ServiceRequestClient}
+ *
+ * Single documents are collected per endpoint until either the batch is full or the window elapses,
+ * then sent as one multi-document request. Each caller gets back an Observable which emits the result
+ * for its own document (with the caller's original id) and completes, or fails with a {@link ServiceException}.
+ */
+public class DocumentBatcher {
+
+    // Maximum number of documents the service accepts in one request
+    public static final int MAX_DOCUMENTS_PER_REQUEST = 1000;
+
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_WINDOW_MILLIS = 50;
+
+    private final ServiceRequestClient mClient;
+    private final int mMaxBatchSize;
+    private final long mWindowMillis;
+    private final int mNumLanguages;
+    private final Scheduler.Worker mWorker;
+
+    private final Lane<RequestDocIncludeLanguage, SentimentResponse, SentimentResponseDoc> mSentimentLane;
+    private final Lane<RequestDocIncludeLanguage, KeyPhrasesResponse, KeyPhrasesResponseDoc> mKeyPhrasesLane;
+    private final Lane<RequestDoc, LanguageResponse, LanguageResponseDoc> mLanguageLane;
+
+    public DocumentBatcher(ServiceRequestClient client) {
+        this(client, DEFAULT_BATCH_SIZE, DEFAULT_WINDOW_MILLIS, 1);
+    }
+
+    /**
+     * @param client       client used to send the batched requests
+     * @param maxBatchSize number of documents which triggers an immediate send, up to {@link #MAX_DOCUMENTS_PER_REQUEST}
+     * @param windowMillis how long the first document of a batch may wait for others
+     * @param numLanguages numberOfLanguagesToDetect used for language detection batches
+     */
+    public DocumentBatcher(ServiceRequestClient client, int maxBatchSize, long windowMillis, int numLanguages) {
+        if (client == null) {
+            throw new IllegalArgumentException("Client is required");
+        }
+        if (maxBatchSize < 1 || maxBatchSize > MAX_DOCUMENTS_PER_REQUEST) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_DOCUMENTS_PER_REQUEST);
+        }
+        if (windowMillis < 0) {
+            throw new IllegalArgumentException("Window must not be negative");
+        }
+        this.mClient = client;
+        this.mMaxBatchSize = maxBatchSize;
+        this.mWindowMillis = windowMillis;
+        this.mNumLanguages = numLanguages;
+        this.mWorker = Schedulers.computation().createWorker();
+
+        mSentimentLane = new Lane<RequestDocIncludeLanguage, SentimentResponse, SentimentResponseDoc>() {
+            @Override
+            void call(List<RequestDocIncludeLanguage> docs, ServiceCallback<SentimentResponse> callback) {
+                mClient.getSentimentAsync(new TextRequest(docs), callback);
+            }
+
+            @Override
+            RequestDocIncludeLanguage copy(RequestDocIncludeLanguage doc, String id) {
+                return copyWithLanguage(doc, id);
+            }
+
+            @Override
+            List<SentimentResponseDoc> documentsOf(SentimentResponse body) {
+                return body.getDocuments();
+            }
+
+            @Override
+            List<Object> errorsOf(SentimentResponse body) {
+                return body.getErrors();
+            }
+
+            @Override
+            String idOf(SentimentResponseDoc result) {
+                return result.getId();
+            }
+
+            @Override
+            void setId(SentimentResponseDoc result, String id) {
+                result.setId(id);
+            }
+        };
+
+        mKeyPhrasesLane = new Lane<RequestDocIncludeLanguage, KeyPhrasesResponse, KeyPhrasesResponseDoc>() {
+            @Override
+            void call(List<RequestDocIncludeLanguage> docs, ServiceCallback<KeyPhrasesResponse> callback) {
+                mClient.getKeyPhrasesAsync(new TextRequest(docs), callback);
+            }
+
+            @Override
+            RequestDocIncludeLanguage copy(RequestDocIncludeLanguage doc, String id) {
+                return copyWithLanguage(doc, id);
+            }
+
+            @Override
+            List<KeyPhrasesResponseDoc> documentsOf(KeyPhrasesResponse body) {
+                return body.getDocuments();
+            }
+
+            @Override
+            List<Object> errorsOf(KeyPhrasesResponse body) {
+                return body.getErrors();
+            }
+
+            @Override
+            String idOf(KeyPhrasesResponseDoc result) {
+                return result.getId();
+            }
+
+            @Override
+            void setId(KeyPhrasesResponseDoc result, String id) {
+                result.setId(id);
+            }
+        };
+
+        mLanguageLane = new Lane<RequestDoc, LanguageResponse, LanguageResponseDoc>() {
+            @Override
+            void call(List<RequestDoc> docs, ServiceCallback<LanguageResponse> callback) {
+                mClient.getLanguagesAsync(new LanguageRequest(docs), mNumLanguages, callback);
+            }
+
+            @Override
+            RequestDoc copy(RequestDoc doc, String id) {
+                return new RequestDoc(id, doc.getText());
+            }
+
+            @Override
+            List<LanguageResponseDoc> documentsOf(LanguageResponse body) {
+                return body.getDocuments();
+            }
+
+            @Override
+            List<Object> errorsOf(LanguageResponse body) {
+                return body.getErrors();
+            }
+
+            @Override
+            String idOf(LanguageResponseDoc result) {
+                return result.getId();
+            }
+
+            @Override
+            void setId(LanguageResponseDoc result, String id) {
+                result.setId(id);
+            }
+        };
+    }
+
+    /**
+     * Queue a document for sentiment analysis
+     *
+     * @param doc document including language
+     * @return Observable emitting the sentiment result of this document
+     */
+    public Observable<SentimentResponseDoc> getSentiment(RequestDocIncludeLanguage doc) {
+        return mSentimentLane.add(doc);
+    }
+
+    /**
+     * Queue a document for key phrases extraction
+     *
+     * @param doc document including language
+     * @return Observable emitting the key phrases of this document
+     */
+    public Observable<KeyPhrasesResponseDoc> getKeyPhrases(RequestDocIncludeLanguage doc) {
+        return mKeyPhrasesLane.add(doc);
+    }
+
+    /**
+     * Queue a document for language detection
+     *
+     * @param doc document
+     * @return Observable emitting the detected languages of this document
+     */
+    public Observable<LanguageResponseDoc> getLanguages(RequestDoc doc) {
+        return mLanguageLane.add(doc);
+    }
+
+    /**
+     * Send all pending documents right away
+     */
+    public void flush() {
+        mSentimentLane.flush();
+        mKeyPhrasesLane.flush();
+        mLanguageLane.flush();
+    }
+
+    /**
+     * Send all pending documents and stop the batching timer
+     */
+    public void shutdown() {
+        flush();
+        mWorker.unsubscribe();
+    }
+
+    private static RequestDocIncludeLanguage copyWithLanguage(RequestDocIncludeLanguage doc, String id) {
+        RequestDocIncludeLanguage copy = new RequestDocIncludeLanguage();
+        copy.setId(id);
+        copy.setText(doc.getText());
+        copy.setLanguage(doc.getLanguage());
+        return copy;
+    }
+
+    /**
+     * Document waiting in a batch, together with the subject its caller is subscribed to
+     */
+    private static class Pending<D, R> {
+
+        final D doc;
+        final AsyncSubject<R> subject;
+
+        Pending(D doc, AsyncSubject<R> subject) {
+            this.doc = doc;
+            this.subject = subject;
+        }
+    }
+
+    /**
+     * Pending documents and the request/response mapping for one endpoint
+     */
+    private abstract class Lane<D extends RequestDoc, B, R> {
+
+        private List<Pending<D, R>> mPending = new ArrayList<>();
+        private Subscription mScheduledFlush;
+
+        abstract void call(List<D> docs, ServiceCallback<B> callback);
+
+        abstract D copy(D doc, String id);
+
+        abstract List<R> documentsOf(B body);
+
+        abstract List<Object> errorsOf(B body);
+
+        abstract String idOf(R result);
+
+        abstract void setId(R result, String id);
+
+        Observable<R> add(D doc) {
+            if (doc == null) {
+                throw new IllegalArgumentException("Document is required");
+            }
+
+            AsyncSubject<R> subject = AsyncSubject.create();
+            List<Pending<D, R>> full = null;
+            synchronized (this) {
+                mPending.add(new Pending<>(doc, subject));
+                if (mPending.size() >= mMaxBatchSize) {
+                    full = drain();
+                } else if (mScheduledFlush == null) {
+                    mScheduledFlush = mWorker.schedule(new Action0() {
+                        @Override
+                        public void call() {
+                            flush();
+                        }
+                    }, mWindowMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            if (full != null) {
+                send(full);
+            }
+            return subject.asObservable();
+        }
+
+        void flush() {
+            List<Pending<D, R>> batch;
+            synchronized (this) {
+                batch = drain();
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+            }
+        }
+
+        // Must be called while holding the lane lock
+        private List<Pending<D, R>> drain() {
+            if (mScheduledFlush != null) {
+                mScheduledFlush.unsubscribe();
+                mScheduledFlush = null;
+            }
+            List<Pending<D, R>> batch = mPending;
+            mPending = new ArrayList<>();
+            return batch;
+        }
+
+        private void send(final List<Pending<D, R>> batch) {
+            // Ids are re-assigned per batch, callers' ids may collide with each other
+            final Map<String, Pending<D, R>> byId = new HashMap<>(batch.size() * 2);
+            List<D> docs = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                String id = String.valueOf(i);
+                byId.put(id, batch.get(i));
+                docs.add(copy(batch.get(i).doc, id));
+            }
+
+            ServiceCallback<B> callback = new ServiceCallback<B>(mClient) {
+                @Override
+                public void onSuccess(B body) {
+                    for (R result : documentsOf(body)) {
+                        Pending<D, R> pending = byId.remove(idOf(result));
+                        if (pending != null) {
+                            setId(result, pending.doc.getId());
+                            pending.subject.onNext(result);
+                            pending.subject.onCompleted();
+                        }
+                    }
+                    failDocumentErrors(byId, errorsOf(body));
+                    fail(byId.values(), new ServiceException("No result returned for document"));
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    super.onError(t);
+                    fail(batch, t);
+                }
+            };
+
+            try {
+                call(docs, callback);
+            } catch (RuntimeException e) {
+                fail(batch, e);
+            }
+        }
+
+        private void failDocumentErrors(Map<String, Pending<D, R>> byId, List<Object> errors) {
+            if (errors == null) {
+                return;
+            }
+            // Errors are deserialized as generic maps of {id, message}
+            for (Object error : errors) {
+                if (error instanceof Map) {
+                    Object id = ((Map) error).get("id");
+                    Pending<D, R> pending = byId.remove(String.valueOf(id));
+                    if (pending != null) {
+                        pending.subject.onError(new ServiceException(String.valueOf(((Map) error).get("message"))));
+                    }
+                }
+            }
+        }
+
+        private void fail(Collection<Pending<D, R>> pendings, Throwable t) {
+            for (Pending<D, R> pending : pendings) {
+                pending.subject.onError(t);
+            }
+        }
+    }
+
+}
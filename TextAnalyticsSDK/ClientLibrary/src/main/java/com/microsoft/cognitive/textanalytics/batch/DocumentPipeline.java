@@ -0,0 +1,382 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.batch;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceError;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceException;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import retrofit2.adapter.rxjava.HttpException;
+import rx.Observable;
+import rx.Scheduler;
+import rx.functions.Func1;
+import rx.functions.Func2;
+import rx.schedulers.Schedulers;
+
+/**
+ * Pushes an unbounded stream of documents through the service
+ *
+ * Documents are chunked into requests of batchSize, and at most maxInFlight requests run at a time. The source
+ * is only pulled as fast as the subscriber requests results and batches complete, so memory stays bounded by
+ * maxInFlight batches regardless of the input size. Results are emitted either as batches complete, or in
+ * input order, in which case completed batches wait for earlier ones.
+ *
+ * Every document yields one {@link DocumentResult}, holding either its result or the error it failed with.
+ * What happens when a whole batch fails is set by the {@link FailurePolicy}.
+ */
+public class DocumentPipeline {
+
+    /**
+     * Handling of batches whose request failed
+     */
+    public enum FailurePolicy {
+        /**
+         * Terminate the stream with the error
+         */
+        FAIL,
+        /**
+         * Emit an error result for each document of the batch and go on with the next batches
+         */
+        SKIP,
+        /**
+         * Retry the batch on network errors, 429 and 5xx responses with exponential backoff, then skip it
+         */
+        RETRY
+    }
+
+    private static final String NO_RESULT_MESSAGE = "No result returned for document";
+
+    private final ServiceRequestClient mClient;
+    private final int mBatchSize;
+    private final int mMaxInFlight;
+    private final boolean mOrdered;
+    private final Scheduler mScheduler;
+    private FailurePolicy mFailurePolicy = FailurePolicy.FAIL;
+    private int mMaxRetries = 3;
+    private long mRetryDelayMillis = TimeUnit.SECONDS.toMillis(1);
+
+    /**
+     * @param client      client sending the batches
+     * @param batchSize   documents per request, up to {@link DocumentBatcher#MAX_DOCUMENTS_PER_REQUEST}
+     * @param maxInFlight maximum number of requests in flight
+     * @param ordered     true to emit results in input order, false to emit them as they arrive
+     */
+    public DocumentPipeline(ServiceRequestClient client, int batchSize, int maxInFlight, boolean ordered) {
+        this(client, batchSize, maxInFlight, ordered, Schedulers.io());
+    }
+
+    /**
+     * @param scheduler scheduler the requests are executed on
+     */
+    public DocumentPipeline(ServiceRequestClient client, int batchSize, int maxInFlight, boolean ordered,
+                            Scheduler scheduler) {
+        if (batchSize < 1 || batchSize > DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST);
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("At least one request must be allowed in flight");
+        }
+        this.mClient = client;
+        this.mBatchSize = batchSize;
+        this.mMaxInFlight = maxInFlight;
+        this.mOrdered = ordered;
+        this.mScheduler = scheduler;
+    }
+
+    /**
+     * Handling of failed batches, {@link FailurePolicy#FAIL} by default
+     */
+    public DocumentPipeline setFailurePolicy(FailurePolicy failurePolicy) {
+        this.mFailurePolicy = failurePolicy;
+        return this;
+    }
+
+    /**
+     * Retries of a failed batch under {@link FailurePolicy#RETRY}, the delay doubling after each attempt
+     */
+    public DocumentPipeline setRetries(int maxRetries, long initialDelay, TimeUnit unit) {
+        if (maxRetries < 0 || initialDelay < 0) {
+            throw new IllegalArgumentException("Retries and delay must not be negative");
+        }
+        this.mMaxRetries = maxRetries;
+        this.mRetryDelayMillis = unit.toMillis(initialDelay);
+        return this;
+    }
+
+    //region Languages
+
+    public Observable<DocumentResult<LanguageResponseDoc>> languages(Observable<? extends RequestDoc> documents,
+                                                                     final int numLanguages) {
+        return process(documents, new Func1<List<RequestDoc>, Observable<List<DocumentResult<LanguageResponseDoc>>>>() {
+            @Override
+            public Observable<List<DocumentResult<LanguageResponseDoc>>> call(final List<RequestDoc> batch) {
+                return mClient.getLanguagesRx(new LanguageRequest(batch), numLanguages)
+                        .map(new Func1<LanguageResponse, List<DocumentResult<LanguageResponseDoc>>>() {
+                            @Override
+                            public List<DocumentResult<LanguageResponseDoc>> call(LanguageResponse response) {
+                                Map<String, DocumentResult<LanguageResponseDoc>> results = new HashMap<>();
+                                for (LanguageResponseDoc document : response.getDocuments()) {
+                                    results.put(document.getId(),
+                                            new DocumentResult<>(document.getId(), document, null));
+                                }
+                                return toResults(batch, results, response.getErrors());
+                            }
+                        });
+            }
+        });
+    }
+
+    public Observable<DocumentResult<LanguageResponseDoc>> languages(Iterator<? extends RequestDoc> documents,
+                                                                     int numLanguages) {
+        return languages(fromIterator(documents), numLanguages);
+    }
+
+    //endregion
+
+    //region Key Phrases
+
+    public Observable<DocumentResult<KeyPhrasesResponseDoc>> keyPhrases(
+            Observable<? extends RequestDocIncludeLanguage> documents) {
+        return process(documents, new Func1<List<RequestDocIncludeLanguage>, Observable<List<DocumentResult<KeyPhrasesResponseDoc>>>>() {
+            @Override
+            public Observable<List<DocumentResult<KeyPhrasesResponseDoc>>> call(
+                    final List<RequestDocIncludeLanguage> batch) {
+                return mClient.getKeyPhrasesRx(new TextRequest(batch))
+                        .map(new Func1<KeyPhrasesResponse, List<DocumentResult<KeyPhrasesResponseDoc>>>() {
+                            @Override
+                            public List<DocumentResult<KeyPhrasesResponseDoc>> call(KeyPhrasesResponse response) {
+                                Map<String, DocumentResult<KeyPhrasesResponseDoc>> results = new HashMap<>();
+                                for (KeyPhrasesResponseDoc document : response.getDocuments()) {
+                                    results.put(document.getId(),
+                                            new DocumentResult<>(document.getId(), document, null));
+                                }
+                                return toResults(batch, results, response.getErrors());
+                            }
+                        });
+            }
+        });
+    }
+
+    public Observable<DocumentResult<KeyPhrasesResponseDoc>> keyPhrases(
+            Iterator<? extends RequestDocIncludeLanguage> documents) {
+        return keyPhrases(fromIterator(documents));
+    }
+
+    //endregion
+
+    //region Sentiment
+
+    public Observable<DocumentResult<SentimentResponseDoc>> sentiment(
+            Observable<? extends RequestDocIncludeLanguage> documents) {
+        return process(documents, new Func1<List<RequestDocIncludeLanguage>, Observable<List<DocumentResult<SentimentResponseDoc>>>>() {
+            @Override
+            public Observable<List<DocumentResult<SentimentResponseDoc>>> call(
+                    final List<RequestDocIncludeLanguage> batch) {
+                return mClient.getSentimentRx(new TextRequest(batch))
+                        .map(new Func1<SentimentResponse, List<DocumentResult<SentimentResponseDoc>>>() {
+                            @Override
+                            public List<DocumentResult<SentimentResponseDoc>> call(SentimentResponse response) {
+                                Map<String, DocumentResult<SentimentResponseDoc>> results = new HashMap<>();
+                                for (SentimentResponseDoc document : response.getDocuments()) {
+                                    results.put(document.getId(),
+                                            new DocumentResult<>(document.getId(), document, null));
+                                }
+                                return toResults(batch, results, response.getErrors());
+                            }
+                        });
+            }
+        });
+    }
+
+    public Observable<DocumentResult<SentimentResponseDoc>> sentiment(
+            Iterator<? extends RequestDocIncludeLanguage> documents) {
+        return sentiment(fromIterator(documents));
+    }
+
+    //endregion
+
+    @SuppressWarnings("unchecked")
+    private <D extends RequestDoc, R> Observable<DocumentResult<R>> process(Observable<? extends D> documents,
+            final Func1<List<D>, Observable<List<DocumentResult<R>>>> batchCall) {
+        // Retrofit executes the call on the subscribing thread, so each batch is subscribed on the scheduler
+        Func1<List<D>, Observable<DocumentResult<R>>> scheduledCall =
+                new Func1<List<D>, Observable<DocumentResult<R>>>() {
+            @Override
+            public Observable<DocumentResult<R>> call(final List<D> batch) {
+                Observable<List<DocumentResult<R>>> results = batchCall.call(batch).subscribeOn(mScheduler);
+                if (mFailurePolicy == FailurePolicy.RETRY) {
+                    results = results.retryWhen(retryWithBackoff());
+                }
+                if (mFailurePolicy != FailurePolicy.FAIL) {
+                    results = results.onErrorReturn(new Func1<Throwable, List<DocumentResult<R>>>() {
+                        @Override
+                        public List<DocumentResult<R>> call(Throwable t) {
+                            return failAll(batch, toServiceException(t));
+                        }
+                    });
+                }
+                return results.flatMapIterable(new Func1<List<DocumentResult<R>>, Iterable<DocumentResult<R>>>() {
+                    @Override
+                    public Iterable<DocumentResult<R>> call(List<DocumentResult<R>> results) {
+                        return results;
+                    }
+                });
+            }
+        };
+
+        Observable<List<D>> batches = ((Observable<D>) documents).buffer(mBatchSize);
+        return mOrdered
+                ? batches.concatMapEager(scheduledCall, mMaxInFlight, mMaxInFlight)
+                : batches.flatMap(scheduledCall, mMaxInFlight);
+    }
+
+    /**
+     * Results in batch order, documents without a result fail with the error the service reported for them
+     */
+    private static <R> List<DocumentResult<R>> toResults(List<? extends RequestDoc> batch,
+                                                         Map<String, DocumentResult<R>> results,
+                                                         List<Object> errors) {
+        Map<String, String> messages = new HashMap<>();
+        if (errors != null) {
+            // Errors are deserialized as generic maps of {id, message}
+            for (Object error : errors) {
+                if (error instanceof Map) {
+                    messages.put(String.valueOf(((Map) error).get("id")),
+                            String.valueOf(((Map) error).get("message")));
+                }
+            }
+        }
+
+        List<DocumentResult<R>> ordered = new ArrayList<>(batch.size());
+        for (RequestDoc doc : batch) {
+            DocumentResult<R> result = results.get(doc.getId());
+            if (result == null) {
+                String message = messages.get(doc.getId());
+                result = new DocumentResult<>(doc.getId(), null,
+                        new ServiceException(message != null ? message : NO_RESULT_MESSAGE));
+            }
+            ordered.add(result);
+        }
+        return ordered;
+    }
+
+    private static <R> List<DocumentResult<R>> failAll(List<? extends RequestDoc> batch, Throwable t) {
+        List<DocumentResult<R>> failed = new ArrayList<>(batch.size());
+        for (RequestDoc doc : batch) {
+            failed.add(new DocumentResult<R>(doc.getId(), null, t));
+        }
+        return failed;
+    }
+
+    /**
+     * HTTP errors as the {@link ServiceException} the callback API reports, other failures unchanged
+     */
+    private Throwable toServiceException(Throwable t) {
+        if (!(t instanceof HttpException)) {
+            return t;
+        }
+        HttpException e = (HttpException) t;
+        ServiceError error = null;
+        try {
+            error = mClient.getErrorConverter().convert(e.response().errorBody());
+        } catch (IOException | RuntimeException ignored) {
+            // The status code alone is reported
+        }
+        return new ServiceException(e.code(), error);
+    }
+
+    private Func1<Observable<? extends Throwable>, Observable<?>> retryWithBackoff() {
+        final int maxRetries = mMaxRetries;
+        final long delayMillis = mRetryDelayMillis;
+        return new Func1<Observable<? extends Throwable>, Observable<?>>() {
+            @Override
+            public Observable<?> call(Observable<? extends Throwable> errors) {
+                Observable<Integer> attempts = Observable.range(0, maxRetries + 1);
+                return errors.zipWith(attempts, new Func2<Throwable, Integer, Observable<Long>>() {
+                    @Override
+                    public Observable<Long> call(Throwable t, Integer attempt) {
+                        if (attempt == maxRetries || !isRetryable(t)) {
+                            return Observable.error(t);
+                        }
+                        return Observable.timer(delayMillis << attempt, TimeUnit.MILLISECONDS, mScheduler);
+                    }
+                }).flatMap(new Func1<Observable<Long>, Observable<Long>>() {
+                    @Override
+                    public Observable<Long> call(Observable<Long> delay) {
+                        return delay;
+                    }
+                });
+            }
+        };
+    }
+
+    private static boolean isRetryable(Throwable t) {
+        if (t instanceof HttpException) {
+            int code = ((HttpException) t).code();
+            return code == 429 || code >= 500;
+        }
+        return t instanceof IOException;
+    }
+
+    /**
+     * Single-use, backpressure-aware source over an iterator
+     */
+    private static <D> Observable<D> fromIterator(final Iterator<? extends D> iterator) {
+        return Observable.from(new Iterable<D>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public Iterator<D> iterator() {
+                return (Iterator<D>) iterator;
+            }
+        });
+    }
+
+}
@@ -0,0 +1,123 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.cache;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of documents split against a {@link ResultCache}: the cached hits, and the misses which still have to
+ * be sent to the service. Fetched results are stored and merged back with the hits by document id.
+ *
+ * @param <D> request document type
+ * @param <R> result document type
+ */
+public class CacheSplit<D extends RequestDoc, R> {
+
+    private final ResultCache cache;
+    private final ResultType<R> resultType;
+    private final List<D> documents;
+    private final List<D> misses = new ArrayList<>();
+    private final Map<String, String> missKeys = new HashMap<>();
+    private final Map<String, R> hits = new HashMap<>();
+
+    /**
+     * @param cache      cache to consult
+     * @param endpoint   endpoint and any parameters affecting the result, e.g. "languages/3"
+     * @param documents  documents of the request, with unique ids
+     * @param resultType result type of the endpoint
+     */
+    public CacheSplit(ResultCache cache, String endpoint, List<D> documents, ResultType<R> resultType) {
+        this.cache = cache;
+        this.resultType = resultType;
+        this.documents = documents;
+
+        for (D doc : documents) {
+            String language = doc instanceof RequestDocIncludeLanguage ? ((RequestDocIncludeLanguage) doc).getLanguage() : null;
+            String key = CacheKeys.of(endpoint, language, doc.getText());
+            R cached = cache.get(key, resultType.getType());
+            if (cached != null) {
+                hits.put(doc.getId(), resultType.copyWithId(cached, doc.getId()));
+            } else {
+                misses.add(doc);
+                missKeys.put(doc.getId(), key);
+            }
+        }
+    }
+
+    /**
+     * @return documents without a cached result
+     */
+    public List<D> getMisses() {
+        return misses;
+    }
+
+    public boolean isComplete() {
+        return misses.isEmpty();
+    }
+
+    /**
+     * Store the fetched results and merge them with the cached hits, in request order
+     *
+     * @param fetched results returned by the service for the misses
+     * @return results for all documents which have one
+     */
+    public List<R> merge(List<R> fetched) {
+        Map<String, R> byId = new HashMap<>(hits);
+        if (fetched != null) {
+            for (R result : fetched) {
+                String id = resultType.getId(result);
+                String key = missKeys.get(id);
+                if (key != null) {
+                    cache.put(key, resultType.copyWithId(result, null), resultType.getType());
+                }
+                byId.put(id, result);
+            }
+        }
+
+        List<R> merged = new ArrayList<>(byId.size());
+        for (D doc : documents) {
+            R result = byId.get(doc.getId());
+            if (result != null) {
+                merged.add(result);
+            }
+        }
+        return merged;
+    }
+
+}
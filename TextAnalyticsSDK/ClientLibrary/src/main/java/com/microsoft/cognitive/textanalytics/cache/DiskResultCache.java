@@ -0,0 +1,517 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.cache;
+
+import android.util.Log;
+
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent result cache which survives process death
+ *
+ * Results are appended to a records file in a compact binary format, and located through an open-addressing
+ * hash index which is memory-mapped, so a lookup reads a single record without parsing JSON or loading the
+ * store into the heap. When the entry or byte cap is reached, the store is compacted: expired records are
+ * dropped and the most recently used ones are kept.
+ *
+ * Index layout: header (magic, version, capacity, count), then fixed-size slots of
+ * (20-byte key, record offset, record length, written at, last access).
+ * Record layout: 20-byte key, type tag, payload.
+ */
+public class DiskResultCache implements ResultCache {
+
+    private static final String TAG = DiskResultCache.class.getSimpleName();
+
+    private static final String RECORDS_FILE = "records.dat";
+    private static final String INDEX_FILE = "index.dat";
+
+    private static final int MAGIC = 0x54414331;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 16;
+    private static final int KEY_SIZE = 20;
+    private static final int SLOT_OFFSET = KEY_SIZE;
+    private static final int SLOT_LENGTH = SLOT_OFFSET + 8;
+    private static final int SLOT_WRITTEN_AT = SLOT_LENGTH + 4;
+    private static final int SLOT_LAST_ACCESS = SLOT_WRITTEN_AT + 8;
+    private static final int SLOT_SIZE = SLOT_LAST_ACCESS + 8;
+
+    private static final byte TYPE_SENTIMENT = 1;
+    private static final byte TYPE_KEY_PHRASES = 2;
+    private static final byte TYPE_LANGUAGE = 3;
+
+    private final File mDirectory;
+    private final int mMaxEntries;
+    private final long mMaxBytes;
+    private final long mTtlMillis;
+    private final int mCapacity;
+
+    private RandomAccessFile mRecordsFile;
+    private FileChannel mRecords;
+    private MappedByteBuffer mIndex;
+    private int mCount;
+
+    /**
+     * @param directory  directory holding the store, e.g. under Context.getCacheDir()
+     * @param maxEntries maximum number of cached results
+     * @param maxBytes   maximum size of the records file, results larger than a quarter of it are not cached
+     * @param ttl        how long a result stays valid, 0 for no expiry
+     * @param unit       unit of ttl
+     * @throws IOException when the store cannot be opened
+     */
+    public DiskResultCache(File directory, int maxEntries, long maxBytes, long ttl, TimeUnit unit) throws IOException {
+        if (maxEntries < 1 || maxBytes < 1) {
+            throw new IllegalArgumentException("Cache caps must be positive");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create cache directory " + directory);
+        }
+        this.mDirectory = directory;
+        this.mMaxEntries = maxEntries;
+        this.mMaxBytes = maxBytes;
+        this.mTtlMillis = unit.toMillis(ttl);
+
+        // Keep the load factor at or below one half
+        int capacity = 16;
+        while (capacity < maxEntries * 2) {
+            capacity <<= 1;
+        }
+        this.mCapacity = capacity;
+
+        open();
+    }
+
+    @Override
+    public synchronized <R> R get(String key, Class<R> type) {
+        if (mIndex == null) {
+            return null;
+        }
+        byte[] keyBytes = keyBytes(key);
+        int slot = findSlot(keyBytes);
+        if (slot < 0) {
+            return null;
+        }
+
+        int pos = slotPosition(slot);
+        long now = System.currentTimeMillis();
+        if (isExpired(mIndex.getLong(pos + SLOT_WRITTEN_AT), now)) {
+            return null;
+        }
+
+        try {
+            Object result = readRecord(keyBytes, mIndex.getLong(pos + SLOT_OFFSET), mIndex.getInt(pos + SLOT_LENGTH));
+            if (!type.isInstance(result)) {
+                return null;
+            }
+            mIndex.putLong(pos + SLOT_LAST_ACCESS, now);
+            return type.cast(result);
+        } catch (IOException e) {
+            Log.e(TAG, "Error reading cached result - " + e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public synchronized <R> void put(String key, R result, Class<R> type) {
+        if (mIndex == null) {
+            return;
+        }
+        try {
+            byte[] keyBytes = keyBytes(key);
+            byte[] record = writeRecord(keyBytes, result);
+            if (record == null || record.length > mMaxBytes / 4) {
+                // Unsupported, or too large for a compaction to make room
+                return;
+            }
+
+            // Replaced records stay in the file until compacted, so the byte cap is checked on every append
+            long now = System.currentTimeMillis();
+            if ((findSlot(keyBytes) < 0 && mCount >= mMaxEntries) || mRecords.size() + record.length > mMaxBytes) {
+                compact(now);
+            }
+
+            long offset = mRecords.size();
+            writeFully(mRecords, ByteBuffer.wrap(record), offset);
+            putSlot(keyBytes, offset, record.length, now, now);
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing cached result - " + e.getMessage());
+        }
+    }
+
+    public synchronized int size() {
+        return mCount;
+    }
+
+    /**
+     * Flush the index and release the files, the cache is unusable afterwards
+     */
+    public synchronized void close() {
+        if (mIndex != null) {
+            mIndex.force();
+            mIndex = null;
+        }
+        closeRecords();
+    }
+
+    //region Index
+
+    private void open() throws IOException {
+        File recordsFile = new File(mDirectory, RECORDS_FILE);
+        File indexFile = new File(mDirectory, INDEX_FILE);
+
+        mRecordsFile = new RandomAccessFile(recordsFile, "rw");
+        mRecords = mRecordsFile.getChannel();
+        mIndex = mapIndex(indexFile);
+
+        if (mIndex.getInt(0) != MAGIC || mIndex.getInt(4) != VERSION || mIndex.getInt(8) != mCapacity) {
+            // New, corrupt or differently sized store, start over
+            clearIndex();
+            mRecords.truncate(0);
+        }
+        mCount = mIndex.getInt(12);
+    }
+
+    private MappedByteBuffer mapIndex(File indexFile) throws IOException {
+        long size = HEADER_SIZE + (long) mCapacity * SLOT_SIZE;
+        RandomAccessFile file = new RandomAccessFile(indexFile, "rw");
+        try {
+            file.setLength(size);
+            // The mapping stays valid after the file is closed
+            return file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            file.close();
+        }
+    }
+
+    private void clearIndex() {
+        for (int i = 0; i < mIndex.capacity(); i++) {
+            mIndex.put(i, (byte) 0);
+        }
+        mIndex.putInt(0, MAGIC);
+        mIndex.putInt(4, VERSION);
+        mIndex.putInt(8, mCapacity);
+        mIndex.putInt(12, 0);
+        mCount = 0;
+    }
+
+    /**
+     * @return slot index holding the key, or -(free slot index) - 1 when the key is missing
+     */
+    private int findSlot(byte[] key) {
+        int hash = ((key[0] & 0xff) << 24) | ((key[1] & 0xff) << 16) | ((key[2] & 0xff) << 8) | (key[3] & 0xff);
+        int slot = hash & (mCapacity - 1);
+        while (true) {
+            int pos = slotPosition(slot);
+            if (mIndex.getInt(pos + SLOT_LENGTH) == 0) {
+                return -slot - 1;
+            }
+            if (keyEquals(pos, key)) {
+                return slot;
+            }
+            slot = (slot + 1) & (mCapacity - 1);
+        }
+    }
+
+    private void putSlot(byte[] key, long offset, int length, long writtenAt, long lastAccess) {
+        int slot = findSlot(key);
+        if (slot < 0) {
+            slot = -slot - 1;
+            mCount++;
+            mIndex.putInt(12, mCount);
+        }
+        int pos = slotPosition(slot);
+        for (int i = 0; i < KEY_SIZE; i++) {
+            mIndex.put(pos + i, key[i]);
+        }
+        mIndex.putLong(pos + SLOT_OFFSET, offset);
+        mIndex.putLong(pos + SLOT_WRITTEN_AT, writtenAt);
+        mIndex.putLong(pos + SLOT_LAST_ACCESS, lastAccess);
+        // Length last, a non-zero length marks the slot as used
+        mIndex.putInt(pos + SLOT_LENGTH, length);
+    }
+
+    private boolean keyEquals(int pos, byte[] key) {
+        for (int i = 0; i < KEY_SIZE; i++) {
+            if (mIndex.get(pos + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int slotPosition(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private boolean isExpired(long writtenAt, long now) {
+        return mTtlMillis > 0 && writtenAt + mTtlMillis < now;
+    }
+
+    //endregion
+
+    //region Compaction
+
+    /**
+     * Drop expired records and keep the most recently used ones, down to three quarters of the caps
+     */
+    private void compact(long now) throws IOException {
+        List<Slot> live = new ArrayList<>(mCount);
+        for (int slot = 0; slot < mCapacity; slot++) {
+            int pos = slotPosition(slot);
+            int length = mIndex.getInt(pos + SLOT_LENGTH);
+            if (length == 0 || isExpired(mIndex.getLong(pos + SLOT_WRITTEN_AT), now)) {
+                continue;
+            }
+            byte[] key = new byte[KEY_SIZE];
+            for (int i = 0; i < KEY_SIZE; i++) {
+                key[i] = mIndex.get(pos + i);
+            }
+            live.add(new Slot(key, mIndex.getLong(pos + SLOT_OFFSET), length,
+                    mIndex.getLong(pos + SLOT_WRITTEN_AT), mIndex.getLong(pos + SLOT_LAST_ACCESS)));
+        }
+
+        Collections.sort(live, new Comparator<Slot>() {
+            @Override
+            public int compare(Slot lhs, Slot rhs) {
+                return lhs.lastAccess < rhs.lastAccess ? 1 : (lhs.lastAccess == rhs.lastAccess ? 0 : -1);
+            }
+        });
+
+        int keepEntries = mMaxEntries * 3 / 4;
+        long keepBytes = mMaxBytes * 3 / 4;
+        List<Slot> kept = new ArrayList<>();
+        File compactedFile = new File(mDirectory, RECORDS_FILE + ".tmp");
+        RandomAccessFile compacted = new RandomAccessFile(compactedFile, "rw");
+        try {
+            compacted.setLength(0);
+            FileChannel channel = compacted.getChannel();
+            long size = 0;
+            for (Slot slot : live) {
+                if (kept.size() >= keepEntries || size + slot.length > keepBytes) {
+                    break;
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(slot.length);
+                readFully(mRecords, buffer, slot.offset);
+                buffer.flip();
+                writeFully(channel, buffer, size);
+                kept.add(new Slot(slot.key, size, slot.length, slot.writtenAt, slot.lastAccess));
+                size += slot.length;
+            }
+            channel.force(true);
+        } finally {
+            compacted.close();
+        }
+
+        closeRecords();
+        File recordsFile = new File(mDirectory, RECORDS_FILE);
+        if (!compactedFile.renameTo(recordsFile)) {
+            throw new IOException("Cannot replace " + recordsFile);
+        }
+        mRecordsFile = new RandomAccessFile(recordsFile, "rw");
+        mRecords = mRecordsFile.getChannel();
+
+        clearIndex();
+        for (Slot slot : kept) {
+            putSlot(slot.key, slot.offset, slot.length, slot.writtenAt, slot.lastAccess);
+        }
+        mIndex.force();
+    }
+
+    private void closeRecords() {
+        if (mRecordsFile != null) {
+            try {
+                mRecordsFile.close();
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing records - " + e.getMessage());
+            }
+            mRecordsFile = null;
+            mRecords = null;
+        }
+    }
+
+    private static class Slot {
+
+        final byte[] key;
+        final long offset;
+        final int length;
+        final long writtenAt;
+        final long lastAccess;
+
+        Slot(byte[] key, long offset, int length, long writtenAt, long lastAccess) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+            this.writtenAt = writtenAt;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    //endregion
+
+    //region Records
+
+    private Object readRecord(byte[] key, long offset, int length) throws IOException {
+        if (offset + length > mRecords.size()) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        readFully(mRecords, buffer, offset);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buffer.array()));
+        for (int i = 0; i < KEY_SIZE; i++) {
+            if (in.readByte() != key[i]) {
+                // Stale index entry, e.g. after an interrupted compaction
+                return null;
+            }
+        }
+
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_SENTIMENT:
+                return new SentimentResponseDoc(in.readDouble(), null);
+            case TYPE_KEY_PHRASES: {
+                int count = in.readInt();
+                List<String> keyPhrases = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    keyPhrases.add(readString(in));
+                }
+                return new KeyPhrasesResponseDoc(keyPhrases, null);
+            }
+            case TYPE_LANGUAGE: {
+                int count = in.readInt();
+                List<Language> languages = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    languages.add(new Language(readString(in), readString(in), in.readDouble()));
+                }
+                return new LanguageResponseDoc(null, languages);
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * @return the serialized record, or null when the result type is not supported
+     */
+    private static byte[] writeRecord(byte[] key, Object result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.write(key);
+
+        if (result instanceof SentimentResponseDoc) {
+            out.writeByte(TYPE_SENTIMENT);
+            out.writeDouble(((SentimentResponseDoc) result).getScoreValue());
+        } else if (result instanceof KeyPhrasesResponseDoc) {
+            List<String> keyPhrases = ((KeyPhrasesResponseDoc) result).getKeyPhrases();
+            out.writeByte(TYPE_KEY_PHRASES);
+            out.writeInt(keyPhrases.size());
+            for (String keyPhrase : keyPhrases) {
+                writeString(out, keyPhrase);
+            }
+        } else if (result instanceof LanguageResponseDoc) {
+            List<Language> languages = ((LanguageResponseDoc) result).getDetectedLanguages();
+            out.writeByte(TYPE_LANGUAGE);
+            out.writeInt(languages.size());
+            for (Language language : languages) {
+                writeString(out, language.getName());
+                writeString(out, language.getIso6391Name());
+                out.writeDouble(language.getScoreValue());
+            }
+        } else {
+            return null;
+        }
+
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of records");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long start = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, start + buffer.position());
+        }
+    }
+
+    private static byte[] keyBytes(String hexKey) {
+        // Keys are SHA-1 hex digests from CacheKeys, other keys are hashed down to 20 bytes
+        if (hexKey.length() != KEY_SIZE * 2) {
+            hexKey = CacheKeys.of("", null, hexKey);
+        }
+        byte[] key = new byte[KEY_SIZE];
+        for (int i = 0; i < KEY_SIZE; i++) {
+            key[i] = (byte) Integer.parseInt(hexKey.substring(i * 2, i * 2 + 2), 16);
+        }
+        return key;
+    }
+
+    //endregion
+
+}
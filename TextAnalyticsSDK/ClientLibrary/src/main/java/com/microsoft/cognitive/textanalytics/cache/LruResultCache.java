@@ -0,0 +1,105 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory result cache with size-bounded LRU eviction and a time to live
+ */
+public class LruResultCache implements ResultCache {
+
+    private final int mMaxEntries;
+    private final long mTtlMillis;
+    private final LinkedHashMap<String, CacheEntry> mEntries;
+
+    /**
+     * @param maxEntries maximum number of cached results
+     * @param ttl        how long a result stays valid, 0 for no expiry
+     * @param unit       unit of ttl
+     */
+    public LruResultCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.mMaxEntries = maxEntries;
+        this.mTtlMillis = unit.toMillis(ttl);
+        this.mEntries = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                return size() > mMaxEntries;
+            }
+        };
+    }
+
+    @Override
+    public synchronized <R> R get(String key, Class<R> type) {
+        CacheEntry entry = mEntries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt != 0 && entry.expiresAt < System.currentTimeMillis()) {
+            mEntries.remove(key);
+            return null;
+        }
+        return type.isInstance(entry.value) ? type.cast(entry.value) : null;
+    }
+
+    @Override
+    public synchronized <R> void put(String key, R result, Class<R> type) {
+        long expiresAt = mTtlMillis > 0 ? System.currentTimeMillis() + mTtlMillis : 0;
+        mEntries.put(key, new CacheEntry(result, expiresAt));
+    }
+
+    public synchronized int size() {
+        return mEntries.size();
+    }
+
+    public synchronized void clear() {
+        mEntries.clear();
+    }
+
+    private static class CacheEntry {
+
+        final Object value;
+        final long expiresAt;
+
+        CacheEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+}
@@ -0,0 +1,110 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.cache;
+
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes a per-document result type, so it can be cached independently of its document id
+ *
+ * @param <R> result document type
+ */
+public abstract class ResultType<R> {
+
+    public static final ResultType<SentimentResponseDoc> SENTIMENT =
+            new ResultType<SentimentResponseDoc>(SentimentResponseDoc.class) {
+                @Override
+                public String getId(SentimentResponseDoc result) {
+                    return result.getId();
+                }
+
+                @Override
+                public SentimentResponseDoc copyWithId(SentimentResponseDoc result, String id) {
+                    return new SentimentResponseDoc(result.getScoreValue(), id);
+                }
+            };
+
+    public static final ResultType<KeyPhrasesResponseDoc> KEY_PHRASES =
+            new ResultType<KeyPhrasesResponseDoc>(KeyPhrasesResponseDoc.class) {
+                @Override
+                public String getId(KeyPhrasesResponseDoc result) {
+                    return result.getId();
+                }
+
+                @Override
+                public KeyPhrasesResponseDoc copyWithId(KeyPhrasesResponseDoc result, String id) {
+                    return new KeyPhrasesResponseDoc(new ArrayList<>(result.getKeyPhrases()), id);
+                }
+            };
+
+    public static final ResultType<LanguageResponseDoc> LANGUAGE =
+            new ResultType<LanguageResponseDoc>(LanguageResponseDoc.class) {
+                @Override
+                public String getId(LanguageResponseDoc result) {
+                    return result.getId();
+                }
+
+                @Override
+                public LanguageResponseDoc copyWithId(LanguageResponseDoc result, String id) {
+                    List<Language> languages = new ArrayList<>(result.getDetectedLanguages().size());
+                    for (Language language : result.getDetectedLanguages()) {
+                        languages.add(new Language(language.getName(), language.getIso6391Name(), language.getScoreValue()));
+                    }
+                    return new LanguageResponseDoc(id, languages);
+                }
+            };
+
+    private final Class<R> type;
+
+    protected ResultType(Class<R> type) {
+        this.type = type;
+    }
+
+    public Class<R> getType() {
+        return type;
+    }
+
+    public abstract String getId(R result);
+
+    /**
+     * @return a deep copy of the result carrying the given document id
+     */
+    public abstract R copyWithId(R result, String id);
+
+}
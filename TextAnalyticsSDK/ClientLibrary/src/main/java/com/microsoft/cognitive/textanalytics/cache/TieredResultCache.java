@@ -0,0 +1,68 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.cache;
+
+/**
+ * Two-level result cache, e.g. an {@link LruResultCache} in front of a {@link DiskResultCache}
+ *
+ * Lookups go to the first level, then the second one; second-level hits are promoted to the first level.
+ */
+public class TieredResultCache implements ResultCache {
+
+    private final ResultCache mFirst;
+    private final ResultCache mSecond;
+
+    public TieredResultCache(ResultCache first, ResultCache second) {
+        this.mFirst = first;
+        this.mSecond = second;
+    }
+
+    @Override
+    public <R> R get(String key, Class<R> type) {
+        R result = mFirst.get(key, type);
+        if (result == null) {
+            result = mSecond.get(key, type);
+            if (result != null) {
+                mFirst.put(key, result, type);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public <R> void put(String key, R result, Class<R> type) {
+        mFirst.put(key, result, type);
+        mSecond.put(key, result, type);
+    }
+
+}
@@ -0,0 +1,122 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.compression;
+
+import com.microsoft.cognitive.textanalytics.retrofit.DocumentRequestBody;
+
+import java.io.IOException;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Gzip-compresses request bodies of at least a threshold size
+ *
+ * The body is encoded while it is written to the connection, so a large batch is never held in memory twice;
+ * as the compressed length is not known up front, such requests are sent chunked. Compressed responses need
+ * nothing extra: OkHttp asks for gzip and decodes it transparently unless the caller sets Accept-Encoding.
+ * Only enable this for endpoints which accept Content-Encoding: gzip.
+ */
+public class GzipRequestInterceptor implements Interceptor {
+
+    private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+    private static final String GZIP = "gzip";
+
+    private final long mMinBytes;
+
+    /**
+     * @param minBytes smallest body that is compressed, smaller ones gain less than the gzip overhead
+     */
+    public GzipRequestInterceptor(long minBytes) {
+        if (minBytes < 0) {
+            throw new IllegalArgumentException("Threshold must not be negative");
+        }
+        this.mMinBytes = minBytes;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        RequestBody body = request.body();
+        if (body == null || request.header(HEADER_CONTENT_ENCODING) != null) {
+            return chain.proceed(request);
+        }
+
+        // Bodies of unknown length are assumed to be large
+        long length = body.contentLength();
+        if (length >= 0 && length < mMinBytes) {
+            return chain.proceed(request);
+        }
+
+        RequestBody compressed = gzip(body);
+        if (body instanceof DocumentRequestBody) {
+            compressed = new DocumentRequestBody(compressed, ((DocumentRequestBody) body).getDocumentCount());
+        }
+        return chain.proceed(request.newBuilder()
+                .header(HEADER_CONTENT_ENCODING, GZIP)
+                .method(request.method(), compressed)
+                .build());
+    }
+
+    /**
+     * @param body
+     * @return body which writes the gzip encoding of the given one, of unknown length
+     */
+    public static RequestBody gzip(final RequestBody body) {
+        return new RequestBody() {
+            @Override
+            public MediaType contentType() {
+                return body.contentType();
+            }
+
+            @Override
+            public long contentLength() {
+                return -1;
+            }
+
+            @Override
+            public void writeTo(BufferedSink sink) throws IOException {
+                BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
+                body.writeTo(gzipSink);
+                gzipSink.close();
+            }
+        };
+    }
+
+}
@@ -0,0 +1,307 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.langid;
+
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * On-device language identification by character trigrams
+ *
+ * Latin script text is scored against trigram profiles of English, Spanish, French, German, Italian, Portuguese
+ * and Dutch; Japanese, Korean and Greek are recognized by script. {@link #identify(String)} only returns a
+ * language it is confident about, so short, mixed or other language text is left to the service. Besides the
+ * relative confidence, enough of the text's trigrams must be known to the language's profile, and profiles of
+ * Danish, Norwegian, Swedish and Afrikaans take part in the scoring so their text is left to the service too.
+ */
+public class LanguageIdentifier {
+
+    public static final double DEFAULT_MIN_CONFIDENCE = 0.95;
+    public static final int DEFAULT_MIN_TRIGRAMS = 20;
+    public static final double DEFAULT_MIN_COVERAGE = 0.35;
+
+    // Text beyond this many characters does not change the outcome
+    private static final int MAX_CHARS = 1000;
+    // Overlapping trigrams are not independent, the mean score per trigram counts as this many observations
+    private static final int EVIDENCE = 10;
+    // Frequency of a trigram unseen in a profile
+    private static final double UNSEEN = 1e-5;
+    // Share of letters in a script for the text to be of that script
+    private static final double SCRIPT_SHARE = 0.6;
+
+    private static final List<LanguageProfile> PROFILES = new ArrayList<>();
+    // Close relatives of the supported languages, scored so that their text is not taken for one of them
+    private static final List<LanguageProfile> REJECTED = new ArrayList<>();
+
+    static {
+        PROFILES.add(new LanguageProfile("en", "English",
+                "the of and to a in is it you that he was for on are with as i his they be at one have this from"
+                        + " or had by not but what some we can out other were all there when up use your how said"
+                        + " an each she which do their time if will way about many then them would write like so"
+                        + " these her long make thing see him two has look more day could go come did number no"
+                        + " most people my over know than call first who may down been now find any new work part"
+                        + " take get place made where after back little only year came show every good me give our"
+                        + " under name very through just great think say help before right too same tell does"
+                        + " want well also really should thanks because while why"));
+        PROFILES.add(new LanguageProfile("es", "Spanish",
+                "de la que el en y a los se del las un por con no una su para es al lo como m\u00e1s o pero sus le ha"
+                        + " me si sin sobre este ya entre cuando todo esta ser son dos tambi\u00e9n fue hab\u00eda era muy"
+                        + " a\u00f1os hasta desde est\u00e1 mi porque qu\u00e9 s\u00f3lo han yo hay vez puede todos as\u00ed nos ni parte"
+                        + " tiene \u00e9l uno donde bien tiempo mismo ese ahora cada vida otro despu\u00e9s te otros aunque"
+                        + " esa eso hace otra tan durante siempre d\u00eda tanto ella tres s\u00ed dijo sido gran seg\u00fan"
+                        + " menos mundo a\u00f1o antes estado contra sino forma caso nada hacer general estaba poco"
+                        + " estos mayor ante unos les algo hacia casa ellos hecho mucho mientras adem\u00e1s quien"
+                        + " esto est\u00e1n pues hoy lugar trabajo otras mejor nuevo decir entonces todas d\u00edas"));
+        PROFILES.add(new LanguageProfile("fr", "French",
+                "de la le et les des en un du une que est pour qui dans a par plus pas au sur ne se il ce sont"
+                        + " avec mais on ou son elle nous comme aux leur \u00e9t\u00e9 cette bien sa fait ses tout ont je"
+                        + " sans \u00eatre deux dont lui m\u00eame entre aussi ils sous peut \u00e9tait apr\u00e8s fois tr\u00e8s ann\u00e9e"
+                        + " depuis autres tous encore avait faire ces avant dire autre contre premier notre moins"
+                        + " alors rien grand ans donc lors selon mois vous peu quand non toute o\u00f9 bon chez cas"
+                        + " temps pays moi vie leurs jour trop fin avoir chaque beaucoup ici part nos votre ceux"
+                        + " celle car d\u00e9j\u00e0 jamais toujours merci voil\u00e0"));
+        PROFILES.add(new LanguageProfile("de", "German",
+                "der die und in den von zu das mit sich des auf f\u00fcr ist im dem nicht ein eine als auch es an"
+                        + " werden aus er hat dass sie nach wird bei einer um am sind noch wie einem \u00fcber einen so"
+                        + " zum war haben nur oder aber vor zur bis mehr durch man sein wurde sei hatte kann gegen"
+                        + " vom k\u00f6nnen schon wenn habe seine ihre dann unter wir soll ich eines jahr zwei jahren"
+                        + " diese dieser wieder keine seiner worden will zwischen immer was sagte gibt alle diesem"
+                        + " seit muss wurden beim doch jetzt waren drei jahre neue neuen damit bereits da ihr"
+                        + " seinen m\u00fcssen ab ihrer ohne sondern selbst ersten nun etwa heute weil ihm menschen"
+                        + " anderen werde ihren sehr gut ganz"));
+        PROFILES.add(new LanguageProfile("it", "Italian",
+                "di e il la che in a per un \u00e8 del non le i si da con una dei sono al alla come pi\u00f9 ma anche lo"
+                        + " gli nel delle ha della ci o se questo tutti ho mi essere ne hanno su cui nella lei tra"
+                        + " fatto suo quando dopo loro suoi cos\u00ec molto io sua era stato fra gi\u00e0 cosa senza tempo"
+                        + " ancora poi solo noi anni quello quella questa ora bene fare grande dove due tutto tre"
+                        + " prima sempre ogni parte casa vita oggi mai altro giorno stesso nuovo abbiamo pu\u00f2"
+                        + " perch\u00e9 grazie niente"));
+        PROFILES.add(new LanguageProfile("pt", "Portuguese",
+                "de a o que e do da em um para \u00e9 com n\u00e3o uma os no se na por mais as dos como mas foi ao ele das"
+                        + " tem \u00e0 seu sua ou ser quando muito h\u00e1 nos j\u00e1 est\u00e1 eu tamb\u00e9m s\u00f3 pelo pela at\u00e9 isso ela"
+                        + " entre era depois sem mesmo aos ter seus quem nas me esse eles est\u00e3o voc\u00ea tinha foram"
+                        + " essa num nem suas meu \u00e0s minha t\u00eam numa pelos elas havia seja qual ser\u00e1 n\u00f3s tenho lhe"
+                        + " deles essas esses pelas este fosse dele tu te voc\u00eas lhes meus minhas nosso nossa"
+                        + " dela esta estes estas aquele aquela isto estou estamos estava estavam bem obrigado"
+                        + " ent\u00e3o ainda coisa"));
+        PROFILES.add(new LanguageProfile("nl", "Dutch",
+                "de en van ik te dat die in een hij het niet zijn is was op aan met als voor had er maar om hem"
+                        + " dan zou of wat mijn men dit zo door over ze zich bij ook tot je mij uit der daar haar"
+                        + " naar heb hoe heeft hebben deze u want nog zal me zij nu geen omdat iets worden toch al"
+                        + " waren veel meer doen toen moet ben zonder kan hun dus alles onder ja eens hier wie"
+                        + " werd altijd wordt kunnen ons zelf tegen na wil kon niets uw iemand geweest andere"
+                        + " goed heel erg"));
+
+        REJECTED.add(new LanguageProfile("da", "Danish",
+                "og i at det en den til er som p\u00e5 de med han af for ikke der var mig sig men et har om vi min"
+                        + " havde ham hun nu over da fra du ud sin dem os op man hans hvor eller hvad skal selv her alle"
+                        + " vil blev kunne ind n\u00e5r v\u00e6re dog noget ville jo deres efter ned skulle denne end dette"
+                        + " mit ogs\u00e5 under have dig anden hende mine alt meget sit sine vor mod disse hvis din nogle"
+                        + " hos blive mange ad bliver hendes v\u00e6ret jer s\u00e5dan tak godt"));
+        REJECTED.add(new LanguageProfile("nb", "Norwegian",
+                "og i jeg det at en et den til er som p\u00e5 de med han av ikke der s\u00e5 var meg seg men har om"
+                        + " vi min mitt ha hadde hun n\u00e5 over da ved fra du ut sin dem oss opp man kan hans hvor eller"
+                        + " hva skal selv her alle vil bli ble blitt kunne inn n\u00e5r v\u00e6re kom noen noe ville dere"
+                        + " deres kun ja etter ned skulle denne for deg si sine sitt mot meget hvorfor dette disse uten"
+                        + " hvordan ingen din ditt blir samme hver hvem hvis b\u00e5de bare enn fordi f\u00f8r mange"
+                        + " ogs\u00e5 slik v\u00e6rt takk veldig"));
+        REJECTED.add(new LanguageProfile("sv", "Swedish",
+                "och det att i en jag hon som han p\u00e5 den med var sig f\u00f6r s\u00e5 till \u00e4r men ett om"
+                        + " hade de av icke mig du henne d\u00e5 sin nu har inte hans honom skulle hennes d\u00e4r min man"
+                        + " ej vid kunde n\u00e5got fr\u00e5n ut n\u00e4r efter upp vi dem vara vad \u00f6ver \u00e4n dig"
+                        + " kan sina h\u00e4r ha mot alla under n\u00e5gon eller allt mycket sedan ju denna sj\u00e4lv"
+                        + " detta \u00e5t utan varit hur ingen mitt ni bli blev oss din dessa n\u00e5gra deras blir mina"
+                        + " samma vilken er s\u00e5dan v\u00e5r blivit dess inom mellan s\u00e5dant varf\u00f6r varje vilka"
+                        + " ditt vem vilket sitta s\u00e5dana vart dina vars v\u00e5rt v\u00e5ra ert era tack bra"));
+        REJECTED.add(new LanguageProfile("af", "Afrikaans",
+                "die en van is in te wat het nie om op vir met dit sy ek wees hy was as aan by hulle ons jy maar"
+                        + " uit kan sal word na ook of daar hierdie meer baie moet al tot toe so een twee drie nou my jou"
+                        + " goed haar hom weer kom gaan sien dan ander mense net waar hoe wil dat alles geen niks"
+                        + " niemand iemand onder jaar tyd dag weke eerste moes kon ges\u00ea gebruik self omdat want"
+                        + " altyd nooit gekry gedoen gemaak geneem gesien nuwe groot klein goeie lekker regtig dankie"));
+    }
+
+    private double mMinConfidence = DEFAULT_MIN_CONFIDENCE;
+    private int mMinTrigrams = DEFAULT_MIN_TRIGRAMS;
+    private double mMinCoverage = DEFAULT_MIN_COVERAGE;
+
+    /**
+     * @param minConfidence confidence below which a document is left to the service, between 0 and 1
+     */
+    public LanguageIdentifier setMinConfidence(double minConfidence) {
+        if (minConfidence < 0 || minConfidence > 1) {
+            throw new IllegalArgumentException("Min confidence must be between 0 and 1");
+        }
+        this.mMinConfidence = minConfidence;
+        return this;
+    }
+
+    /**
+     * @param minTrigrams trigrams below which Latin script text is too short to identify
+     */
+    public LanguageIdentifier setMinTrigrams(int minTrigrams) {
+        if (minTrigrams < 1) {
+            throw new IllegalArgumentException("Min trigrams must be positive");
+        }
+        this.mMinTrigrams = minTrigrams;
+        return this;
+    }
+
+    /**
+     * @param minCoverage share of trigrams the identified language's profile must know, between 0 and 1; text in
+     *                    a language without a profile is mostly made of unknown trigrams whatever its confidence
+     */
+    public LanguageIdentifier setMinCoverage(double minCoverage) {
+        if (minCoverage < 0 || minCoverage > 1) {
+            throw new IllegalArgumentException("Min coverage must be between 0 and 1");
+        }
+        this.mMinCoverage = minCoverage;
+        return this;
+    }
+
+    /**
+     * @param text
+     * @return the language with its confidence as score, or null when the text is ambiguous
+     */
+    public Language identify(String text) {
+        if (text == null) {
+            return null;
+        }
+
+        StringBuilder normalized = new StringBuilder(Math.min(text.length(), MAX_CHARS) + 2).append(' ');
+        int latin = 0, kana = 0, hangul = 0, greek = 0, other = 0;
+        for (int i = 0; i < text.length() && normalized.length() <= MAX_CHARS; i++) {
+            char c = text.charAt(i);
+            if (!Character.isLetter(c)) {
+                if (normalized.charAt(normalized.length() - 1) != ' ') {
+                    normalized.append(' ');
+                }
+                continue;
+            }
+
+            Character.UnicodeBlock block = Character.UnicodeBlock.of(c);
+            if (block == Character.UnicodeBlock.BASIC_LATIN || block == Character.UnicodeBlock.LATIN_1_SUPPLEMENT
+                    || block == Character.UnicodeBlock.LATIN_EXTENDED_A) {
+                latin++;
+                normalized.append(Character.toLowerCase(c));
+            } else if (block == Character.UnicodeBlock.HIRAGANA || block == Character.UnicodeBlock.KATAKANA) {
+                kana++;
+            } else if (block == Character.UnicodeBlock.HANGUL_SYLLABLES
+                    || block == Character.UnicodeBlock.HANGUL_JAMO) {
+                hangul++;
+            } else if (block == Character.UnicodeBlock.GREEK) {
+                greek++;
+            } else {
+                other++;
+            }
+        }
+
+        int letters = latin + kana + hangul + greek + other;
+        if (letters == 0) {
+            return null;
+        }
+        // Kanji are shared with Chinese, kana alone tell Japanese apart
+        if (kana > 0 && kana + other >= letters * SCRIPT_SHARE && kana >= letters * 0.1) {
+            return new Language("Japanese", "ja", 1.0);
+        }
+        if (hangul >= letters * SCRIPT_SHARE) {
+            return new Language("Korean", "ko", 1.0);
+        }
+        if (greek >= letters * SCRIPT_SHARE) {
+            return new Language("Greek", "el", 1.0);
+        }
+        if (latin < letters * SCRIPT_SHARE) {
+            return null;
+        }
+
+        if (normalized.charAt(normalized.length() - 1) != ' ') {
+            normalized.append(' ');
+        }
+        return identifyLatin(normalized);
+    }
+
+    /**
+     * @param normalized lower case words separated and surrounded by single spaces
+     */
+    private Language identifyLatin(CharSequence normalized) {
+        int supported = PROFILES.size();
+        double[] scores = new double[supported + REJECTED.size()];
+        int[] known = new int[scores.length];
+        int trigrams = 0;
+        for (int i = 0; i + 3 <= normalized.length(); i++) {
+            // Skip the trigrams spanning two words
+            if (normalized.charAt(i + 1) == ' ') {
+                continue;
+            }
+            String trigram = normalized.subSequence(i, i + 3).toString();
+            for (int p = 0; p < scores.length; p++) {
+                double frequency = (p < supported ? PROFILES.get(p) : REJECTED.get(p - supported))
+                        .getFrequency(trigram);
+                scores[p] += Math.log(frequency + UNSEEN);
+                if (frequency > 0) {
+                    known[p]++;
+                }
+            }
+            trigrams++;
+        }
+        if (trigrams < mMinTrigrams) {
+            return null;
+        }
+
+        int best = 0;
+        for (int p = 1; p < scores.length; p++) {
+            if (scores[p] > scores[best]) {
+                best = p;
+            }
+        }
+        if (best >= supported || known[best] < trigrams * mMinCoverage) {
+            return null;
+        }
+        // Posterior of the best language with equal priors
+        double scale = EVIDENCE / (double) trigrams;
+        double sum = 0;
+        for (double score : scores) {
+            sum += Math.exp((score - scores[best]) * scale);
+        }
+        double confidence = 1 / sum;
+        if (confidence < mMinConfidence) {
+            return null;
+        }
+
+        LanguageProfile profile = PROFILES.get(best);
+        return new Language(profile.getName(), profile.getIso6391Name(), confidence);
+    }
+
+}
@@ -0,0 +1,215 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.langid;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import rx.Observable;
+import rx.functions.Func0;
+import rx.functions.Func1;
+
+/**
+ * Detects languages on the device with a {@link LanguageIdentifier}, sending only the documents it is not
+ * confident about to the languages endpoint
+ *
+ * A batch identified entirely on the device saves its languages round trip. Counters of the documents detected
+ * on each side and of the requests sent and saved report the savings.
+ */
+public class LanguagePreDetector {
+
+    private final ServiceRequestClient mClient;
+    private final LanguageIdentifier mIdentifier;
+    private final AtomicLong mLocalDocuments = new AtomicLong();
+    private final AtomicLong mRemoteDocuments = new AtomicLong();
+    private final AtomicLong mRequestsSent = new AtomicLong();
+    private final AtomicLong mRequestsSaved = new AtomicLong();
+
+    public LanguagePreDetector(ServiceRequestClient client) {
+        this(client, new LanguageIdentifier());
+    }
+
+    public LanguagePreDetector(ServiceRequestClient client, LanguageIdentifier identifier) {
+        this.mClient = client;
+        this.mIdentifier = identifier;
+    }
+
+    /**
+     * Same as {@link ServiceRequestClient#getLanguagesRx(LanguageRequest, int)} with one language per document
+     *
+     * @param request documents with unique ids
+     * @return results in request order, with the local confidence as score of documents detected on the device
+     */
+    public Observable<LanguageResponse> getLanguagesRx(final LanguageRequest request) {
+        return Observable.defer(new Func0<Observable<LanguageResponse>>() {
+            @Override
+            public Observable<LanguageResponse> call() {
+                final List<RequestDoc> documents = request.getDocuments();
+                final Map<String, LanguageResponseDoc> local = new HashMap<>();
+                List<RequestDoc> ambiguous = new ArrayList<>();
+                for (RequestDoc doc : documents) {
+                    Language language = mIdentifier.identify(doc.getText());
+                    if (language != null) {
+                        List<Language> languages = new ArrayList<>(1);
+                        languages.add(language);
+                        local.put(doc.getId(), new LanguageResponseDoc(doc.getId(), languages));
+                    } else {
+                        ambiguous.add(doc);
+                    }
+                }
+                mLocalDocuments.addAndGet(local.size());
+                mRemoteDocuments.addAndGet(ambiguous.size());
+
+                if (ambiguous.isEmpty()) {
+                    mRequestsSaved.incrementAndGet();
+                    return Observable.just(new LanguageResponse(merge(documents, local, null), new ArrayList<Object>()));
+                }
+                mRequestsSent.incrementAndGet();
+                return mClient.getLanguagesRx(new LanguageRequest(ambiguous), 1)
+                        .map(new Func1<LanguageResponse, LanguageResponse>() {
+                            @Override
+                            public LanguageResponse call(LanguageResponse response) {
+                                response.setDocuments(merge(documents, local, response.getDocuments()));
+                                return response;
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * @param documents documents with unique ids
+     * @return the documents in input order with their detected language, null when neither the device nor the
+     * service could detect it
+     */
+    public Observable<List<RequestDocIncludeLanguage>> includeLanguageRx(final List<RequestDoc> documents) {
+        return getLanguagesRx(new LanguageRequest(new ArrayList<>(documents)))
+                .map(new Func1<LanguageResponse, List<RequestDocIncludeLanguage>>() {
+                    @Override
+                    public List<RequestDocIncludeLanguage> call(LanguageResponse response) {
+                        Map<String, String> languages = new HashMap<>();
+                        for (LanguageResponseDoc doc : response.getDocuments()) {
+                            if (doc.getDetectedLanguages() != null && !doc.getDetectedLanguages().isEmpty()) {
+                                languages.put(doc.getId(), doc.getDetectedLanguages().get(0).getIso6391Name());
+                            }
+                        }
+
+                        List<RequestDocIncludeLanguage> included = new ArrayList<>(documents.size());
+                        for (RequestDoc doc : documents) {
+                            RequestDocIncludeLanguage docIncludeLanguage = new RequestDocIncludeLanguage();
+                            docIncludeLanguage.setId(doc.getId());
+                            docIncludeLanguage.setText(doc.getText());
+                            docIncludeLanguage.setLanguage(languages.get(doc.getId()));
+                            included.add(docIncludeLanguage);
+                        }
+                        return included;
+                    }
+                });
+    }
+
+    private static List<LanguageResponseDoc> merge(List<RequestDoc> documents, Map<String, LanguageResponseDoc> local,
+                                                   List<LanguageResponseDoc> fetched) {
+        Map<String, LanguageResponseDoc> byId = new HashMap<>(local);
+        if (fetched != null) {
+            for (LanguageResponseDoc doc : fetched) {
+                byId.put(doc.getId(), doc);
+            }
+        }
+
+        List<LanguageResponseDoc> merged = new ArrayList<>(byId.size());
+        for (RequestDoc doc : documents) {
+            LanguageResponseDoc result = byId.get(doc.getId());
+            if (result != null) {
+                merged.add(result);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return documents detected on the device
+     */
+    public long getLocalDocumentCount() {
+        return mLocalDocuments.get();
+    }
+
+    /**
+     * @return documents sent to the languages endpoint
+     */
+    public long getRemoteDocumentCount() {
+        return mRemoteDocuments.get();
+    }
+
+    /**
+     * @return requests sent to the languages endpoint
+     */
+    public long getRequestsSent() {
+        return mRequestsSent.get();
+    }
+
+    /**
+     * @return requests saved by detecting every document of a batch on the device
+     */
+    public long getRequestsSaved() {
+        return mRequestsSaved.get();
+    }
+
+    /**
+     * @return share of documents detected on the device, 0 before any document
+     */
+    public double getLocalRatio() {
+        long local = mLocalDocuments.get();
+        long total = local + mRemoteDocuments.get();
+        return total > 0 ? local / (double) total : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "LanguagePreDetector{local=" + getLocalDocumentCount()
+                + ", remote=" + getRemoteDocumentCount()
+                + ", requestsSent=" + getRequestsSent()
+                + ", requestsSaved=" + getRequestsSaved() + "}";
+    }
+
+}
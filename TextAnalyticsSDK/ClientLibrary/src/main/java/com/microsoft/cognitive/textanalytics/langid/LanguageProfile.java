@@ -0,0 +1,92 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.langid;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Character trigram frequencies of a language, derived from its most frequent words
+ *
+ * Each word is padded with spaces so word boundaries count, e.g. " the " gives " th", "the" and "he ", and is
+ * weighted by 1 / (rank + 1) following Zipf's law. Frequencies are normalized to sum to one.
+ */
+class LanguageProfile {
+
+    private final String mIso6391Name;
+    private final String mName;
+    private final Map<String, Double> mFrequencies = new HashMap<>();
+
+    /**
+     * @param iso6391Name
+     * @param name        language name as returned by the service
+     * @param words       space separated words, most frequent first
+     */
+    LanguageProfile(String iso6391Name, String name, String words) {
+        this.mIso6391Name = iso6391Name;
+        this.mName = name;
+
+        String[] ranked = words.split(" ");
+        double total = 0;
+        for (int rank = 0; rank < ranked.length; rank++) {
+            String padded = " " + ranked[rank] + " ";
+            double weight = 1.0 / (rank + 1);
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                String trigram = padded.substring(i, i + 3);
+                Double frequency = mFrequencies.get(trigram);
+                mFrequencies.put(trigram, frequency == null ? weight : frequency + weight);
+                total += weight;
+            }
+        }
+        for (Map.Entry<String, Double> entry : mFrequencies.entrySet()) {
+            entry.setValue(entry.getValue() / total);
+        }
+    }
+
+    String getIso6391Name() {
+        return mIso6391Name;
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    /**
+     * @return relative frequency of the trigram, 0 when unseen
+     */
+    double getFrequency(String trigram) {
+        Double frequency = mFrequencies.get(trigram);
+        return frequency != null ? frequency : 0;
+    }
+
+}
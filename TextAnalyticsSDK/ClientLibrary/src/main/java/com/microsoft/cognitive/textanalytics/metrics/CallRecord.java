@@ -0,0 +1,115 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.metrics;
+
+/**
+ * Outcome of one call as seen by the caller, including retries and the response body download
+ */
+public class CallRecord {
+
+    private final String endpoint;
+    private final int code;
+    private final Throwable error;
+    private final long latencyNanos;
+    private final int attempts;
+    private final int documents;
+    private final long requestBytes;
+    private final long responseBytes;
+
+    CallRecord(String endpoint, int code, Throwable error, long latencyNanos, int attempts, int documents,
+               long requestBytes, long responseBytes) {
+        this.endpoint = endpoint;
+        this.code = code;
+        this.error = error;
+        this.latencyNanos = latencyNanos;
+        this.attempts = attempts;
+        this.documents = documents;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+    }
+
+    /**
+     * @return "languages", "keyPhrases", "sentiment", "topics" or "operations"
+     */
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    /**
+     * @return HTTP status code, or 0 when no response was received
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return the failure when no response was received, otherwise null
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    public long getLatencyNanos() {
+        return latencyNanos;
+    }
+
+    /**
+     * @return requests sent to the network for this call, more than 1 when retried or hedged
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public int getDocuments() {
+        return documents;
+    }
+
+    /**
+     * @return request body bytes written to the network over all attempts, after any compression
+     */
+    public long getRequestBytes() {
+        return requestBytes;
+    }
+
+    /**
+     * @return response body bytes read by the caller, after decompression
+     */
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    public boolean isSuccessful() {
+        return code >= 200 && code < 300;
+    }
+
+}
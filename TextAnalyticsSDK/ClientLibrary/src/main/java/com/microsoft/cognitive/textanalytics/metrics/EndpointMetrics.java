@@ -0,0 +1,174 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Aggregated metrics of one endpoint, updated with atomic operations only
+ */
+public class EndpointMetrics {
+
+    private final LatencyHistogram mLatency = new LatencyHistogram();
+    private final LatencyHistogram mTimeToHeaders = new LatencyHistogram();
+    private final AtomicLong mCalls = new AtomicLong();
+    private final AtomicLong mFailures = new AtomicLong();
+    private final AtomicLong mAttempts = new AtomicLong();
+    private final AtomicLong mHttp2Attempts = new AtomicLong();
+    private final AtomicLong mDocuments = new AtomicLong();
+    private final AtomicLong mRequestBytes = new AtomicLong();
+    private final AtomicLong mResponseBytes = new AtomicLong();
+    private final ConcurrentHashMap<Integer, AtomicLong> mStatusCodes = new ConcurrentHashMap<>();
+
+    void onCall(CallRecord record) {
+        mCalls.incrementAndGet();
+        if (!record.isSuccessful()) {
+            mFailures.incrementAndGet();
+        }
+        mLatency.record(record.getLatencyNanos(), TimeUnit.NANOSECONDS);
+        mDocuments.addAndGet(record.getDocuments());
+        if (record.getRequestBytes() > 0) {
+            mRequestBytes.addAndGet(record.getRequestBytes());
+        }
+        mResponseBytes.addAndGet(record.getResponseBytes());
+        increment(record.getCode());
+    }
+
+    void onAttempt(long timeToHeadersNanos, boolean http2) {
+        mAttempts.incrementAndGet();
+        if (http2) {
+            mHttp2Attempts.incrementAndGet();
+        }
+        if (timeToHeadersNanos >= 0) {
+            mTimeToHeaders.record(timeToHeadersNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void increment(int code) {
+        AtomicLong counter = mStatusCodes.get(code);
+        if (counter == null) {
+            AtomicLong created = new AtomicLong();
+            counter = mStatusCodes.putIfAbsent(code, created);
+            if (counter == null) {
+                counter = created;
+            }
+        }
+        counter.incrementAndGet();
+    }
+
+    /**
+     * @return time from starting a call until its response body was read, including retries
+     */
+    public LatencyHistogram getLatency() {
+        return mLatency;
+    }
+
+    /**
+     * @return time from sending one attempt until its response headers arrived, including connection setup
+     */
+    public LatencyHistogram getTimeToHeaders() {
+        return mTimeToHeaders;
+    }
+
+    public long getCalls() {
+        return mCalls.get();
+    }
+
+    public long getFailures() {
+        return mFailures.get();
+    }
+
+    public long getAttempts() {
+        return mAttempts.get();
+    }
+
+    /**
+     * @return attempts beyond one per call, from retries and hedges
+     */
+    public long getRetries() {
+        return Math.max(0, mAttempts.get() - mCalls.get());
+    }
+
+    public double getDocumentsPerCall() {
+        long calls = mCalls.get();
+        return calls == 0 ? 0 : (double) mDocuments.get() / calls;
+    }
+
+    public long getRequestBytes() {
+        return mRequestBytes.get();
+    }
+
+    public long getResponseBytes() {
+        return mResponseBytes.get();
+    }
+
+    /**
+     * @param code HTTP status code, 0 for calls without a response
+     * @return number of calls which ended with the code
+     */
+    public long getStatusCount(int code) {
+        AtomicLong counter = mStatusCodes.get(code);
+        return counter != null ? counter.get() : 0;
+    }
+
+    /**
+     * @return flat name to value map, e.g. for logging or JSON export
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        snapshot.put("calls", getCalls());
+        snapshot.put("failures", getFailures());
+        snapshot.put("attempts", getAttempts());
+        snapshot.put("retries", getRetries());
+        snapshot.put("http2Attempts", mHttp2Attempts.get());
+        snapshot.put("documentsPerCall", getDocumentsPerCall());
+        snapshot.put("requestBytes", getRequestBytes());
+        snapshot.put("responseBytes", getResponseBytes());
+        snapshot.put("latencyMeanMs", mLatency.getMeanMillis());
+        snapshot.put("latencyP50Ms", mLatency.getPercentileMillis(50));
+        snapshot.put("latencyP90Ms", mLatency.getPercentileMillis(90));
+        snapshot.put("latencyP99Ms", mLatency.getPercentileMillis(99));
+        snapshot.put("latencyMaxMs", mLatency.getMaxMillis());
+        snapshot.put("timeToHeadersP50Ms", mTimeToHeaders.getPercentileMillis(50));
+        snapshot.put("timeToHeadersP99Ms", mTimeToHeaders.getPercentileMillis(99));
+        for (Map.Entry<Integer, AtomicLong> entry : mStatusCodes.entrySet()) {
+            snapshot.put("status." + entry.getKey(), entry.getValue().get());
+        }
+        return snapshot;
+    }
+
+}
@@ -0,0 +1,408 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.metrics;
+
+import com.microsoft.cognitive.textanalytics.retrofit.DocumentRequestBody;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Connection;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Sink;
+
+/**
+ * Collects per-endpoint latency, connection setup, payload, document and status code metrics of a client
+ *
+ * Installed through {@link com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient.Builder#setRequestMetrics}.
+ * Recording costs a few atomic operations per call, so it can be left on in production; {@link #snapshot()} exports
+ * the aggregates and a {@link MetricsListener} receives every call.
+ *
+ * A call is timed from entering the client, after any rate limiting delay, until its response body has been read
+ * or closed. Each network attempt, including retries and hedges, records its time to response headers, and
+ * attempts on a new connection also record the DNS, connect and TLS setup time before the request was written.
+ */
+public class RequestMetrics {
+
+    public static final String ENDPOINT_LANGUAGES = "languages";
+    public static final String ENDPOINT_KEY_PHRASES = "keyPhrases";
+    public static final String ENDPOINT_SENTIMENT = "sentiment";
+    public static final String ENDPOINT_TOPICS = "topics";
+    public static final String ENDPOINT_OPERATIONS = "operations";
+    public static final String ENDPOINT_OTHER = "other";
+
+    private final ConcurrentHashMap<String, EndpointMetrics> mEndpoints = new ConcurrentHashMap<>();
+    private final LatencyHistogram mConnectionSetup = new LatencyHistogram();
+    private final Set<Connection> mConnections = Collections.newSetFromMap(new WeakHashMap<Connection, Boolean>());
+    private final ThreadLocal<Long> mAttemptStart = new ThreadLocal<>();
+    private volatile MetricsListener mListener;
+
+    /**
+     * @param listener receives every completed call, null to remove
+     */
+    public void setListener(MetricsListener listener) {
+        this.mListener = listener;
+    }
+
+    /**
+     * @param endpoint one of the ENDPOINT_ constants
+     * @return metrics of the endpoint, created on first use
+     */
+    public EndpointMetrics getEndpoint(String endpoint) {
+        EndpointMetrics metrics = mEndpoints.get(endpoint);
+        if (metrics == null) {
+            EndpointMetrics created = new EndpointMetrics();
+            metrics = mEndpoints.putIfAbsent(endpoint, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * @return DNS, connect and TLS time of attempts which opened a new connection
+     */
+    public LatencyHistogram getConnectionSetup() {
+        return mConnectionSetup;
+    }
+
+    /**
+     * @return endpoint name to metric name to value, plus "connection" for connection setup
+     */
+    public Map<String, Map<String, Number>> snapshot() {
+        Map<String, Map<String, Number>> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, EndpointMetrics> entry : mEndpoints.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().snapshot());
+        }
+        Map<String, Number> connection = new LinkedHashMap<>();
+        connection.put("connections", mConnectionSetup.getCount());
+        connection.put("setupMeanMs", mConnectionSetup.getMeanMillis());
+        connection.put("setupP90Ms", mConnectionSetup.getPercentileMillis(90));
+        connection.put("setupMaxMs", mConnectionSetup.getMaxMillis());
+        snapshot.put("connection", connection);
+        return snapshot;
+    }
+
+    /**
+     * @param request
+     * @return the endpoint the request is sent to
+     */
+    public static String endpointOf(Request request) {
+        List<String> segments = request.url().pathSegments();
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            String segment = segments.get(i);
+            if (ENDPOINT_LANGUAGES.equals(segment) || ENDPOINT_KEY_PHRASES.equals(segment)
+                    || ENDPOINT_SENTIMENT.equals(segment) || ENDPOINT_TOPICS.equals(segment)
+                    || ENDPOINT_OPERATIONS.equals(segment)) {
+                return segment;
+            }
+        }
+        return ENDPOINT_OTHER;
+    }
+
+    /**
+     * @return application interceptor timing whole calls, must be the outermost interceptor
+     */
+    public Interceptor getCallInterceptor() {
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                CallTrace trace = new CallTrace(endpointOf(request), DocumentRequestBody.documentCount(request),
+                        request.tag());
+
+                Response response;
+                try {
+                    response = chain.proceed(request.newBuilder().tag(trace).build());
+                } catch (IOException | RuntimeException e) {
+                    trace.finish(0, e);
+                    throw e;
+                }
+
+                // The caller sees its own tag again
+                response = response.newBuilder().request(trace.untag(response.request())).build();
+                if (response.body() == null) {
+                    trace.finish(response.code(), null);
+                    return response;
+                }
+                return response.newBuilder().body(new MeteredResponseBody(response.body(), trace, response.code()))
+                        .build();
+            }
+        };
+    }
+
+    /**
+     * @return application interceptor marking the start of an attempt, must be the innermost interceptor
+     */
+    public Interceptor getAttemptInterceptor() {
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                mAttemptStart.set(System.nanoTime());
+                try {
+                    return chain.proceed(chain.request());
+                } finally {
+                    mAttemptStart.remove();
+                }
+            }
+        };
+    }
+
+    /**
+     * @return network interceptor counting attempts, their time to response headers and the request bytes sent
+     */
+    public Interceptor getNetworkInterceptor() {
+        return new Interceptor() {
+            @Override
+            public Response intercept(Chain chain) throws IOException {
+                Request request = chain.request();
+                long start = System.nanoTime();
+                Connection connection = chain.connection();
+                Long attemptStart = mAttemptStart.get();
+                if (connection != null && attemptStart != null && isNew(connection)) {
+                    mConnectionSetup.record(start - attemptStart, TimeUnit.NANOSECONDS);
+                }
+                boolean http2 = connection != null && connection.protocol() == Protocol.HTTP_2;
+
+                Object tag = request.tag();
+                CallTrace trace = tag instanceof CallTrace ? (CallTrace) tag : null;
+                if (trace != null) {
+                    trace.mAttempts.incrementAndGet();
+                    request = trace.untag(request);
+                    if (request.body() != null) {
+                        request = request.newBuilder()
+                                .method(request.method(), new MeteredRequestBody(request.body(), trace))
+                                .build();
+                    }
+                }
+                EndpointMetrics endpoint = getEndpoint(trace != null ? trace.mEndpoint : endpointOf(request));
+
+                try {
+                    Response response = chain.proceed(request);
+                    endpoint.onAttempt(System.nanoTime() - start, http2);
+                    return response;
+                } catch (IOException | RuntimeException e) {
+                    endpoint.onAttempt(-1, http2);
+                    throw e;
+                }
+            }
+        };
+    }
+
+    private boolean isNew(Connection connection) {
+        synchronized (mConnections) {
+            return mConnections.add(connection);
+        }
+    }
+
+    private void onCall(CallRecord record) {
+        getEndpoint(record.getEndpoint()).onCall(record);
+        MetricsListener listener = mListener;
+        if (listener != null) {
+            listener.onCall(record);
+        }
+    }
+
+    /**
+     * State of one call, carried to the network interceptor as the request tag in place of the caller's
+     */
+    private class CallTrace {
+
+        private final String mEndpoint;
+        private final int mDocuments;
+        private final Object mTag;
+        private final long mStart = System.nanoTime();
+        private final AtomicInteger mAttempts = new AtomicInteger();
+        private final AtomicLong mRequestBytes = new AtomicLong();
+        private final AtomicBoolean mFinished = new AtomicBoolean();
+
+        CallTrace(String endpoint, int documents, Object tag) {
+            this.mEndpoint = endpoint;
+            this.mDocuments = documents;
+            this.mTag = tag;
+        }
+
+        /**
+         * @param request
+         * @return the request with the caller's tag restored
+         */
+        Request untag(Request request) {
+            return request.tag() == this ? request.newBuilder().tag(mTag).build() : request;
+        }
+
+        void finish(int code, Throwable error) {
+            finish(code, error, 0);
+        }
+
+        void finish(int code, Throwable error, long responseBytes) {
+            if (mFinished.compareAndSet(false, true)) {
+                onCall(new CallRecord(mEndpoint, code, error, System.nanoTime() - mStart, mAttempts.get(),
+                        mDocuments, mRequestBytes.get(), responseBytes));
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes written to the connection, i.e. after any compression
+     */
+    private static class MeteredRequestBody extends RequestBody {
+
+        private final RequestBody mDelegate;
+        private final CallTrace mTrace;
+
+        MeteredRequestBody(RequestBody delegate, CallTrace trace) {
+            this.mDelegate = delegate;
+            this.mTrace = trace;
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mDelegate.contentType();
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return mDelegate.contentLength();
+        }
+
+        @Override
+        public void writeTo(BufferedSink sink) throws IOException {
+            CountingSink counting = new CountingSink(sink);
+            BufferedSink metered = Okio.buffer(counting);
+            mDelegate.writeTo(metered);
+            // Bodies such as gzip close the sink when they are done, which writes out what is buffered
+            if (!counting.mClosed) {
+                metered.emit();
+            }
+        }
+
+        private class CountingSink extends ForwardingSink {
+
+            private boolean mClosed;
+
+            CountingSink(Sink delegate) {
+                super(delegate);
+            }
+
+            @Override
+            public void write(Buffer source, long byteCount) throws IOException {
+                super.write(source, byteCount);
+                mTrace.mRequestBytes.addAndGet(byteCount);
+            }
+
+            @Override
+            public void close() throws IOException {
+                mClosed = true;
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes read and finishes the call when the body is exhausted or closed
+     */
+    private static class MeteredResponseBody extends ResponseBody {
+
+        private final ResponseBody mDelegate;
+        private final BufferedSource mSource;
+
+        MeteredResponseBody(ResponseBody delegate, final CallTrace trace, final int code) {
+            this.mDelegate = delegate;
+            this.mSource = Okio.buffer(new ForwardingSource(delegate.source()) {
+                private long mBytes;
+
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read;
+                    try {
+                        read = super.read(sink, byteCount);
+                    } catch (IOException e) {
+                        trace.finish(0, e, mBytes);
+                        throw e;
+                    }
+                    if (read == -1) {
+                        trace.finish(code, null, mBytes);
+                    } else {
+                        mBytes += read;
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    trace.finish(code, null, mBytes);
+                    super.close();
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return mDelegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return mDelegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return mSource;
+        }
+    }
+
+}
@@ -0,0 +1,145 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.model.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageColumns;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentColumns;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.topics.ProcessingResult;
+import com.microsoft.cognitive.textanalytics.model.response.topics.Topic;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicAssignment;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceError;
+
+/**
+ * Provides hand-written adapters for all request and response models, so Gson does not use reflection for them
+ */
+public class ModelTypeAdapterFactory implements TypeAdapterFactory {
+
+    /**
+     * @return a Gson instance with the model adapters registered
+     */
+    public static Gson createGson() {
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new ModelTypeAdapterFactory())
+                .create();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+
+        // Requests
+        if (rawType == RequestDoc.class) {
+            return (TypeAdapter<T>) RequestTypeAdapters.REQUEST_DOC;
+        }
+        if (rawType == RequestDocIncludeLanguage.class) {
+            return (TypeAdapter<T>) RequestTypeAdapters.REQUEST_DOC_INCLUDE_LANGUAGE;
+        }
+        if (rawType == TextRequest.class) {
+            return (TypeAdapter<T>) RequestTypeAdapters.TEXT_REQUEST;
+        }
+        if (rawType == LanguageRequest.class) {
+            return (TypeAdapter<T>) RequestTypeAdapters.LANGUAGE_REQUEST;
+        }
+        if (rawType == TopicRequest.class) {
+            return (TypeAdapter<T>) RequestTypeAdapters.TOPIC_REQUEST;
+        }
+
+        // Responses
+        if (rawType == SentimentResponse.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.sentimentResponse(gson.getAdapter(Object.class));
+        }
+        if (rawType == SentimentResponseDoc.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.SENTIMENT_RESPONSE_DOC;
+        }
+        if (rawType == KeyPhrasesResponse.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.keyPhrasesResponse(gson.getAdapter(Object.class));
+        }
+        if (rawType == KeyPhrasesResponseDoc.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.KEY_PHRASES_RESPONSE_DOC;
+        }
+        if (rawType == LanguageResponse.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.languageResponse(gson.getAdapter(Object.class));
+        }
+        if (rawType == LanguageResponseDoc.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.LANGUAGE_RESPONSE_DOC;
+        }
+        if (rawType == SentimentColumns.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.sentimentColumns(gson.getAdapter(Object.class));
+        }
+        if (rawType == LanguageColumns.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.languageColumns(gson.getAdapter(Object.class));
+        }
+        if (rawType == Language.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.LANGUAGE;
+        }
+        if (rawType == ServiceError.class) {
+            return (TypeAdapter<T>) ResponseTypeAdapters.SERVICE_ERROR;
+        }
+
+        // Topics
+        if (rawType == TopicResponse.class) {
+            return (TypeAdapter<T>) TopicTypeAdapters.TOPIC_RESPONSE;
+        }
+        if (rawType == ProcessingResult.class) {
+            return (TypeAdapter<T>) TopicTypeAdapters.PROCESSING_RESULT;
+        }
+        if (rawType == Topic.class) {
+            return (TypeAdapter<T>) TopicTypeAdapters.TOPIC;
+        }
+        if (rawType == TopicAssignment.class) {
+            return (TypeAdapter<T>) TopicTypeAdapters.TOPIC_ASSIGNMENT;
+        }
+
+        return null;
+    }
+
+}
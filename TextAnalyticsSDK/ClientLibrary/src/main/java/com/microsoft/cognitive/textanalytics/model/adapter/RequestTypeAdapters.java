@@ -0,0 +1,237 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.model.adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+
+import java.io.IOException;
+
+/**
+ * Hand-written adapters for the request models
+ */
+final class RequestTypeAdapters {
+
+    /**
+     * Handles both document types, so documents with a language keep it in lists of {@link RequestDoc}
+     */
+    static final TypeAdapter<RequestDoc> REQUEST_DOC = new TypeAdapter<RequestDoc>() {
+        @Override
+        public void write(JsonWriter out, RequestDoc value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            if (value instanceof RequestDocIncludeLanguage) {
+                out.name("language").value(((RequestDocIncludeLanguage) value).getLanguage());
+            }
+            out.name("id").value(value.getId());
+            out.name("text").value(value.getText());
+            out.endObject();
+        }
+
+        @Override
+        public RequestDoc read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            String id = null;
+            String text = null;
+            String language = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        id = JsonAdapters.readString(in);
+                        break;
+                    case "text":
+                        text = JsonAdapters.readString(in);
+                        break;
+                    case "language":
+                        language = JsonAdapters.readString(in);
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+
+            if (language == null) {
+                return new RequestDoc(id, text);
+            }
+            RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+            doc.setId(id);
+            doc.setText(text);
+            doc.setLanguage(language);
+            return doc;
+        }
+    };
+
+    static final TypeAdapter<RequestDocIncludeLanguage> REQUEST_DOC_INCLUDE_LANGUAGE = new TypeAdapter<RequestDocIncludeLanguage>() {
+        @Override
+        public void write(JsonWriter out, RequestDocIncludeLanguage value) throws IOException {
+            REQUEST_DOC.write(out, value);
+        }
+
+        @Override
+        public RequestDocIncludeLanguage read(JsonReader in) throws IOException {
+            RequestDoc doc = REQUEST_DOC.read(in);
+            if (doc == null || doc instanceof RequestDocIncludeLanguage) {
+                return (RequestDocIncludeLanguage) doc;
+            }
+            RequestDocIncludeLanguage withLanguage = new RequestDocIncludeLanguage();
+            withLanguage.setId(doc.getId());
+            withLanguage.setText(doc.getText());
+            return withLanguage;
+        }
+    };
+
+    static final TypeAdapter<TextRequest> TEXT_REQUEST = new TypeAdapter<TextRequest>() {
+        @Override
+        public void write(JsonWriter out, TextRequest value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("documents");
+            JsonAdapters.writeList(out, value.getDocuments(), REQUEST_DOC_INCLUDE_LANGUAGE);
+            out.endObject();
+        }
+
+        @Override
+        public TextRequest read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            TextRequest request = new TextRequest();
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("documents".equals(in.nextName())) {
+                    request.setDocuments(JsonAdapters.readList(in, REQUEST_DOC_INCLUDE_LANGUAGE));
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return request;
+        }
+    };
+
+    static final TypeAdapter<LanguageRequest> LANGUAGE_REQUEST = new TypeAdapter<LanguageRequest>() {
+        @Override
+        public void write(JsonWriter out, LanguageRequest value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("documents");
+            JsonAdapters.writeList(out, value.getDocuments(), REQUEST_DOC);
+            out.endObject();
+        }
+
+        @Override
+        public LanguageRequest read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            LanguageRequest request = new LanguageRequest();
+            in.beginObject();
+            while (in.hasNext()) {
+                if ("documents".equals(in.nextName())) {
+                    request.setDocuments(JsonAdapters.readList(in, REQUEST_DOC));
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return request;
+        }
+    };
+
+    static final TypeAdapter<TopicRequest> TOPIC_REQUEST = new TypeAdapter<TopicRequest>() {
+        @Override
+        public void write(JsonWriter out, TopicRequest value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("documents");
+            JsonAdapters.writeList(out, value.getDocuments(), REQUEST_DOC);
+            out.name("stopWords");
+            JsonAdapters.writeList(out, value.getStopWords(), JsonAdapters.STRING);
+            out.name("stopPhrases");
+            JsonAdapters.writeList(out, value.getStopPhrases(), JsonAdapters.STRING);
+            out.endObject();
+        }
+
+        @Override
+        public TopicRequest read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            TopicRequest request = new TopicRequest();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "documents":
+                        request.setDocuments(JsonAdapters.readList(in, REQUEST_DOC));
+                        break;
+                    case "stopWords":
+                        request.setStopWords(JsonAdapters.readList(in, JsonAdapters.STRING));
+                        break;
+                    case "stopPhrases":
+                        request.setStopPhrases(JsonAdapters.readList(in, JsonAdapters.STRING));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return request;
+        }
+    };
+
+    private RequestTypeAdapters() {
+    }
+
+}
@@ -0,0 +1,579 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.model.adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageColumns;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentColumns;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceError;
+
+import java.io.IOException;
+
+/**
+ * Hand-written adapters for the language, key phrases and sentiment response models, and the service error
+ */
+final class ResponseTypeAdapters {
+
+    static final TypeAdapter<SentimentResponseDoc> SENTIMENT_RESPONSE_DOC = new TypeAdapter<SentimentResponseDoc>() {
+        @Override
+        public void write(JsonWriter out, SentimentResponseDoc value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("score");
+            JsonAdapters.writeDouble(out, value.getScoreValue());
+            out.name("id").value(value.getId());
+            out.endObject();
+        }
+
+        @Override
+        public SentimentResponseDoc read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            SentimentResponseDoc doc = new SentimentResponseDoc();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "score":
+                        doc.setScoreValue(JsonAdapters.readDouble(in));
+                        break;
+                    case "id":
+                        doc.setId(JsonAdapters.readString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return doc;
+        }
+    };
+
+    static final TypeAdapter<KeyPhrasesResponseDoc> KEY_PHRASES_RESPONSE_DOC = new TypeAdapter<KeyPhrasesResponseDoc>() {
+        @Override
+        public void write(JsonWriter out, KeyPhrasesResponseDoc value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("keyPhrases");
+            JsonAdapters.writeList(out, value.getKeyPhrases(), JsonAdapters.STRING);
+            out.name("id").value(value.getId());
+            out.endObject();
+        }
+
+        @Override
+        public KeyPhrasesResponseDoc read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            KeyPhrasesResponseDoc doc = new KeyPhrasesResponseDoc();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "keyPhrases":
+                        doc.setKeyPhrases(JsonAdapters.readList(in, JsonAdapters.STRING));
+                        break;
+                    case "id":
+                        doc.setId(JsonAdapters.readString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return doc;
+        }
+    };
+
+    static final TypeAdapter<Language> LANGUAGE = new TypeAdapter<Language>() {
+        @Override
+        public void write(JsonWriter out, Language value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("name").value(value.getName());
+            out.name("iso6391Name").value(value.getIso6391Name());
+            out.name("score");
+            JsonAdapters.writeDouble(out, value.getScoreValue());
+            out.endObject();
+        }
+
+        @Override
+        public Language read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            Language language = new Language();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "name":
+                        language.setName(JsonAdapters.readString(in));
+                        break;
+                    case "iso6391Name":
+                        language.setIso6391Name(JsonAdapters.readString(in));
+                        break;
+                    case "score":
+                        language.setScoreValue(JsonAdapters.readDouble(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return language;
+        }
+    };
+
+    static final TypeAdapter<LanguageResponseDoc> LANGUAGE_RESPONSE_DOC = new TypeAdapter<LanguageResponseDoc>() {
+        @Override
+        public void write(JsonWriter out, LanguageResponseDoc value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.getId());
+            out.name("detectedLanguages");
+            JsonAdapters.writeList(out, value.getDetectedLanguages(), LANGUAGE);
+            out.endObject();
+        }
+
+        @Override
+        public LanguageResponseDoc read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            LanguageResponseDoc doc = new LanguageResponseDoc();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        doc.setId(JsonAdapters.readString(in));
+                        break;
+                    case "detectedLanguages":
+                        doc.setDetectedLanguages(JsonAdapters.readList(in, LANGUAGE));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return doc;
+        }
+    };
+
+    static final TypeAdapter<ServiceError> SERVICE_ERROR = new TypeAdapter<ServiceError>() {
+        @Override
+        public void write(JsonWriter out, ServiceError value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("status").value(value.getStatus());
+            out.name("message").value(value.getMessage());
+            out.endObject();
+        }
+
+        @Override
+        public ServiceError read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            ServiceError error = new ServiceError();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "status":
+                        error.setStatus(JsonAdapters.readString(in));
+                        break;
+                    case "message":
+                        error.setMessage(JsonAdapters.readString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return error;
+        }
+    };
+
+    private ResponseTypeAdapters() {
+    }
+
+    /**
+     * @param errorAdapter adapter for the untyped entries of "errors"
+     */
+    static TypeAdapter<KeyPhrasesResponse> keyPhrasesResponse(final TypeAdapter<Object> errorAdapter) {
+        return new TypeAdapter<KeyPhrasesResponse>() {
+            @Override
+            public void write(JsonWriter out, KeyPhrasesResponse value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                    return;
+                }
+                out.beginObject();
+                out.name("documents");
+                JsonAdapters.writeList(out, value.getDocuments(), KEY_PHRASES_RESPONSE_DOC);
+                out.name("errors");
+                JsonAdapters.writeList(out, value.getErrors(), errorAdapter);
+                out.endObject();
+            }
+
+            @Override
+            public KeyPhrasesResponse read(JsonReader in) throws IOException {
+                if (JsonAdapters.skipNull(in)) {
+                    return null;
+                }
+                KeyPhrasesResponse response = new KeyPhrasesResponse();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "documents":
+                            response.setDocuments(JsonAdapters.readList(in, KEY_PHRASES_RESPONSE_DOC));
+                            break;
+                        case "errors":
+                            response.setErrors(JsonAdapters.readList(in, errorAdapter));
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                return response;
+            }
+        };
+    }
+
+    /**
+     * @param errorAdapter adapter for the untyped entries of "errors"
+     */
+    static TypeAdapter<SentimentResponse> sentimentResponse(final TypeAdapter<Object> errorAdapter) {
+        return new TypeAdapter<SentimentResponse>() {
+            @Override
+            public void write(JsonWriter out, SentimentResponse value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                    return;
+                }
+                out.beginObject();
+                out.name("documents");
+                JsonAdapters.writeList(out, value.getDocuments(), SENTIMENT_RESPONSE_DOC);
+                out.name("errors");
+                JsonAdapters.writeList(out, value.getErrors(), errorAdapter);
+                out.endObject();
+            }
+
+            @Override
+            public SentimentResponse read(JsonReader in) throws IOException {
+                if (JsonAdapters.skipNull(in)) {
+                    return null;
+                }
+                SentimentResponse response = new SentimentResponse();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "documents":
+                            response.setDocuments(JsonAdapters.readList(in, SENTIMENT_RESPONSE_DOC));
+                            break;
+                        case "errors":
+                            response.setErrors(JsonAdapters.readList(in, errorAdapter));
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                return response;
+            }
+        };
+    }
+
+    /**
+     * @param errorAdapter adapter for the untyped entries of "errors"
+     */
+    static TypeAdapter<LanguageResponse> languageResponse(final TypeAdapter<Object> errorAdapter) {
+        return new TypeAdapter<LanguageResponse>() {
+            @Override
+            public void write(JsonWriter out, LanguageResponse value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                    return;
+                }
+                out.beginObject();
+                out.name("documents");
+                JsonAdapters.writeList(out, value.getDocuments(), LANGUAGE_RESPONSE_DOC);
+                out.name("errors");
+                JsonAdapters.writeList(out, value.getErrors(), errorAdapter);
+                out.endObject();
+            }
+
+            @Override
+            public LanguageResponse read(JsonReader in) throws IOException {
+                if (JsonAdapters.skipNull(in)) {
+                    return null;
+                }
+                LanguageResponse response = new LanguageResponse();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "documents":
+                            response.setDocuments(JsonAdapters.readList(in, LANGUAGE_RESPONSE_DOC));
+                            break;
+                        case "errors":
+                            response.setErrors(JsonAdapters.readList(in, errorAdapter));
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                return response;
+            }
+        };
+    }
+
+    /**
+     * Fills the columns directly from the documents array, without a result object per document
+     *
+     * @param errorAdapter adapter for the untyped entries of "errors"
+     */
+    static TypeAdapter<SentimentColumns> sentimentColumns(final TypeAdapter<Object> errorAdapter) {
+        return new TypeAdapter<SentimentColumns>() {
+            @Override
+            public void write(JsonWriter out, SentimentColumns value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                    return;
+                }
+                out.beginObject();
+                out.name("documents").beginArray();
+                for (int i = 0; i < value.size(); i++) {
+                    out.beginObject();
+                    out.name("score");
+                    JsonAdapters.writeDouble(out, value.getScore(i));
+                    out.name("id").value(value.getId(i));
+                    out.endObject();
+                }
+                out.endArray();
+                out.name("errors");
+                JsonAdapters.writeList(out, value.getErrors(), errorAdapter);
+                out.endObject();
+            }
+
+            @Override
+            public SentimentColumns read(JsonReader in) throws IOException {
+                if (JsonAdapters.skipNull(in)) {
+                    return null;
+                }
+                SentimentColumns columns = new SentimentColumns();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "documents":
+                            if (JsonAdapters.skipNull(in)) {
+                                break;
+                            }
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                String id = null;
+                                double score = Double.NaN;
+                                in.beginObject();
+                                while (in.hasNext()) {
+                                    switch (in.nextName()) {
+                                        case "score":
+                                            score = JsonAdapters.readDouble(in);
+                                            break;
+                                        case "id":
+                                            id = JsonAdapters.readString(in);
+                                            break;
+                                        default:
+                                            in.skipValue();
+                                    }
+                                }
+                                in.endObject();
+                                columns.add(id, score);
+                            }
+                            in.endArray();
+                            break;
+                        case "errors":
+                            columns.setErrors(JsonAdapters.readList(in, errorAdapter));
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                return columns;
+            }
+        };
+    }
+
+    /**
+     * Fills the columns directly from the documents array, keeping the top detected language of each document
+     *
+     * @param errorAdapter adapter for the untyped entries of "errors"
+     */
+    static TypeAdapter<LanguageColumns> languageColumns(final TypeAdapter<Object> errorAdapter) {
+        return new TypeAdapter<LanguageColumns>() {
+            @Override
+            public void write(JsonWriter out, LanguageColumns value) throws IOException {
+                if (value == null) {
+                    out.nullValue();
+                    return;
+                }
+                out.beginObject();
+                out.name("documents").beginArray();
+                for (int i = 0; i < value.size(); i++) {
+                    out.beginObject();
+                    out.name("id").value(value.getId(i));
+                    out.name("detectedLanguages").beginArray();
+                    if (value.getIso6391Name(i) != null || value.getName(i) != null) {
+                        out.beginObject();
+                        out.name("name").value(value.getName(i));
+                        out.name("iso6391Name").value(value.getIso6391Name(i));
+                        out.name("score");
+                        JsonAdapters.writeDouble(out, value.getScore(i));
+                        out.endObject();
+                    }
+                    out.endArray();
+                    out.endObject();
+                }
+                out.endArray();
+                out.name("errors");
+                JsonAdapters.writeList(out, value.getErrors(), errorAdapter);
+                out.endObject();
+            }
+
+            @Override
+            public LanguageColumns read(JsonReader in) throws IOException {
+                if (JsonAdapters.skipNull(in)) {
+                    return null;
+                }
+                LanguageColumns columns = new LanguageColumns();
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "documents":
+                            if (JsonAdapters.skipNull(in)) {
+                                break;
+                            }
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                readLanguageDocument(in, columns);
+                            }
+                            in.endArray();
+                            break;
+                        case "errors":
+                            columns.setErrors(JsonAdapters.readList(in, errorAdapter));
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+                return columns;
+            }
+        };
+    }
+
+    private static void readLanguageDocument(JsonReader in, LanguageColumns columns) throws IOException {
+        String id = null;
+        String name = null;
+        String iso6391Name = null;
+        double score = Double.NaN;
+        in.beginObject();
+        while (in.hasNext()) {
+            String field = in.nextName();
+            if ("id".equals(field)) {
+                id = JsonAdapters.readString(in);
+                continue;
+            }
+            if (!"detectedLanguages".equals(field)) {
+                in.skipValue();
+                continue;
+            }
+            if (JsonAdapters.skipNull(in)) {
+                continue;
+            }
+            in.beginArray();
+            boolean first = true;
+            while (in.hasNext()) {
+                if (!first) {
+                    in.skipValue();
+                    continue;
+                }
+                first = false;
+                in.beginObject();
+                while (in.hasNext()) {
+                    switch (in.nextName()) {
+                        case "name":
+                            name = JsonAdapters.readString(in);
+                            break;
+                        case "iso6391Name":
+                            iso6391Name = JsonAdapters.readString(in);
+                            break;
+                        case "score":
+                            score = JsonAdapters.readDouble(in);
+                            break;
+                        default:
+                            in.skipValue();
+                    }
+                }
+                in.endObject();
+            }
+            in.endArray();
+        }
+        in.endObject();
+        columns.add(id, iso6391Name, name, score);
+    }
+
+}
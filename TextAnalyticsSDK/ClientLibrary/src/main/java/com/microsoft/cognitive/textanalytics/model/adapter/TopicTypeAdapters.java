@@ -0,0 +1,214 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.model.adapter;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.microsoft.cognitive.textanalytics.model.response.topics.ProcessingResult;
+import com.microsoft.cognitive.textanalytics.model.response.topics.Topic;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicAssignment;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+
+import java.io.IOException;
+
+/**
+ * Hand-written adapters for the topic detection response models
+ */
+final class TopicTypeAdapters {
+
+    static final TypeAdapter<Topic> TOPIC = new TypeAdapter<Topic>() {
+        @Override
+        public void write(JsonWriter out, Topic value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("id").value(value.getId());
+            out.name("score");
+            JsonAdapters.writeDouble(out, value.getScoreValue());
+            out.name("keyPhrase").value(value.getKeyPhrase());
+            out.endObject();
+        }
+
+        @Override
+        public Topic read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            Topic topic = new Topic();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "id":
+                        topic.setId(JsonAdapters.readString(in));
+                        break;
+                    case "score":
+                        topic.setScoreValue(JsonAdapters.readDouble(in));
+                        break;
+                    case "keyPhrase":
+                        topic.setKeyPhrase(JsonAdapters.readString(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return topic;
+        }
+    };
+
+    static final TypeAdapter<TopicAssignment> TOPIC_ASSIGNMENT = new TypeAdapter<TopicAssignment>() {
+        @Override
+        public void write(JsonWriter out, TopicAssignment value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("documentId").value(value.getDocumentId());
+            out.name("topicId").value(value.getTopicId());
+            out.name("distance");
+            JsonAdapters.writeDouble(out, value.getDistanceValue());
+            out.endObject();
+        }
+
+        @Override
+        public TopicAssignment read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            TopicAssignment assignment = new TopicAssignment();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "documentId":
+                        assignment.setDocumentId(JsonAdapters.readString(in));
+                        break;
+                    case "topicId":
+                        assignment.setTopicId(JsonAdapters.readString(in));
+                        break;
+                    case "distance":
+                        assignment.setDistanceValue(JsonAdapters.readDouble(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return assignment;
+        }
+    };
+
+    static final TypeAdapter<ProcessingResult> PROCESSING_RESULT = new TypeAdapter<ProcessingResult>() {
+        @Override
+        public void write(JsonWriter out, ProcessingResult value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("topics");
+            JsonAdapters.writeList(out, value.getTopics(), TOPIC);
+            out.name("topicAssignments");
+            JsonAdapters.writeList(out, value.getTopicAssignments(), TOPIC_ASSIGNMENT);
+            out.endObject();
+        }
+
+        @Override
+        public ProcessingResult read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            ProcessingResult result = new ProcessingResult();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "topics":
+                        result.setTopics(JsonAdapters.readList(in, TOPIC));
+                        break;
+                    case "topicAssignments":
+                        result.setTopicAssignments(JsonAdapters.readList(in, TOPIC_ASSIGNMENT));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return result;
+        }
+    };
+
+    static final TypeAdapter<TopicResponse> TOPIC_RESPONSE = new TypeAdapter<TopicResponse>() {
+        @Override
+        public void write(JsonWriter out, TopicResponse value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            out.name("status").value(value.getStatus());
+            out.name("operationProcessingResult");
+            PROCESSING_RESULT.write(out, value.getProcessingResult());
+            out.endObject();
+        }
+
+        @Override
+        public TopicResponse read(JsonReader in) throws IOException {
+            if (JsonAdapters.skipNull(in)) {
+                return null;
+            }
+            TopicResponse response = new TopicResponse();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "status":
+                        response.setStatus(JsonAdapters.readString(in));
+                        break;
+                    case "operationProcessingResult":
+                        response.setProcessingResult(PROCESSING_RESULT.read(in));
+                        break;
+                    default:
+                        in.skipValue();
+                }
+            }
+            in.endObject();
+            return response;
+        }
+    };
+
+    private TopicTypeAdapters() {
+    }
+
+}
@@ -0,0 +1,110 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.model.response;
+
+import java.util.Arrays;
+
+/**
+ * Aggregate operations over score columns, ignoring missing (NaN) scores
+ */
+public final class ScoreStats {
+
+    private ScoreStats() {
+    }
+
+    /**
+     * @return mean of the first count scores, NaN when there is none
+     */
+    public static double mean(double[] scores, int count) {
+        double sum = 0;
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (!Double.isNaN(scores[i])) {
+                sum += scores[i];
+                n++;
+            }
+        }
+        return n > 0 ? sum / n : Double.NaN;
+    }
+
+    /**
+     * Histogram of scores in [min, max] split into equally wide bins, the last bin including max
+     */
+    public static int[] histogram(double[] scores, int count, int bins, double min, double max) {
+        if (bins < 1 || !(max > min)) {
+            throw new IllegalArgumentException("Need at least one bin over a non-empty range");
+        }
+        int[] histogram = new int[bins];
+        double width = (max - min) / bins;
+        for (int i = 0; i < count; i++) {
+            double score = scores[i];
+            if (Double.isNaN(score) || score < min || score > max) {
+                continue;
+            }
+            int bin = (int) ((score - min) / width);
+            histogram[bin < bins ? bin : bins - 1]++;
+        }
+        return histogram;
+    }
+
+    /**
+     * Percentiles by linear interpolation between closest ranks
+     *
+     * @param percentiles requested percentiles between 0 and 100
+     * @return one value per requested percentile, NaN when there is no score
+     */
+    public static double[] percentiles(double[] scores, int count, double... percentiles) {
+        double[] sorted = new double[count];
+        int n = 0;
+        for (int i = 0; i < count; i++) {
+            if (!Double.isNaN(scores[i])) {
+                sorted[n++] = scores[i];
+            }
+        }
+        Arrays.sort(sorted, 0, n);
+
+        double[] values = new double[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (n == 0) {
+                values[i] = Double.NaN;
+                continue;
+            }
+            double rank = Math.max(0, Math.min(100, percentiles[i])) / 100.0 * (n - 1);
+            int lower = (int) Math.floor(rank);
+            int upper = (int) Math.ceil(rank);
+            values[i] = sorted[lower] + (sorted[upper] - sorted[lower]) * (rank - lower);
+        }
+        return values;
+    }
+
+}
@@ -38,6 +38,7 @@ import java.util.List;
 public class KeyPhrasesResponse {
 
     private List<KeyPhrasesResponseDoc> documents = new ArrayList<>();
+    private List<Object> errors = new ArrayList<Object>();
 
     public KeyPhrasesResponse() {
     }
@@ -46,6 +47,11 @@ public class KeyPhrasesResponse {
         this.documents = documents;
     }
 
+    public KeyPhrasesResponse(List<KeyPhrasesResponseDoc> documents, List<Object> errors) {
+        this.documents = documents;
+        this.errors = errors;
+    }
+
     public void setDocuments(List<KeyPhrasesResponseDoc> documents) {
         this.documents = documents;
     }
@@ -53,4 +59,12 @@ public class KeyPhrasesResponse {
     public List<KeyPhrasesResponseDoc> getDocuments() {
         return documents;
     }
+
+    public List<Object> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<Object> errors) {
+        this.errors = errors;
+    }
 }
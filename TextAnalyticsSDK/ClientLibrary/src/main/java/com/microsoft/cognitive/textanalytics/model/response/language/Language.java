@@ -36,12 +36,19 @@ public class Language {
 
     private String name;
     private String iso6391Name;
-    private Double score;
+    // Stored unboxed, NaN when the score is missing
+    private double score = Double.NaN;
 
     public Language() {
     }
 
     public Language(String name, String iso6391Name, Double score) {
+        this.name = name;
+        this.iso6391Name = iso6391Name;
+        setScore(score);
+    }
+
+    public Language(String name, String iso6391Name, double score) {
         this.name = name;
         this.iso6391Name = iso6391Name;
         this.score = score;
@@ -64,11 +71,26 @@ public class Language {
     }
 
     public Double getScore() {
-        return score;
+        return hasScore() ? score : null;
     }
 
     public void setScore(Double score) {
+        this.score = score != null ? score : Double.NaN;
+    }
+
+    /**
+     * @return the score without boxing, NaN when missing
+     */
+    public double getScoreValue() {
+        return score;
+    }
+
+    public void setScoreValue(double score) {
         this.score = score;
     }
 
+    public boolean hasScore() {
+        return !Double.isNaN(score);
+    }
+
 }
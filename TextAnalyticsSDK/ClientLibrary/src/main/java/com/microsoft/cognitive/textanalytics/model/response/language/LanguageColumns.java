@@ -0,0 +1,190 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.model.response.language;
+
+import com.microsoft.cognitive.textanalytics.model.response.ScoreStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar alternative to {@link LanguageResponse} for bulk results, holding the top detected language of
+ * each document in parallel arrays. Language codes and names are interned, so each distinct language is
+ * stored once however many documents share it.
+ */
+public class LanguageColumns {
+
+    private final Map<String, String> interned = new HashMap<>();
+
+    private String[] ids;
+    private String[] iso6391Names;
+    private String[] names;
+    private double[] scores;
+    private int size;
+    private List<Object> errors = new ArrayList<Object>();
+
+    public LanguageColumns() {
+        this(16);
+    }
+
+    public LanguageColumns(int capacity) {
+        int initial = Math.max(capacity, 1);
+        ids = new String[initial];
+        iso6391Names = new String[initial];
+        names = new String[initial];
+        scores = new double[initial];
+    }
+
+    /**
+     * @param score score of the top language, NaN when missing
+     */
+    public void add(String id, String iso6391Name, String name, double score) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            iso6391Names = Arrays.copyOf(iso6391Names, size * 2);
+            names = Arrays.copyOf(names, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        ids[size] = id;
+        iso6391Names[size] = intern(iso6391Name);
+        names[size] = intern(name);
+        scores[size] = score;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    public String getIso6391Name(int index) {
+        checkIndex(index);
+        return iso6391Names[index];
+    }
+
+    public String getName(int index) {
+        checkIndex(index);
+        return names[index];
+    }
+
+    public double getScore(int index) {
+        checkIndex(index);
+        return scores[index];
+    }
+
+    /**
+     * @return backing array of ids, valid up to {@link #size()}
+     */
+    public String[] getIds() {
+        return ids;
+    }
+
+    /**
+     * @return backing array of interned ISO 639-1 codes, valid up to {@link #size()}
+     */
+    public String[] getIso6391Names() {
+        return iso6391Names;
+    }
+
+    /**
+     * @return backing array of scores, valid up to {@link #size()}
+     */
+    public double[] getScores() {
+        return scores;
+    }
+
+    public List<Object> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<Object> errors) {
+        this.errors = errors;
+    }
+
+    public double meanScore() {
+        return ScoreStats.mean(scores, size);
+    }
+
+    /**
+     * @return number of documents per ISO 639-1 code
+     */
+    public Map<String, Integer> countByLanguage() {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Integer count = counts.get(iso6391Names[i]);
+            counts.put(iso6391Names[i], count == null ? 1 : count + 1);
+        }
+        return counts;
+    }
+
+    /**
+     * @return documents as objects, for callers expecting the list form
+     */
+    public List<LanguageResponseDoc> toDocuments() {
+        List<LanguageResponseDoc> documents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            List<Language> languages = new ArrayList<>(1);
+            if (iso6391Names[i] != null || names[i] != null) {
+                languages.add(new Language(names[i], iso6391Names[i], scores[i]));
+            }
+            documents.add(new LanguageResponseDoc(ids[i], languages));
+        }
+        return documents;
+    }
+
+    private String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = interned.get(value);
+        if (existing == null) {
+            interned.put(value, value);
+            existing = value;
+        }
+        return existing;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.model.response.sentiment;
+
+import com.microsoft.cognitive.textanalytics.model.response.ScoreStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Columnar alternative to {@link SentimentResponse} for bulk results: parallel id and score arrays
+ * filled directly by the response adapter, without one object per document
+ */
+public class SentimentColumns {
+
+    private String[] ids;
+    private double[] scores;
+    private int size;
+    private List<Object> errors = new ArrayList<Object>();
+
+    public SentimentColumns() {
+        this(16);
+    }
+
+    public SentimentColumns(int capacity) {
+        ids = new String[Math.max(capacity, 1)];
+        scores = new double[Math.max(capacity, 1)];
+    }
+
+    /**
+     * @param score score, NaN when missing
+     */
+    public void add(String id, double score) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        ids[size] = id;
+        scores[size] = score;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getId(int index) {
+        checkIndex(index);
+        return ids[index];
+    }
+
+    public double getScore(int index) {
+        checkIndex(index);
+        return scores[index];
+    }
+
+    /**
+     * @return backing array of ids, valid up to {@link #size()}
+     */
+    public String[] getIds() {
+        return ids;
+    }
+
+    /**
+     * @return backing array of scores, valid up to {@link #size()}
+     */
+    public double[] getScores() {
+        return scores;
+    }
+
+    public List<Object> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<Object> errors) {
+        this.errors = errors;
+    }
+
+    public double mean() {
+        return ScoreStats.mean(scores, size);
+    }
+
+    /**
+     * @param bins number of equally wide bins over [0, 1]
+     */
+    public int[] histogram(int bins) {
+        return ScoreStats.histogram(scores, size, bins, 0, 1);
+    }
+
+    public double[] percentiles(double... percentiles) {
+        return ScoreStats.percentiles(scores, size, percentiles);
+    }
+
+    /**
+     * @return documents as objects, for callers expecting the list form
+     */
+    public List<SentimentResponseDoc> toDocuments() {
+        List<SentimentResponseDoc> documents = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            documents.add(new SentimentResponseDoc(scores[i], ids[i]));
+        }
+        return documents;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+        }
+    }
+
+}
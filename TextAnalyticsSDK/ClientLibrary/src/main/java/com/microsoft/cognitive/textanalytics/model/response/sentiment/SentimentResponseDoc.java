@@ -34,25 +34,46 @@ package com.microsoft.cognitive.textanalytics.model.response.sentiment;
 
 public class SentimentResponseDoc {
 
-    private Double score;
+    // Stored unboxed, NaN when the score is missing
+    private double score = Double.NaN;
     private String id;
 
     public SentimentResponseDoc() {
     }
 
     public SentimentResponseDoc(Double score, String id) {
+        setScore(score);
+        this.id = id;
+    }
+
+    public SentimentResponseDoc(double score, String id) {
         this.score = score;
         this.id = id;
     }
 
     public Double getScore() {
-        return score;
+        return hasScore() ? score : null;
     }
 
     public void setScore(Double score) {
+        this.score = score != null ? score : Double.NaN;
+    }
+
+    /**
+     * @return the score without boxing, NaN when missing
+     */
+    public double getScoreValue() {
+        return score;
+    }
+
+    public void setScoreValue(double score) {
         this.score = score;
     }
 
+    public boolean hasScore() {
+        return !Double.isNaN(score);
+    }
+
     public String getId() {
         return id;
     }
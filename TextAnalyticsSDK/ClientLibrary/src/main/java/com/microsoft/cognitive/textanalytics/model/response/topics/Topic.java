@@ -35,8 +35,8 @@ package com.microsoft.cognitive.textanalytics.model.response.topics;
 public class Topic {
 
     private String id;
-    // Count of documents assigned to topic
-    private String score;
+    // Count of documents assigned to topic, stored unboxed, NaN when missing
+    private double score = Double.NaN;
     // A summarizing word or phrase for the topic
     private String keyPhrase;
 
@@ -48,14 +48,35 @@ public class Topic {
         this.id = id;
     }
 
+    /**
+     * @return the score as text, without a fraction for whole counts, null when missing
+     */
     public String getScore() {
-        return score;
+        return toText(score);
     }
 
+    /**
+     * @param score numeric text, anything else leaves the score missing
+     */
     public void setScore(String score) {
+        this.score = parse(score);
+    }
+
+    /**
+     * @return the score without parsing, NaN when missing
+     */
+    public double getScoreValue() {
+        return score;
+    }
+
+    public void setScoreValue(double score) {
         this.score = score;
     }
 
+    public boolean hasScore() {
+        return !Double.isNaN(score);
+    }
+
     public String getKeyPhrase() {
         return keyPhrase;
     }
@@ -64,4 +85,25 @@ public class Topic {
         this.keyPhrase = keyPhrase;
     }
 
+    static String toText(double value) {
+        if (Double.isNaN(value)) {
+            return null;
+        }
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+
+    static double parse(String text) {
+        if (text == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
 }
\ No newline at end of file
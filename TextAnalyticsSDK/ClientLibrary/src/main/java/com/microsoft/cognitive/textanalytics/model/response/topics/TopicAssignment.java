@@ -39,7 +39,8 @@ public class TopicAssignment {
     // Topic id which the document has been assigned to
     private String topicId;
     // Document-to-topic affiliation score between 0 and 1. The lower a distance score the stronger the topic affiliation is.
-    private String distance;
+    // Stored unboxed, NaN when missing
+    private double distance = Double.NaN;
 
     public String getTopicId() {
         return topicId;
@@ -57,11 +58,28 @@ public class TopicAssignment {
         this.documentId = documentId;
     }
 
+    /**
+     * @return the distance as text, null when missing
+     */
     public String getDistance() {
-        return distance;
+        return Topic.toText(distance);
     }
 
+    /**
+     * @param distance numeric text, anything else leaves the distance missing
+     */
     public void setDistance(String distance) {
+        this.distance = Topic.parse(distance);
+    }
+
+    /**
+     * @return the distance without parsing, NaN when missing
+     */
+    public double getDistanceValue() {
+        return distance;
+    }
+
+    public void setDistanceValue(double distance) {
         this.distance = distance;
     }
 }
\ No newline at end of file
@@ -0,0 +1,309 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.preprocess;
+
+import com.microsoft.cognitive.textanalytics.cache.CacheKeys;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+
+import java.text.BreakIterator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cleans up a batch of documents before it is serialized
+ *
+ * In order: Unicode NFC and whitespace normalization, truncation to the service limit on a grapheme boundary,
+ * collapsing of documents with the same text (and language) into one, and answering empty documents locally.
+ * Near duplicates, differing only in case, punctuation or symbols, can optionally be collapsed as well. Every
+ * step can be turned off; the counters report how much was saved.
+ */
+public class DocumentPreprocessor {
+
+    // Maximum number of characters the service accepts in one document
+    public static final int MAX_TEXT_LENGTH = 5120;
+
+    private boolean mNormalize = true;
+    private int mMaxTextLength = MAX_TEXT_LENGTH;
+    private boolean mCollapseDuplicates = true;
+    private boolean mCollapseNearDuplicates;
+    private boolean mSkipEmpty = true;
+
+    private final AtomicLong mDocuments = new AtomicLong();
+    private final AtomicLong mDocumentsSent = new AtomicLong();
+    private final AtomicLong mDuplicates = new AtomicLong();
+    private final AtomicLong mEmpty = new AtomicLong();
+    private final AtomicLong mTruncated = new AtomicLong();
+    private final AtomicLong mCharacters = new AtomicLong();
+    private final AtomicLong mCharactersSent = new AtomicLong();
+    private final AtomicLong mRequestsSaved = new AtomicLong();
+
+    /**
+     * @param normalize true (the default) to apply Unicode NFC, trim and collapse whitespace runs
+     */
+    public DocumentPreprocessor setNormalize(boolean normalize) {
+        this.mNormalize = normalize;
+        return this;
+    }
+
+    /**
+     * @param maxTextLength characters after which a text is truncated, 0 to never truncate
+     */
+    public DocumentPreprocessor setMaxTextLength(int maxTextLength) {
+        if (maxTextLength < 0) {
+            throw new IllegalArgumentException("Max text length must not be negative");
+        }
+        this.mMaxTextLength = maxTextLength;
+        return this;
+    }
+
+    /**
+     * @param collapseDuplicates true (the default) to send a text only once per batch
+     */
+    public DocumentPreprocessor setCollapseDuplicates(boolean collapseDuplicates) {
+        this.mCollapseDuplicates = collapseDuplicates;
+        return this;
+    }
+
+    /**
+     * @param collapseNearDuplicates true to also send texts differing only in case, punctuation or symbols once
+     */
+    public DocumentPreprocessor setCollapseNearDuplicates(boolean collapseNearDuplicates) {
+        this.mCollapseNearDuplicates = collapseNearDuplicates;
+        return this;
+    }
+
+    /**
+     * @param skipEmpty true (the default) to answer empty documents with an error instead of sending them
+     */
+    public DocumentPreprocessor setSkipEmpty(boolean skipEmpty) {
+        this.mSkipEmpty = skipEmpty;
+        return this;
+    }
+
+    /**
+     * @param request languages request, its documents must have unique ids; it is not modified
+     * @return the documents to send and how to map their results back
+     */
+    public PreparedBatch<RequestDoc> prepare(LanguageRequest request) {
+        return prepare(request.getDocuments(), new DocumentCopier<RequestDoc>() {
+            @Override
+            public RequestDoc copy(RequestDoc doc, String text) {
+                return new RequestDoc(doc.getId(), text);
+            }
+        });
+    }
+
+    /**
+     * @param request key phrases or sentiment request, its documents must have unique ids; it is not modified
+     * @return the documents to send and how to map their results back
+     */
+    public PreparedBatch<RequestDocIncludeLanguage> prepare(TextRequest request) {
+        return prepare(request.getDocuments(), new DocumentCopier<RequestDocIncludeLanguage>() {
+            @Override
+            public RequestDocIncludeLanguage copy(RequestDocIncludeLanguage doc, String text) {
+                RequestDocIncludeLanguage copy = new RequestDocIncludeLanguage();
+                copy.setId(doc.getId());
+                copy.setText(text);
+                copy.setLanguage(doc.getLanguage());
+                return copy;
+            }
+        });
+    }
+
+    private <D extends RequestDoc> PreparedBatch<D> prepare(List<D> documents, DocumentCopier<D> copier) {
+        PreparedBatch<D> batch = new PreparedBatch<>();
+        Map<String, String> sentIds = new HashMap<>();
+        BreakIterator graphemes = null;
+        long characters = 0, charactersSent = 0;
+        int duplicates = 0, empty = 0, truncated = 0;
+
+        for (D doc : documents) {
+            String text = doc.getText() != null ? doc.getText() : "";
+            characters += text.length();
+            if (mNormalize) {
+                text = CacheKeys.normalize(text);
+            }
+            if (mMaxTextLength > 0 && text.length() > mMaxTextLength) {
+                if (graphemes == null) {
+                    graphemes = BreakIterator.getCharacterInstance();
+                }
+                text = truncate(text, mMaxTextLength, graphemes);
+                truncated++;
+            }
+            if (mSkipEmpty && text.trim().isEmpty()) {
+                batch.addEmpty(doc.getId());
+                empty++;
+                continue;
+            }
+
+            String language = doc instanceof RequestDocIncludeLanguage ? ((RequestDocIncludeLanguage) doc).getLanguage() : null;
+            String key = null;
+            if (mCollapseNearDuplicates) {
+                key = language + "\u0000" + fold(text);
+            } else if (mCollapseDuplicates) {
+                key = language + "\u0000" + text;
+            }
+            String sentId = key != null ? sentIds.get(key) : null;
+            if (sentId != null) {
+                batch.addDuplicate(doc.getId(), sentId);
+                duplicates++;
+                continue;
+            }
+
+            if (key != null) {
+                sentIds.put(key, doc.getId());
+            }
+            batch.addDocument(doc.getId(), copier.copy(doc, text));
+            charactersSent += text.length();
+        }
+
+        mDocuments.addAndGet(documents.size());
+        mDocumentsSent.addAndGet(batch.getDocuments().size());
+        mDuplicates.addAndGet(duplicates);
+        mEmpty.addAndGet(empty);
+        mTruncated.addAndGet(truncated);
+        mCharacters.addAndGet(characters);
+        mCharactersSent.addAndGet(charactersSent);
+        if (batch.isEmpty() && !documents.isEmpty()) {
+            mRequestsSaved.incrementAndGet();
+        }
+        return batch;
+    }
+
+    /**
+     * @param text
+     * @param maxLength
+     * @param graphemes character instance, so surrogate pairs and combining sequences are not split
+     * @return the longest prefix of at most maxLength chars ending on a grapheme boundary
+     */
+    static String truncate(String text, int maxLength, BreakIterator graphemes) {
+        graphemes.setText(text);
+        int end = graphemes.isBoundary(maxLength) ? maxLength : graphemes.preceding(maxLength);
+        return text.substring(0, Math.max(end, 0));
+    }
+
+    /**
+     * @return lower case letters and digits of the text, words separated by single spaces
+     */
+    static String fold(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+            } else if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return documents prepared
+     */
+    public long getDocumentCount() {
+        return mDocuments.get();
+    }
+
+    /**
+     * @return documents left to send after collapsing duplicates and skipping empty documents
+     */
+    public long getDocumentsSent() {
+        return mDocumentsSent.get();
+    }
+
+    public long getDuplicateCount() {
+        return mDuplicates.get();
+    }
+
+    public long getEmptyCount() {
+        return mEmpty.get();
+    }
+
+    public long getTruncatedCount() {
+        return mTruncated.get();
+    }
+
+    /**
+     * @return characters of the documents prepared
+     */
+    public long getCharacterCount() {
+        return mCharacters.get();
+    }
+
+    /**
+     * @return characters of the documents left to send
+     */
+    public long getCharactersSent() {
+        return mCharactersSent.get();
+    }
+
+    /**
+     * @return requests not sent because all their documents were empty
+     */
+    public long getRequestsSaved() {
+        return mRequestsSaved.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentPreprocessor{documents=" + getDocumentCount()
+                + ", sent=" + getDocumentsSent()
+                + ", duplicates=" + getDuplicateCount()
+                + ", empty=" + getEmptyCount()
+                + ", truncated=" + getTruncatedCount()
+                + ", characters=" + getCharacterCount()
+                + ", charactersSent=" + getCharactersSent()
+                + ", requestsSaved=" + getRequestsSaved() + "}";
+    }
+
+    /**
+     * Copies a document with its cleaned up text
+     */
+    private interface DocumentCopier<D extends RequestDoc> {
+
+        D copy(D doc, String text);
+    }
+
+}
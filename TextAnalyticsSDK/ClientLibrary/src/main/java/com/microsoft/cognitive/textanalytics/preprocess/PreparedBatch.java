@@ -0,0 +1,156 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.preprocess;
+
+import com.microsoft.cognitive.textanalytics.cache.ResultType;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A batch of documents after {@link DocumentPreprocessor}: the cleaned up, distinct documents to send, and how
+ * their results fan back to every original document id. Empty documents are answered without being sent.
+ *
+ * @param <D> request document type
+ */
+public class PreparedBatch<D extends RequestDoc> {
+
+    // Same message the service returns for an empty document
+    static final String EMPTY_DOCUMENT_MESSAGE = "Document text is empty.";
+
+    private final List<String> mIds = new ArrayList<>();
+    private final List<D> mDocuments = new ArrayList<>();
+    // Id of the document sent for each original id, absent for empty documents
+    private final Map<String, String> mSentIds = new HashMap<>();
+    private final Map<String, List<String>> mDuplicates = new HashMap<>();
+    private final List<String> mEmptyIds = new ArrayList<>();
+
+    void addDocument(String id, D document) {
+        mIds.add(id);
+        mDocuments.add(document);
+        mSentIds.put(id, document.getId());
+    }
+
+    void addDuplicate(String id, String sentId) {
+        mIds.add(id);
+        mSentIds.put(id, sentId);
+        List<String> others = mDuplicates.get(sentId);
+        if (others == null) {
+            others = new ArrayList<>();
+            mDuplicates.put(sentId, others);
+        }
+        others.add(id);
+    }
+
+    void addEmpty(String id) {
+        mIds.add(id);
+        mEmptyIds.add(id);
+    }
+
+    /**
+     * @return documents to send, one per distinct text
+     */
+    public List<D> getDocuments() {
+        return mDocuments;
+    }
+
+    /**
+     * @return true when no document has to be sent
+     */
+    public boolean isEmpty() {
+        return mDocuments.isEmpty();
+    }
+
+    /**
+     * Fan the results of the sent documents back to all original ids, in input order
+     *
+     * @param results    results returned by the service for {@link #getDocuments()}
+     * @param resultType result type of the endpoint
+     * @return results for all documents which have one
+     */
+    public <R> List<R> expand(List<R> results, ResultType<R> resultType) {
+        Map<String, R> byId = new HashMap<>();
+        if (results != null) {
+            for (R result : results) {
+                byId.put(resultType.getId(result), result);
+            }
+        }
+
+        List<R> expanded = new ArrayList<>(mIds.size());
+        for (String id : mIds) {
+            String sentId = mSentIds.get(id);
+            R result = sentId != null ? byId.get(sentId) : null;
+            if (result != null) {
+                expanded.add(id.equals(sentId) ? result : resultType.copyWithId(result, id));
+            }
+        }
+        return expanded;
+    }
+
+    /**
+     * @param errors errors returned by the service, as generic maps of {id, message}
+     * @return the errors copied to the duplicates of each failed document, followed by the empty documents
+     */
+    public List<Object> expandErrors(List<Object> errors) {
+        List<Object> expanded = new ArrayList<>();
+        if (errors != null) {
+            for (Object error : errors) {
+                expanded.add(error);
+                if (error instanceof Map) {
+                    List<String> others = mDuplicates.get(String.valueOf(((Map) error).get("id")));
+                    if (others != null) {
+                        for (String id : others) {
+                            expanded.add(errorOf(id, ((Map) error).get("message")));
+                        }
+                    }
+                }
+            }
+        }
+        for (String id : mEmptyIds) {
+            expanded.add(errorOf(id, EMPTY_DOCUMENT_MESSAGE));
+        }
+        return expanded;
+    }
+
+    private static Map<String, Object> errorOf(String id, Object message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("id", id);
+        error.put("message", message);
+        return error;
+    }
+
+}
@@ -0,0 +1,90 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.ratelimit;
+
+import com.microsoft.cognitive.textanalytics.retrofit.DocumentRequestBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor metering every attempt against a {@link RateLimiter}
+ *
+ * Installed below the retry and failover layers, so retried, hedged and failed over attempts count against the
+ * quota like first attempts. The attempt waits for its reservation on the calling thread, unless it is the first
+ * attempt of a call a {@link RateLimitedCallFactory} already reserved and held back.
+ */
+public class RateLimitInterceptor implements Interceptor {
+
+    private final RateLimiter mLimiter;
+
+    public RateLimitInterceptor(RateLimiter limiter) {
+        this.mLimiter = limiter;
+    }
+
+    public RateLimiter getLimiter() {
+        return mLimiter;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String reservation = request.header(RateLimiter.HEADER_RESERVATION);
+        if (reservation != null) {
+            request = request.newBuilder().removeHeader(RateLimiter.HEADER_RESERVATION).build();
+            if (mLimiter.take(reservation)) {
+                // The call waited for this reservation before it was dispatched
+                return chain.proceed(request);
+            }
+        }
+
+        int documents = DocumentRequestBody.documentCount(request);
+        long delay = mLimiter.reserve(documents);
+        if (delay > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                mLimiter.release(documents);
+                throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+            }
+        }
+        return chain.proceed(request);
+    }
+
+}
@@ -0,0 +1,194 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.ratelimit;
+
+import com.microsoft.cognitive.textanalytics.retrofit.DocumentRequestBody;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Request;
+import okhttp3.Response;
+import rx.Scheduler;
+import rx.functions.Action0;
+import rx.schedulers.Schedulers;
+
+/**
+ * Call factory holding asynchronous calls back until the {@link RateLimiter} has room for them
+ *
+ * An enqueued call takes its place in the limiter when it is started and is handed to the dispatcher once that
+ * reservation is due, so waiting calls hold neither a thread nor a dispatcher slot. The reservation is held for
+ * the call's first attempt, which the {@link RateLimitInterceptor} in the client lets through without reserving
+ * again; retries are metered by the interceptor. A call cancelled or failed before its first attempt gives its
+ * reservation back. Synchronous calls are left to the interceptor.
+ */
+public class RateLimitedCallFactory implements Call.Factory {
+
+    private final Call.Factory mDelegate;
+    private final RateLimiter mLimiter;
+
+    /**
+     * @param delegate client metering its attempts with a {@link RateLimitInterceptor} on the same limiter
+     * @param limiter
+     */
+    public RateLimitedCallFactory(Call.Factory delegate, RateLimiter limiter) {
+        this.mDelegate = delegate;
+        this.mLimiter = limiter;
+    }
+
+    public RateLimiter getLimiter() {
+        return mLimiter;
+    }
+
+    @Override
+    public Call newCall(Request request) {
+        String reservation = mLimiter.newReservationId();
+        Call call = mDelegate.newCall(request.newBuilder().header(RateLimiter.HEADER_RESERVATION, reservation).build());
+        return new RateLimitedCall(request, call, reservation, DocumentRequestBody.documentCount(request));
+    }
+
+    private class RateLimitedCall implements Call {
+
+        private final Request mRequest;
+        private final Call mCall;
+        private final String mReservation;
+        private final int mDocuments;
+        private final AtomicBoolean mDispatched = new AtomicBoolean(true);
+        private volatile Scheduler.Worker mWorker;
+        private volatile Callback mCallback;
+
+        RateLimitedCall(Request request, Call call, String reservation, int documents) {
+            this.mRequest = request;
+            this.mCall = call;
+            this.mReservation = reservation;
+            this.mDocuments = documents;
+        }
+
+        @Override
+        public Request request() {
+            return mRequest;
+        }
+
+        @Override
+        public Response execute() throws IOException {
+            return mCall.execute();
+        }
+
+        @Override
+        public void enqueue(Callback responseCallback) {
+            long delay = mLimiter.reserve(mDocuments);
+            mLimiter.hold(mReservation);
+            mCallback = new ReleasingCallback(responseCallback);
+            if (delay <= 0) {
+                mCall.enqueue(mCallback);
+                return;
+            }
+            mWorker = Schedulers.computation().createWorker();
+            mDispatched.set(false);
+            mWorker.schedule(new Action0() {
+                @Override
+                public void call() {
+                    dispatch();
+                }
+            }, delay, TimeUnit.NANOSECONDS);
+            if (mCall.isCanceled()) {
+                dispatch();
+            }
+        }
+
+        /**
+         * Hand the call to the dispatcher, once
+         */
+        private void dispatch() {
+            if (!mDispatched.compareAndSet(false, true)) {
+                return;
+            }
+            mWorker.unsubscribe();
+            if (mCall.isCanceled()) {
+                releaseReservation();
+            }
+            // A cancelled call is enqueued right away, OkHttp then reports the cancellation to the callback
+            mCall.enqueue(mCallback);
+        }
+
+        private void releaseReservation() {
+            if (mLimiter.take(mReservation)) {
+                mLimiter.release(mDocuments);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            mCall.cancel();
+            dispatch();
+        }
+
+        @Override
+        public boolean isExecuted() {
+            return mCall.isExecuted();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return mCall.isCanceled();
+        }
+
+        /**
+         * Gives back the reservation if the first attempt never took it, e.g. when cancelled while waiting
+         */
+        private class ReleasingCallback implements Callback {
+
+            private final Callback mResponseCallback;
+
+            ReleasingCallback(Callback responseCallback) {
+                this.mResponseCallback = responseCallback;
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                releaseReservation();
+                mResponseCallback.onFailure(call, e);
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                releaseReservation();
+                mResponseCallback.onResponse(call, response);
+            }
+        }
+    }
+
+}
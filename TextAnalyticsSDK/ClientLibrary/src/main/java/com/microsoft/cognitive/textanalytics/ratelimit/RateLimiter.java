@@ -0,0 +1,155 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.ratelimit;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Meters requests per second and documents per minute, e.g. to match a subscription tier's quota
+ *
+ * Callers reserve a request and its documents from both buckets and are told how long to wait; nothing is
+ * rejected. Limiters obtained through {@link #forSubscriptionKey(String, double, double)} are shared by every
+ * client using the same key, since the quota applies to the key.
+ */
+public class RateLimiter {
+
+    // Carries the id of a reservation made for a call's first attempt, removed before the request is sent
+    static final String HEADER_RESERVATION = "X-Rate-Limit-Reservation";
+
+    private static final ConcurrentHashMap<String, RateLimiter> sLimiters = new ConcurrentHashMap<>();
+
+    private final double mRequestsPerSecond;
+    private final double mDocumentsPerMinute;
+    private final TokenBucket mRequests;
+    private final TokenBucket mDocuments;
+    private final AtomicLong mDelayedNanos = new AtomicLong();
+    private final AtomicLong mReservationIds = new AtomicLong();
+    private final Set<String> mHeld = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    /**
+     * @param requestsPerSecond  request rate, bursts of up to one second's worth are allowed
+     * @param documentsPerMinute document rate, bursts of up to one minute's worth are allowed
+     */
+    public RateLimiter(double requestsPerSecond, double documentsPerMinute) {
+        this.mRequestsPerSecond = requestsPerSecond;
+        this.mDocumentsPerMinute = documentsPerMinute;
+        this.mRequests = new TokenBucket(requestsPerSecond, 1, TimeUnit.SECONDS, (int) Math.max(1, requestsPerSecond));
+        this.mDocuments = new TokenBucket(documentsPerMinute, 1, TimeUnit.MINUTES, (int) Math.max(1, documentsPerMinute));
+    }
+
+    /**
+     * @return the limiter shared by all clients of the subscription key
+     * @throws IllegalStateException if the key is already metered at other rates
+     */
+    public static RateLimiter forSubscriptionKey(String subscriptionKey, double requestsPerSecond,
+                                                 double documentsPerMinute) {
+        RateLimiter limiter = sLimiters.get(subscriptionKey);
+        if (limiter == null) {
+            RateLimiter created = new RateLimiter(requestsPerSecond, documentsPerMinute);
+            limiter = sLimiters.putIfAbsent(subscriptionKey, created);
+            if (limiter == null) {
+                limiter = created;
+            }
+        }
+        if (limiter.mRequestsPerSecond != requestsPerSecond || limiter.mDocumentsPerMinute != documentsPerMinute) {
+            throw new IllegalStateException("Subscription key is already limited to " + limiter.mRequestsPerSecond
+                    + " requests per second and " + limiter.mDocumentsPerMinute + " documents per minute");
+        }
+        return limiter;
+    }
+
+    /**
+     * Reserve one request carrying the given number of documents
+     *
+     * @param documents
+     * @return nanoseconds to wait before sending
+     */
+    public long reserve(int documents) {
+        long delay = Math.max(mRequests.reserve(1), mDocuments.reserve(documents));
+        if (delay > 0) {
+            mDelayedNanos.addAndGet(delay);
+        }
+        return delay;
+    }
+
+    /**
+     * Give back a reservation which was not used
+     *
+     * @param documents
+     */
+    public void release(int documents) {
+        mRequests.release(1);
+        mDocuments.release(documents);
+    }
+
+    /**
+     * @return id under which a reservation can be held for a later attempt
+     */
+    String newReservationId() {
+        return Long.toString(mReservationIds.incrementAndGet());
+    }
+
+    /**
+     * Hold a reservation already made, for the attempt carrying its id
+     */
+    void hold(String reservationId) {
+        mHeld.add(reservationId);
+    }
+
+    /**
+     * @return true if the reservation was held and is now taken, by the attempt or to be released
+     */
+    boolean take(String reservationId) {
+        return reservationId != null && mHeld.remove(reservationId);
+    }
+
+    public double getRequestsPerSecond() {
+        return mRequestsPerSecond;
+    }
+
+    public double getDocumentsPerMinute() {
+        return mDocumentsPerMinute;
+    }
+
+    /**
+     * @return total time requests have been held back, in milliseconds
+     */
+    public long getDelayedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(mDelayedNanos.get());
+    }
+
+}
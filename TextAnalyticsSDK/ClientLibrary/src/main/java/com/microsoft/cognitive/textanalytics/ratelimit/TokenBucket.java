@@ -0,0 +1,106 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket which hands out reservations instead of rejecting
+ *
+ * The bucket is tracked as a single theoretical arrival time: each reservation of n tokens moves it n emission
+ * intervals into the future with one compare-and-set, and the caller waits until that time, less the burst
+ * allowance. Callers are thus queued in reservation order without any lock.
+ */
+public class TokenBucket {
+
+    private final long mIntervalNanos;
+    private final long mBurstNanos;
+    private final AtomicLong mArrival;
+
+    /**
+     * @param permits  tokens added per period
+     * @param period
+     * @param unit
+     * @param capacity tokens which may be used in a burst
+     */
+    public TokenBucket(double permits, long period, TimeUnit unit, int capacity) {
+        if (permits <= 0 || period <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.mIntervalNanos = Math.max(1, (long) (unit.toNanos(period) / permits));
+        this.mBurstNanos = capacity * mIntervalNanos;
+        this.mArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Reserve tokens, possibly ahead of time
+     *
+     * @param tokens
+     * @return nanoseconds to wait before the tokens may be used, 0 if they are available now
+     */
+    public long reserve(int tokens) {
+        if (tokens <= 0) {
+            return 0;
+        }
+        long cost = tokens * mIntervalNanos;
+        while (true) {
+            long now = System.nanoTime();
+            long arrival = mArrival.get();
+            // An arrival time in the past is an idle, full bucket; capacity is what the burst allowance grants
+            long next = Math.max(arrival, now) + cost;
+            if (mArrival.compareAndSet(arrival, next)) {
+                return Math.max(0, next - mBurstNanos - now);
+            }
+        }
+    }
+
+    /**
+     * Give back tokens of a reservation which was not used, e.g. of a call cancelled while it waited
+     *
+     * @param tokens
+     */
+    public void release(int tokens) {
+        if (tokens <= 0) {
+            return;
+        }
+        long cost = tokens * mIntervalNanos;
+        while (true) {
+            long arrival = mArrival.get();
+            if (mArrival.compareAndSet(arrival, arrival - cost)) {
+                return;
+            }
+        }
+    }
+
+}
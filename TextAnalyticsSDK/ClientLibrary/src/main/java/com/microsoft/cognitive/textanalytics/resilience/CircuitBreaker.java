@@ -0,0 +1,108 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.resilience;
+
+/**
+ * Circuit breaker for one host
+ *
+ * Closed: requests pass, consecutive failures are counted. Once they reach the threshold the circuit opens and
+ * requests fail fast. After the open duration a single trial request is let through (half-open); its success
+ * closes the circuit, its failure opens it again.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int mFailureThreshold;
+    private final long mOpenMillis;
+
+    private State mState = State.CLOSED;
+    private int mFailures;
+    private long mOpenedAt;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.mFailureThreshold = failureThreshold;
+        this.mOpenMillis = openMillis;
+    }
+
+    /**
+     * @return true if a request may be sent now
+     */
+    public synchronized boolean allowRequest() {
+        switch (mState) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() - mOpenedAt >= mOpenMillis) {
+                    mState = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                // A trial request is already in flight
+                return false;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        mFailures = 0;
+        mState = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        mFailures++;
+        if (mState == State.HALF_OPEN || mFailures >= mFailureThreshold) {
+            mState = State.OPEN;
+            mOpenedAt = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * The request was abandoned before its outcome was known, e.g. cancelled; a half-open trial is released so the
+     * next request becomes the trial
+     */
+    public synchronized void onCancel() {
+        if (mState == State.HALF_OPEN) {
+            mState = State.OPEN;
+        }
+    }
+
+    public synchronized State getState() {
+        return mState;
+    }
+
+}
@@ -0,0 +1,366 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.resilience;
+
+import com.microsoft.cognitive.textanalytics.retrofit.RetryAfter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor retrying transient failures, hedging slow requests and failing fast on unhealthy hosts
+ *
+ * Throttling (429), server errors (5xx) and network failures are retried with jittered exponential backoff, or
+ * after the delay requested by a Retry-After header. Requests which are not idempotent (submitting topics) are
+ * only retried when they provably were not processed: after a 429, or when the connection could not be
+ * established. Each host has its own {@link CircuitBreaker}; while it is open, requests fail with a
+ * {@link CircuitBreakerOpenException} without touching the network. Client errors count as healthy responses
+ * and are returned as they are.
+ *
+ * Hedged attempts are sent through a separate call factory, normally the client without this interceptor, since
+ * an interceptor chain can only be proceeded on the calling thread. They run on a bounded pool; while it is
+ * saturated, requests are sent without hedging.
+ */
+public class ResilienceInterceptor implements Interceptor {
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+    private static final String METHOD_GET = "GET";
+    private static final String PATH_TOPICS = "/topics";
+
+    private static final Random sRandom = new Random();
+
+    // Each hedged request takes up to two threads, enough for the dispatcher's default of 64 requests in flight
+    private static final int MAX_HEDGE_THREADS = 128;
+
+    private static final ExecutorService sHedgeExecutor = new ThreadPoolExecutor(0, MAX_HEDGE_THREADS,
+            60, TimeUnit.SECONDS, new SynchronousQueue<Runnable>(), new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "TextAnalytics hedge");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final ResiliencePolicy mPolicy;
+    private final Call.Factory mHedgeFactory;
+    private final ResilienceMetrics mMetrics = new ResilienceMetrics();
+    private final ConcurrentHashMap<String, CircuitBreaker> mBreakers = new ConcurrentHashMap<>();
+
+    /**
+     * @param policy
+     * @param hedgeFactory factory for hedged attempts, may be null when hedging is off
+     */
+    public ResilienceInterceptor(ResiliencePolicy policy, Call.Factory hedgeFactory) {
+        if (policy.getHedgeDelayMillis() > 0 && hedgeFactory == null) {
+            throw new IllegalArgumentException("Hedging requires a call factory");
+        }
+        this.mPolicy = policy;
+        this.mHedgeFactory = hedgeFactory;
+    }
+
+    public ResilienceMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    /**
+     * @param host
+     * @return the circuit breaker of the host
+     */
+    public CircuitBreaker getCircuitBreaker(String host) {
+        CircuitBreaker breaker = mBreakers.get(host);
+        if (breaker == null) {
+            CircuitBreaker created = new CircuitBreaker(mPolicy.getFailureThreshold(), mPolicy.getOpenMillis());
+            breaker = mBreakers.putIfAbsent(host, created);
+            if (breaker == null) {
+                breaker = created;
+            }
+        }
+        return breaker;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        CircuitBreaker breaker = getCircuitBreaker(request.url().host());
+        boolean idempotent = isIdempotent(request);
+        boolean hedge = mPolicy.getHedgeDelayMillis() > 0 && idempotent;
+        mMetrics.onRequest();
+
+        for (int attempt = 0; ; attempt++) {
+            if (!breaker.allowRequest()) {
+                mMetrics.onRejected();
+                throw new CircuitBreakerOpenException(request.url().host());
+            }
+
+            Response response = null;
+            IOException error = null;
+            boolean recorded = false;
+            mMetrics.onAttempt();
+            try {
+                try {
+                    response = hedge ? proceedHedged(chain, request) : chain.proceed(request);
+                } catch (IOException e) {
+                    if (isCanceled(e)) {
+                        throw e;
+                    }
+                    error = e;
+                }
+
+                if (response != null && !isRetriable(response.code())) {
+                    breaker.onSuccess();
+                    recorded = true;
+                    return response;
+                }
+                breaker.onFailure();
+                recorded = true;
+            } finally {
+                if (!recorded) {
+                    // Cancelled, or failed with an unexpected exception: the host was not judged
+                    breaker.onCancel();
+                }
+            }
+
+            // A request which may have been processed is only sent again when that is harmless
+            boolean resend = idempotent || (response != null
+                    ? response.code() == HTTP_TOO_MANY_REQUESTS : isConnectFailure(error));
+            long delay = response != null ? RetryAfter.millis(response.headers()) : -1;
+            if (delay < 0) {
+                delay = backoffMillis(attempt);
+            }
+            if (!resend || attempt >= mPolicy.getMaxRetries() || delay > mPolicy.getMaxDelayMillis()) {
+                mMetrics.onFailure();
+                if (error != null) {
+                    throw error;
+                }
+                return response;
+            }
+
+            if (response != null) {
+                response.body().close();
+            }
+            mMetrics.onRetry();
+            sleep(delay);
+        }
+    }
+
+    /**
+     * @param attempt number of the failed attempt, from 0
+     * @return delay drawn uniformly from [0, min(maxDelay, baseDelay * 2^attempt)]
+     */
+    long backoffMillis(int attempt) {
+        double ceiling = Math.min(mPolicy.getMaxDelayMillis(), mPolicy.getBaseDelayMillis() * Math.pow(2, attempt));
+        return (long) (sRandom.nextDouble() * ceiling);
+    }
+
+    static boolean isRetriable(int code) {
+        return code == HTTP_TOO_MANY_REQUESTS || code >= HTTP_SERVER_ERROR;
+    }
+
+    /**
+     * Submitting topics starts a new operation each time, every other request can safely be sent twice
+     */
+    public static boolean isIdempotent(Request request) {
+        return METHOD_GET.equals(request.method()) || !request.url().encodedPath().endsWith(PATH_TOPICS);
+    }
+
+    /**
+     * @return true if the failure happened before the request was sent, so the server cannot have processed it
+     */
+    public static boolean isConnectFailure(IOException e) {
+        return e instanceof ConnectException || e instanceof NoRouteToHostException
+                || e instanceof UnknownHostException || e instanceof CircuitBreakerOpenException
+                || (e instanceof SocketTimeoutException && "connect timed out".equals(e.getMessage()));
+    }
+
+    private static boolean isCanceled(IOException e) {
+        // OkHttp 3.2 reports a cancelled call with a plain IOException; its Chain offers no access to the call
+        return "Canceled".equals(e.getMessage());
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to retry");
+        }
+    }
+
+    /**
+     * Send the request, and a second copy if the first has not completed within the hedge delay
+     *
+     * @return the first response, or the first failure if both attempts failed
+     */
+    private Response proceedHedged(Chain chain, Request request) throws IOException {
+        final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+        final AtomicBoolean decided = new AtomicBoolean();
+
+        Call primary = mHedgeFactory.newCall(request);
+        if (!start(primary, outcomes, decided)) {
+            // No thread to spare, send without hedging
+            return chain.proceed(request);
+        }
+        Call secondary = null;
+        Outcome outcome = null;
+        try {
+            outcome = outcomes.poll(mPolicy.getHedgeDelayMillis(), TimeUnit.MILLISECONDS);
+            if (outcome == null) {
+                secondary = mHedgeFactory.newCall(request);
+                if (start(secondary, outcomes, decided)) {
+                    mMetrics.onHedge();
+                    mMetrics.onAttempt();
+                    outcome = outcomes.take();
+                    if (outcome.error != null) {
+                        // The other attempt may still succeed
+                        outcome = outcomes.take();
+                    }
+                } else {
+                    secondary = null;
+                    outcome = outcomes.take();
+                }
+            }
+
+            decided.set(true);
+            drain(outcomes);
+            if (outcome.call == secondary) {
+                mMetrics.onHedgeWin();
+            }
+            if (outcome.error != null) {
+                throw rethrow(outcome.error);
+            }
+            return outcome.response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a hedged request");
+        } finally {
+            // Cancel the losing attempt only, cancelling the winner would abort reading its body
+            decided.set(true);
+            Call winner = outcome != null ? outcome.call : null;
+            if (winner != primary) {
+                primary.cancel();
+            }
+            if (secondary != null && winner != secondary) {
+                secondary.cancel();
+            }
+        }
+    }
+
+    /**
+     * @return false if the pool is saturated and the call was not started
+     */
+    private static boolean start(final Call call, final BlockingQueue<Outcome> outcomes, final AtomicBoolean decided) {
+        try {
+            sHedgeExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Outcome outcome = new Outcome(call);
+                    try {
+                        outcome.response = call.execute();
+                    } catch (Throwable t) {
+                        // Every attempt must report back, the caller is waiting for it
+                        outcome.error = t;
+                    }
+                    outcomes.add(outcome);
+                    if (decided.get()) {
+                        drain(outcomes);
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rethrow a failure of a hedged attempt on the calling thread
+     */
+    private static IOException rethrow(Throwable t) {
+        if (t instanceof IOException) {
+            return (IOException) t;
+        }
+        if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        }
+        if (t instanceof Error) {
+            throw (Error) t;
+        }
+        return new IOException(t);
+    }
+
+    /**
+     * Close responses which arrived after the winner was chosen
+     */
+    private static void drain(BlockingQueue<Outcome> outcomes) {
+        Outcome outcome;
+        while ((outcome = outcomes.poll()) != null) {
+            if (outcome.response != null) {
+                outcome.response.body().close();
+            }
+        }
+    }
+
+    private static class Outcome {
+
+        final Call call;
+        Response response;
+        Throwable error;
+
+        Outcome(Call call) {
+            this.call = call;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of {@link ResilienceInterceptor}, to see how much load retries and hedges add
+ */
+public class ResilienceMetrics {
+
+    private final AtomicLong mRequests = new AtomicLong();
+    private final AtomicLong mAttempts = new AtomicLong();
+    private final AtomicLong mRetries = new AtomicLong();
+    private final AtomicLong mHedges = new AtomicLong();
+    private final AtomicLong mHedgeWins = new AtomicLong();
+    private final AtomicLong mRejected = new AtomicLong();
+    private final AtomicLong mFailures = new AtomicLong();
+
+    void onRequest() {
+        mRequests.incrementAndGet();
+    }
+
+    void onAttempt() {
+        mAttempts.incrementAndGet();
+    }
+
+    void onRetry() {
+        mRetries.incrementAndGet();
+    }
+
+    void onHedge() {
+        mHedges.incrementAndGet();
+    }
+
+    void onHedgeWin() {
+        mHedgeWins.incrementAndGet();
+    }
+
+    void onRejected() {
+        mRejected.incrementAndGet();
+    }
+
+    void onFailure() {
+        mFailures.incrementAndGet();
+    }
+
+    /**
+     * @return requests made by callers
+     */
+    public long getRequests() {
+        return mRequests.get();
+    }
+
+    /**
+     * @return requests sent to the network, including retries and hedges
+     */
+    public long getAttempts() {
+        return mAttempts.get();
+    }
+
+    public long getRetries() {
+        return mRetries.get();
+    }
+
+    public long getHedges() {
+        return mHedges.get();
+    }
+
+    /**
+     * @return hedged requests whose response was used
+     */
+    public long getHedgeWins() {
+        return mHedgeWins.get();
+    }
+
+    /**
+     * @return requests failed fast by an open circuit
+     */
+    public long getRejected() {
+        return mRejected.get();
+    }
+
+    /**
+     * @return requests which still failed after all retries
+     */
+    public long getFailures() {
+        return mFailures.get();
+    }
+
+    /**
+     * @return network attempts per caller request, 1.0 when nothing was retried or hedged
+     */
+    public double getAmplification() {
+        long requests = mRequests.get();
+        return requests == 0 ? 1.0 : (double) mAttempts.get() / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "ResilienceMetrics{" +
+                "requests=" + getRequests() +
+                ", attempts=" + getAttempts() +
+                ", retries=" + getRetries() +
+                ", hedges=" + getHedges() +
+                ", hedgeWins=" + getHedgeWins() +
+                ", rejected=" + getRejected() +
+                ", failures=" + getFailures() +
+                ", amplification=" + getAmplification() +
+                '}';
+    }
+
+}
@@ -0,0 +1,123 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for {@link ResilienceInterceptor}: retries, hedged requests and the circuit breaker
+ *
+ * Defaults retry up to 3 times with jittered exponential backoff from 200 ms up to 10 seconds, leave hedging off,
+ * and open the circuit after 5 consecutive failures for 30 seconds.
+ */
+public class ResiliencePolicy {
+
+    private int maxRetries = 3;
+    private long baseDelayMillis = 200;
+    private long maxDelayMillis = TimeUnit.SECONDS.toMillis(10);
+    private long hedgeDelayMillis;
+    private int failureThreshold = 5;
+    private long openMillis = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * @param maxRetries retries after the first attempt, 0 to disable retrying
+     */
+    public ResiliencePolicy setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("Retries must not be negative");
+        }
+        this.maxRetries = maxRetries;
+        return this;
+    }
+
+    /**
+     * The delay before retry n is drawn uniformly from [0, min(maxDelay, baseDelay * 2^n)]. A Retry-After header
+     * longer than maxDelay is not waited for, the response is returned instead.
+     */
+    public ResiliencePolicy setBackoff(long baseDelay, long maxDelay, TimeUnit unit) {
+        if (baseDelay < 0 || maxDelay < baseDelay) {
+            throw new IllegalArgumentException("Delays must satisfy 0 <= baseDelay <= maxDelay");
+        }
+        this.baseDelayMillis = unit.toMillis(baseDelay);
+        this.maxDelayMillis = unit.toMillis(maxDelay);
+        return this;
+    }
+
+    /**
+     * Send a second, identical request when the first has not completed within the delay, and use whichever
+     * response arrives first. Only applies to idempotent requests, 0 disables hedging.
+     */
+    public ResiliencePolicy setHedgeDelay(long delay, TimeUnit unit) {
+        this.hedgeDelayMillis = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * @param failureThreshold consecutive failures after which requests to the host fail fast
+     * @param openDuration     how long the circuit stays open before a single trial request is let through
+     * @param unit
+     */
+    public ResiliencePolicy setCircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = unit.toMillis(openDuration);
+        return this;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public long getHedgeDelayMillis() {
+        return hedgeDelayMillis;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+}
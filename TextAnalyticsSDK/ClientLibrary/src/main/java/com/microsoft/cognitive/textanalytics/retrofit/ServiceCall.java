@@ -39,7 +39,7 @@ import retrofit2.Call;
  */
 public class ServiceCall {
 
-    private Call<?> call;
+    private volatile Call<?> call;
 
     public ServiceCall(Call<?> call) {
         this.call = call;
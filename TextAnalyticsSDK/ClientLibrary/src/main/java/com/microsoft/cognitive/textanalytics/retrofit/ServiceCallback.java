@@ -37,6 +37,7 @@ import android.util.Log;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 
+import okhttp3.Headers;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.Callback;
@@ -47,35 +48,82 @@ import retrofit2.Retrofit;
 /**
  * Custom callback, wrapper for Retrofit callback
  *
- * @param <T>
+ * Successful responses are delivered to {@link #onSuccess(Object)} with the typed body, HTTP errors and network
+ * failures to {@link #onError(Throwable)}, and cancelled calls to {@link #onCancel()}. HTTP errors arrive as a
+ * {@link ServiceException} carrying the status code and the {@link ServiceError} sent by the service. Override
+ * {@link #onSuccess(Object, Headers)} to read the response headers as well.
+ *
+ * @param <T> response body type
  */
-public abstract class ServiceCallback<T> implements Callback<ResponseBody> {
+public abstract class ServiceCallback<T> implements Callback<T> {
 
     private static final String TAG = ServiceCallback.class.getSimpleName();
-    private Retrofit retrofit;
+    private final Converter<ResponseBody, ServiceError> errorConverter;
 
-    public ServiceCallback( Retrofit retrofit) {
-        this.retrofit = retrofit;
+    /**
+     * @param client client whose error converter is used
+     */
+    public ServiceCallback(ServiceRequestClient client) {
+        this.errorConverter = client.getErrorConverter();
     }
 
-    @Override
-    public void onResponse(Call call, Response response) {
-
-        if(!response.isSuccessful()) {
-            ServiceError error = convertError(response);
-            Log.e(TAG, error.toString());
-        }
+    /**
+     * @param retrofit Retrofit instance the error converter is resolved from, once per callback
+     */
+    public ServiceCallback(Retrofit retrofit) {
+        this.errorConverter = retrofit.responseBodyConverter(ServiceError.class, new Annotation[0]);
     }
 
-    @Override
-    public void onFailure(Call call, Throwable t) {
+    /**
+     * @param body response body
+     */
+    public abstract void onSuccess(T body);
+
+    /**
+     * Override to read response headers, e.g. the Operation-Location of a submitted topic detection
+     *
+     * @param body    response body
+     * @param headers response headers
+     */
+    public void onSuccess(T body, Headers headers) {
+        onSuccess(body);
+    }
 
-        if (t instanceof IOException){
+    /**
+     * @param t {@link ServiceException} for HTTP errors, IOException for network failures
+     */
+    public void onError(Throwable t) {
+        if (t instanceof ServiceException) {
+            Log.e(TAG, String.valueOf(((ServiceException) t).getError()));
+        } else if (t instanceof IOException) {
             Log.e(TAG, "Error connecting to the server.");
         } else {
             Log.e(TAG, "Unexpected error - " + t.getLocalizedMessage());
         }
+    }
+
+    /**
+     * The call was cancelled through {@link ServiceCall#cancel()}
+     */
+    public void onCancel() {
+    }
 
+    @Override
+    public final void onResponse(Call<T> call, Response<T> response) {
+        if (response.isSuccessful()) {
+            onSuccess(response.body(), response.headers());
+        } else {
+            onError(new ServiceException(response.code(), convertError(response)));
+        }
+    }
+
+    @Override
+    public final void onFailure(Call<T> call, Throwable t) {
+        if (call.isCanceled()) {
+            onCancel();
+        } else {
+            onError(t);
+        }
     }
 
     /**
@@ -83,14 +131,13 @@ public abstract class ServiceCallback<T> implements Callback<ResponseBody> {
      * @param response
      * @return
      */
-    public ServiceError convertError(Response response) {
-        Converter<ResponseBody, ServiceError> converter = retrofit.responseBodyConverter(ServiceError.class, new Annotation[0]);
+    public ServiceError convertError(Response<?> response) {
         ServiceError serviceError = null;
 
         try {
-            serviceError = converter.convert(response.errorBody());
+            serviceError = errorConverter.convert(response.errorBody());
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.e(TAG, "Error reading error body - " + e.getMessage());
         }
 
         return serviceError;
@@ -33,63 +33,200 @@
 
 package com.microsoft.cognitive.textanalytics.retrofit;
 
+import com.google.gson.Gson;
+import com.microsoft.cognitive.textanalytics.analysis.AnalyzedDocument;
+import com.microsoft.cognitive.textanalytics.analysis.DocumentAnalyzer;
+import com.microsoft.cognitive.textanalytics.batch.DocumentPipeline;
+import com.microsoft.cognitive.textanalytics.batch.DocumentResult;
+import com.microsoft.cognitive.textanalytics.cache.CacheSplit;
+import com.microsoft.cognitive.textanalytics.cache.ResultCache;
+import com.microsoft.cognitive.textanalytics.cache.ResultType;
+import com.microsoft.cognitive.textanalytics.compression.GzipRequestInterceptor;
+import com.microsoft.cognitive.textanalytics.metrics.RequestMetrics;
+import com.microsoft.cognitive.textanalytics.model.adapter.ModelTypeAdapterFactory;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
 import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
 import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
 import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
 import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageColumns;
 import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentColumns;
 import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
 import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+import com.microsoft.cognitive.textanalytics.preprocess.DocumentPreprocessor;
+import com.microsoft.cognitive.textanalytics.preprocess.PreparedBatch;
+import com.microsoft.cognitive.textanalytics.ratelimit.RateLimitInterceptor;
+import com.microsoft.cognitive.textanalytics.ratelimit.RateLimitedCallFactory;
+import com.microsoft.cognitive.textanalytics.ratelimit.RateLimiter;
+import com.microsoft.cognitive.textanalytics.resilience.ResilienceInterceptor;
+import com.microsoft.cognitive.textanalytics.resilience.ResilienceMetrics;
+import com.microsoft.cognitive.textanalytics.resilience.ResiliencePolicy;
+import com.microsoft.cognitive.textanalytics.routing.RegionPolicy;
+import com.microsoft.cognitive.textanalytics.routing.RegionRouter;
+import com.microsoft.cognitive.textanalytics.streaming.DocumentStreamCallback;
+import com.microsoft.cognitive.textanalytics.streaming.DocumentStreams;
+import com.microsoft.cognitive.textanalytics.topics.PollingPolicy;
+import com.microsoft.cognitive.textanalytics.topics.TopicPoller;
 
 import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
 import okhttp3.Request;
 import okhttp3.ResponseBody;
 import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Converter;
 import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.adapter.rxjava.RxJavaCallAdapterFactory;
 import retrofit2.converter.gson.GsonConverterFactory;
 import rx.Observable;
+import rx.functions.Action2;
+import rx.functions.Func0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
 
 public class ServiceRequestClient {
 
     private static final String BASE_URL = "https://westus.api.cognitive.microsoft.com/text/analytics/v2.0/";
     private static final String mHeaderKey = "ocp-apim-subscription-key";
 
+    // Endpoint names, also used as the namespace of cached results
+    private static final String ENDPOINT_LANGUAGES = "languages";
+    private static final String ENDPOINT_KEY_PHRASES = "keyPhrases";
+    private static final String ENDPOINT_SENTIMENT = "sentiment";
+
+    // Process-wide transports (connection pool + dispatcher) and clients, keyed by their settings
+    private static final Map<String, OkHttpClient> sTransports = new HashMap<>();
+    private static final Map<String, ServiceRequestClient> sClients = new HashMap<>();
+
     private String mSubscriptionKey;
     private TextAnalyticsService mTextAnalyticsService;
     private Retrofit mRetrofit;
+    private ResultCache mResultCache;
+    private Gson mGson;
+    private Converter<ResponseBody, ServiceError> mErrorConverter;
+    private ExecutorService mBackgroundExecutor;
+    private ResilienceInterceptor mResilience;
+    private RateLimiter mRateLimiter;
+    private RequestMetrics mRequestMetrics;
+    private RegionRouter mRegionRouter;
+    private DocumentPreprocessor mPreprocessor;
 
+    /**
+     * Client on the shared default transport. Prefer {@link Builder}, which also reuses the Retrofit instance.
+     *
+     * @param key subscription key
+     */
     public ServiceRequestClient(String key) {
-        this.mSubscriptionKey = key;
+        this(new Builder(key));
+    }
+
+    private ServiceRequestClient(Builder builder) {
+        this.mSubscriptionKey = builder.subscriptionKey;
+        this.mResultCache = builder.resultCache;
+        this.mRequestMetrics = builder.requestMetrics;
+        this.mPreprocessor = builder.preprocessor;
 
         // Define the interceptor with authentication header
         Interceptor interceptor = new Interceptor() {
             @Override
             public okhttp3.Response intercept(Chain chain) throws IOException {
+                if (chain.request().header(mHeaderKey) != null) {
+                    // Set by the region router for a region with its own key
+                    return chain.proceed(chain.request());
+                }
                 Request newRequest = chain.request().newBuilder().addHeader(mHeaderKey, mSubscriptionKey).build();
                 return chain.proceed(newRequest);
             }
         };
 
-        // Add the interceptor to OkHttpClient
-        OkHttpClient.Builder builder = new OkHttpClient.Builder();
-        builder.interceptors().add(interceptor);
-        OkHttpClient client = builder.build();
+        // Derive from the shared transport, keeping its connection pool and dispatcher
+        OkHttpClient.Builder clientBuilder = builder.getTransport().newBuilder();
+        mBackgroundExecutor = builder.getTransport().dispatcher().executorService();
+        clientBuilder.interceptors().add(interceptor);
+        if (builder.requestsPerSecond > 0) {
+            // Below the retries, hedges and failovers so every attempt is metered, before the body is compressed
+            mRateLimiter = RateLimiter.forSubscriptionKey(mSubscriptionKey, builder.requestsPerSecond,
+                    builder.documentsPerMinute);
+            clientBuilder.interceptors().add(new RateLimitInterceptor(mRateLimiter));
+        }
+        if (builder.gzipRequestThreshold >= 0) {
+            clientBuilder.interceptors().add(new GzipRequestInterceptor(builder.gzipRequestThreshold));
+        }
+        if (mRequestMetrics != null) {
+            clientBuilder.interceptors().add(mRequestMetrics.getAttemptInterceptor());
+            clientBuilder.networkInterceptors().add(mRequestMetrics.getNetworkInterceptor());
+        }
+        OkHttpClient client = clientBuilder.build();
+
+        if (builder.resiliencePolicy != null) {
+            // Retries wrap the whole chain, hedged attempts go through the client without them
+            mResilience = new ResilienceInterceptor(builder.resiliencePolicy, client);
+            clientBuilder = client.newBuilder();
+            clientBuilder.interceptors().add(0, mResilience);
+            client = clientBuilder.build();
+        }
+
+        if (builder.regionPolicy != null) {
+            // Outside the retries, a region is failed over once its own retries are exhausted
+            mRegionRouter = new RegionRouter(builder.regionPolicy, HttpUrl.parse(builder.baseUrl),
+                    builder.getTransport());
+            clientBuilder = client.newBuilder();
+            clientBuilder.interceptors().add(0, mRegionRouter);
+            client = clientBuilder.build();
+            mRegionRouter.probe();
+        }
+
+        if (mRequestMetrics != null) {
+            // Outermost, so a call is timed across its retries and hedges
+            clientBuilder = client.newBuilder();
+            clientBuilder.interceptors().add(0, mRequestMetrics.getCallInterceptor());
+            client = clientBuilder.build();
+        }
+
+        // Asynchronous calls wait for the limiter before they reach the dispatcher
+        okhttp3.Call.Factory callFactory = client;
+        if (mRateLimiter != null) {
+            callFactory = new RateLimitedCallFactory(client, mRateLimiter);
+        }
 
-        // Retrofit
+        // Retrofit, request bodies carry their document count for the transport
+        mGson = ModelTypeAdapterFactory.createGson();
         mRetrofit = new Retrofit.Builder()
                 .addCallAdapterFactory(RxJavaCallAdapterFactory.create())
-                .addConverterFactory(GsonConverterFactory.create())
-                .baseUrl(BASE_URL)
-                .client(client)
+                .addConverterFactory(new DocumentCountConverterFactory())
+                .addConverterFactory(GsonConverterFactory.create(mGson))
+                .baseUrl(builder.baseUrl)
+                .callFactory(callFactory)
                 .build();
 
         // Service
         mTextAnalyticsService = mRetrofit.create(TextAnalyticsService.class);
+
+        // Resolved once, error responses are converted without a converter lookup
+        mErrorConverter = mRetrofit.responseBodyConverter(ServiceError.class, new Annotation[0]);
     }
 
 
@@ -97,6 +234,52 @@ public class ServiceRequestClient {
         return mRetrofit;
     }
 
+    /**
+     * @return converter for error bodies sent by the service
+     */
+    public Converter<ResponseBody, ServiceError> getErrorConverter() {
+        return mErrorConverter;
+    }
+
+    public ResultCache getResultCache() {
+        return mResultCache;
+    }
+
+    /**
+     * @return the pre-processor applied to the documents of each request, or null when not set
+     */
+    public DocumentPreprocessor getPreprocessor() {
+        return mPreprocessor;
+    }
+
+    /**
+     * @return retry, hedging and circuit breaker counters, or null when no resilience policy is set
+     */
+    public ResilienceMetrics getResilienceMetrics() {
+        return mResilience != null ? mResilience.getMetrics() : null;
+    }
+
+    /**
+     * @return the rate limiter shared by clients of this subscription key, or null when no rate limit is set
+     */
+    public RateLimiter getRateLimiter() {
+        return mRateLimiter;
+    }
+
+    /**
+     * @return latency and payload metrics of this client, or null when none are collected
+     */
+    public RequestMetrics getRequestMetrics() {
+        return mRequestMetrics;
+    }
+
+    /**
+     * @return the router choosing the region of each batch, or null when no regions are set
+     */
+    public RegionRouter getRegionRouter() {
+        return mRegionRouter;
+    }
+
     //region Languages
 
     /**
@@ -107,13 +290,35 @@ public class ServiceRequestClient {
      * @return
      */
     public Response getLanguages(LanguageRequest request, int numLanguages) {
+        if (mPreprocessor == null) {
+            return fetchLanguages(request, numLanguages);
+        }
 
-        Call<LanguageResponse> languageResponseCall = mTextAnalyticsService.getLanguages(request, numLanguages);
-        Response response = null;
-        try {
-            response = languageResponseCall.execute();
-        } catch (IOException e) {
-            e.printStackTrace();
+        PreparedBatch<RequestDoc> batch = mPreprocessor.prepare(request);
+        Response<LanguageResponse> response = batch.isEmpty()
+                ? Response.success(new LanguageResponse())
+                : fetchLanguages(new LanguageRequest(batch.getDocuments()), numLanguages);
+        if (response != null && response.isSuccessful()) {
+            expand(batch, response.body());
+        }
+        return response;
+    }
+
+    private Response<LanguageResponse> fetchLanguages(LanguageRequest request, int numLanguages) {
+        if (mResultCache == null) {
+            return execute(mTextAnalyticsService.getLanguages(request, numLanguages));
+        }
+
+        CacheSplit<RequestDoc, LanguageResponseDoc> split = new CacheSplit<>(mResultCache,
+                languagesEndpoint(numLanguages), request.getDocuments(), ResultType.LANGUAGE);
+        if (split.isComplete()) {
+            return Response.success(new LanguageResponse(split.merge(null), new ArrayList<Object>()));
+        }
+
+        Response<LanguageResponse> response = execute(
+                mTextAnalyticsService.getLanguages(new LanguageRequest(split.getMisses()), numLanguages));
+        if (response != null && response.isSuccessful()) {
+            response.body().setDocuments(split.merge(response.body().getDocuments()));
         }
         return response;
     }
@@ -127,16 +332,96 @@ public class ServiceRequestClient {
      * @return
      * @throws IllegalArgumentException
      */
-    public ServiceCall getLanguagesAsync(LanguageRequest request, int numLanguages, ServiceCallback serviceCallback)
+    public ServiceCall getLanguagesAsync(LanguageRequest request, int numLanguages, final ServiceCallback<LanguageResponse> serviceCallback)
             throws IllegalArgumentException {
         if (serviceCallback == null) {
             throw new IllegalArgumentException("Callback is required for async call");
         }
+        if (mPreprocessor == null) {
+            return fetchLanguagesAsync(request, numLanguages, serviceCallback);
+        }
+
+        final PreparedBatch<RequestDoc> batch = mPreprocessor.prepare(request);
+        if (batch.isEmpty()) {
+            // Nothing left to send, the call is never executed
+            final Call<LanguageResponse> call = mTextAnalyticsService.getLanguages(request, numLanguages);
+            final ServiceCall serviceCall = new ServiceCall(call);
+            mBackgroundExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    LanguageResponse response = new LanguageResponse();
+                    expand(batch, response);
+                    deliver(serviceCallback, call, Response.success(response), null);
+                }
+            });
+            return serviceCall;
+        }
+
+        return fetchLanguagesAsync(new LanguageRequest(batch.getDocuments()), numLanguages, new Callback<LanguageResponse>() {
+            @Override
+            public void onResponse(Call<LanguageResponse> call, Response<LanguageResponse> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    expand(batch, response.body());
+                }
+                serviceCallback.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call<LanguageResponse> call, Throwable t) {
+                serviceCallback.onFailure(call, t);
+            }
+        });
+    }
+
+    private ServiceCall fetchLanguagesAsync(final LanguageRequest request, final int numLanguages,
+                                            final Callback<LanguageResponse> serviceCallback) {
+        if (mResultCache == null) {
+            Call<LanguageResponse> call = mTextAnalyticsService.getLanguages(request, numLanguages);
+            final ServiceCall serviceCall = new ServiceCall(call);
+            call.enqueue(serviceCallback);
+            return serviceCall;
+        }
 
-        Call<LanguageResponse> call = mTextAnalyticsService.getLanguages(request, numLanguages);
+        final Call<LanguageResponse> call = mTextAnalyticsService.getLanguages(request, numLanguages);
         final ServiceCall serviceCall = new ServiceCall(call);
-        call.enqueue(serviceCallback);
+        // Keying and cache reads, possibly from disk, stay off the caller's thread
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final CacheSplit<RequestDoc, LanguageResponseDoc> split;
+                try {
+                    split = new CacheSplit<>(mResultCache, languagesEndpoint(numLanguages), request.getDocuments(),
+                            ResultType.LANGUAGE);
+                } catch (RuntimeException e) {
+                    deliver(serviceCallback, call, null, e);
+                    return;
+                }
+                if (split.isComplete()) {
+                    // Everything is cached, the call is never executed
+                    deliver(serviceCallback, call, Response.success(
+                            new LanguageResponse(split.merge(null), new ArrayList<Object>())), null);
+                    return;
+                }
 
+                Call<LanguageResponse> missCall = mTextAnalyticsService.getLanguages(
+                        new LanguageRequest(split.getMisses()), numLanguages);
+                swapCall(serviceCall, call, missCall);
+                missCall.enqueue(new Callback<LanguageResponse>() {
+                    @Override
+                    public void onResponse(Call<LanguageResponse> call, Response<LanguageResponse> response) {
+                        if (response.isSuccessful() && response.body() != null) {
+                            response.body().setDocuments(split.merge(response.body().getDocuments()));
+                        }
+                        serviceCallback.onResponse(call, response);
+                    }
+
+                    @Override
+                    public void onFailure(Call<LanguageResponse> call, Throwable t) {
+                        serviceCallback.onFailure(call, t);
+                    }
+                });
+            }
+        });
         return serviceCall;
     }
     //endregion
@@ -150,12 +435,34 @@ public class ServiceRequestClient {
      * @return
      */
     public Response callKeyPhrases(TextRequest request) {
-        Call<KeyPhrasesResponse> keyPhasesCall = mTextAnalyticsService.getKeyPhrases(request);
-        Response response = null;
-        try {
-            response = keyPhasesCall.execute();
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (mPreprocessor == null) {
+            return fetchKeyPhrases(request);
+        }
+
+        PreparedBatch<RequestDocIncludeLanguage> batch = mPreprocessor.prepare(request);
+        Response<KeyPhrasesResponse> response = batch.isEmpty()
+                ? Response.success(new KeyPhrasesResponse())
+                : fetchKeyPhrases(new TextRequest(batch.getDocuments()));
+        if (response != null && response.isSuccessful()) {
+            expand(batch, response.body());
+        }
+        return response;
+    }
+
+    private Response<KeyPhrasesResponse> fetchKeyPhrases(TextRequest request) {
+        if (mResultCache == null) {
+            return execute(mTextAnalyticsService.getKeyPhrases(request));
+        }
+
+        CacheSplit<RequestDocIncludeLanguage, KeyPhrasesResponseDoc> split = new CacheSplit<>(mResultCache,
+                ENDPOINT_KEY_PHRASES, request.getDocuments(), ResultType.KEY_PHRASES);
+        if (split.isComplete()) {
+            return Response.success(new KeyPhrasesResponse(split.merge(null)));
+        }
+
+        Response<KeyPhrasesResponse> response = execute(mTextAnalyticsService.getKeyPhrases(new TextRequest(split.getMisses())));
+        if (response != null && response.isSuccessful()) {
+            response.body().setDocuments(split.merge(response.body().getDocuments()));
         }
         return response;
     }
@@ -168,16 +475,93 @@ public class ServiceRequestClient {
      * @return
      * @throws IllegalArgumentException
      */
-    public ServiceCall getKeyPhrasesAsync(TextRequest request, ServiceCallback serviceCallback)
+    public ServiceCall getKeyPhrasesAsync(TextRequest request, final ServiceCallback<KeyPhrasesResponse> serviceCallback)
             throws IllegalArgumentException {
         if (serviceCallback == null) {
             throw new IllegalArgumentException("Callback is required for async call");
         }
+        if (mPreprocessor == null) {
+            return fetchKeyPhrasesAsync(request, serviceCallback);
+        }
+
+        final PreparedBatch<RequestDocIncludeLanguage> batch = mPreprocessor.prepare(request);
+        if (batch.isEmpty()) {
+            // Nothing left to send, the call is never executed
+            final Call<KeyPhrasesResponse> call = mTextAnalyticsService.getKeyPhrases(request);
+            final ServiceCall serviceCall = new ServiceCall(call);
+            mBackgroundExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    KeyPhrasesResponse response = new KeyPhrasesResponse();
+                    expand(batch, response);
+                    deliver(serviceCallback, call, Response.success(response), null);
+                }
+            });
+            return serviceCall;
+        }
 
-        Call<KeyPhrasesResponse> call = mTextAnalyticsService.getKeyPhrases(request);
+        return fetchKeyPhrasesAsync(new TextRequest(batch.getDocuments()), new Callback<KeyPhrasesResponse>() {
+            @Override
+            public void onResponse(Call<KeyPhrasesResponse> call, Response<KeyPhrasesResponse> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    expand(batch, response.body());
+                }
+                serviceCallback.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call<KeyPhrasesResponse> call, Throwable t) {
+                serviceCallback.onFailure(call, t);
+            }
+        });
+    }
+
+    private ServiceCall fetchKeyPhrasesAsync(final TextRequest request, final Callback<KeyPhrasesResponse> serviceCallback) {
+        if (mResultCache == null) {
+            Call<KeyPhrasesResponse> call = mTextAnalyticsService.getKeyPhrases(request);
+            final ServiceCall serviceCall = new ServiceCall(call);
+            call.enqueue(serviceCallback);
+            return serviceCall;
+        }
+
+        final Call<KeyPhrasesResponse> call = mTextAnalyticsService.getKeyPhrases(request);
         final ServiceCall serviceCall = new ServiceCall(call);
-        call.enqueue(serviceCallback);
+        // Keying and cache reads, possibly from disk, stay off the caller's thread
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final CacheSplit<RequestDocIncludeLanguage, KeyPhrasesResponseDoc> split;
+                try {
+                    split = new CacheSplit<>(mResultCache, ENDPOINT_KEY_PHRASES, request.getDocuments(),
+                            ResultType.KEY_PHRASES);
+                } catch (RuntimeException e) {
+                    deliver(serviceCallback, call, null, e);
+                    return;
+                }
+                if (split.isComplete()) {
+                    // Everything is cached, the call is never executed
+                    deliver(serviceCallback, call, Response.success(new KeyPhrasesResponse(split.merge(null))), null);
+                    return;
+                }
 
+                Call<KeyPhrasesResponse> missCall = mTextAnalyticsService.getKeyPhrases(new TextRequest(split.getMisses()));
+                swapCall(serviceCall, call, missCall);
+                missCall.enqueue(new Callback<KeyPhrasesResponse>() {
+                    @Override
+                    public void onResponse(Call<KeyPhrasesResponse> call, Response<KeyPhrasesResponse> response) {
+                        if (response.isSuccessful() && response.body() != null) {
+                            response.body().setDocuments(split.merge(response.body().getDocuments()));
+                        }
+                        serviceCallback.onResponse(call, response);
+                    }
+
+                    @Override
+                    public void onFailure(Call<KeyPhrasesResponse> call, Throwable t) {
+                        serviceCallback.onFailure(call, t);
+                    }
+                });
+            }
+        });
         return serviceCall;
     }
     //endregion
@@ -191,12 +575,34 @@ public class ServiceRequestClient {
      * @return
      */
     public Response callSentiments(TextRequest request) {
-        Call<SentimentResponse> sentimentCall = mTextAnalyticsService.getSentiments(request);
-        Response response = null;
-        try {
-            response = sentimentCall.execute();
-        } catch (IOException e) {
-            e.printStackTrace();
+        if (mPreprocessor == null) {
+            return fetchSentiments(request);
+        }
+
+        PreparedBatch<RequestDocIncludeLanguage> batch = mPreprocessor.prepare(request);
+        Response<SentimentResponse> response = batch.isEmpty()
+                ? Response.success(new SentimentResponse())
+                : fetchSentiments(new TextRequest(batch.getDocuments()));
+        if (response != null && response.isSuccessful()) {
+            expand(batch, response.body());
+        }
+        return response;
+    }
+
+    private Response<SentimentResponse> fetchSentiments(TextRequest request) {
+        if (mResultCache == null) {
+            return execute(mTextAnalyticsService.getSentiments(request));
+        }
+
+        CacheSplit<RequestDocIncludeLanguage, SentimentResponseDoc> split = new CacheSplit<>(mResultCache,
+                ENDPOINT_SENTIMENT, request.getDocuments(), ResultType.SENTIMENT);
+        if (split.isComplete()) {
+            return Response.success(new SentimentResponse(split.merge(null), new ArrayList<Object>()));
+        }
+
+        Response<SentimentResponse> response = execute(mTextAnalyticsService.getSentiments(new TextRequest(split.getMisses())));
+        if (response != null && response.isSuccessful()) {
+            response.body().setDocuments(split.merge(response.body().getDocuments()));
         }
         return response;
     }
@@ -208,29 +614,506 @@ public class ServiceRequestClient {
      * @param serviceCallback
      * @return
      */
-    public ServiceCall getSentimentAsync(TextRequest request, ServiceCallback serviceCallback) {
+    public ServiceCall getSentimentAsync(TextRequest request, final ServiceCallback<SentimentResponse> serviceCallback) {
         if (serviceCallback == null) {
             throw new IllegalArgumentException("Callback is required for async call");
         }
+        if (mPreprocessor == null) {
+            return fetchSentimentAsync(request, serviceCallback);
+        }
+
+        final PreparedBatch<RequestDocIncludeLanguage> batch = mPreprocessor.prepare(request);
+        if (batch.isEmpty()) {
+            // Nothing left to send, the call is never executed
+            final Call<SentimentResponse> call = mTextAnalyticsService.getSentiments(request);
+            final ServiceCall serviceCall = new ServiceCall(call);
+            mBackgroundExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    SentimentResponse response = new SentimentResponse();
+                    expand(batch, response);
+                    deliver(serviceCallback, call, Response.success(response), null);
+                }
+            });
+            return serviceCall;
+        }
 
-        Call<SentimentResponse> call = mTextAnalyticsService.getSentiments(request);
+        return fetchSentimentAsync(new TextRequest(batch.getDocuments()), new Callback<SentimentResponse>() {
+            @Override
+            public void onResponse(Call<SentimentResponse> call, Response<SentimentResponse> response) {
+                if (response.isSuccessful() && response.body() != null) {
+                    expand(batch, response.body());
+                }
+                serviceCallback.onResponse(call, response);
+            }
+
+            @Override
+            public void onFailure(Call<SentimentResponse> call, Throwable t) {
+                serviceCallback.onFailure(call, t);
+            }
+        });
+    }
+
+    private ServiceCall fetchSentimentAsync(final TextRequest request, final Callback<SentimentResponse> serviceCallback) {
+        if (mResultCache == null) {
+            Call<SentimentResponse> call = mTextAnalyticsService.getSentiments(request);
+            final ServiceCall serviceCall = new ServiceCall(call);
+            call.enqueue(serviceCallback);
+            return serviceCall;
+        }
+
+        final Call<SentimentResponse> call = mTextAnalyticsService.getSentiments(request);
         final ServiceCall serviceCall = new ServiceCall(call);
-        call.enqueue(serviceCallback);
+        // Keying and cache reads, possibly from disk, stay off the caller's thread
+        mBackgroundExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final CacheSplit<RequestDocIncludeLanguage, SentimentResponseDoc> split;
+                try {
+                    split = new CacheSplit<>(mResultCache, ENDPOINT_SENTIMENT, request.getDocuments(), ResultType.SENTIMENT);
+                } catch (RuntimeException e) {
+                    deliver(serviceCallback, call, null, e);
+                    return;
+                }
+                if (split.isComplete()) {
+                    // Everything is cached, the call is never executed
+                    deliver(serviceCallback, call, Response.success(
+                            new SentimentResponse(split.merge(null), new ArrayList<Object>())), null);
+                    return;
+                }
+
+                Call<SentimentResponse> missCall = mTextAnalyticsService.getSentiments(new TextRequest(split.getMisses()));
+                swapCall(serviceCall, call, missCall);
+                missCall.enqueue(new Callback<SentimentResponse>() {
+                    @Override
+                    public void onResponse(Call<SentimentResponse> call, Response<SentimentResponse> response) {
+                        if (response.isSuccessful() && response.body() != null) {
+                            response.body().setDocuments(split.merge(response.body().getDocuments()));
+                        }
+                        serviceCallback.onResponse(call, response);
+                    }
 
+                    @Override
+                    public void onFailure(Call<SentimentResponse> call, Throwable t) {
+                        serviceCallback.onFailure(call, t);
+                    }
+                });
+            }
+        });
         return serviceCall;
     }
 
     //endregion
 
+    private static <T> Response<T> execute(Call<T> call) {
+        Response<T> response = null;
+        try {
+            response = call.execute();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return response;
+    }
+
+    /**
+     * Point the service call at the call actually sent, carrying over a cancel of the one it replaces
+     */
+    private static void swapCall(ServiceCall serviceCall, Call<?> replaced, Call<?> call) {
+        serviceCall.setCall(call);
+        if (replaced.isCanceled()) {
+            // A cancelled call fails on enqueue, reaching the callback like any other cancel
+            call.cancel();
+        }
+    }
+
+    /**
+     * Deliver a result produced without a network call the way Retrofit delivers responses, through its callback
+     * executor (the main thread on Android) or else on the current background thread
+     */
+    private <T> void deliver(final Callback<T> callback, final Call<T> call, final Response<T> response,
+                             final Throwable failure) {
+        Runnable delivery = new Runnable() {
+            @Override
+            public void run() {
+                if (call.isCanceled()) {
+                    callback.onFailure(call, new IOException("Canceled"));
+                } else if (failure != null) {
+                    callback.onFailure(call, failure);
+                } else {
+                    callback.onResponse(call, response);
+                }
+            }
+        };
+        Executor callbackExecutor = mRetrofit.callbackExecutor();
+        if (callbackExecutor != null) {
+            callbackExecutor.execute(delivery);
+        } else {
+            delivery.run();
+        }
+    }
+
+    private static String languagesEndpoint(int numLanguages) {
+        return ENDPOINT_LANGUAGES + "/" + numLanguages;
+    }
+
+    private static void expand(PreparedBatch<?> batch, LanguageResponse response) {
+        response.setDocuments(batch.expand(response.getDocuments(), ResultType.LANGUAGE));
+        response.setErrors(batch.expandErrors(response.getErrors()));
+    }
+
+    private static void expand(PreparedBatch<?> batch, KeyPhrasesResponse response) {
+        response.setDocuments(batch.expand(response.getDocuments(), ResultType.KEY_PHRASES));
+        response.setErrors(batch.expandErrors(response.getErrors()));
+    }
+
+    private static void expand(PreparedBatch<?> batch, SentimentResponse response) {
+        response.setDocuments(batch.expand(response.getDocuments(), ResultType.SENTIMENT));
+        response.setErrors(batch.expandErrors(response.getErrors()));
+    }
+
+    //region RxJava
+
+    /**
+     * For use with RxJava, API call for language detection. The result cache is consulted on subscription.
+     *
+     * @param request
+     * @param numLanguages
+     * @return
+     */
+    public Observable<LanguageResponse> getLanguagesRx(final LanguageRequest request, final int numLanguages) {
+        if (mPreprocessor == null) {
+            return fetchLanguagesRx(request, numLanguages);
+        }
+
+        return Observable.defer(new Func0<Observable<LanguageResponse>>() {
+            @Override
+            public Observable<LanguageResponse> call() {
+                final PreparedBatch<RequestDoc> batch = mPreprocessor.prepare(request);
+                Observable<LanguageResponse> response = batch.isEmpty()
+                        ? Observable.just(new LanguageResponse())
+                        : fetchLanguagesRx(new LanguageRequest(batch.getDocuments()), numLanguages);
+                return response.map(new Func1<LanguageResponse, LanguageResponse>() {
+                    @Override
+                    public LanguageResponse call(LanguageResponse response) {
+                        expand(batch, response);
+                        return response;
+                    }
+                });
+            }
+        });
+    }
+
+    private Observable<LanguageResponse> fetchLanguagesRx(final LanguageRequest request, final int numLanguages) {
+        if (mResultCache == null) {
+            return mTextAnalyticsService.getLanguagesRx(request, numLanguages);
+        }
+        return Observable.defer(new Func0<Observable<LanguageResponse>>() {
+            @Override
+            public Observable<LanguageResponse> call() {
+                final CacheSplit<RequestDoc, LanguageResponseDoc> split = new CacheSplit<>(mResultCache,
+                        languagesEndpoint(numLanguages), request.getDocuments(), ResultType.LANGUAGE);
+                if (split.isComplete()) {
+                    return Observable.just(new LanguageResponse(split.merge(null), new ArrayList<Object>()));
+                }
+                return mTextAnalyticsService.getLanguagesRx(new LanguageRequest(split.getMisses()), numLanguages)
+                        .map(new Func1<LanguageResponse, LanguageResponse>() {
+                            @Override
+                            public LanguageResponse call(LanguageResponse response) {
+                                response.setDocuments(split.merge(response.getDocuments()));
+                                return response;
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * For use with RxJava, API call for key phrases. The result cache is consulted on subscription.
+     *
+     * @param request
+     * @return
+     */
+    public Observable<KeyPhrasesResponse> getKeyPhrasesRx(final TextRequest request) {
+        if (mPreprocessor == null) {
+            return fetchKeyPhrasesRx(request);
+        }
+
+        return Observable.defer(new Func0<Observable<KeyPhrasesResponse>>() {
+            @Override
+            public Observable<KeyPhrasesResponse> call() {
+                final PreparedBatch<RequestDocIncludeLanguage> batch = mPreprocessor.prepare(request);
+                Observable<KeyPhrasesResponse> response = batch.isEmpty()
+                        ? Observable.just(new KeyPhrasesResponse())
+                        : fetchKeyPhrasesRx(new TextRequest(batch.getDocuments()));
+                return response.map(new Func1<KeyPhrasesResponse, KeyPhrasesResponse>() {
+                    @Override
+                    public KeyPhrasesResponse call(KeyPhrasesResponse response) {
+                        expand(batch, response);
+                        return response;
+                    }
+                });
+            }
+        });
+    }
+
+    private Observable<KeyPhrasesResponse> fetchKeyPhrasesRx(final TextRequest request) {
+        if (mResultCache == null) {
+            return mTextAnalyticsService.getKeyPhrasesRx(request);
+        }
+        return Observable.defer(new Func0<Observable<KeyPhrasesResponse>>() {
+            @Override
+            public Observable<KeyPhrasesResponse> call() {
+                final CacheSplit<RequestDocIncludeLanguage, KeyPhrasesResponseDoc> split = new CacheSplit<>(mResultCache,
+                        ENDPOINT_KEY_PHRASES, request.getDocuments(), ResultType.KEY_PHRASES);
+                if (split.isComplete()) {
+                    return Observable.just(new KeyPhrasesResponse(split.merge(null)));
+                }
+                return mTextAnalyticsService.getKeyPhrasesRx(new TextRequest(split.getMisses()))
+                        .map(new Func1<KeyPhrasesResponse, KeyPhrasesResponse>() {
+                            @Override
+                            public KeyPhrasesResponse call(KeyPhrasesResponse response) {
+                                response.setDocuments(split.merge(response.getDocuments()));
+                                return response;
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * For use with RxJava, API call for sentiment scores. The result cache is consulted on subscription.
+     *
+     * @param request
+     * @return
+     */
+    public Observable<SentimentResponse> getSentimentRx(final TextRequest request) {
+        if (mPreprocessor == null) {
+            return fetchSentimentRx(request);
+        }
+
+        return Observable.defer(new Func0<Observable<SentimentResponse>>() {
+            @Override
+            public Observable<SentimentResponse> call() {
+                final PreparedBatch<RequestDocIncludeLanguage> batch = mPreprocessor.prepare(request);
+                Observable<SentimentResponse> response = batch.isEmpty()
+                        ? Observable.just(new SentimentResponse())
+                        : fetchSentimentRx(new TextRequest(batch.getDocuments()));
+                return response.map(new Func1<SentimentResponse, SentimentResponse>() {
+                    @Override
+                    public SentimentResponse call(SentimentResponse response) {
+                        expand(batch, response);
+                        return response;
+                    }
+                });
+            }
+        });
+    }
+
+    private Observable<SentimentResponse> fetchSentimentRx(final TextRequest request) {
+        if (mResultCache == null) {
+            return mTextAnalyticsService.getSentimentsRx(request);
+        }
+        return Observable.defer(new Func0<Observable<SentimentResponse>>() {
+            @Override
+            public Observable<SentimentResponse> call() {
+                final CacheSplit<RequestDocIncludeLanguage, SentimentResponseDoc> split = new CacheSplit<>(mResultCache,
+                        ENDPOINT_SENTIMENT, request.getDocuments(), ResultType.SENTIMENT);
+                if (split.isComplete()) {
+                    return Observable.just(new SentimentResponse(split.merge(null), new ArrayList<Object>()));
+                }
+                return mTextAnalyticsService.getSentimentsRx(new TextRequest(split.getMisses()))
+                        .map(new Func1<SentimentResponse, SentimentResponse>() {
+                            @Override
+                            public SentimentResponse call(SentimentResponse response) {
+                                response.setDocuments(split.merge(response.getDocuments()));
+                                return response;
+                            }
+                        });
+            }
+        });
+    }
+
+    /**
+     * For use with RxJava, language detection over a stream of documents. Documents are grouped into requests
+     * of batchSize, with at most maxConcurrent requests in flight; the upstream is only requested as fast as
+     * batches complete. Results are emitted in completion order, one per document holding its result or error;
+     * a failed request terminates the stream. See {@link DocumentPipeline} for more options.
+     *
+     * @param documents     documents with unique ids
+     * @param numLanguages
+     * @param batchSize     documents per request
+     * @param maxConcurrent maximum number of requests in flight
+     * @return
+     */
+    public Observable<DocumentResult<LanguageResponseDoc>> getLanguagesRx(Observable<RequestDoc> documents,
+                                                                          int numLanguages, int batchSize,
+                                                                          int maxConcurrent) {
+        return new DocumentPipeline(this, batchSize, maxConcurrent, false).languages(documents, numLanguages);
+    }
+
+    /**
+     * For use with RxJava, key phrases over a stream of documents, see
+     * {@link #getLanguagesRx(Observable, int, int, int)} for batching and concurrency
+     *
+     * @param documents     documents with unique ids
+     * @param batchSize     documents per request
+     * @param maxConcurrent maximum number of requests in flight
+     * @return
+     */
+    public Observable<DocumentResult<KeyPhrasesResponseDoc>> getKeyPhrasesRx(
+            Observable<RequestDocIncludeLanguage> documents, int batchSize, int maxConcurrent) {
+        return new DocumentPipeline(this, batchSize, maxConcurrent, false).keyPhrases(documents);
+    }
+
+    /**
+     * For use with RxJava, sentiment scores over a stream of documents, see
+     * {@link #getLanguagesRx(Observable, int, int, int)} for batching and concurrency
+     *
+     * @param documents     documents with unique ids
+     * @param batchSize     documents per request
+     * @param maxConcurrent maximum number of requests in flight
+     * @return
+     */
+    public Observable<DocumentResult<SentimentResponseDoc>> getSentimentRx(
+            Observable<RequestDocIncludeLanguage> documents, int batchSize, int maxConcurrent) {
+        return new DocumentPipeline(this, batchSize, maxConcurrent, false).sentiment(documents);
+    }
+
+    //endregion
+
+    //region Analysis
+
+    /**
+     * For use with RxJava, language detection followed by sentiment and key phrases in the detected language,
+     * joined into one result per document. See {@link DocumentAnalyzer} for batching and language selection.
+     *
+     * @param documents documents with unique ids
+     * @return results in input order
+     */
+    public Observable<List<AnalyzedDocument>> analyzeRx(List<RequestDoc> documents) {
+        return new DocumentAnalyzer(this).analyze(documents);
+    }
+
+    //endregion
+
+    //region Columnar
+
+    /**
+     * Get the top detected language of each document as parallel arrays, for bulk processing.
+     * Bypasses the result cache.
+     *
+     * @param request
+     * @param numLanguages
+     * @return
+     */
+    public Response<LanguageColumns> callLanguagesColumnar(LanguageRequest request, int numLanguages) {
+        return execute(mTextAnalyticsService.getLanguagesColumnar(request, numLanguages));
+    }
+
+    /**
+     * Get sentiment scores as parallel arrays, for bulk processing. Bypasses the result cache.
+     *
+     * @param request
+     * @return
+     */
+    public Response<SentimentColumns> callSentimentsColumnar(TextRequest request) {
+        return execute(mTextAnalyticsService.getSentimentsColumnar(request));
+    }
+
+    //endregion
+
+    //region Streaming
+
+    /**
+     * Get languages, pushing each document to the callback as the response is parsed.
+     * Executes on the calling thread and bypasses the result cache.
+     *
+     * @param request
+     * @param numLanguages
+     * @param callback
+     */
+    public void callLanguagesStreaming(LanguageRequest request, int numLanguages,
+                                       DocumentStreamCallback<LanguageResponseDoc> callback) {
+        DocumentStreams.read(mTextAnalyticsService.getLanguagesStreaming(request, numLanguages), mErrorConverter,
+                mGson, LanguageResponseDoc.class, callback);
+    }
+
+    /**
+     * Get key phrases, pushing each document to the callback as the response is parsed.
+     * Executes on the calling thread and bypasses the result cache.
+     *
+     * @param request
+     * @param callback
+     */
+    public void callKeyPhrasesStreaming(TextRequest request, DocumentStreamCallback<KeyPhrasesResponseDoc> callback) {
+        DocumentStreams.read(mTextAnalyticsService.getKeyPhrasesStreaming(request), mErrorConverter, mGson,
+                KeyPhrasesResponseDoc.class, callback);
+    }
+
+    /**
+     * Get sentiment scores, pushing each document to the callback as the response is parsed.
+     * Executes on the calling thread and bypasses the result cache.
+     *
+     * @param request
+     * @param callback
+     */
+    public void callSentimentsStreaming(TextRequest request, DocumentStreamCallback<SentimentResponseDoc> callback) {
+        DocumentStreams.read(mTextAnalyticsService.getSentimentsStreaming(request), mErrorConverter, mGson,
+                SentimentResponseDoc.class, callback);
+    }
+
+    /**
+     * For use with RxJava, languages emitted one document at a time as the response is parsed
+     *
+     * @param request
+     * @param numLanguages
+     * @param documentErrorAction receives the id and message of each document rejected by the service
+     * @return
+     */
+    public Observable<LanguageResponseDoc> getLanguagesStreamRx(LanguageRequest request, int numLanguages,
+                                                                Action2<String, String> documentErrorAction) {
+        return DocumentStreams.observe(mTextAnalyticsService.getLanguagesStreaming(request, numLanguages),
+                mErrorConverter, mGson, LanguageResponseDoc.class, documentErrorAction);
+    }
+
+    /**
+     * For use with RxJava, key phrases emitted one document at a time as the response is parsed
+     *
+     * @param request
+     * @param documentErrorAction receives the id and message of each document rejected by the service
+     * @return
+     */
+    public Observable<KeyPhrasesResponseDoc> getKeyPhrasesStreamRx(TextRequest request,
+                                                                   Action2<String, String> documentErrorAction) {
+        return DocumentStreams.observe(mTextAnalyticsService.getKeyPhrasesStreaming(request), mErrorConverter, mGson,
+                KeyPhrasesResponseDoc.class, documentErrorAction);
+    }
+
+    /**
+     * For use with RxJava, sentiment scores emitted one document at a time as the response is parsed
+     *
+     * @param request
+     * @param documentErrorAction receives the id and message of each document rejected by the service
+     * @return
+     */
+    public Observable<SentimentResponseDoc> getSentimentsStreamRx(TextRequest request,
+                                                                  Action2<String, String> documentErrorAction) {
+        return DocumentStreams.observe(mTextAnalyticsService.getSentimentsStreaming(request), mErrorConverter, mGson,
+                SentimentResponseDoc.class, documentErrorAction);
+    }
+
+    //endregion
+
     //region Detected Topics
 
     /**
      * 1. Async API call for getting operationId, to be used for GET call of topics detection
      * @param request
-     * @param serviceCallback
+     * @param serviceCallback receives the Operation-Location header in
+     *                        {@link ServiceCallback#onSuccess(Object, Headers)}
      * @return
      */
-    public ServiceCall getTopicsOpIdAsync(TopicRequest request, ServiceCallback serviceCallback) {
+    public ServiceCall getTopicsOpIdAsync(TopicRequest request, ServiceCallback<Void> serviceCallback) {
         if (serviceCallback == null) {
             throw new IllegalArgumentException("Callback is required for async call");
         }
@@ -248,7 +1131,7 @@ public class ServiceRequestClient {
      * @param serviceCallback
      * @return
      */
-    public ServiceCall getTopicsAsync(String operationId, ServiceCallback serviceCallback){
+    public ServiceCall getTopicsAsync(String operationId, ServiceCallback<TopicResponse> serviceCallback){
         if (serviceCallback == null) {
             throw new IllegalArgumentException("Callback is required for async call");
         }
@@ -279,5 +1162,249 @@ public class ServiceRequestClient {
         return mTextAnalyticsService.getDetectedTopicsRx(operationsId);
     }
 
+    /**
+     * 2. For use with RxJava, polls topics detection with the default {@link PollingPolicy} until the operation
+     * has succeeded or failed, emitting only the final response
+     *
+     * @param operationLocation
+     * @return
+     */
+    public Observable<TopicResponse> pollTopicsRx(String operationLocation) {
+        return pollTopicsRx(operationLocation, PollingPolicy.DEFAULT);
+    }
+
+    /**
+     * 2. For use with RxJava, polls topics detection until the operation has succeeded or failed
+     *
+     * @param operationLocation
+     * @param policy
+     * @return
+     */
+    public Observable<TopicResponse> pollTopicsRx(String operationLocation, PollingPolicy policy) {
+        return new TopicPoller(this, policy, Schedulers.io()).poll(operationLocation);
+    }
+
+    //endregion
+
+    //region Builder
+
+    /**
+     * Builder for clients sharing one connection pool, dispatcher and Retrofit instance per process
+     *
+     * Builders with the same transport settings share the connection pool and dispatcher, and those with the same
+     * subscription key and settings as well get the very same client back, unless they set a result cache,
+     * resilience policy, request metrics, region policy or pre-processor.
+     */
+    public static class Builder {
+
+        private final String subscriptionKey;
+        private String baseUrl = BASE_URL;
+
+        // OkHttp's default of 5 requests per host caps throughput for batch workloads
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 16;
+        private int maxIdleConnections = 5;
+        private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+        private boolean preferHttp2 = true;
+        private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+        private long readTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+        private long writeTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+        private ResultCache resultCache;
+        private ResiliencePolicy resiliencePolicy;
+        private double requestsPerSecond;
+        private double documentsPerMinute;
+        private long gzipRequestThreshold = -1;
+        private RequestMetrics requestMetrics;
+        private RegionPolicy regionPolicy;
+        private DocumentPreprocessor preprocessor;
+
+        public Builder(String subscriptionKey) {
+            this.subscriptionKey = subscriptionKey;
+        }
+
+        /**
+         * Service root including the API version, e.g. another region or a local stand-in server
+         */
+        public Builder setBaseUrl(String baseUrl) {
+            if (baseUrl == null || HttpUrl.parse(baseUrl) == null) {
+                throw new IllegalArgumentException("Invalid base URL: " + baseUrl);
+            }
+            this.baseUrl = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+            return this;
+        }
+
+        public Builder setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        public Builder setMaxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        public Builder setMaxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * How long idle connections are kept alive in the pool
+         */
+        public Builder setKeepAlive(long duration, TimeUnit unit) {
+            this.keepAliveMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * Whether to negotiate HTTP/2 when the server supports it, otherwise HTTP/1.1 only
+         */
+        public Builder setPreferHttp2(boolean preferHttp2) {
+            this.preferHttp2 = preferHttp2;
+            return this;
+        }
+
+        public Builder setConnectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder setReadTimeout(long timeout, TimeUnit unit) {
+            this.readTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder setWriteTimeout(long timeout, TimeUnit unit) {
+            this.writeTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        /**
+         * Cache consulted per document, so only documents without a cached result are sent
+         */
+        public Builder setResultCache(ResultCache resultCache) {
+            this.resultCache = resultCache;
+            return this;
+        }
+
+        /**
+         * Retry transient failures, hedge slow requests and fail fast on unhealthy hosts, off by default
+         */
+        public Builder setResiliencePolicy(ResiliencePolicy resiliencePolicy) {
+            this.resiliencePolicy = resiliencePolicy;
+            return this;
+        }
+
+        /**
+         * Meter outgoing calls to the subscription tier's quota, queueing them rather than having the service
+         * reject them with 429. Retried, hedged and failed over attempts are metered too. The limiter is shared
+         * by all clients of the subscription key, which must therefore all use the same rates.
+         */
+        public Builder setRateLimit(double requestsPerSecond, double documentsPerMinute) {
+            if (requestsPerSecond <= 0 || documentsPerMinute <= 0) {
+                throw new IllegalArgumentException("Rates must be positive");
+            }
+            this.requestsPerSecond = requestsPerSecond;
+            this.documentsPerMinute = documentsPerMinute;
+            return this;
+        }
+
+        /**
+         * Gzip-compress request bodies of at least the given size, -1 (the default) to send them uncompressed
+         */
+        public Builder setGzipRequestThreshold(long minBytes) {
+            this.gzipRequestThreshold = minBytes;
+            return this;
+        }
+
+        /**
+         * Record per-endpoint latency, payload and status code metrics into the given collector
+         */
+        public Builder setRequestMetrics(RequestMetrics requestMetrics) {
+            this.requestMetrics = requestMetrics;
+            return this;
+        }
+
+        /**
+         * Send each batch to the fastest healthy of the given regions instead of the base URL, failing over to
+         * the next region on errors
+         */
+        public Builder setRegionPolicy(RegionPolicy regionPolicy) {
+            this.regionPolicy = regionPolicy;
+            return this;
+        }
+
+        /**
+         * Normalize, truncate and collapse duplicate documents of each request before it is sent, fanning the
+         * results back to every document
+         */
+        public Builder setPreprocessor(DocumentPreprocessor preprocessor) {
+            this.preprocessor = preprocessor;
+            return this;
+        }
+
+        /**
+         * @return the shared client for this subscription key and settings, or a new client when it has a result
+         * cache, resilience policy, request metrics, region policy or pre-processor
+         */
+        public ServiceRequestClient build() {
+            if (subscriptionKey == null) {
+                throw new IllegalArgumentException("Subscription key is required");
+            }
+            if (maxRequests < 1 || maxRequestsPerHost < 1) {
+                throw new IllegalArgumentException("Max requests must be positive");
+            }
+
+            if (resultCache != null || resiliencePolicy != null || requestMetrics != null || regionPolicy != null
+                    || preprocessor != null) {
+                // Clients with their own collaborators are not cached, they only share the transport
+                return new ServiceRequestClient(this);
+            }
+
+            synchronized (sClients) {
+                String clientKey = transportKey() + '|' + baseUrl + '|' + subscriptionKey
+                        + '|' + requestsPerSecond + ',' + documentsPerMinute + '|' + gzipRequestThreshold;
+                ServiceRequestClient client = sClients.get(clientKey);
+                if (client == null) {
+                    client = new ServiceRequestClient(this);
+                    sClients.put(clientKey, client);
+                }
+                return client;
+            }
+        }
+
+        OkHttpClient getTransport() {
+            synchronized (sTransports) {
+                String key = transportKey();
+                OkHttpClient transport = sTransports.get(key);
+                if (transport == null) {
+                    Dispatcher dispatcher = new Dispatcher();
+                    dispatcher.setMaxRequests(maxRequests);
+                    dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+
+                    List<Protocol> protocols = preferHttp2
+                            ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                            : Collections.singletonList(Protocol.HTTP_1_1);
+
+                    transport = new OkHttpClient.Builder()
+                            .dispatcher(dispatcher)
+                            .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS))
+                            .protocols(protocols)
+                            .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                            .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                            .writeTimeout(writeTimeoutMillis, TimeUnit.MILLISECONDS)
+                            .build();
+                    sTransports.put(key, transport);
+                }
+                return transport;
+            }
+        }
+
+        private String transportKey() {
+            return maxRequests + "," + maxRequestsPerHost + "," + maxIdleConnections + "," + keepAliveMillis + ","
+                    + preferHttp2 + "," + connectTimeoutMillis + "," + readTimeoutMillis + "," + writeTimeoutMillis;
+        }
+    }
+
     //endregion
 }
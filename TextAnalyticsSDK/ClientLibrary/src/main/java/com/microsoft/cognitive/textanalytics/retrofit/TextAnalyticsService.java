@@ -36,7 +36,9 @@ import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.
 import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
 import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
 import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageColumns;
 import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentColumns;
 import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
 import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
 
@@ -47,6 +49,7 @@ import retrofit2.http.Body;
 import retrofit2.http.GET;
 import retrofit2.http.POST;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 import retrofit2.http.Url;
 import rx.Observable;
 
@@ -61,11 +64,41 @@ public interface TextAnalyticsService {
     @POST("sentiment")
     Call<SentimentResponse> getSentiments(@Body TextRequest body);
 
+    // Observables for RxJava
+    @POST("languages")
+    Observable<LanguageResponse> getLanguagesRx(@Body LanguageRequest body, @Query("numberOfLanguagesToDetect") int numLanguage);
+
+    @POST("keyPhrases")
+    Observable<KeyPhrasesResponse> getKeyPhrasesRx(@Body TextRequest body);
+
+    @POST("sentiment")
+    Observable<SentimentResponse> getSentimentsRx(@Body TextRequest body);
+
+    // Streaming variants, the raw body is parsed incrementally instead of being converted as a whole
+    @Streaming
+    @POST("languages")
+    Call<ResponseBody> getLanguagesStreaming(@Body LanguageRequest body, @Query("numberOfLanguagesToDetect") int numLanguage);
+
+    @Streaming
+    @POST("keyPhrases")
+    Call<ResponseBody> getKeyPhrasesStreaming(@Body TextRequest body);
+
+    @Streaming
+    @POST("sentiment")
+    Call<ResponseBody> getSentimentsStreaming(@Body TextRequest body);
+
+    // Columnar variants, the body is converted into parallel arrays instead of one object per document
+    @POST("languages")
+    Call<LanguageColumns> getLanguagesColumnar(@Body LanguageRequest body, @Query("numberOfLanguagesToDetect") int numLanguage);
+
+    @POST("sentiment")
+    Call<SentimentColumns> getSentimentsColumnar(@Body TextRequest body);
+
     // 1st call for retrieving detected topics, one time request
     @POST("topics")
     Call<Void> retrieveTopicsUrl(@Body TopicRequest body);
 
-    // 2nd call for detected topics, to be polled every 60 seconds
+    // 2nd call for detected topics, to be polled until the status is "Succeeded" or "Failed", see TopicPoller
     @GET
     Call<TopicResponse> getDetectedTopics(@Url String operationId);
 
@@ -73,7 +106,7 @@ public interface TextAnalyticsService {
     @POST("topics")
     Observable<Response<ResponseBody>> retrieveTopicsUrlRx(@Body TopicRequest body);
 
-    // Observable for RxJava - 2nd call for detected topics, to be polled every 60 seconds
+    // Observable for RxJava - 2nd call for detected topics, to be polled until the status is "Succeeded" or "Failed"
     @GET
     Observable<TopicResponse> getDetectedTopicsRx(@Url String operationId);
 
@@ -0,0 +1,78 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.routing;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Regional deployment of the service
+ */
+public class Region {
+
+    private final String name;
+    private final HttpUrl baseUrl;
+    private final String subscriptionKey;
+
+    /**
+     * @param name            e.g. "westus"
+     * @param baseUrl         service root including the API version
+     * @param subscriptionKey key valid in this region, null to use the client's key
+     */
+    public Region(String name, String baseUrl, String subscriptionKey) {
+        HttpUrl url = baseUrl != null ? HttpUrl.parse(baseUrl.endsWith("/") ? baseUrl : baseUrl + "/") : null;
+        if (name == null || url == null) {
+            throw new IllegalArgumentException("Region needs a name and a valid base URL");
+        }
+        this.name = name;
+        this.baseUrl = url;
+        this.subscriptionKey = subscriptionKey;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public HttpUrl getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getSubscriptionKey() {
+        return subscriptionKey;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+}
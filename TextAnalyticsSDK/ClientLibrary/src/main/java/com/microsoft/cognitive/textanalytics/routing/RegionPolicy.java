@@ -0,0 +1,108 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.routing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for {@link RegionRouter}: the regions to choose from, how often their latency is probed and when a
+ * failing region is skipped
+ *
+ * Defaults probe every 5 minutes and skip a region for 30 seconds after 3 consecutive failed calls.
+ */
+public class RegionPolicy {
+
+    private final List<Region> regions = new ArrayList<>();
+    private long probeIntervalMillis = TimeUnit.MINUTES.toMillis(5);
+    private int failureThreshold = 3;
+    private long openMillis = TimeUnit.SECONDS.toMillis(30);
+
+    /**
+     * @param name    e.g. "westeurope"
+     * @param baseUrl e.g. "https://westeurope.api.cognitive.microsoft.com/text/analytics/v2.0/"
+     */
+    public RegionPolicy addRegion(String name, String baseUrl) {
+        return addRegion(name, baseUrl, null);
+    }
+
+    /**
+     * @param subscriptionKey key valid in this region, null to use the client's key
+     */
+    public RegionPolicy addRegion(String name, String baseUrl, String subscriptionKey) {
+        regions.add(new Region(name, baseUrl, subscriptionKey));
+        return this;
+    }
+
+    /**
+     * How often the latency of every region is measured again, 0 to probe only when the client is created
+     */
+    public RegionPolicy setProbeInterval(long interval, TimeUnit unit) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Interval must not be negative");
+        }
+        this.probeIntervalMillis = unit.toMillis(interval);
+        return this;
+    }
+
+    /**
+     * Skip a region for the open duration after the given number of consecutive failed calls
+     */
+    public RegionPolicy setCircuitBreaker(int failureThreshold, long openDuration, TimeUnit unit) {
+        if (failureThreshold < 1 || openDuration < 0) {
+            throw new IllegalArgumentException("Threshold must be positive and duration not negative");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = unit.toMillis(openDuration);
+        return this;
+    }
+
+    public List<Region> getRegions() {
+        return Collections.unmodifiableList(regions);
+    }
+
+    public long getProbeIntervalMillis() {
+        return probeIntervalMillis;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public long getOpenMillis() {
+        return openMillis;
+    }
+
+}
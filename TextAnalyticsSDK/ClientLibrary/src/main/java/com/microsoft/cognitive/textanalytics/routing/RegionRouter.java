@@ -0,0 +1,312 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.routing;
+
+import com.microsoft.cognitive.textanalytics.resilience.CircuitBreaker;
+import com.microsoft.cognitive.textanalytics.resilience.CircuitBreakerOpenException;
+import com.microsoft.cognitive.textanalytics.resilience.ResilienceInterceptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Application interceptor sending each batch to the fastest healthy region, failing over to the next on errors
+ *
+ * Region latency is measured with probes, a GET of each region's base URL: the first one warms up the connection
+ * (DNS, TCP and TLS), the second is timed. Probes run when the client is created and again after the probe
+ * interval, so every region is compared on the same small request rather than on batches of different sizes.
+ *
+ * Only POST requests to the client's base URL are routed; polling a topic operation follows its absolute
+ * Operation-Location to the region which runs it. A call failing with a network error, throttling or a server
+ * error counts against the region's circuit breaker and is sent to the next region, the last failure is passed
+ * on once all regions have been tried. Topic submissions are not idempotent, they are only sent to the next
+ * region after throttling or a failure to connect. Install outside the {@link
+ * com.microsoft.cognitive.textanalytics.resilience.ResilienceInterceptor}, so retries stay within a region.
+ */
+public class RegionRouter implements Interceptor {
+
+    public static final String HEADER_SUBSCRIPTION_KEY = "ocp-apim-subscription-key";
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+    private static final String METHOD_POST = "POST";
+    private static final long UNMEASURED = Long.MAX_VALUE - 1;
+    private static final long UNREACHABLE = Long.MAX_VALUE;
+
+    // Weight of a new probe in the smoothed latency
+    private static final double PROBE_WEIGHT = 0.5;
+
+    private final RegionPolicy mPolicy;
+    private final String mBaseUrl;
+    private final Call.Factory mProbeFactory;
+    private final List<RegionState> mRegions = new ArrayList<>();
+    private final AtomicLong mLastProbe = new AtomicLong();
+    private final AtomicLong mFailovers = new AtomicLong();
+
+    /**
+     * @param policy
+     * @param baseUrl      the client's base URL, requests below it are routed
+     * @param probeFactory factory for probes, normally the bare transport so probes carry no subscription key
+     */
+    public RegionRouter(RegionPolicy policy, HttpUrl baseUrl, Call.Factory probeFactory) {
+        if (policy.getRegions().isEmpty()) {
+            throw new IllegalArgumentException("At least one region is required");
+        }
+        this.mPolicy = policy;
+        this.mBaseUrl = baseUrl.toString();
+        this.mProbeFactory = probeFactory;
+        for (Region region : policy.getRegions()) {
+            mRegions.add(new RegionState(region,
+                    new CircuitBreaker(policy.getFailureThreshold(), policy.getOpenMillis())));
+        }
+    }
+
+    /**
+     * Measure the latency of every region in the background
+     */
+    public void probe() {
+        mLastProbe.set(System.currentTimeMillis());
+        for (RegionState region : mRegions) {
+            probe(region, true);
+        }
+    }
+
+    /**
+     * @return the region the next batch would be sent to, skipping regions whose circuit is open
+     */
+    public Region getRegion() {
+        for (RegionState region : ranked()) {
+            if (region.breaker.getState() != CircuitBreaker.State.OPEN) {
+                return region.region;
+            }
+        }
+        return ranked().get(0).region;
+    }
+
+    /**
+     * @param name
+     * @return smoothed probe latency of the region in milliseconds, -1 if not measured or unreachable
+     */
+    public double getLatencyMillis(String name) {
+        for (RegionState region : mRegions) {
+            if (region.region.getName().equals(name)) {
+                long nanos = region.latencyNanos;
+                return nanos >= UNMEASURED ? -1 : nanos / 1e6;
+            }
+        }
+        throw new IllegalArgumentException("Unknown region " + name);
+    }
+
+    /**
+     * @return calls sent to another region after the preferred one failed
+     */
+    public long getFailoverCount() {
+        return mFailovers.get();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String url = request.url().toString();
+        if (!METHOD_POST.equals(request.method()) || !url.startsWith(mBaseUrl)) {
+            return chain.proceed(request);
+        }
+        probeIfStale();
+
+        String relative = url.substring(mBaseUrl.length());
+        // Topic submissions are only sent again when the failed attempt cannot have reached the service
+        boolean idempotent = ResilienceInterceptor.isIdempotent(request);
+        Response response = null;
+        IOException error = null;
+        int tried = 0;
+        for (RegionState region : ranked()) {
+            if (!region.breaker.allowRequest()) {
+                continue;
+            }
+            if (response != null) {
+                response.body().close();
+                response = null;
+            }
+            if (tried++ > 0) {
+                mFailovers.incrementAndGet();
+            }
+
+            boolean recorded = false;
+            try {
+                try {
+                    response = chain.proceed(route(request, region.region, relative));
+                } catch (IOException e) {
+                    if (isCanceled(e)) {
+                        throw e;
+                    }
+                    region.breaker.onFailure();
+                    recorded = true;
+                    if (!idempotent && !ResilienceInterceptor.isConnectFailure(e)) {
+                        throw e;
+                    }
+                    error = e;
+                    continue;
+                }
+                if (!isRetriable(response.code())) {
+                    region.breaker.onSuccess();
+                    recorded = true;
+                    return response;
+                }
+                region.breaker.onFailure();
+                recorded = true;
+                if (!idempotent && response.code() != HTTP_TOO_MANY_REQUESTS) {
+                    return response;
+                }
+            } finally {
+                if (!recorded) {
+                    // Cancelled, or failed with an unexpected exception: the region was not judged
+                    region.breaker.onCancel();
+                }
+            }
+        }
+
+        if (response != null) {
+            return response;
+        }
+        if (error != null) {
+            throw error;
+        }
+        throw new CircuitBreakerOpenException(mRegions.toString());
+    }
+
+    private static Request route(Request request, Region region, String relative) {
+        Request.Builder routed = request.newBuilder().url(region.getBaseUrl() + relative);
+        if (region.getSubscriptionKey() != null) {
+            routed.header(HEADER_SUBSCRIPTION_KEY, region.getSubscriptionKey());
+        }
+        return routed.build();
+    }
+
+    /**
+     * @return regions by smoothed latency, unmeasured regions in the order they were added
+     */
+    private List<RegionState> ranked() {
+        // Insertion sort on a snapshot, probes may update the latencies meanwhile
+        int size = mRegions.size();
+        List<RegionState> ranked = new ArrayList<>(size);
+        long[] latencies = new long[size];
+        for (RegionState region : mRegions) {
+            long latency = region.latencyNanos;
+            int i = ranked.size();
+            while (i > 0 && latencies[i - 1] > latency) {
+                latencies[i] = latencies[i - 1];
+                i--;
+            }
+            latencies[i] = latency;
+            ranked.add(i, region);
+        }
+        return ranked;
+    }
+
+    private void probeIfStale() {
+        long interval = mPolicy.getProbeIntervalMillis();
+        long last = mLastProbe.get();
+        if (interval > 0 && System.currentTimeMillis() - last >= interval
+                && mLastProbe.compareAndSet(last, System.currentTimeMillis())) {
+            for (RegionState region : mRegions) {
+                probe(region, false);
+            }
+        }
+    }
+
+    /**
+     * @param warmUp send an untimed probe first, to open the connection
+     */
+    private void probe(final RegionState region, final boolean warmUp) {
+        Request request = new Request.Builder().url(region.region.getBaseUrl()).get().build();
+        final long start = System.nanoTime();
+        mProbeFactory.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                response.body().close();
+                if (warmUp) {
+                    probe(region, false);
+                } else {
+                    region.onProbe(System.nanoTime() - start);
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                region.latencyNanos = UNREACHABLE;
+            }
+        });
+    }
+
+    static boolean isRetriable(int code) {
+        return code == HTTP_TOO_MANY_REQUESTS || code >= HTTP_SERVER_ERROR;
+    }
+
+    private static boolean isCanceled(IOException e) {
+        // OkHttp 3.2 reports a cancelled call with a plain IOException
+        return "Canceled".equals(e.getMessage());
+    }
+
+    private static class RegionState {
+
+        final Region region;
+        final CircuitBreaker breaker;
+        volatile long latencyNanos = UNMEASURED;
+
+        RegionState(Region region, CircuitBreaker breaker) {
+            this.region = region;
+            this.breaker = breaker;
+        }
+
+        synchronized void onProbe(long nanos) {
+            long previous = latencyNanos;
+            latencyNanos = previous >= UNMEASURED ? nanos
+                    : (long) (PROBE_WEIGHT * nanos + (1 - PROBE_WEIGHT) * previous);
+        }
+
+        @Override
+        public String toString() {
+            return region.getName();
+        }
+    }
+
+}
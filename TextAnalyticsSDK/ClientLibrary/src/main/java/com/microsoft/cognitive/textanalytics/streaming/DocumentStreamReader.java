@@ -0,0 +1,142 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.streaming;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Pull parser for the "documents" array of a response body
+ *
+ * Only one result document is materialized at a time. Entries of the "errors" array are passed to the
+ * callback as they are encountered, whether they come before or after the documents.
+ *
+ * @param <R> result document type
+ */
+public class DocumentStreamReader<R> implements Closeable {
+
+    private final JsonReader mReader;
+    private final TypeAdapter<R> mAdapter;
+    private final DocumentStreamCallback<R> mErrorCallback;
+    private boolean mInDocuments;
+    private boolean mDone;
+
+    /**
+     * @param gson          Gson providing the adapter of the result type
+     * @param type          result document type
+     * @param in            response body
+     * @param errorCallback receives document errors, may be null
+     * @throws IOException when the body is not a JSON object
+     */
+    public DocumentStreamReader(Gson gson, Class<R> type, Reader in, DocumentStreamCallback<R> errorCallback)
+            throws IOException {
+        this.mReader = new JsonReader(in);
+        this.mAdapter = gson.getAdapter(type);
+        this.mErrorCallback = errorCallback;
+        mReader.beginObject();
+    }
+
+    /**
+     * @return the next result document, or null at the end of the response
+     * @throws IOException on malformed JSON or connection errors
+     */
+    public R next() throws IOException {
+        while (true) {
+            if (mInDocuments) {
+                if (mReader.hasNext()) {
+                    return mAdapter.read(mReader);
+                }
+                mReader.endArray();
+                mInDocuments = false;
+            }
+            if (mDone) {
+                return null;
+            }
+            if (!mReader.hasNext()) {
+                mReader.endObject();
+                mDone = true;
+                return null;
+            }
+
+            String name = mReader.nextName();
+            if (mReader.peek() == JsonToken.NULL) {
+                mReader.nextNull();
+            } else if ("documents".equals(name)) {
+                mReader.beginArray();
+                mInDocuments = true;
+            } else if ("errors".equals(name)) {
+                readErrors();
+            } else {
+                mReader.skipValue();
+            }
+        }
+    }
+
+    private void readErrors() throws IOException {
+        mReader.beginArray();
+        while (mReader.hasNext()) {
+            String id = null;
+            String message = null;
+            mReader.beginObject();
+            while (mReader.hasNext()) {
+                String name = mReader.nextName();
+                if (mReader.peek() == JsonToken.NULL) {
+                    mReader.nextNull();
+                } else if ("id".equals(name)) {
+                    id = mReader.nextString();
+                } else if ("message".equals(name)) {
+                    message = mReader.nextString();
+                } else {
+                    mReader.skipValue();
+                }
+            }
+            mReader.endObject();
+            if (mErrorCallback != null) {
+                mErrorCallback.onDocumentError(id, message);
+            }
+        }
+        mReader.endArray();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mReader.close();
+    }
+
+}
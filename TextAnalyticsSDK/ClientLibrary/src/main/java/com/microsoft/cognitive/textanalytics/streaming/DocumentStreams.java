@@ -0,0 +1,176 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.streaming;
+
+import com.google.gson.Gson;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceError;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceException;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Converter;
+import retrofit2.Response;
+import rx.Observable;
+import rx.Observer;
+import rx.functions.Action2;
+import rx.functions.Func1;
+import rx.observables.SyncOnSubscribe;
+
+/**
+ * Executes streaming calls and hands the result documents over as they are parsed
+ */
+public final class DocumentStreams {
+
+    private DocumentStreams() {
+    }
+
+    /**
+     * Execute the call on the current thread, pushing each document to the callback as it is parsed
+     *
+     * @param call     streaming call returning the raw body
+     * @param errorConverter converts error bodies, see {@link ServiceRequestClient#getErrorConverter()}
+     * @param gson     used to parse result documents
+     * @param type     result document type
+     * @param callback receives documents, errors and completion
+     */
+    public static <R> void read(Call<ResponseBody> call, Converter<ResponseBody, ServiceError> errorConverter,
+                                Gson gson, Class<R> type, DocumentStreamCallback<R> callback) {
+        ResponseBody body = null;
+        try {
+            body = open(call, errorConverter);
+            DocumentStreamReader<R> reader = new DocumentStreamReader<>(gson, type, body.charStream(), callback);
+            for (R document = reader.next(); document != null; document = reader.next()) {
+                callback.onDocument(document);
+            }
+        } catch (IOException | ServiceException | RuntimeException e) {
+            // Runtime exceptions include malformed documents, e.g. JsonSyntaxException
+            callback.onFailure(e);
+            return;
+        } finally {
+            if (body != null) {
+                body.close();
+            }
+        }
+        callback.onComplete();
+    }
+
+    /**
+     * Observable executing the call on subscription and emitting documents as they are parsed, honoring
+     * backpressure: the body is only read as fast as documents are requested. Documents rejected by the
+     * service are not emitted, they are passed to the document error action as they are parsed.
+     *
+     * @param documentErrorAction receives the id and message of each rejected document
+     */
+    public static <R> Observable<R> observe(final Call<ResponseBody> call,
+                                            final Converter<ResponseBody, ServiceError> errorConverter,
+                                            final Gson gson, final Class<R> type,
+                                            final Action2<String, String> documentErrorAction) {
+        if (documentErrorAction == null) {
+            throw new IllegalArgumentException("Document error action is required");
+        }
+        final DocumentStreamCallback<R> errorCallback = new DocumentStreamCallback<R>() {
+            @Override
+            public void onDocument(R document) {
+            }
+
+            @Override
+            public void onDocumentError(String id, String message) {
+                documentErrorAction.call(id, message);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+            }
+        };
+
+        return Observable.fromCallable(new Callable<ResponseBody>() {
+            @Override
+            public ResponseBody call() throws Exception {
+                return open(call.clone(), errorConverter);
+            }
+        }).flatMap(new Func1<ResponseBody, Observable<R>>() {
+            @Override
+            public Observable<R> call(final ResponseBody body) {
+                return Observable.create(new SyncOnSubscribe<DocumentStreamReader<R>, R>() {
+                    @Override
+                    protected DocumentStreamReader<R> generateState() {
+                        try {
+                            return new DocumentStreamReader<>(gson, type, body.charStream(), errorCallback);
+                        } catch (IOException e) {
+                            body.close();
+                            throw new IllegalStateException("Malformed response", e);
+                        }
+                    }
+
+                    @Override
+                    protected DocumentStreamReader<R> next(DocumentStreamReader<R> reader, Observer<? super R> observer) {
+                        try {
+                            R document = reader.next();
+                            if (document != null) {
+                                observer.onNext(document);
+                            } else {
+                                observer.onCompleted();
+                            }
+                        } catch (IOException | RuntimeException e) {
+                            observer.onError(e);
+                        }
+                        return reader;
+                    }
+
+                    @Override
+                    protected void onUnsubscribe(DocumentStreamReader<R> reader) {
+                        body.close();
+                    }
+                });
+            }
+        });
+    }
+
+    private static ResponseBody open(Call<ResponseBody> call, Converter<ResponseBody, ServiceError> errorConverter)
+            throws IOException, ServiceException {
+        Response<ResponseBody> response = call.execute();
+        if (!response.isSuccessful()) {
+            throw new ServiceException(response.code(), errorConverter.convert(response.errorBody()));
+        }
+        return response.body();
+    }
+
+}
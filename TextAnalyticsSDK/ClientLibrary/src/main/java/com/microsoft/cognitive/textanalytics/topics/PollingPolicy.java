@@ -0,0 +1,107 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.topics;
+
+import com.microsoft.cognitive.textanalytics.retrofit.RetryAfter;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Headers;
+
+/**
+ * Schedule for polling a topic detection operation
+ *
+ * Polls start fast and back off exponentially up to a maximum interval; a Retry-After header sent by the service
+ * takes precedence over the computed delay. Polling gives up once the timeout has elapsed.
+ */
+public class PollingPolicy {
+
+    /**
+     * First poll after 1 second, doubling up to 30 seconds, giving up after 30 minutes
+     */
+    public static final PollingPolicy DEFAULT = new PollingPolicy(
+            TimeUnit.SECONDS.toMillis(1), TimeUnit.SECONDS.toMillis(30), 2, TimeUnit.MINUTES.toMillis(30), TimeUnit.MILLISECONDS);
+
+    private final long mInitialDelayMillis;
+    private final long mMaxDelayMillis;
+    private final double mMultiplier;
+    private final long mTimeoutMillis;
+
+    /**
+     * @param initialDelay delay before the first poll
+     * @param maxDelay     upper bound of the delay between polls
+     * @param multiplier   factor the delay grows by after every poll, at least 1
+     * @param timeout      time after which polling fails
+     * @param unit
+     */
+    public PollingPolicy(long initialDelay, long maxDelay, double multiplier, long timeout, TimeUnit unit) {
+        if (initialDelay < 0 || maxDelay < initialDelay) {
+            throw new IllegalArgumentException("Delays must satisfy 0 <= initialDelay <= maxDelay");
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("Multiplier must be at least 1");
+        }
+        this.mInitialDelayMillis = unit.toMillis(initialDelay);
+        this.mMaxDelayMillis = unit.toMillis(maxDelay);
+        this.mMultiplier = multiplier;
+        this.mTimeoutMillis = unit.toMillis(timeout);
+    }
+
+    public long getInitialDelayMillis() {
+        return mInitialDelayMillis;
+    }
+
+    public long getTimeoutMillis() {
+        return mTimeoutMillis;
+    }
+
+    /**
+     * @param attempt number of polls made so far
+     * @return delay before the next poll
+     */
+    public long getDelayMillis(int attempt) {
+        double delay = mInitialDelayMillis * Math.pow(mMultiplier, attempt);
+        return delay >= mMaxDelayMillis ? mMaxDelayMillis : (long) delay;
+    }
+
+    /**
+     * @param attempt number of polls made so far
+     * @param headers headers of the last response, may be null
+     * @return the Retry-After delay if the service sent one, the backoff delay otherwise
+     */
+    public long getDelayMillis(int attempt, Headers headers) {
+        long retryAfter = RetryAfter.millis(headers);
+        return retryAfter >= 0 ? retryAfter : getDelayMillis(attempt);
+    }
+
+}
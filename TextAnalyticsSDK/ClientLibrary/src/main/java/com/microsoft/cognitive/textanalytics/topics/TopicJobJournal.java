@@ -0,0 +1,275 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.topics;
+
+import android.util.Log;
+
+import com.microsoft.cognitive.textanalytics.cache.CacheKeys;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistent record of submitted topic detection operations
+ *
+ * Each entry maps a request fingerprint to the operation's Operation-Location and state, so polling can resume
+ * after the process was killed, and an identical {@link TopicRequest} is attached to the existing operation instead
+ * of being submitted again. The journal is a small text file, rewritten through a temporary file and a rename on
+ * every change so a crash leaves either the old or the new version. Finished entries are dropped after the
+ * retention period, as the service does not keep results indefinitely.
+ */
+public class TopicJobJournal {
+
+    private static final String TAG = TopicJobJournal.class.getSimpleName();
+
+    private static final String ENCODING = "UTF-8";
+    private static final char SEPARATOR = '\t';
+    private static final long DEFAULT_RETENTION_MILLIS = TimeUnit.HOURS.toMillis(24);
+
+    public enum State {
+        PENDING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    public static class Entry {
+
+        private final String fingerprint;
+        private final String operationLocation;
+        private final State state;
+        private final long submittedAt;
+
+        Entry(String fingerprint, String operationLocation, State state, long submittedAt) {
+            this.fingerprint = fingerprint;
+            this.operationLocation = operationLocation;
+            this.state = state;
+            this.submittedAt = submittedAt;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public String getOperationLocation() {
+            return operationLocation;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        public long getSubmittedAt() {
+            return submittedAt;
+        }
+    }
+
+    private final File mFile;
+    private final long mRetentionMillis;
+
+    // Keyed by fingerprint, in submission order
+    private final Map<String, Entry> mEntries = new LinkedHashMap<>();
+
+    /**
+     * @param file journal file, e.g. under Context.getFilesDir()
+     * @throws IOException when an existing journal cannot be read
+     */
+    public TopicJobJournal(File file) throws IOException {
+        this(file, DEFAULT_RETENTION_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param file      journal file, e.g. under Context.getFilesDir()
+     * @param retention how long finished operations are remembered
+     * @param unit      unit of retention
+     * @throws IOException when an existing journal cannot be read
+     */
+    public TopicJobJournal(File file, long retention, TimeUnit unit) throws IOException {
+        this.mFile = file;
+        this.mRetentionMillis = unit.toMillis(retention);
+        load();
+    }
+
+    /**
+     * @param request
+     * @return SHA-1 hex digest over the documents, stop words and stop phrases of the request
+     */
+    public static String fingerprint(TopicRequest request) {
+        // NUL and STX are not whitespace, so they survive the normalization applied to cache keys
+        StringBuilder sb = new StringBuilder();
+        for (RequestDoc doc : orEmpty(request.getDocuments())) {
+            sb.append(doc.getId()).append('\u0000').append(doc.getText()).append('\u0002');
+        }
+        sb.append('\u0000');
+        for (String word : orEmpty(request.getStopWords())) {
+            sb.append(word).append('\u0002');
+        }
+        sb.append('\u0000');
+        for (String phrase : orEmpty(request.getStopPhrases())) {
+            sb.append(phrase).append('\u0002');
+        }
+        return CacheKeys.of("topics", null, sb.toString());
+    }
+
+    // A missing list, e.g. stop words set to null, is fingerprinted as an empty one
+    private static <T> List<T> orEmpty(List<T> list) {
+        return list != null ? list : Collections.<T>emptyList();
+    }
+
+    /**
+     * @param fingerprint
+     * @return the entry for an identical request still within retention, or null
+     */
+    public synchronized Entry find(String fingerprint) {
+        return mEntries.get(fingerprint);
+    }
+
+    /**
+     * Record a newly submitted operation as pending
+     */
+    public synchronized void record(String fingerprint, String operationLocation) {
+        mEntries.remove(fingerprint);
+        mEntries.put(fingerprint, new Entry(fingerprint, operationLocation, State.PENDING, System.currentTimeMillis()));
+        save();
+    }
+
+    /**
+     * @param operationLocation
+     * @param state
+     */
+    public synchronized void update(String operationLocation, State state) {
+        for (Map.Entry<String, Entry> mapEntry : mEntries.entrySet()) {
+            Entry entry = mapEntry.getValue();
+            if (entry.operationLocation.equals(operationLocation)) {
+                if (entry.state != state) {
+                    mapEntry.setValue(new Entry(entry.fingerprint, operationLocation, state, entry.submittedAt));
+                    save();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return operations which were submitted but have not finished yet
+     */
+    public synchronized List<Entry> pending() {
+        List<Entry> pending = new ArrayList<>();
+        for (Entry entry : mEntries.values()) {
+            if (entry.state == State.PENDING) {
+                pending.add(entry);
+            }
+        }
+        return pending;
+    }
+
+    private void load() throws IOException {
+        if (!mFile.exists()) {
+            return;
+        }
+        long expiredBefore = System.currentTimeMillis() - mRetentionMillis;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(mFile), ENCODING));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(String.valueOf(SEPARATOR), 4);
+                if (fields.length < 4) {
+                    // Skip a truncated line rather than losing the whole journal
+                    continue;
+                }
+                try {
+                    Entry entry = new Entry(fields[0], fields[3], State.valueOf(fields[1]), Long.parseLong(fields[2]));
+                    if (entry.state == State.PENDING || entry.submittedAt >= expiredBefore) {
+                        mEntries.put(entry.fingerprint, entry);
+                    }
+                } catch (IllegalArgumentException e) {
+                    Log.e(TAG, "Skipping malformed journal entry - " + e.getMessage());
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void save() {
+        long expiredBefore = System.currentTimeMillis() - mRetentionMillis;
+        for (Iterator<Entry> it = mEntries.values().iterator(); it.hasNext(); ) {
+            Entry entry = it.next();
+            if (entry.state != State.PENDING && entry.submittedAt < expiredBefore) {
+                it.remove();
+            }
+        }
+
+        File temp = new File(mFile.getPath() + ".tmp");
+        try {
+            FileOutputStream out = new FileOutputStream(temp);
+            Writer writer = new OutputStreamWriter(out, ENCODING);
+            try {
+                for (Entry entry : mEntries.values()) {
+                    writer.write(entry.fingerprint);
+                    writer.write(SEPARATOR);
+                    writer.write(entry.state.name());
+                    writer.write(SEPARATOR);
+                    writer.write(String.valueOf(entry.submittedAt));
+                    writer.write(SEPARATOR);
+                    writer.write(entry.operationLocation);
+                    writer.write('\n');
+                }
+                writer.flush();
+                out.getFD().sync();
+            } finally {
+                writer.close();
+            }
+            if (!temp.renameTo(mFile)) {
+                throw new IOException("Cannot replace " + mFile);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing topic job journal - " + e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,512 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.topics;
+
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceError;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceException;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+import com.microsoft.cognitive.textanalytics.retrofit.TextAnalyticsService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import okhttp3.Headers;
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Converter;
+import retrofit2.Response;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscription;
+import rx.functions.Action0;
+import rx.functions.Func1;
+import rx.schedulers.Schedulers;
+import rx.subjects.AsyncSubject;
+
+/**
+ * Polls any number of topic detection operations from a single timer
+ *
+ * Outstanding operations are kept in a queue ordered by their next poll time; one scheduled action is armed for
+ * the earliest of them, and at most maxConcurrentPolls polls are in flight on OkHttp's dispatcher at a time. Each
+ * operation follows its own {@link PollingPolicy} schedule, so thread and timer usage does not grow with the
+ * number of jobs. Listeners are called on OkHttp's callback threads.
+ *
+ * With a {@link TopicJobJournal}, operations started through {@link #submit(TopicRequest)} are persisted: an
+ * identical request attaches to the operation already recorded, and {@link #resume(TopicJobListener)} picks up
+ * polling of unfinished operations after a restart.
+ */
+public class TopicJobTracker {
+
+    public static final String HEADER_OPERATION_LOCATION = "Operation-Location";
+
+    private static final int DEFAULT_MAX_CONCURRENT_POLLS = 4;
+
+    private final TextAnalyticsService mService;
+    private final Converter<ResponseBody, ServiceError> mErrorConverter;
+    private final PollingPolicy mPolicy;
+    private final int mMaxConcurrentPolls;
+    private final Scheduler.Worker mWorker;
+    private final TopicJobJournal mJournal;
+
+    // Guarded by this
+    private final Map<String, Job> mJobs = new HashMap<>();
+    private final PriorityQueue<Job> mQueue = new PriorityQueue<>();
+    private int mInFlight;
+    private Subscription mTimer;
+    private long mTimerDueAt = Long.MAX_VALUE;
+    private boolean mShutdown;
+
+    public TopicJobTracker(ServiceRequestClient client) {
+        this(client, PollingPolicy.DEFAULT, DEFAULT_MAX_CONCURRENT_POLLS);
+    }
+
+    /**
+     * @param client
+     * @param policy             polling schedule applied to every operation
+     * @param maxConcurrentPolls maximum number of polls in flight
+     */
+    public TopicJobTracker(ServiceRequestClient client, PollingPolicy policy, int maxConcurrentPolls) {
+        this(client, policy, maxConcurrentPolls, null);
+    }
+
+    /**
+     * @param journal journal of submitted operations, may be null
+     */
+    public TopicJobTracker(ServiceRequestClient client, PollingPolicy policy, int maxConcurrentPolls,
+                           TopicJobJournal journal) {
+        if (maxConcurrentPolls < 1) {
+            throw new IllegalArgumentException("At least one poll must be allowed in flight");
+        }
+        this.mService = client.getRetrofit().create(TextAnalyticsService.class);
+        this.mErrorConverter = client.getErrorConverter();
+        this.mPolicy = policy;
+        this.mMaxConcurrentPolls = maxConcurrentPolls;
+        this.mWorker = Schedulers.computation().createWorker();
+        this.mJournal = journal;
+    }
+
+    /**
+     * Start tracking an operation, or add a listener to one already tracked
+     *
+     * @param operationLocation value of the Operation-Location header returned when the request was submitted
+     * @param listener
+     */
+    public void track(String operationLocation, TopicJobListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener is required");
+        }
+        synchronized (this) {
+            if (mShutdown) {
+                throw new IllegalStateException("Tracker has been shut down");
+            }
+            Job job = mJobs.get(operationLocation);
+            if (job == null) {
+                long now = mWorker.now();
+                job = new Job(operationLocation, now + mPolicy.getInitialDelayMillis(), now + mPolicy.getTimeoutMillis());
+                mJobs.put(operationLocation, job);
+                mQueue.add(job);
+            }
+            job.listeners.add(listener);
+        }
+        drain();
+    }
+
+    /**
+     * For use with RxJava, emits the final response of the operation and completes
+     *
+     * @param operationLocation
+     * @return
+     */
+    public Observable<TopicResponse> track(String operationLocation) {
+        final AsyncSubject<TopicResponse> subject = AsyncSubject.create();
+        track(operationLocation, new TopicJobListener() {
+            @Override
+            public void onFinished(String operationLocation, TopicResponse response) {
+                subject.onNext(response);
+                subject.onCompleted();
+            }
+
+            @Override
+            public void onError(String operationLocation, Throwable t) {
+                subject.onError(t);
+            }
+        });
+        return subject;
+    }
+
+    /**
+     * Submit a topic detection request and track the resulting operation
+     *
+     * With a journal, an identical request which is still pending or has succeeded within the retention period is
+     * not submitted again; the recorded operation is tracked instead, and the request is only resubmitted if the
+     * service no longer knows that operation. The request is sent immediately, whether or not the Observable is
+     * subscribed to.
+     *
+     * @param request
+     * @return Observable emitting the final response and completing
+     */
+    public Observable<TopicResponse> submit(final TopicRequest request) {
+        if (mJournal == null) {
+            return post(request, null);
+        }
+
+        final String fingerprint = TopicJobJournal.fingerprint(request);
+        TopicJobJournal.Entry entry = mJournal.find(fingerprint);
+        if (entry == null || entry.getState() == TopicJobJournal.State.FAILED) {
+            return post(request, fingerprint);
+        }
+
+        return trackJournaled(entry.getOperationLocation())
+                .onErrorResumeNext(new Func1<Throwable, Observable<TopicResponse>>() {
+                    @Override
+                    public Observable<TopicResponse> call(Throwable t) {
+                        // The service rejected the recorded operation, e.g. because its result has expired
+                        return t instanceof ServiceException
+                                ? post(request, fingerprint)
+                                : Observable.<TopicResponse>error(t);
+                    }
+                });
+    }
+
+    /**
+     * Resume tracking the operations the journal recorded as unfinished, e.g. after the process was restarted
+     *
+     * @param listener
+     * @return number of operations resumed
+     */
+    public int resume(TopicJobListener listener) {
+        if (mJournal == null) {
+            throw new IllegalStateException("Resuming requires a journal");
+        }
+        List<TopicJobJournal.Entry> pending = mJournal.pending();
+        for (TopicJobJournal.Entry entry : pending) {
+            track(entry.getOperationLocation(), new JournalListener(listener));
+        }
+        return pending.size();
+    }
+
+    /**
+     * Stop tracking an operation without notifying its listeners
+     *
+     * @param operationLocation
+     */
+    public void cancel(String operationLocation) {
+        Call<TopicResponse> call;
+        synchronized (this) {
+            Job job = mJobs.remove(operationLocation);
+            if (job == null) {
+                return;
+            }
+            mQueue.remove(job);
+            call = job.call;
+        }
+        if (call != null) {
+            call.cancel();
+        }
+    }
+
+    /**
+     * @return number of operations being tracked
+     */
+    public synchronized int size() {
+        return mJobs.size();
+    }
+
+    /**
+     * Cancel all tracked operations and release the timer
+     */
+    public void shutdown() {
+        List<Job> jobs;
+        synchronized (this) {
+            mShutdown = true;
+            jobs = new ArrayList<>(mJobs.values());
+            mJobs.clear();
+            mQueue.clear();
+        }
+        mWorker.unsubscribe();
+        for (Job job : jobs) {
+            if (job.call != null) {
+                job.call.cancel();
+            }
+        }
+    }
+
+    private Observable<TopicResponse> post(TopicRequest request, final String fingerprint) {
+        final AsyncSubject<TopicResponse> subject = AsyncSubject.create();
+        mService.retrieveTopicsUrl(request).enqueue(new Callback<Void>() {
+            @Override
+            public void onResponse(Call<Void> call, Response<Void> response) {
+                if (!response.isSuccessful()) {
+                    ServiceError error = null;
+                    try {
+                        error = mErrorConverter.convert(response.errorBody());
+                    } catch (IOException e) {
+                        // Report the status code alone
+                    }
+                    subject.onError(new ServiceException(response.code(), error));
+                    return;
+                }
+
+                String operationLocation = response.headers().get(HEADER_OPERATION_LOCATION);
+                if (operationLocation == null) {
+                    subject.onError(new ServiceException("Response has no " + HEADER_OPERATION_LOCATION + " header"));
+                    return;
+                }
+                if (fingerprint != null) {
+                    mJournal.record(fingerprint, operationLocation);
+                    trackJournaled(operationLocation).subscribe(subject);
+                } else {
+                    track(operationLocation).subscribe(subject);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<Void> call, Throwable t) {
+                subject.onError(t);
+            }
+        });
+        return subject;
+    }
+
+    private Observable<TopicResponse> trackJournaled(String operationLocation) {
+        final AsyncSubject<TopicResponse> subject = AsyncSubject.create();
+        track(operationLocation, new JournalListener(new TopicJobListener() {
+            @Override
+            public void onFinished(String operationLocation, TopicResponse response) {
+                subject.onNext(response);
+                subject.onCompleted();
+            }
+
+            @Override
+            public void onError(String operationLocation, Throwable t) {
+                subject.onError(t);
+            }
+        }));
+        return subject;
+    }
+
+    /**
+     * Start the polls which are due, as far as concurrency allows, and arm the timer for the next one
+     */
+    private void drain() {
+        List<Job> due = new ArrayList<>();
+        synchronized (this) {
+            if (mShutdown) {
+                return;
+            }
+            long now = mWorker.now();
+            while (mInFlight < mMaxConcurrentPolls && !mQueue.isEmpty() && mQueue.peek().dueAt <= now) {
+                Job job = mQueue.poll();
+                job.call = mService.getDetectedTopics(job.operationLocation);
+                mInFlight++;
+                due.add(job);
+            }
+            // While saturated, the next completion drains instead of the timer
+            if (mInFlight < mMaxConcurrentPolls && !mQueue.isEmpty()) {
+                arm(mQueue.peek().dueAt, now);
+            }
+        }
+        for (Job job : due) {
+            poll(job);
+        }
+    }
+
+    private void arm(long dueAt, long now) {
+        if (mTimer != null && !mTimer.isUnsubscribed() && mTimerDueAt <= dueAt) {
+            return;
+        }
+        if (mTimer != null) {
+            mTimer.unsubscribe();
+        }
+        mTimerDueAt = dueAt;
+        mTimer = mWorker.schedule(new Action0() {
+            @Override
+            public void call() {
+                synchronized (TopicJobTracker.this) {
+                    mTimerDueAt = Long.MAX_VALUE;
+                }
+                drain();
+            }
+        }, Math.max(0, dueAt - now), TimeUnit.MILLISECONDS);
+    }
+
+    private void poll(final Job job) {
+        job.call.enqueue(new Callback<TopicResponse>() {
+            @Override
+            public void onResponse(Call<TopicResponse> call, Response<TopicResponse> response) {
+                if (response.isSuccessful() && TopicPoller.isFinished(response.body())) {
+                    finish(job, response.body(), null);
+                } else if (!response.isSuccessful() && !TopicPoller.isRetriable(response)) {
+                    ServiceError error = null;
+                    try {
+                        error = mErrorConverter.convert(response.errorBody());
+                    } catch (IOException e) {
+                        // Report the status code alone
+                    }
+                    finish(job, null, new ServiceException(response.code(), error));
+                } else {
+                    if (!response.isSuccessful()) {
+                        response.errorBody().close();
+                    }
+                    reschedule(job, response.headers());
+                }
+            }
+
+            @Override
+            public void onFailure(Call<TopicResponse> call, Throwable t) {
+                if (call.isCanceled()) {
+                    complete(job);
+                } else {
+                    // Network failures are retried until the deadline, the operation keeps running server side
+                    reschedule(job, null);
+                }
+            }
+        });
+    }
+
+    private void reschedule(Job job, Headers headers) {
+        List<TopicJobListener> timedOut = null;
+        synchronized (this) {
+            mInFlight--;
+            job.call = null;
+            if (mJobs.get(job.operationLocation) == job) {
+                job.dueAt = mWorker.now() + mPolicy.getDelayMillis(++job.attempt, headers);
+                if (job.dueAt > job.deadline) {
+                    mJobs.remove(job.operationLocation);
+                    timedOut = job.listeners;
+                } else {
+                    mQueue.add(job);
+                }
+            }
+        }
+        if (timedOut != null) {
+            dispatch(timedOut, job.operationLocation, null, new TimeoutException("Topic detection did not finish within "
+                    + mPolicy.getTimeoutMillis() + " ms"));
+        }
+        drain();
+    }
+
+    private void finish(Job job, TopicResponse response, Throwable error) {
+        List<TopicJobListener> listeners = complete(job);
+        if (listeners != null) {
+            dispatch(listeners, job.operationLocation, response, error);
+        }
+    }
+
+    /**
+     * @return listeners of the job, or null if it was no longer tracked
+     */
+    private List<TopicJobListener> complete(Job job) {
+        List<TopicJobListener> listeners = null;
+        synchronized (this) {
+            mInFlight--;
+            job.call = null;
+            if (mJobs.get(job.operationLocation) == job) {
+                mJobs.remove(job.operationLocation);
+                listeners = job.listeners;
+            }
+        }
+        drain();
+        return listeners;
+    }
+
+    private static void dispatch(List<TopicJobListener> listeners, String operationLocation,
+                               TopicResponse response, Throwable error) {
+        for (TopicJobListener listener : listeners) {
+            if (error == null) {
+                listener.onFinished(operationLocation, response);
+            } else {
+                listener.onError(operationLocation, error);
+            }
+        }
+    }
+
+    /**
+     * Records the outcome of an operation in the journal before passing it on
+     */
+    private class JournalListener implements TopicJobListener {
+
+        private final TopicJobListener mDelegate;
+
+        JournalListener(TopicJobListener delegate) {
+            this.mDelegate = delegate;
+        }
+
+        @Override
+        public void onFinished(String operationLocation, TopicResponse response) {
+            mJournal.update(operationLocation, TopicPoller.STATUS_SUCCEEDED.equals(response.getStatus())
+                    ? TopicJobJournal.State.SUCCEEDED : TopicJobJournal.State.FAILED);
+            mDelegate.onFinished(operationLocation, response);
+        }
+
+        @Override
+        public void onError(String operationLocation, Throwable t) {
+            // Timeouts and network failures leave the operation pending, to be resumed later
+            if (t instanceof ServiceException) {
+                mJournal.update(operationLocation, TopicJobJournal.State.FAILED);
+            }
+            mDelegate.onError(operationLocation, t);
+        }
+    }
+
+    private static class Job implements Comparable<Job> {
+
+        final String operationLocation;
+        final long deadline;
+        final List<TopicJobListener> listeners = new ArrayList<>(1);
+        long dueAt;
+        int attempt;
+        Call<TopicResponse> call;
+
+        Job(String operationLocation, long dueAt, long deadline) {
+            this.operationLocation = operationLocation;
+            this.dueAt = dueAt;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int compareTo(Job other) {
+            return dueAt < other.dueAt ? -1 : (dueAt == other.dueAt ? 0 : 1);
+        }
+    }
+
+}
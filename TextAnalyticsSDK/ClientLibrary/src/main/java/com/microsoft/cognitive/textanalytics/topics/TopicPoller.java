@@ -0,0 +1,165 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.topics;
+
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceError;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceException;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+import com.microsoft.cognitive.textanalytics.retrofit.TextAnalyticsService;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Response;
+import rx.Observable;
+import rx.Scheduler;
+import rx.Subscriber;
+import rx.functions.Action0;
+import rx.schedulers.Schedulers;
+
+/**
+ * Polls a topic detection operation until it has finished
+ *
+ * The returned Observable emits the final {@link TopicResponse} once the status is "Succeeded" or "Failed" and
+ * completes; intermediate "NotStarted" and "Running" responses are not emitted. Throttling, server errors and
+ * network failures are retried on the same schedule, other HTTP errors fail with a {@link ServiceException}, and
+ * a {@link TimeoutException} is raised once the policy's timeout is exceeded.
+ */
+public class TopicPoller {
+
+    public static final String STATUS_SUCCEEDED = "Succeeded";
+    public static final String STATUS_FAILED = "Failed";
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_SERVER_ERROR = 500;
+
+    private final TextAnalyticsService mService;
+    private final Converter<ResponseBody, ServiceError> mErrorConverter;
+    private final PollingPolicy mPolicy;
+    private final Scheduler mScheduler;
+
+    public TopicPoller(ServiceRequestClient client) {
+        this(client, PollingPolicy.DEFAULT, Schedulers.io());
+    }
+
+    /**
+     * @param client
+     * @param policy    polling schedule
+     * @param scheduler scheduler the polls are executed on
+     */
+    public TopicPoller(ServiceRequestClient client, PollingPolicy policy, Scheduler scheduler) {
+        this.mService = client.getRetrofit().create(TextAnalyticsService.class);
+        this.mErrorConverter = client.getErrorConverter();
+        this.mPolicy = policy;
+        this.mScheduler = scheduler;
+    }
+
+    /**
+     * @param response
+     * @return true if the operation has succeeded or failed
+     */
+    public static boolean isFinished(TopicResponse response) {
+        return response != null
+                && (STATUS_SUCCEEDED.equals(response.getStatus()) || STATUS_FAILED.equals(response.getStatus()));
+    }
+
+    /**
+     * @param response non-successful HTTP response
+     * @return true if the poll should be retried later
+     */
+    static boolean isRetriable(Response<?> response) {
+        return response.code() == HTTP_TOO_MANY_REQUESTS || response.code() >= HTTP_SERVER_ERROR;
+    }
+
+    /**
+     * @param operationLocation value of the Operation-Location header returned when the request was submitted
+     * @return
+     */
+    public Observable<TopicResponse> poll(final String operationLocation) {
+        return Observable.create(new Observable.OnSubscribe<TopicResponse>() {
+            @Override
+            public void call(final Subscriber<? super TopicResponse> subscriber) {
+                final Scheduler.Worker worker = mScheduler.createWorker();
+                subscriber.add(worker);
+
+                final long deadline = worker.now() + mPolicy.getTimeoutMillis();
+                worker.schedule(new Action0() {
+                    private int mAttempt;
+
+                    @Override
+                    public void call() {
+                        if (subscriber.isUnsubscribed()) {
+                            return;
+                        }
+
+                        Response<TopicResponse> response = null;
+                        try {
+                            response = mService.getDetectedTopics(operationLocation).execute();
+                            if (response.isSuccessful() && isFinished(response.body())) {
+                                subscriber.onNext(response.body());
+                                subscriber.onCompleted();
+                                return;
+                            }
+                            if (!response.isSuccessful() && !isRetriable(response)) {
+                                subscriber.onError(new ServiceException(response.code(),
+                                        mErrorConverter.convert(response.errorBody())));
+                                return;
+                            }
+                            if (!response.isSuccessful()) {
+                                response.errorBody().close();
+                            }
+                        } catch (IOException e) {
+                            // Network failures are retried until the deadline, the operation keeps running server side
+                        } catch (RuntimeException e) {
+                            subscriber.onError(e);
+                            return;
+                        }
+
+                        long delay = mPolicy.getDelayMillis(++mAttempt, response != null ? response.headers() : null);
+                        if (worker.now() + delay > deadline) {
+                            subscriber.onError(new TimeoutException("Topic detection did not finish within "
+                                    + mPolicy.getTimeoutMillis() + " ms"));
+                            return;
+                        }
+                        worker.schedule(this, delay, TimeUnit.MILLISECONDS);
+                    }
+                }, mPolicy.getInitialDelayMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+    }
+
+}
@@ -0,0 +1,327 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.analysis;
+
+import com.google.gson.Gson;
+import com.microsoft.cognitive.textanalytics.model.adapter.ModelTypeAdapterFactory;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentAnalyzerTest {
+
+    private MockWebServer mServer;
+    private FakeService mService;
+    private ServiceRequestClient mClient;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mService = new FakeService();
+        mServer.setDispatcher(mService);
+        mServer.start();
+        mClient = new ServiceRequestClient.Builder("key").setBaseUrl(mServer.url("/").toString()).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void documentsAreSentInTheirDetectedLanguage() {
+        List<AnalyzedDocument> results = analyze(new DocumentAnalyzer(mClient),
+                doc("1", "en", "A good day"), doc("2", "fr", "Une belle journee"), doc("3", "en", "A bad day"));
+
+        assertEquals(3, results.size());
+        assertEquals("fr", results.get(1).getIso6391Name());
+        assertEquals("French", results.get(1).getLanguageName());
+        assertEquals(0.5, results.get(1).getSentiment(), 0);
+        assertEquals(Collections.singletonList("Une belle journee"), results.get(1).getKeyPhrases());
+        assertNull(results.get(1).getError());
+        // Mixed languages go out in one request per endpoint, each document tagged with its language
+        assertEquals(3, mServer.getRequestCount());
+        assertEquals("en", mService.sentLanguage("sentiment", "3"));
+        assertEquals("fr", mService.sentLanguage("keyPhrases", "2"));
+    }
+
+    @Test
+    public void undetectedLanguageIsNotSent() {
+        List<AnalyzedDocument> results = analyze(new DocumentAnalyzer(mClient),
+                doc("1", "en", "A good day"), doc("2", FakeService.UNKNOWN, "12345"));
+
+        assertEquals("(Unknown)", results.get(1).getIso6391Name());
+        assertFalse(results.get(1).hasSentiment());
+        assertNull(results.get(1).getKeyPhrases());
+        assertEquals(Collections.singleton("1"), mService.sentIds("sentiment"));
+        assertEquals(Collections.singleton("1"), mService.sentIds("keyPhrases"));
+    }
+
+    @Test
+    public void languageFiltersLeaveOutUnsupportedLanguages() {
+        DocumentAnalyzer analyzer = new DocumentAnalyzer(mClient)
+                .setSentimentLanguages(Arrays.asList("en", "de"))
+                .setKeyPhraseLanguages(Collections.singletonList("fr"));
+
+        List<AnalyzedDocument> results = analyze(analyzer,
+                doc("1", "en", "A good day"), doc("2", "fr", "Une belle journee"), doc("3", "de", "Ein guter Tag"));
+
+        assertEquals(new HashSet<>(Arrays.asList("1", "3")), mService.sentIds("sentiment"));
+        assertEquals(Collections.singleton("2"), mService.sentIds("keyPhrases"));
+        assertTrue(results.get(0).hasSentiment());
+        assertNull(results.get(0).getKeyPhrases());
+        assertFalse(results.get(1).hasSentiment());
+        assertEquals(Collections.singletonList("Une belle journee"), results.get(1).getKeyPhrases());
+    }
+
+    @Test
+    public void emptyLanguageFilterSendsNothing() {
+        DocumentAnalyzer analyzer = new DocumentAnalyzer(mClient)
+                .setSentimentLanguages(Collections.<String>emptyList());
+
+        List<AnalyzedDocument> results = analyze(analyzer, doc("1", "en", "A good day"));
+
+        assertFalse(results.get(0).hasSentiment());
+        assertTrue(mService.sentIds("sentiment").isEmpty());
+        assertEquals(2, mServer.getRequestCount());
+    }
+
+    @Test
+    public void errorsOfEveryEndpointAreJoinedById() {
+        mService.fail("languages", "2");
+        mService.fail("sentiment", "3");
+        mService.fail("keyPhrases", "4");
+
+        List<AnalyzedDocument> results = analyze(new DocumentAnalyzer(mClient),
+                doc("1", "en", "A good day"), doc("2", "en", "A"), doc("3", "en", "B"), doc("4", "en", "C"));
+
+        assertNull(results.get(0).getError());
+        assertEquals("languages failed", results.get(1).getError());
+        // A document failing language detection is not sent on
+        assertFalse(mService.sentIds("sentiment").contains("2"));
+        assertEquals("sentiment failed", results.get(2).getError());
+        assertFalse(results.get(2).hasSentiment());
+        assertEquals(Collections.singletonList("B"), results.get(2).getKeyPhrases());
+        assertEquals("keyPhrases failed", results.get(3).getError());
+        assertTrue(results.get(3).hasSentiment());
+    }
+
+    @Test
+    public void concurrentBatchesKeepInputOrder() {
+        // Earlier batches are answered later, so they complete out of order
+        mService.setReverseDelay(20);
+        List<RequestDoc> documents = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            documents.add(doc(String.valueOf(i), i % 2 == 0 ? "en" : "fr", "Text " + i));
+        }
+        DocumentAnalyzer analyzer = new DocumentAnalyzer(mClient).setBatchSize(3).setMaxInFlight(4);
+
+        List<AnalyzedDocument> results = analyzer.analyze(documents).timeout(30, TimeUnit.SECONDS)
+                .toBlocking().single();
+
+        assertEquals(20, results.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals(String.valueOf(i), results.get(i).getId());
+            assertEquals(i % 2 == 0 ? "en" : "fr", results.get(i).getIso6391Name());
+            assertEquals(Collections.singletonList("Text " + i), results.get(i).getKeyPhrases());
+        }
+        assertEquals(3 * 7, mServer.getRequestCount());
+    }
+
+    private static List<AnalyzedDocument> analyze(DocumentAnalyzer analyzer, RequestDoc... documents) {
+        return analyzer.analyze(Arrays.asList(documents)).timeout(10, TimeUnit.SECONDS).toBlocking().single();
+    }
+
+    /**
+     * @param language language the fake service detects for the id
+     */
+    private RequestDoc doc(String id, String language, String text) {
+        mService.setLanguage(id, language);
+        return new RequestDoc(id, text);
+    }
+
+    /**
+     * Detects the language set per document, scores each document by its language and returns its text as the
+     * only key phrase
+     */
+    private static class FakeService extends Dispatcher {
+
+        static final String UNKNOWN = "(Unknown)";
+
+        private static final Map<String, String> NAMES = new HashMap<>();
+        private static final Map<String, Double> SCORES = new HashMap<>();
+
+        static {
+            NAMES.put("en", "English");
+            NAMES.put("fr", "French");
+            NAMES.put("de", "German");
+            NAMES.put(UNKNOWN, UNKNOWN);
+            SCORES.put("en", 0.9);
+            SCORES.put("fr", 0.5);
+            SCORES.put("de", 0.1);
+        }
+
+        private final Gson mGson = ModelTypeAdapterFactory.createGson();
+        private final Map<String, String> mLanguages = new HashMap<>();
+        private final Map<String, Set<String>> mFailures = new HashMap<>();
+        // Endpoint to id to language sent
+        private final Map<String, Map<String, String>> mSent = new HashMap<>();
+        private volatile int mReverseDelay;
+
+        synchronized void setLanguage(String id, String language) {
+            mLanguages.put(id, language);
+        }
+
+        synchronized void fail(String endpoint, String id) {
+            failures(endpoint).add(id);
+        }
+
+        /**
+         * @param documents delay each response by 10 ms per document after its first, up to this count
+         */
+        void setReverseDelay(int documents) {
+            this.mReverseDelay = documents;
+        }
+
+        synchronized Set<String> sentIds(String endpoint) {
+            return new HashSet<>(sent(endpoint).keySet());
+        }
+
+        synchronized String sentLanguage(String endpoint, String id) {
+            return sent(endpoint).get(id);
+        }
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+            String path = request.getPath();
+            String endpoint = path.substring(path.lastIndexOf('/') + 1).split("\\?")[0];
+            String body = request.getBody().readUtf8();
+
+            StringBuilder documents = new StringBuilder();
+            StringBuilder errors = new StringBuilder();
+            String firstId = null;
+            synchronized (this) {
+                if ("languages".equals(endpoint)) {
+                    for (RequestDoc doc : mGson.fromJson(body, LanguageRequest.class).getDocuments()) {
+                        firstId = firstId != null ? firstId : doc.getId();
+                        if (!isFailure(endpoint, doc.getId(), errors)) {
+                            String language = mLanguages.get(doc.getId());
+                            append(documents, "{\"id\":\"" + doc.getId() + "\",\"detectedLanguages\":[{\"name\":\""
+                                    + NAMES.get(language) + "\",\"iso6391Name\":\"" + language + "\",\"score\":1.0}]}");
+                        }
+                    }
+                } else {
+                    for (RequestDocIncludeLanguage doc : mGson.fromJson(body, TextRequest.class).getDocuments()) {
+                        firstId = firstId != null ? firstId : doc.getId();
+                        sent(endpoint).put(doc.getId(), doc.getLanguage());
+                        if (isFailure(endpoint, doc.getId(), errors)) {
+                            continue;
+                        }
+                        if ("sentiment".equals(endpoint)) {
+                            append(documents, "{\"id\":\"" + doc.getId() + "\",\"score\":"
+                                    + SCORES.get(doc.getLanguage()) + "}");
+                        } else {
+                            append(documents, "{\"id\":\"" + doc.getId() + "\",\"keyPhrases\":[\"" + doc.getText()
+                                    + "\"]}");
+                        }
+                    }
+                }
+            }
+
+            if (mReverseDelay > 0 && firstId != null) {
+                Thread.sleep(Math.max(0, mReverseDelay - Integer.parseInt(firstId)) * 10L);
+            }
+            return new MockResponse().setBody("{\"documents\":[" + documents + "],\"errors\":[" + errors + "]}");
+        }
+
+        private boolean isFailure(String endpoint, String id, StringBuilder errors) {
+            if (!failures(endpoint).contains(id)) {
+                return false;
+            }
+            append(errors, "{\"id\":\"" + id + "\",\"message\":\"" + endpoint + " failed\"}");
+            return true;
+        }
+
+        private Set<String> failures(String endpoint) {
+            Set<String> failures = mFailures.get(endpoint);
+            if (failures == null) {
+                failures = new HashSet<>();
+                mFailures.put(endpoint, failures);
+            }
+            return failures;
+        }
+
+        private Map<String, String> sent(String endpoint) {
+            Map<String, String> sent = mSent.get(endpoint);
+            if (sent == null) {
+                sent = new HashMap<>();
+                mSent.put(endpoint, sent);
+            }
+            return sent;
+        }
+
+        private static void append(StringBuilder json, String element) {
+            if (json.length() > 0) {
+                json.append(',');
+            }
+            json.append(element);
+        }
+    }
+
+}
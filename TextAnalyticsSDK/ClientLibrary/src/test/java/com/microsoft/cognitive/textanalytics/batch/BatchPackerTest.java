@@ -0,0 +1,296 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.batch;
+
+import com.google.gson.Gson;
+import com.microsoft.cognitive.textanalytics.model.adapter.ModelTypeAdapterFactory;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import rx.schedulers.Schedulers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BatchPackerTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    // {"documents":[]}
+    private static final int ENVELOPE_BYTES = 16;
+
+    private MockWebServer mServer;
+    private BatchPacker mPacker;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+        ServiceRequestClient client = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/text/analytics/v2.0/").toString())
+                .build();
+        mPacker = new BatchPacker(client, Schedulers.immediate()).setMaxInFlight(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void textIsPackedBySizeInInputOrder() {
+        List<RequestDocIncludeLanguage> documents = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200; i++) {
+            documents.add(doc(String.valueOf(i), text(random.nextInt(2000) + 1)));
+        }
+        long maxBytes = 20000;
+        long total = ENVELOPE_BYTES;
+        for (RequestDocIncludeLanguage doc : documents) {
+            total += BatchPacker.estimateBytes(doc);
+        }
+
+        List<TextRequest> requests = mPacker.setLimits(maxBytes, 1000).packText(documents);
+
+        List<String> ids = new ArrayList<>();
+        for (TextRequest request : requests) {
+            long bytes = ENVELOPE_BYTES;
+            int previous = -1;
+            for (RequestDocIncludeLanguage doc : request.getDocuments()) {
+                bytes += BatchPacker.estimateBytes(doc);
+                int index = Integer.parseInt(doc.getId());
+                assertTrue(index > previous);
+                previous = index;
+                ids.add(doc.getId());
+            }
+            assertTrue(bytes <= maxBytes);
+        }
+        assertEquals(documents.size(), ids.size());
+        assertEquals(200, new HashSet<>(ids).size());
+        // First fit decreasing stays within one request of the lower bound here
+        long lowerBound = (total - ENVELOPE_BYTES + maxBytes - ENVELOPE_BYTES - 1) / (maxBytes - ENVELOPE_BYTES);
+        assertTrue(requests.size() <= lowerBound + 1);
+    }
+
+    @Test
+    public void documentCountIsLimited() {
+        List<RequestDoc> documents = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            documents.add(new RequestDoc(String.valueOf(i), "short"));
+        }
+
+        List<LanguageRequest> requests = mPacker.setLimits(BatchPacker.MAX_REQUEST_BYTES, 10).packLanguages(documents);
+
+        assertEquals(3, requests.size());
+        int count = 0;
+        for (LanguageRequest request : requests) {
+            assertTrue(request.getDocuments().size() <= 10);
+            count += request.getDocuments().size();
+        }
+        assertEquals(25, count);
+    }
+
+    @Test
+    public void oversizedDocumentIsSentAlone() {
+        List<RequestDocIncludeLanguage> documents = Arrays.asList(doc("1", "small"), doc("2", text(500)),
+                doc("3", "small"));
+
+        List<TextRequest> requests = mPacker.setLimits(200, 1000).packText(documents);
+
+        assertEquals(2, requests.size());
+        assertEquals(2, requests.get(0).getDocuments().size());
+        assertEquals("2", requests.get(1).getDocuments().get(0).getId());
+    }
+
+    @Test
+    public void topicsWithinLimitsAreSentAsIs() {
+        TopicRequest request = topicRequest(150, 100);
+
+        assertSame(request, mPacker.packTopics(request).get(0));
+        assertEquals(1, mPacker.packTopics(request).size());
+    }
+
+    @Test
+    public void topicsAreSplitBetweenMinAndMaxDocuments() {
+        TopicRequest request = topicRequest(450, 100);
+        request.setStopWords(Collections.singletonList("the"));
+
+        List<TopicRequest> requests = mPacker.setTopicLimits(BatchPacker.MAX_TOPIC_REQUEST_BYTES, 200)
+                .packTopics(request);
+
+        assertEquals(3, requests.size());
+        int documents = 0;
+        for (TopicRequest split : requests) {
+            assertEquals(150, split.getDocuments().size());
+            assertEquals(request.getStopWords(), split.getStopWords());
+            documents += split.getDocuments().size();
+        }
+        assertEquals(450, documents);
+    }
+
+    @Test
+    public void topicsAreSplitByBytes() {
+        TopicRequest request = topicRequest(300, 1000);
+        long maxBytes = 200 * 1000;
+
+        List<TopicRequest> requests = mPacker.setTopicLimits(maxBytes, BatchPacker.MAX_TOPIC_DOCUMENTS)
+                .packTopics(request);
+
+        assertEquals(2, requests.size());
+        Gson gson = ModelTypeAdapterFactory.createGson();
+        for (TopicRequest split : requests) {
+            assertTrue(split.getDocuments().size() >= BatchPacker.MIN_TOPIC_DOCUMENTS);
+            assertTrue(gson.toJson(split).getBytes(UTF_8).length <= maxBytes);
+        }
+    }
+
+    @Test
+    public void topicsThatCannotBeSplitAreRejected() {
+        try {
+            mPacker.packTopics(topicRequest(BatchPacker.MIN_TOPIC_DOCUMENTS - 1, 10));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            mPacker.setTopicLimits(150 * 1000, BatchPacker.MAX_TOPIC_DOCUMENTS).packTopics(topicRequest(150, 1000));
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void estimateIsUpperBoundOfGsonOutput() {
+        Gson gson = ModelTypeAdapterFactory.createGson();
+        List<String> texts = Arrays.asList("", "plain text", "\"quoted\" \\ back\\slash", "tab\tnew\nline\r\b\f",
+                "<b>&amp;</b> a=b 'single'", "\u0001\u001f control", "caf\u00e9 na\u00efve", "\u65e5\u672c\u8a9e",
+                "emoji \ud83d\ude00\ud83d\udc4d", "separators \u2028\u2029", "\ud800 lone surrogate");
+
+        List<RequestDocIncludeLanguage> textDocs = new ArrayList<>();
+        List<RequestDoc> languageDocs = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            RequestDocIncludeLanguage doc = doc("id-\"" + i + "\u00e9", texts.get(i));
+            if (i % 3 == 0) {
+                doc.setLanguage(null);
+            }
+            assertEstimate(gson, new TextRequest(Collections.singletonList(doc)));
+            assertEstimate(gson, new LanguageRequest(Collections.singletonList(new RequestDoc(doc.getId(),
+                    doc.getText()))));
+            textDocs.add(doc);
+            languageDocs.add(new RequestDoc(doc.getId(), doc.getText()));
+        }
+        assertEstimate(gson, new TextRequest(textDocs));
+        assertEstimate(gson, new LanguageRequest(languageDocs));
+    }
+
+    @Test
+    public void keyPhraseErrorsOfAllRequestsAreMerged() throws Exception {
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[{\"keyPhrases\":[\"day\"],\"id\":\"1\"}],"
+                + "\"errors\":[{\"id\":\"2\",\"message\":\"Invalid document\"}]}"));
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[],"
+                + "\"errors\":[{\"id\":\"3\",\"message\":\"Invalid document\"}]}"));
+
+        KeyPhrasesResponse response = mPacker.setLimits(BatchPacker.MAX_REQUEST_BYTES, 2)
+                .getKeyPhrasesRx(new TextRequest(Arrays.asList(doc("1", "a day"), doc("2", "b"), doc("3", "c"))))
+                .toBlocking().single();
+
+        assertEquals(2, mServer.getRequestCount());
+        assertEquals(1, response.getDocuments().size());
+        assertEquals(2, response.getErrors().size());
+        assertEquals("2", ((Map) response.getErrors().get(0)).get("id"));
+        assertEquals("3", ((Map) response.getErrors().get(1)).get("id"));
+    }
+
+    private static void assertEstimate(Gson gson, TextRequest request) {
+        long estimate = ENVELOPE_BYTES;
+        for (RequestDocIncludeLanguage doc : request.getDocuments()) {
+            estimate += BatchPacker.estimateBytes(doc);
+        }
+        String json = gson.toJson(request);
+        assertTrue(json, estimate >= json.getBytes(UTF_8).length);
+    }
+
+    private static void assertEstimate(Gson gson, LanguageRequest request) {
+        long estimate = ENVELOPE_BYTES;
+        for (RequestDoc doc : request.getDocuments()) {
+            estimate += BatchPacker.estimateBytes(doc);
+        }
+        String json = gson.toJson(request);
+        assertTrue(json, estimate >= json.getBytes(UTF_8).length);
+    }
+
+    private static TopicRequest topicRequest(int documents, int textLength) {
+        TopicRequest request = new TopicRequest();
+        for (int i = 0; i < documents; i++) {
+            request.addDocument(new RequestDoc(String.valueOf(i), text(textLength)));
+        }
+        return request;
+    }
+
+    private static RequestDocIncludeLanguage doc(String id, String text) {
+        RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+        doc.setId(id);
+        doc.setText(text);
+        doc.setLanguage("en");
+        return doc;
+    }
+
+    private static String text(int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,163 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.batch;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceException;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentBatcherTest {
+
+    private MockWebServer mServer;
+    private DocumentBatcher mBatcher;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+        ServiceRequestClient client = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/text/analytics/v2.0/").toString())
+                .build();
+        mBatcher = new DocumentBatcher(client, 3, TimeUnit.MINUTES.toMillis(1), 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mBatcher.shutdown();
+        mServer.shutdown();
+    }
+
+    @Test
+    public void fullBatchIsSentAsOneRequestAndMappedBackById() throws Exception {
+        // Documents are renumbered 0, 1, 2 in the order they were added
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[{\"score\":0.9,\"id\":\"0\"},"
+                + "{\"score\":0.1,\"id\":\"1\"}],\"errors\":[{\"id\":\"2\",\"message\":\"Invalid document\"}]}"));
+
+        TestSubscriber<SentimentResponseDoc> a = subscribe(mBatcher.getSentiment(doc("a", "good")));
+        TestSubscriber<SentimentResponseDoc> b = subscribe(mBatcher.getSentiment(doc("a", "bad")));
+        TestSubscriber<SentimentResponseDoc> c = subscribe(mBatcher.getSentiment(doc("c", "")));
+
+        a.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        b.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        c.awaitTerminalEvent(10, TimeUnit.SECONDS);
+
+        assertEquals(1, mServer.getRequestCount());
+        RecordedRequest request = mServer.takeRequest();
+        assertTrue(request.getPath().endsWith("/sentiment"));
+
+        a.assertCompleted();
+        assertEquals("a", a.getOnNextEvents().get(0).getId());
+        assertEquals(0.9, a.getOnNextEvents().get(0).getScoreValue(), 1e-9);
+        // Colliding caller ids still get their own result
+        assertEquals("a", b.getOnNextEvents().get(0).getId());
+        assertEquals(0.1, b.getOnNextEvents().get(0).getScoreValue(), 1e-9);
+        c.assertError(ServiceException.class);
+        assertEquals("Invalid document", c.getOnErrorEvents().get(0).getMessage());
+    }
+
+    @Test
+    public void flushSendsPartialBatch() throws Exception {
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[{\"score\":0.5,\"id\":\"0\"}],\"errors\":[]}"));
+
+        TestSubscriber<SentimentResponseDoc> a = subscribe(mBatcher.getSentiment(doc("a", "text")));
+        mBatcher.flush();
+
+        a.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        a.assertCompleted();
+        assertEquals(1, mServer.getRequestCount());
+    }
+
+    @Test
+    public void missingResultFailsDocument() throws Exception {
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[],\"errors\":[]}"));
+
+        TestSubscriber<SentimentResponseDoc> a = subscribe(mBatcher.getSentiment(doc("a", "text")));
+        mBatcher.flush();
+
+        a.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        a.assertError(ServiceException.class);
+    }
+
+    @Test
+    public void httpErrorFailsEveryDocumentOfTheBatch() throws Exception {
+        mServer.enqueue(new MockResponse().setResponseCode(400)
+                .setBody("{\"code\":\"BadRequest\",\"message\":\"Bad request\"}"));
+
+        TestSubscriber<SentimentResponseDoc> a = subscribe(mBatcher.getSentiment(doc("a", "text")));
+        TestSubscriber<SentimentResponseDoc> b = subscribe(mBatcher.getSentiment(doc("b", "text")));
+        mBatcher.flush();
+
+        a.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        b.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        a.assertError(ServiceException.class);
+        b.assertError(ServiceException.class);
+        assertEquals(400, ((ServiceException) a.getOnErrorEvents().get(0)).getCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsBatchSizeAboveServiceLimit() {
+        new DocumentBatcher(new ServiceRequestClient.Builder("key").build(),
+                DocumentBatcher.MAX_DOCUMENTS_PER_REQUEST + 1, 10, 1);
+    }
+
+    private static RequestDocIncludeLanguage doc(String id, String text) {
+        RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+        doc.setId(id);
+        doc.setText(text);
+        doc.setLanguage("en");
+        return doc;
+    }
+
+    private static <T> TestSubscriber<T> subscribe(Observable<T> observable) {
+        TestSubscriber<T> subscriber = new TestSubscriber<>();
+        observable.subscribe(subscriber);
+        return subscriber;
+    }
+
+}
@@ -0,0 +1,189 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.batch;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceException;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import rx.Observable;
+import rx.observers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentPipelineTest {
+
+    private MockWebServer mServer;
+    private ServiceRequestClient mClient;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+        mClient = new ServiceRequestClient.Builder("key").setBaseUrl(mServer.url("/").toString()).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void everyDocumentYieldsResultOrError() {
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[{\"score\":0.9,\"id\":\"1\"}],"
+                + "\"errors\":[{\"id\":\"2\",\"message\":\"Invalid document\"}]}"));
+
+        List<DocumentResult<SentimentResponseDoc>> results = run(new DocumentPipeline(mClient, 3, 1, true), 3);
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccessful());
+        assertEquals(0.9, results.get(0).getResult().getScoreValue(), 0);
+        assertEquals("2", results.get(1).getId());
+        assertEquals("Invalid document", results.get(1).getError().getMessage());
+        // Neither a result nor an error
+        assertEquals("3", results.get(2).getId());
+        assertTrue(results.get(2).getError() instanceof ServiceException);
+    }
+
+    @Test
+    public void failedBatchTerminatesStreamByDefault() {
+        mServer.enqueue(new MockResponse().setResponseCode(500));
+
+        TestSubscriber<DocumentResult<SentimentResponseDoc>> subscriber = subscribe(
+                new DocumentPipeline(mClient, 2, 1, true), 4);
+
+        subscriber.assertNoValues();
+        assertEquals(1, subscriber.getOnErrorEvents().size());
+    }
+
+    @Test
+    public void skippedBatchYieldsErrorResults() {
+        mServer.enqueue(new MockResponse().setResponseCode(400)
+                .setBody("{\"statusCode\":400,\"message\":\"Bad request\"}"));
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[{\"score\":0.3,\"id\":\"3\"},"
+                + "{\"score\":0.4,\"id\":\"4\"}],\"errors\":[]}"));
+
+        DocumentPipeline pipeline = new DocumentPipeline(mClient, 2, 1, true)
+                .setFailurePolicy(DocumentPipeline.FailurePolicy.SKIP);
+        List<DocumentResult<SentimentResponseDoc>> results = run(pipeline, 4);
+
+        assertEquals(4, results.size());
+        assertFalse(results.get(0).isSuccessful());
+        assertEquals(400, ((ServiceException) results.get(0).getError()).getCode());
+        assertEquals("Bad request", results.get(1).getError().getMessage());
+        assertTrue(results.get(2).isSuccessful());
+        assertTrue(results.get(3).isSuccessful());
+    }
+
+    @Test
+    public void retriedBatchSucceeds() {
+        mServer.enqueue(new MockResponse().setResponseCode(503));
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[{\"score\":0.1,\"id\":\"1\"},"
+                + "{\"score\":0.2,\"id\":\"2\"}],\"errors\":[]}"));
+
+        DocumentPipeline pipeline = new DocumentPipeline(mClient, 2, 1, true)
+                .setFailurePolicy(DocumentPipeline.FailurePolicy.RETRY)
+                .setRetries(2, 1, TimeUnit.MILLISECONDS);
+        List<DocumentResult<SentimentResponseDoc>> results = run(pipeline, 2);
+
+        assertEquals(2, mServer.getRequestCount());
+        assertTrue(results.get(0).isSuccessful());
+        assertTrue(results.get(1).isSuccessful());
+    }
+
+    @Test
+    public void exhaustedRetriesYieldErrorResults() {
+        for (int i = 0; i < 3; i++) {
+            mServer.enqueue(new MockResponse().setResponseCode(503));
+        }
+
+        DocumentPipeline pipeline = new DocumentPipeline(mClient, 2, 1, true)
+                .setFailurePolicy(DocumentPipeline.FailurePolicy.RETRY)
+                .setRetries(2, 1, TimeUnit.MILLISECONDS);
+        List<DocumentResult<SentimentResponseDoc>> results = run(pipeline, 2);
+
+        assertEquals(3, mServer.getRequestCount());
+        assertEquals(503, ((ServiceException) results.get(0).getError()).getCode());
+        assertEquals(503, ((ServiceException) results.get(1).getError()).getCode());
+    }
+
+    @Test
+    public void clientErrorIsNotRetried() {
+        mServer.enqueue(new MockResponse().setResponseCode(400));
+
+        DocumentPipeline pipeline = new DocumentPipeline(mClient, 2, 1, true)
+                .setFailurePolicy(DocumentPipeline.FailurePolicy.RETRY)
+                .setRetries(2, 1, TimeUnit.MILLISECONDS);
+        List<DocumentResult<SentimentResponseDoc>> results = run(pipeline, 2);
+
+        assertEquals(1, mServer.getRequestCount());
+        assertFalse(results.get(0).isSuccessful());
+    }
+
+    private static List<DocumentResult<SentimentResponseDoc>> run(DocumentPipeline pipeline, int count) {
+        TestSubscriber<DocumentResult<SentimentResponseDoc>> subscriber = subscribe(pipeline, count);
+        subscriber.assertNoErrors();
+        subscriber.assertCompleted();
+        return subscriber.getOnNextEvents();
+    }
+
+    private static TestSubscriber<DocumentResult<SentimentResponseDoc>> subscribe(DocumentPipeline pipeline,
+                                                                                  int count) {
+        List<RequestDocIncludeLanguage> documents = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+            doc.setId(String.valueOf(i));
+            doc.setText("Document " + i);
+            doc.setLanguage("en");
+            documents.add(doc);
+        }
+        TestSubscriber<DocumentResult<SentimentResponseDoc>> subscriber = new TestSubscriber<>();
+        pipeline.sentiment(Observable.from(documents)).subscribe(subscriber);
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        return subscriber;
+    }
+
+}
@@ -0,0 +1,68 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.cache;
+
+import org.junit.Test;
+
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class CacheKeysTest {
+
+    @Test
+    public void languageCaseDoesNotChangeKey() {
+        assertEquals(CacheKeys.of("sentiment", "it", "Buongiorno"), CacheKeys.of("sentiment", "IT", "Buongiorno"));
+    }
+
+    @Test
+    public void keyDoesNotDependOnDefaultLocale() {
+        String key = CacheKeys.of("sentiment", "IT", "Buongiorno");
+        Locale locale = Locale.getDefault();
+        try {
+            // Lower casing "I" under Turkish rules gives a dotless i
+            Locale.setDefault(new Locale("tr", "TR"));
+            assertEquals(key, CacheKeys.of("sentiment", "IT", "Buongiorno"));
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void whitespaceIsNormalized() {
+        assertEquals(CacheKeys.of("sentiment", "en", "A good day"), CacheKeys.of("sentiment", "en", " A good\n\tday "));
+        assertNotEquals(CacheKeys.of("sentiment", "en", "A good day"), CacheKeys.of("keyPhrases", "en", "A good day"));
+    }
+
+}
@@ -0,0 +1,238 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.cache;
+
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+import com.microsoft.cognitive.textanalytics.model.response.language.LanguageResponseDoc;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DiskResultCacheTest {
+
+    // 20-byte key, type tag and a double
+    private static final int SENTIMENT_RECORD_SIZE = 29;
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    @Test
+    public void storesEveryResultType() throws Exception {
+        DiskResultCache cache = open(10, 4096);
+        cache.put(key(1), new SentimentResponseDoc(0.25, "a"), SentimentResponseDoc.class);
+        cache.put(key(2), new KeyPhrasesResponseDoc(Arrays.asList("one", "two"), "b"), KeyPhrasesResponseDoc.class);
+        cache.put(key(3), new LanguageResponseDoc("c", Collections.singletonList(new Language("English", "en", 1.0))),
+                LanguageResponseDoc.class);
+
+        assertEquals(0.25, cache.get(key(1), SentimentResponseDoc.class).getScoreValue(), 0);
+        assertEquals(Arrays.asList("one", "two"), cache.get(key(2), KeyPhrasesResponseDoc.class).getKeyPhrases());
+        assertEquals("en", cache.get(key(3), LanguageResponseDoc.class).getDetectedLanguages().get(0).getIso6391Name());
+        // A result of another type is a miss
+        assertNull(cache.get(key(1), KeyPhrasesResponseDoc.class));
+        assertNull(cache.get(key(4), SentimentResponseDoc.class));
+        cache.close();
+    }
+
+    @Test
+    public void indexIsMappedAtFixedSize() throws Exception {
+        DiskResultCache cache = open(10, 4096);
+        // 10 entries at a load factor of one half need 32 slots of 48 bytes, after a 16-byte header
+        assertEquals(16 + 32 * 48, new File(mFolder.getRoot(), "index.dat").length());
+
+        cache.put(key(1), new SentimentResponseDoc(0.5, null), SentimentResponseDoc.class);
+        assertEquals(16 + 32 * 48, new File(mFolder.getRoot(), "index.dat").length());
+        assertEquals(SENTIMENT_RECORD_SIZE, new File(mFolder.getRoot(), "records.dat").length());
+        cache.close();
+    }
+
+    @Test
+    public void collidingKeysAreProbed() throws Exception {
+        DiskResultCache cache = open(10, 4096);
+        // Keys sharing their first four bytes all hash to the same slot
+        for (int i = 0; i < 8; i++) {
+            cache.put(collidingKey(i), new SentimentResponseDoc(i / 10.0, null), SentimentResponseDoc.class);
+        }
+        cache.put(collidingKey(3), new SentimentResponseDoc(0.99, null), SentimentResponseDoc.class);
+
+        assertEquals(8, cache.size());
+        for (int i = 0; i < 8; i++) {
+            double expected = i == 3 ? 0.99 : i / 10.0;
+            assertEquals(expected, cache.get(collidingKey(i), SentimentResponseDoc.class).getScoreValue(), 0);
+        }
+        assertNull(cache.get(collidingKey(8), SentimentResponseDoc.class));
+        cache.close();
+    }
+
+    @Test
+    public void entryCapCompactsToMostRecentlyUsed() throws Exception {
+        DiskResultCache cache = open(8, 4096);
+        for (int i = 0; i < 8; i++) {
+            cache.put(key(i), new SentimentResponseDoc(i, null), SentimentResponseDoc.class);
+        }
+        Thread.sleep(5);
+        // Touched entries survive the compaction
+        assertNotNull(cache.get(key(0), SentimentResponseDoc.class));
+        assertNotNull(cache.get(key(1), SentimentResponseDoc.class));
+
+        cache.put(key(100), new SentimentResponseDoc(100, null), SentimentResponseDoc.class);
+
+        assertTrue(cache.size() <= 8);
+        assertNotNull(cache.get(key(0), SentimentResponseDoc.class));
+        assertNotNull(cache.get(key(1), SentimentResponseDoc.class));
+        assertNotNull(cache.get(key(100), SentimentResponseDoc.class));
+        cache.close();
+    }
+
+    @Test
+    public void byteCapHoldsWhenReplacingExistingKeys() throws Exception {
+        long maxBytes = SENTIMENT_RECORD_SIZE * 10;
+        DiskResultCache cache = open(100, maxBytes);
+        for (int i = 0; i < 100; i++) {
+            cache.put(key(i % 3), new SentimentResponseDoc(i, null), SentimentResponseDoc.class);
+            assertTrue(new File(mFolder.getRoot(), "records.dat").length() <= maxBytes);
+        }
+
+        assertEquals(3, cache.size());
+        assertEquals(99, cache.get(key(0), SentimentResponseDoc.class).getScoreValue(), 0);
+        assertEquals(97, cache.get(key(1), SentimentResponseDoc.class).getScoreValue(), 0);
+        assertEquals(98, cache.get(key(2), SentimentResponseDoc.class).getScoreValue(), 0);
+        cache.close();
+    }
+
+    @Test
+    public void resultLargerThanQuarterOfByteCapIsNotCached() throws Exception {
+        DiskResultCache cache = open(10, SENTIMENT_RECORD_SIZE * 3);
+        cache.put(key(1), new SentimentResponseDoc(0.5, null), SentimentResponseDoc.class);
+
+        assertNull(cache.get(key(1), SentimentResponseDoc.class));
+        assertEquals(0, cache.size());
+        cache.close();
+    }
+
+    @Test
+    public void expiredResultIsMissing() throws Exception {
+        DiskResultCache cache = new DiskResultCache(mFolder.getRoot(), 10, 4096, 1, TimeUnit.MILLISECONDS);
+        cache.put(key(1), new SentimentResponseDoc(0.5, null), SentimentResponseDoc.class);
+        Thread.sleep(10);
+
+        assertNull(cache.get(key(1), SentimentResponseDoc.class));
+        cache.close();
+    }
+
+    @Test
+    public void reopenWithoutCloseKeepsResults() throws Exception {
+        DiskResultCache cache = open(10, 4096);
+        cache.put(key(1), new SentimentResponseDoc(0.5, null), SentimentResponseDoc.class);
+        // No close, as when the process is killed
+
+        DiskResultCache reopened = open(10, 4096);
+        assertEquals(1, reopened.size());
+        assertEquals(0.5, reopened.get(key(1), SentimentResponseDoc.class).getScoreValue(), 0);
+        reopened.close();
+    }
+
+    @Test
+    public void reopenAfterLostRecordsIgnoresStaleIndexEntries() throws Exception {
+        DiskResultCache cache = open(10, 4096);
+        cache.put(key(1), new SentimentResponseDoc(0.5, null), SentimentResponseDoc.class);
+        cache.put(key(2), new SentimentResponseDoc(0.75, null), SentimentResponseDoc.class);
+        cache.close();
+
+        // The index outlived the second record
+        truncate(new File(mFolder.getRoot(), "records.dat"), SENTIMENT_RECORD_SIZE);
+
+        DiskResultCache reopened = open(10, 4096);
+        assertEquals(0.5, reopened.get(key(1), SentimentResponseDoc.class).getScoreValue(), 0);
+        assertNull(reopened.get(key(2), SentimentResponseDoc.class));
+
+        reopened.put(key(2), new SentimentResponseDoc(0.25, null), SentimentResponseDoc.class);
+        assertEquals(0.25, reopened.get(key(2), SentimentResponseDoc.class).getScoreValue(), 0);
+        reopened.close();
+    }
+
+    @Test
+    public void reopenWithCorruptIndexStartsOver() throws Exception {
+        DiskResultCache cache = open(10, 4096);
+        cache.put(key(1), new SentimentResponseDoc(0.5, null), SentimentResponseDoc.class);
+        cache.close();
+
+        RandomAccessFile index = new RandomAccessFile(new File(mFolder.getRoot(), "index.dat"), "rw");
+        try {
+            index.writeInt(0xdeadbeef);
+        } finally {
+            index.close();
+        }
+
+        DiskResultCache reopened = open(10, 4096);
+        assertEquals(0, reopened.size());
+        assertNull(reopened.get(key(1), SentimentResponseDoc.class));
+        assertEquals(0, new File(mFolder.getRoot(), "records.dat").length());
+        reopened.close();
+    }
+
+    private DiskResultCache open(int maxEntries, long maxBytes) throws Exception {
+        return new DiskResultCache(mFolder.getRoot(), maxEntries, maxBytes, 0, TimeUnit.MILLISECONDS);
+    }
+
+    private static String key(int i) {
+        return CacheKeys.of("sentiment", "en", "document " + i);
+    }
+
+    private static String collidingKey(int i) {
+        return String.format("00000000%032x", i);
+    }
+
+    private static void truncate(File file, long length) throws Exception {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            raf.setLength(length);
+        } finally {
+            raf.close();
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.langid;
+
+import com.microsoft.cognitive.textanalytics.model.response.language.Language;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class LanguageIdentifierTest {
+
+    private static final String[][] SUPPORTED = {
+            {"en", "The hotel was clean and the staff were very friendly."},
+            {"en", "Delivery took three weeks and nobody answered my emails."},
+            {"es", "El hotel estaba limpio y el personal fue muy amable con nosotros."},
+            {"es", "El env\u00edo tard\u00f3 tres semanas y nadie respondi\u00f3 a mis correos."},
+            {"fr", "L'h\u00f4tel \u00e9tait propre et le personnel \u00e9tait tr\u00e8s aimable avec nous."},
+            {"fr", "La livraison a pris trois semaines et personne n'a r\u00e9pondu \u00e0 mes messages."},
+            {"de", "Das Hotel war sauber und das Personal war sehr freundlich zu uns."},
+            {"de", "Ich bin gestern in den Laden gegangen, aber sie hatten kein Brot mehr."},
+            {"it", "L'albergo era pulito e il personale \u00e8 stato molto gentile con noi."},
+            {"it", "La consegna ha richiesto tre settimane e nessuno ha risposto alle mie email."},
+            {"pt", "A entrega demorou tr\u00eas semanas e ningu\u00e9m respondeu aos meus emails."},
+            {"nl", "Het hotel was schoon en het personeel was erg vriendelijk tegen ons."},
+            {"nl", "Ik ben gisteren naar de winkel gegaan, maar ze hadden geen brood meer."}
+    };
+
+    // Close to a supported language, or without a profile at all
+    private static final String[] UNSUPPORTED = {
+            // Norwegian
+            "Hotellet var rent og de ansatte var veldig vennlige mot oss.",
+            // Norwegian
+            "Leveringen tok tre uker og ingen svarte p\u00e5 e-postene mine.",
+            // Norwegian
+            "Jeg har bodd i Oslo i fem \u00e5r, og jeg trives veldig godt her.",
+            // Danish
+            "Hotellet var rent, og personalet var meget venlige over for os.",
+            // Danish
+            "Leveringen tog tre uger, og ingen svarede p\u00e5 mine e-mails.",
+            // Danish
+            "Jeg har boet i K\u00f8benhavn i fem \u00e5r, og jeg er rigtig glad for at bo her.",
+            // Afrikaans
+            "Die hotel was skoon en die personeel was baie vriendelik teenoor ons.",
+            // Afrikaans
+            "Die aflewering het drie weke geneem en niemand het my e-posse beantwoord nie.",
+            // Afrikaans
+            "Ek het gister na die winkel gegaan, maar hulle het nie meer brood gehad nie.",
+            // Polish
+            "Hotel by\u0142 czysty, a obs\u0142uga by\u0142a bardzo mi\u0142a dla nas.",
+            // Finnish
+            "Hotelli oli siisti ja henkil\u00f6kunta oli eritt\u00e4in yst\u00e4v\u00e4llist\u00e4 meit\u00e4 kohtaan."
+    };
+
+    private final LanguageIdentifier mIdentifier = new LanguageIdentifier();
+
+    @Test
+    public void supportedLanguagesAreIdentified() {
+        for (String[] text : SUPPORTED) {
+            Language language = mIdentifier.identify(text[1]);
+            assertNotNull(text[1], language);
+            assertEquals(text[1], text[0], language.getIso6391Name());
+            assertTrue(text[1], language.getScore() >= LanguageIdentifier.DEFAULT_MIN_CONFIDENCE);
+        }
+    }
+
+    @Test
+    public void unsupportedLanguagesAreLeftToTheService() {
+        for (String text : UNSUPPORTED) {
+            Language language = mIdentifier.identify(text);
+            assertNull(text + " taken for " + (language != null ? language.getIso6391Name() : null), language);
+        }
+    }
+
+    @Test
+    public void textWithoutEnoughKnownTrigramsIsRejected() {
+        // About half of its trigrams are known to the Dutch profile
+        String text = SUPPORTED[SUPPORTED.length - 1][1];
+        assertNotNull(mIdentifier.identify(text));
+
+        assertNull(new LanguageIdentifier().setMinCoverage(0.9).identify(text));
+    }
+
+    @Test
+    public void shortTextIsRejected() {
+        assertNull(mIdentifier.identify("Thanks a lot"));
+    }
+
+    @Test
+    public void scriptsAreRecognized() {
+        assertEquals("ja", mIdentifier.identify(
+                "\u3053\u306e\u30db\u30c6\u30eb\u306f\u304d\u308c\u3044\u3067\u3057\u305f").getIso6391Name());
+        assertEquals("ko", mIdentifier.identify(
+                "\ud638\ud154\uc740 \uae68\ub057\ud588\uc2b5\ub2c8\ub2e4").getIso6391Name());
+        assertEquals("el", mIdentifier.identify(
+                "\u03a4\u03bf \u03be\u03b5\u03bd\u03bf\u03b4\u03bf\u03c7\u03b5\u03af\u03bf"
+                        + " \u03ae\u03c4\u03b1\u03bd \u03ba\u03b1\u03b8\u03b1\u03c1\u03cc").getIso6391Name());
+    }
+
+}
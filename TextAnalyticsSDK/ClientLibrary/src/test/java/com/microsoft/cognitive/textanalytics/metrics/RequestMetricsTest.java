@@ -0,0 +1,166 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.metrics;
+
+import com.microsoft.cognitive.textanalytics.compression.GzipRequestInterceptor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class RequestMetricsTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private MockWebServer mServer;
+    private RequestMetrics mMetrics;
+    private final AtomicReference<CallRecord> mRecord = new AtomicReference<>();
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+        mMetrics = new RequestMetrics();
+        mMetrics.setListener(new MetricsListener() {
+            @Override
+            public void onCall(CallRecord record) {
+                mRecord.set(record);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void callerTagIsKept() throws Exception {
+        mServer.enqueue(new MockResponse().setBody("{}"));
+        final AtomicReference<Object> networkTag = new AtomicReference<>();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(mMetrics.getCallInterceptor())
+                .addInterceptor(mMetrics.getAttemptInterceptor())
+                .addNetworkInterceptor(mMetrics.getNetworkInterceptor())
+                .addNetworkInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        networkTag.set(chain.request().tag());
+                        return chain.proceed(chain.request());
+                    }
+                })
+                .build();
+        Object tag = new Object();
+
+        Response response = client.newCall(new Request.Builder().url(mServer.url("/sentiment")).tag(tag).build())
+                .execute();
+        response.body().close();
+
+        assertEquals(tag, response.request().tag());
+        assertEquals(tag, networkTag.get());
+        assertNotNull(mRecord.get());
+        assertEquals(RequestMetrics.ENDPOINT_SENTIMENT, mRecord.get().getEndpoint());
+    }
+
+    @Test
+    public void compressedRequestBytesAreRecorded() throws Exception {
+        mServer.enqueue(new MockResponse().setBody("{}"));
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(mMetrics.getCallInterceptor())
+                .addInterceptor(new GzipRequestInterceptor(0))
+                .addInterceptor(mMetrics.getAttemptInterceptor())
+                .addNetworkInterceptor(mMetrics.getNetworkInterceptor())
+                .build();
+        StringBuilder json = new StringBuilder("{\"documents\":[");
+        for (int i = 0; i < 200; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":\"").append(i).append("\",\"text\":\"same text\"}");
+        }
+        String body = json.append("]}").toString();
+
+        Response response = client.newCall(new Request.Builder().url(mServer.url("/sentiment"))
+                .post(RequestBody.create(JSON, body)).build()).execute();
+        response.body().close();
+
+        RecordedRequest recorded = mServer.takeRequest();
+        assertEquals("gzip", recorded.getHeader("Content-Encoding"));
+        assertTrue(recorded.getBodySize() < body.length());
+        assertEquals(recorded.getBodySize(), mRecord.get().getRequestBytes());
+    }
+
+    @Test
+    public void requestBytesOfEveryAttemptAreRecorded() throws Exception {
+        mServer.enqueue(new MockResponse().setResponseCode(503));
+        mServer.enqueue(new MockResponse().setBody("{}"));
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(mMetrics.getCallInterceptor())
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        Response response = chain.proceed(chain.request());
+                        if (response.code() != 503) {
+                            return response;
+                        }
+                        response.body().close();
+                        return chain.proceed(chain.request());
+                    }
+                })
+                .addInterceptor(mMetrics.getAttemptInterceptor())
+                .addNetworkInterceptor(mMetrics.getNetworkInterceptor())
+                .build();
+
+        Response response = client.newCall(new Request.Builder().url(mServer.url("/sentiment"))
+                .post(RequestBody.create(JSON, "{\"documents\":[]}")).build()).execute();
+        response.body().close();
+
+        assertEquals(2, mRecord.get().getAttempts());
+        assertEquals(2 * "{\"documents\":[]}".length(), mRecord.get().getRequestBytes());
+    }
+
+}
@@ -0,0 +1,111 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.model.adapter;
+
+import com.google.gson.Gson;
+import com.microsoft.cognitive.textanalytics.model.response.topics.Topic;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicAssignment;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TopicTypeAdaptersTest {
+
+    private final Gson mGson = ModelTypeAdapterFactory.createGson();
+
+    @Test
+    public void topicScoreIsReadAsNumber() {
+        Topic topic = mGson.fromJson("{\"id\":\"t1\",\"score\":12.6,\"keyPhrase\":\"rain\"}", Topic.class);
+
+        assertEquals(12.6, topic.getScoreValue(), 0);
+        assertEquals("12.6", topic.getScore());
+    }
+
+    @Test
+    public void wholeTopicScoreHasNoFraction() {
+        Topic topic = mGson.fromJson("{\"id\":\"t1\",\"score\":13}", Topic.class);
+
+        assertEquals(13, topic.getScoreValue(), 0);
+        assertEquals("13", topic.getScore());
+        assertTrue(mGson.toJson(topic).contains("\"score\":13"));
+    }
+
+    @Test
+    public void quotedTopicScoreIsReadAsNumber() {
+        Topic topic = mGson.fromJson("{\"id\":\"t1\",\"score\":\"7\"}", Topic.class);
+
+        assertEquals(7, topic.getScoreValue(), 0);
+    }
+
+    @Test
+    public void missingTopicScore() {
+        Topic topic = mGson.fromJson("{\"id\":\"t1\",\"score\":null}", Topic.class);
+
+        assertNull(topic.getScore());
+        assertFalse(topic.hasScore());
+        assertTrue(Double.isNaN(topic.getScoreValue()));
+    }
+
+    @Test
+    public void nonNumericScoreTextIsMissing() {
+        Topic topic = new Topic();
+        topic.setScore("many");
+
+        assertFalse(topic.hasScore());
+        assertNull(topic.getScore());
+    }
+
+    @Test
+    public void settingValueReplacesText() {
+        Topic topic = new Topic();
+        topic.setScore("4.0");
+        assertEquals("4", topic.getScore());
+        topic.setScoreValue(5.5);
+
+        assertEquals("5.5", topic.getScore());
+    }
+
+    @Test
+    public void distanceIsReadAsNumber() {
+        TopicAssignment assignment = mGson.fromJson(
+                "{\"documentId\":\"1\",\"topicId\":\"t1\",\"distance\":0.50}", TopicAssignment.class);
+
+        assertEquals(0.5, assignment.getDistanceValue(), 0);
+        assertEquals("0.5", assignment.getDistance());
+    }
+
+}
@@ -0,0 +1,163 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.preprocess;
+
+import com.microsoft.cognitive.textanalytics.cache.ResultType;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.language.LanguageRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponseDoc;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PreparedBatchTest {
+
+    @Test
+    public void duplicatesAreSentOnceAndFannedOut() {
+        PreparedBatch<RequestDocIncludeLanguage> batch = new DocumentPreprocessor()
+                .prepare(request(doc("1", "A good day"), doc("2", "Another day"), doc("3", "A good  day ")));
+
+        assertEquals(2, batch.getDocuments().size());
+        assertEquals("1", batch.getDocuments().get(0).getId());
+        assertEquals("2", batch.getDocuments().get(1).getId());
+
+        List<KeyPhrasesResponseDoc> results = batch.expand(Arrays.asList(
+                new KeyPhrasesResponseDoc(Collections.singletonList("another day"), "2"),
+                new KeyPhrasesResponseDoc(Collections.singletonList("good day"), "1")), ResultType.KEY_PHRASES);
+
+        assertEquals(3, results.size());
+        assertEquals("1", results.get(0).getId());
+        assertEquals("2", results.get(1).getId());
+        assertEquals("3", results.get(2).getId());
+        assertEquals(Collections.singletonList("good day"), results.get(2).getKeyPhrases());
+    }
+
+    @Test
+    public void sameTextInOtherLanguageIsSent() {
+        PreparedBatch<RequestDocIncludeLanguage> batch = new DocumentPreprocessor()
+                .prepare(request(doc("1", "taxi", "en"), doc("2", "taxi", "fr")));
+
+        assertEquals(2, batch.getDocuments().size());
+        assertEquals("fr", batch.getDocuments().get(1).getLanguage());
+    }
+
+    @Test
+    public void errorsAreCopiedToDuplicates() {
+        PreparedBatch<RequestDocIncludeLanguage> batch = new DocumentPreprocessor()
+                .prepare(request(doc("1", "Ein Tag"), doc("2", "Ein Tag")));
+
+        List<Object> errors = batch.expandErrors(Collections.<Object>singletonList(error("1", "Unsupported language")));
+
+        assertEquals(Arrays.<Object>asList(error("1", "Unsupported language"), error("2", "Unsupported language")),
+                errors);
+        assertTrue(batch.expand(null, ResultType.KEY_PHRASES).isEmpty());
+    }
+
+    @Test
+    public void emptyDocumentsAreAnsweredWithError() {
+        PreparedBatch<RequestDocIncludeLanguage> batch = new DocumentPreprocessor()
+                .prepare(request(doc("1", " \t "), doc("2", null)));
+
+        assertTrue(batch.isEmpty());
+        assertEquals(Arrays.<Object>asList(error("1", PreparedBatch.EMPTY_DOCUMENT_MESSAGE),
+                error("2", PreparedBatch.EMPTY_DOCUMENT_MESSAGE)), batch.expandErrors(null));
+    }
+
+    @Test
+    public void emptyDocumentsAreSentWhenNotSkipped() {
+        PreparedBatch<RequestDocIncludeLanguage> batch = new DocumentPreprocessor()
+                .setSkipEmpty(false)
+                .prepare(request(doc("1", " ")));
+
+        assertFalse(batch.isEmpty());
+        assertTrue(batch.expandErrors(null).isEmpty());
+    }
+
+    @Test
+    public void textIsNormalizedAndTruncatedOnCopy() {
+        RequestDocIncludeLanguage original = doc("1", "  e\u0301t\u00e9\n\nday  ");
+        PreparedBatch<RequestDocIncludeLanguage> batch = new DocumentPreprocessor()
+                .setMaxTextLength(5)
+                .prepare(request(original));
+
+        RequestDocIncludeLanguage sent = batch.getDocuments().get(0);
+        assertEquals("\u00e9t\u00e9 d", sent.getText());
+        assertEquals("en", sent.getLanguage());
+        assertEquals("  e\u0301t\u00e9\n\nday  ", original.getText());
+    }
+
+    @Test
+    public void languageRequestKeepsDocumentType() {
+        PreparedBatch<RequestDoc> batch = new DocumentPreprocessor()
+                .prepare(new LanguageRequest(Arrays.asList(new RequestDoc("1", "Hello"), new RequestDoc("2", "Hello"))));
+
+        assertEquals(1, batch.getDocuments().size());
+        assertEquals(RequestDoc.class, batch.getDocuments().get(0).getClass());
+    }
+
+    private static TextRequest request(RequestDocIncludeLanguage... documents) {
+        return new TextRequest(new ArrayList<>(Arrays.asList(documents)));
+    }
+
+    private static RequestDocIncludeLanguage doc(String id, String text) {
+        return doc(id, text, "en");
+    }
+
+    private static RequestDocIncludeLanguage doc(String id, String text, String language) {
+        RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+        doc.setId(id);
+        doc.setText(text);
+        doc.setLanguage(language);
+        return doc;
+    }
+
+    private static Map<String, Object> error(String id, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("id", id);
+        error.put("message", message);
+        return error;
+    }
+
+}
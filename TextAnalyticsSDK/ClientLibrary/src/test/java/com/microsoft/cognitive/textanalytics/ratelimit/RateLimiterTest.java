@@ -0,0 +1,215 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.ratelimit;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceCallback;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RateLimiterTest {
+
+    private MockWebServer mServer;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void subscriptionKeySharesLimiter() {
+        RateLimiter limiter = RateLimiter.forSubscriptionKey("shared", 5, 100);
+
+        assertSame(limiter, RateLimiter.forSubscriptionKey("shared", 5, 100));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void subscriptionKeyRejectsOtherRates() {
+        RateLimiter.forSubscriptionKey("conflicting", 5, 100);
+        RateLimiter.forSubscriptionKey("conflicting", 10, 100);
+    }
+
+    @Test
+    public void everyAttemptIsMetered() throws Exception {
+        mServer.enqueue(new MockResponse().setResponseCode(503));
+        mServer.enqueue(new MockResponse().setBody("{}"));
+        RateLimiter limiter = new RateLimiter(1, 1000);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        // Retries like the resilience layer, above the limiter
+                        Response response = chain.proceed(chain.request());
+                        if (response.code() != 503) {
+                            return response;
+                        }
+                        response.body().close();
+                        return chain.proceed(chain.request());
+                    }
+                })
+                .addInterceptor(new RateLimitInterceptor(limiter))
+                .build();
+
+        Response response = client.newCall(new Request.Builder().url(mServer.url("/")).build()).execute();
+
+        assertEquals(200, response.code());
+        assertEquals(2, mServer.getRequestCount());
+        // The burst allows one request per second, the retry waited for the second
+        assertTrue(limiter.getDelayedMillis() > 500);
+        response.body().close();
+    }
+
+    @Test
+    public void callCancelledWhileWaitingGivesBackItsReservation() throws Exception {
+        RateLimiter limiter = new RateLimiter(1, 1000);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new RateLimitInterceptor(limiter))
+                .build();
+        RateLimitedCallFactory factory = new RateLimitedCallFactory(client, limiter);
+        limiter.reserve(0);
+
+        Call call = factory.newCall(new Request.Builder().url(mServer.url("/")).build());
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<IOException> failure = new AtomicReference<>();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                failure.set(e);
+                done.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                response.body().close();
+                done.countDown();
+            }
+        });
+        call.cancel();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotNull(failure.get());
+        assertEquals(0, mServer.getRequestCount());
+        // Only the first reservation holds the limiter, the next request waits about one second, not two
+        long delay = limiter.reserve(0);
+        assertTrue(delay > 0 && delay <= TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    public void waitingCallsArriveAtTheLimitedRate() throws Exception {
+        final List<Long> arrivals = Collections.synchronizedList(new ArrayList<Long>());
+        final List<String> reservationHeaders = Collections.synchronizedList(new ArrayList<String>());
+        mServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                arrivals.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime()));
+                reservationHeaders.add(request.getHeader(RateLimiter.HEADER_RESERVATION));
+                return new MockResponse().setBody("{\"documents\":[],\"errors\":[]}");
+            }
+        });
+        ServiceRequestClient client = new ServiceRequestClient.Builder("arrival-spacing")
+                .setBaseUrl(mServer.url("/").toString())
+                .setRateLimit(4, 100000)
+                .build();
+        RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+        doc.setId("1");
+        doc.setText("A good day");
+        doc.setLanguage("en");
+        TextRequest request = new TextRequest(Collections.singletonList(doc));
+
+        int calls = 8;
+        final CountDownLatch done = new CountDownLatch(calls);
+        for (int i = 0; i < calls; i++) {
+            client.getSentimentAsync(request, new ServiceCallback<SentimentResponse>(client) {
+                @Override
+                public void onSuccess(SentimentResponse body) {
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(calls, arrivals.size());
+        List<Long> sorted = new ArrayList<>(arrivals);
+        Collections.sort(sorted);
+        // A burst of 4, then one call every 250 ms as each reservation comes due
+        for (int i = 4; i < calls; i++) {
+            long gap = sorted.get(i) - sorted.get(i - 1);
+            assertTrue("Gap before call " + i + " was " + gap + " ms", gap >= 150);
+        }
+        for (String header : reservationHeaders) {
+            assertNull(header);
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.ratelimit;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTest {
+
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test
+    public void burstUpToCapacityIsNotDelayed() {
+        TokenBucket bucket = new TokenBucket(10, 1, TimeUnit.SECONDS, 3);
+
+        assertEquals(0, bucket.reserve(1));
+        assertEquals(0, bucket.reserve(2));
+    }
+
+    @Test
+    public void reservationsBeyondCapacityQueueInOrder() {
+        TokenBucket bucket = new TokenBucket(10, 1, TimeUnit.SECONDS, 2);
+        bucket.reserve(2);
+
+        long first = bucket.reserve(1);
+        long second = bucket.reserve(1);
+
+        assertTrue(first > INTERVAL / 2 && first <= INTERVAL);
+        assertTrue(second > first + INTERVAL / 2 && second <= 2 * INTERVAL);
+    }
+
+    @Test
+    public void largeReservationWaitsForAllItsTokens() {
+        TokenBucket bucket = new TokenBucket(10, 1, TimeUnit.SECONDS, 2);
+
+        long delay = bucket.reserve(5);
+
+        assertTrue(delay > 2 * INTERVAL && delay <= 3 * INTERVAL);
+    }
+
+    @Test
+    public void releasedTokensCanBeReservedAgain() {
+        TokenBucket bucket = new TokenBucket(10, 1, TimeUnit.SECONDS, 1);
+        bucket.reserve(1);
+        long delay = bucket.reserve(1);
+        assertTrue(delay > 0);
+
+        bucket.release(1);
+
+        long again = bucket.reserve(1);
+        assertTrue(again > 0 && again <= delay);
+        bucket.release(2);
+        assertEquals(0, bucket.reserve(1));
+    }
+
+    @Test
+    public void emptyReservationIsFree() {
+        TokenBucket bucket = new TokenBucket(1, 1, TimeUnit.MINUTES, 1);
+        bucket.reserve(1);
+
+        assertEquals(0, bucket.reserve(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rateMustBePositive() {
+        new TokenBucket(0, 1, TimeUnit.SECONDS, 1);
+    }
+
+}
@@ -0,0 +1,206 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.resilience;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResilienceInterceptorTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    private MockWebServer mServer;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void idempotentRequestIsRetried() throws Exception {
+        mServer.enqueue(new MockResponse().setResponseCode(503));
+        mServer.enqueue(new MockResponse().setBody("{}"));
+
+        Response response = execute(client(new ResiliencePolicy().setBackoff(1, 10, TimeUnit.MILLISECONDS)),
+                "sentiment");
+
+        assertEquals(200, response.code());
+        assertEquals(2, mServer.getRequestCount());
+        response.body().close();
+    }
+
+    @Test
+    public void topicsSubmissionIsNotRetriedAfterServerError() throws Exception {
+        mServer.enqueue(new MockResponse().setResponseCode(503));
+        mServer.enqueue(new MockResponse().setResponseCode(202));
+
+        Response response = execute(client(new ResiliencePolicy().setBackoff(1, 10, TimeUnit.MILLISECONDS)), "topics");
+
+        assertEquals(503, response.code());
+        assertEquals(1, mServer.getRequestCount());
+        response.body().close();
+    }
+
+    @Test
+    public void topicsSubmissionIsRetriedAfterThrottling() throws Exception {
+        mServer.enqueue(new MockResponse().setResponseCode(429));
+        mServer.enqueue(new MockResponse().setResponseCode(202));
+
+        Response response = execute(client(new ResiliencePolicy().setBackoff(1, 10, TimeUnit.MILLISECONDS)), "topics");
+
+        assertEquals(202, response.code());
+        assertEquals(2, mServer.getRequestCount());
+        response.body().close();
+    }
+
+    @Test
+    public void connectFailuresAreKnownNotToBeSent() {
+        assertTrue(ResilienceInterceptor.isConnectFailure(new ConnectException("Connection refused")));
+        assertTrue(ResilienceInterceptor.isConnectFailure(new SocketTimeoutException("connect timed out")));
+        assertFalse(ResilienceInterceptor.isConnectFailure(new SocketTimeoutException("Read timed out")));
+        assertFalse(ResilienceInterceptor.isConnectFailure(new IOException("unexpected end of stream")));
+    }
+
+    @Test
+    public void cancelReleasesHalfOpenTrial() {
+        CircuitBreaker breaker = new CircuitBreaker(1, 0);
+        breaker.onFailure();
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+
+        breaker.onCancel();
+
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void unexpectedExceptionDoesNotLeaveBreakerHalfOpen() throws Exception {
+        ResiliencePolicy policy = new ResiliencePolicy()
+                .setMaxRetries(0)
+                .setCircuitBreaker(1, 0, TimeUnit.MILLISECONDS);
+        final boolean[] fail = {true};
+        ResilienceInterceptor resilience = new ResilienceInterceptor(policy, null);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(resilience)
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        if (fail[0]) {
+                            throw new IllegalStateException("Broken interceptor");
+                        }
+                        return chain.proceed(chain.request());
+                    }
+                })
+                .build();
+        // Open the circuit, the next request is the half-open trial
+        resilience.getCircuitBreaker(mServer.getHostName()).onFailure();
+
+        try {
+            execute(client, "sentiment");
+            fail("Expected the interceptor's exception");
+        } catch (IllegalStateException expected) {
+        }
+
+        fail[0] = false;
+        mServer.enqueue(new MockResponse().setBody("{}"));
+        Response response = execute(client, "sentiment");
+        assertEquals(200, response.code());
+        response.body().close();
+    }
+
+    @Test(timeout = 10000)
+    public void hedgedAttemptFailureReachesCaller() throws Exception {
+        OkHttpClient hedgeClient = new OkHttpClient.Builder()
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        throw new IllegalStateException("Broken interceptor");
+                    }
+                })
+                .build();
+        ResiliencePolicy policy = new ResiliencePolicy()
+                .setMaxRetries(0)
+                .setHedgeDelay(1, TimeUnit.MILLISECONDS);
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new ResilienceInterceptor(policy, hedgeClient))
+                .build();
+
+        try {
+            execute(client, "sentiment");
+            fail("Expected the hedged attempt's exception");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    private OkHttpClient client(ResiliencePolicy policy) {
+        return new OkHttpClient.Builder()
+                .addInterceptor(new ResilienceInterceptor(policy, null))
+                .build();
+    }
+
+    private Response execute(OkHttpClient client, String endpoint) throws IOException {
+        Request request = new Request.Builder()
+                .url(mServer.url("/text/analytics/v2.0/" + endpoint))
+                .post(RequestBody.create(JSON, "{\"documents\":[]}"))
+                .build();
+        return client.newCall(request).execute();
+    }
+
+}
@@ -0,0 +1,242 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.retrofit;
+
+import com.microsoft.cognitive.textanalytics.cache.LruResultCache;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+import com.microsoft.cognitive.textanalytics.model.response.keyphrases.KeyPhrasesResponse;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponse;
+import com.microsoft.cognitive.textanalytics.preprocess.DocumentPreprocessor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.Headers;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ServiceRequestClientTest {
+
+    private MockWebServer mServer;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void sameSettingsShareClient() {
+        ServiceRequestClient.Builder builder = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/").toString());
+        assertSame(builder.build(), builder.build());
+    }
+
+    @Test
+    public void clientsWithCollaboratorsAreNotShared() {
+        ServiceRequestClient.Builder builder = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/").toString())
+                .setResultCache(new LruResultCache(10, 1, TimeUnit.MINUTES));
+        ServiceRequestClient first = builder.build();
+        ServiceRequestClient second = builder.build();
+        assertNotSame(first, second);
+        assertSame(first.getResultCache(), second.getResultCache());
+    }
+
+    @Test
+    public void cacheHitIsDeliveredOffCallerThread() throws Exception {
+        ServiceRequestClient client = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/").toString())
+                .setResultCache(new LruResultCache(10, 1, TimeUnit.MINUTES))
+                .build();
+        mServer.enqueue(new MockResponse().setBody("{\"documents\":[{\"score\":0.8,\"id\":\"1\"}],\"errors\":[]}"));
+
+        SentimentResponse fetched = await(client, request());
+        assertEquals(1, fetched.getDocuments().size());
+
+        final Thread caller = Thread.currentThread();
+        final AtomicReference<Thread> delivery = new AtomicReference<>();
+        final AtomicReference<SentimentResponse> cached = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        client.getSentimentAsync(request(), new ServiceCallback<SentimentResponse>(client) {
+            @Override
+            public void onSuccess(SentimentResponse body) {
+                delivery.set(Thread.currentThread());
+                cached.set(body);
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        assertEquals(1, mServer.getRequestCount());
+        assertNotSame(caller, delivery.get());
+        assertEquals("1", cached.get().getDocuments().get(0).getId());
+        assertEquals(0.8, cached.get().getDocuments().get(0).getScoreValue(), 1e-9);
+    }
+
+    @Test
+    public void cancelBeforeCacheLookupIsReportedAsCancel() throws Exception {
+        ServiceRequestClient client = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/").toString())
+                .setResultCache(new LruResultCache(10, 1, TimeUnit.MINUTES))
+                .build();
+        final CountDownLatch latch = new CountDownLatch(1);
+        ServiceCall call = client.getSentimentAsync(request(), new ServiceCallback<SentimentResponse>(client) {
+            @Override
+            public void onSuccess(SentimentResponse body) {
+            }
+
+            @Override
+            public void onCancel() {
+                latch.countDown();
+            }
+        });
+        call.cancel();
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void emptyBatchIsDeliveredOffCallerThread() throws Exception {
+        ServiceRequestClient client = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/").toString())
+                .setPreprocessor(new DocumentPreprocessor())
+                .build();
+        RequestDocIncludeLanguage first = new RequestDocIncludeLanguage();
+        first.setId("1");
+        first.setText(" ");
+        RequestDocIncludeLanguage second = new RequestDocIncludeLanguage();
+        second.setId("2");
+        second.setText("");
+
+        final Thread caller = Thread.currentThread();
+        final AtomicReference<Thread> delivery = new AtomicReference<>();
+        final AtomicReference<KeyPhrasesResponse> result = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        client.getKeyPhrasesAsync(new TextRequest(Arrays.asList(first, second)),
+                new ServiceCallback<KeyPhrasesResponse>(client) {
+                    @Override
+                    public void onSuccess(KeyPhrasesResponse body) {
+                        delivery.set(Thread.currentThread());
+                        result.set(body);
+                        latch.countDown();
+                    }
+                });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        assertEquals(0, mServer.getRequestCount());
+        assertNotSame(caller, delivery.get());
+        assertTrue(result.get().getDocuments().isEmpty());
+        assertEquals(2, result.get().getErrors().size());
+        assertEquals("2", ((Map) result.get().getErrors().get(1)).get("id"));
+    }
+
+    @Test
+    public void topicSubmissionDeliversOperationLocation() throws Exception {
+        ServiceRequestClient client = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/").toString())
+                .build();
+        String operationLocation = mServer.url("/operations/42").toString();
+        mServer.enqueue(new MockResponse().setResponseCode(202).setHeader("Operation-Location", operationLocation));
+        TopicRequest request = new TopicRequest();
+        request.addDocument(new RequestDoc("1", "A good day"));
+
+        final AtomicReference<String> received = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        client.getTopicsOpIdAsync(request, new ServiceCallback<Void>(client) {
+            @Override
+            public void onSuccess(Void body) {
+            }
+
+            @Override
+            public void onSuccess(Void body, Headers headers) {
+                received.set(headers.get("Operation-Location"));
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        assertEquals(operationLocation, received.get());
+    }
+
+    private static SentimentResponse await(ServiceRequestClient client, TextRequest request) throws Exception {
+        final AtomicReference<SentimentResponse> result = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch(1);
+        client.getSentimentAsync(request, new ServiceCallback<SentimentResponse>(client) {
+            @Override
+            public void onSuccess(SentimentResponse body) {
+                result.set(body);
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertNotNull(result.get());
+        return result.get();
+    }
+
+    private static TextRequest request() {
+        RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+        doc.setId("1");
+        doc.setText("A good day");
+        doc.setLanguage("en");
+        return new TextRequest(Collections.singletonList(doc));
+    }
+
+}
@@ -0,0 +1,238 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.routing;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class RegionRouterTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final String BASE_URL = "http://service.invalid/text/analytics/v2.0/";
+
+    private MockWebServer mPrimary;
+    private MockWebServer mSecondary;
+    private volatile IOException mPrimaryFailure;
+    private volatile RuntimeException mPrimaryException;
+
+    @Before
+    public void setUp() throws Exception {
+        mPrimary = new MockWebServer();
+        mPrimary.start();
+        mSecondary = new MockWebServer();
+        mSecondary.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mPrimary.shutdown();
+        mSecondary.shutdown();
+    }
+
+    @Test
+    public void sentimentFailsOverAfterServerError() throws Exception {
+        mPrimary.enqueue(new MockResponse().setResponseCode(503));
+        mSecondary.enqueue(new MockResponse().setBody("{}"));
+        RegionRouter router = router(policy());
+
+        Response response = execute(client(router), "sentiment");
+
+        assertEquals(200, response.code());
+        assertEquals(1, router.getFailoverCount());
+        response.body().close();
+    }
+
+    @Test
+    public void topicsSubmissionIsNotFailedOverAfterServerError() throws Exception {
+        mPrimary.enqueue(new MockResponse().setResponseCode(503));
+        mSecondary.enqueue(new MockResponse().setResponseCode(202));
+        RegionRouter router = router(policy());
+
+        Response response = execute(client(router), "topics");
+
+        assertEquals(503, response.code());
+        assertEquals(0, mSecondary.getRequestCount());
+        response.body().close();
+    }
+
+    @Test
+    public void topicsSubmissionIsNotFailedOverAfterItWasSent() throws Exception {
+        mPrimary.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+        mSecondary.enqueue(new MockResponse().setResponseCode(202));
+
+        try {
+            execute(client(router(policy())), "topics");
+            fail("Expected the read failure");
+        } catch (IOException expected) {
+            // The service may have accepted the job
+        }
+        assertEquals(1, mPrimary.getRequestCount());
+        assertEquals(0, mSecondary.getRequestCount());
+    }
+
+    @Test
+    public void topicsSubmissionIsFailedOverAfterThrottling() throws Exception {
+        mPrimary.enqueue(new MockResponse().setResponseCode(429));
+        mSecondary.enqueue(new MockResponse().setResponseCode(202));
+
+        Response response = execute(client(router(policy())), "topics");
+
+        assertEquals(202, response.code());
+        response.body().close();
+    }
+
+    @Test
+    public void topicsSubmissionIsFailedOverWhenRegionIsUnreachable() throws Exception {
+        HttpUrl unreachable = mPrimary.url("/text/analytics/v2.0/");
+        mPrimary.shutdown();
+        mSecondary.enqueue(new MockResponse().setResponseCode(202));
+        RegionPolicy policy = new RegionPolicy()
+                .addRegion("primary", unreachable.toString())
+                .addRegion("secondary", mSecondary.url("/text/analytics/v2.0/").toString())
+                .setProbeInterval(0, TimeUnit.MILLISECONDS);
+
+        Response response = execute(client(router(policy)), "topics");
+
+        assertEquals(202, response.code());
+        response.body().close();
+    }
+
+    @Test
+    public void cancelReleasesHalfOpenRegion() throws Exception {
+        OkHttpClient client = client(router(policy().setCircuitBreaker(1, 0, TimeUnit.MILLISECONDS)));
+        openPrimary(client);
+
+        mPrimaryFailure = new IOException("Canceled");
+        try {
+            execute(client, "sentiment");
+            fail("Expected the cancellation");
+        } catch (IOException expected) {
+            mPrimaryFailure = null;
+        }
+
+        assertPrimaryIsTried(client);
+    }
+
+    @Test
+    public void unexpectedExceptionReleasesHalfOpenRegion() throws Exception {
+        OkHttpClient client = client(router(policy().setCircuitBreaker(1, 0, TimeUnit.MILLISECONDS)));
+        openPrimary(client);
+
+        mPrimaryException = new IllegalStateException("Broken interceptor");
+        try {
+            execute(client, "sentiment");
+            fail("Expected the exception");
+        } catch (IllegalStateException expected) {
+            mPrimaryException = null;
+        }
+
+        assertPrimaryIsTried(client);
+    }
+
+    private void openPrimary(OkHttpClient client) throws IOException {
+        mPrimary.enqueue(new MockResponse().setResponseCode(503));
+        mSecondary.enqueue(new MockResponse().setBody("{}"));
+        execute(client, "sentiment").body().close();
+    }
+
+    private void assertPrimaryIsTried(OkHttpClient client) throws IOException {
+        int primaryRequests = mPrimary.getRequestCount();
+        mPrimary.enqueue(new MockResponse().setBody("{}"));
+
+        Response response = execute(client, "sentiment");
+
+        assertEquals(200, response.code());
+        assertEquals(primaryRequests + 1, mPrimary.getRequestCount());
+        response.body().close();
+    }
+
+    private RegionPolicy policy() {
+        return new RegionPolicy()
+                .addRegion("primary", mPrimary.url("/text/analytics/v2.0/").toString())
+                .addRegion("secondary", mSecondary.url("/text/analytics/v2.0/").toString())
+                .setProbeInterval(0, TimeUnit.MILLISECONDS);
+    }
+
+    private static RegionRouter router(RegionPolicy policy) {
+        return new RegionRouter(policy, HttpUrl.parse(BASE_URL), new OkHttpClient());
+    }
+
+    private OkHttpClient client(RegionRouter router) {
+        final String primary = mPrimary.url("/").host() + ':' + mPrimary.getPort();
+        return new OkHttpClient.Builder()
+                .retryOnConnectionFailure(false)
+                .addInterceptor(router)
+                .addInterceptor(new Interceptor() {
+                    @Override
+                    public Response intercept(Chain chain) throws IOException {
+                        HttpUrl url = chain.request().url();
+                        if ((url.host() + ':' + url.port()).equals(primary)) {
+                            if (mPrimaryFailure != null) {
+                                throw mPrimaryFailure;
+                            }
+                            if (mPrimaryException != null) {
+                                throw mPrimaryException;
+                            }
+                        }
+                        return chain.proceed(chain.request());
+                    }
+                })
+                .build();
+    }
+
+    private static Response execute(OkHttpClient client, String endpoint) throws IOException {
+        return client.newCall(new Request.Builder()
+                .url(BASE_URL + endpoint)
+                .post(RequestBody.create(JSON, "{\"documents\":[]}"))
+                .build()).execute();
+    }
+
+}
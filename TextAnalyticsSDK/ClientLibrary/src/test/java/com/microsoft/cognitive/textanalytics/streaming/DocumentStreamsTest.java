@@ -0,0 +1,193 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.streaming;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDocIncludeLanguage;
+import com.microsoft.cognitive.textanalytics.model.request.keyphrases_sentiment.TextRequest;
+import com.microsoft.cognitive.textanalytics.model.response.sentiment.SentimentResponseDoc;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceException;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import rx.functions.Action2;
+import rx.observers.TestSubscriber;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class DocumentStreamsTest {
+
+    private static final String BODY = "{\"errors\":[{\"id\":\"2\",\"message\":\"Invalid document\"}],"
+            + "\"documents\":[{\"score\":0.9,\"id\":\"1\"},{\"score\":0.1,\"id\":\"3\"}]}";
+    private static final String MALFORMED_BODY = "{\"documents\":[{\"score\":0.9,\"id\":\"1\"},[0.1,\"3\"]]}";
+
+    private MockWebServer mServer;
+    private ServiceRequestClient mClient;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+        mClient = new ServiceRequestClient.Builder("key").setBaseUrl(mServer.url("/").toString()).build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void readPushesDocumentsAndErrors() {
+        mServer.enqueue(new MockResponse().setBody(BODY));
+        RecordingCallback callback = new RecordingCallback();
+
+        mClient.callSentimentsStreaming(request(), callback);
+
+        assertEquals(2, callback.documents.size());
+        assertEquals(Collections.singletonList("2: Invalid document"), callback.errors);
+        assertTrue(callback.completed);
+        assertNull(callback.failure);
+    }
+
+    @Test
+    public void readReportsMalformedDocumentAsFailure() {
+        mServer.enqueue(new MockResponse().setBody(MALFORMED_BODY));
+        RecordingCallback callback = new RecordingCallback();
+
+        mClient.callSentimentsStreaming(request(), callback);
+
+        assertEquals(1, callback.documents.size());
+        assertTrue(callback.failure instanceof RuntimeException);
+        assertFalse(callback.completed);
+    }
+
+    @Test
+    public void readReportsHttpErrorAsServiceException() {
+        mServer.enqueue(new MockResponse().setResponseCode(401)
+                .setBody("{\"statusCode\":401,\"message\":\"Access denied\"}"));
+        RecordingCallback callback = new RecordingCallback();
+
+        mClient.callSentimentsStreaming(request(), callback);
+
+        assertTrue(callback.failure instanceof ServiceException);
+        assertEquals(401, ((ServiceException) callback.failure).getCode());
+    }
+
+    @Test
+    public void observeEmitsDocumentsAndPassesErrorsToAction() {
+        mServer.enqueue(new MockResponse().setBody(BODY));
+        final List<String> errors = new ArrayList<>();
+        TestSubscriber<SentimentResponseDoc> subscriber = new TestSubscriber<>();
+
+        mClient.getSentimentsStreamRx(request(), new Action2<String, String>() {
+            @Override
+            public void call(String id, String message) {
+                errors.add(id + ": " + message);
+            }
+        }).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertCompleted();
+        subscriber.assertValueCount(2);
+        assertEquals(Collections.singletonList("2: Invalid document"), errors);
+    }
+
+    @Test
+    public void observeReportsMalformedDocumentAsError() {
+        mServer.enqueue(new MockResponse().setBody(MALFORMED_BODY));
+        TestSubscriber<SentimentResponseDoc> subscriber = new TestSubscriber<>();
+
+        mClient.getSentimentsStreamRx(request(), new Action2<String, String>() {
+            @Override
+            public void call(String id, String message) {
+            }
+        }).subscribe(subscriber);
+
+        subscriber.awaitTerminalEvent(10, TimeUnit.SECONDS);
+        subscriber.assertValueCount(1);
+        subscriber.assertError(RuntimeException.class);
+    }
+
+    private static TextRequest request() {
+        List<RequestDocIncludeLanguage> documents = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            RequestDocIncludeLanguage doc = new RequestDocIncludeLanguage();
+            doc.setId(String.valueOf(i));
+            doc.setText("Document " + i);
+            doc.setLanguage("en");
+            documents.add(doc);
+        }
+        return new TextRequest(documents);
+    }
+
+    private static class RecordingCallback implements DocumentStreamCallback<SentimentResponseDoc> {
+
+        final List<SentimentResponseDoc> documents = new ArrayList<>();
+        final List<String> errors = new ArrayList<>();
+        boolean completed;
+        Throwable failure;
+
+        @Override
+        public void onDocument(SentimentResponseDoc document) {
+            documents.add(document);
+        }
+
+        @Override
+        public void onDocumentError(String id, String message) {
+            errors.add(id + ": " + message);
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        @Override
+        public void onFailure(Throwable t) {
+            failure = t;
+        }
+    }
+
+}
@@ -0,0 +1,133 @@
+//
+// Copyright (c) Microsoft. All rights reserved.
+// Licensed under the MIT license.
+//
+// Microsoft Cognitive Services (formerly Project Oxford): https://www.microsoft.com/cognitive-services
+//
+// Microsoft Cognitive Services Text Analytics Android repository on GitHub:
+// https://github.com/Microsoft/Cognitive-TextAnalytics-Android
+//
+// Copyright (c) Microsoft Corporation
+// All rights reserved.
+//
+// MIT License:
+// Permission is hereby granted, free of charge, to any person obtaining
+// a copy of this software and associated documentation files (the
+// "Software"), to deal in the Software without restriction, including
+// without limitation the rights to use, copy, modify, merge, publish,
+// distribute, sublicense, and/or sell copies of the Software, and to
+// permit persons to whom the Software is furnished to do so, subject to
+// the following conditions:
+//
+// The above copyright notice and this permission notice shall be
+// included in all copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED ""AS IS"", WITHOUT WARRANTY OF ANY KIND,
+// EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF
+// MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+// NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+// LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+// OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION
+// WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+//
+package com.microsoft.cognitive.textanalytics.topics;
+
+import com.microsoft.cognitive.textanalytics.model.request.RequestDoc;
+import com.microsoft.cognitive.textanalytics.model.request.topics.TopicRequest;
+import com.microsoft.cognitive.textanalytics.model.response.topics.TopicResponse;
+import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class TopicJobJournalTest {
+
+    @Rule
+    public TemporaryFolder mFolder = new TemporaryFolder();
+
+    private MockWebServer mServer;
+
+    @Before
+    public void setUp() throws Exception {
+        mServer = new MockWebServer();
+        mServer.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mServer.shutdown();
+    }
+
+    @Test
+    public void missingStopWordsAreFingerprintedAsEmpty() {
+        TopicRequest missing = request();
+        missing.setStopWords(null);
+        missing.setStopPhrases(null);
+        TopicRequest empty = request();
+        empty.setStopWords(new ArrayList<String>());
+        empty.setStopPhrases(new ArrayList<String>());
+
+        assertEquals(TopicJobJournal.fingerprint(empty), TopicJobJournal.fingerprint(missing));
+    }
+
+    @Test
+    public void stopWordsChangeFingerprint() {
+        TopicRequest plain = request();
+        TopicRequest withStopWords = request();
+        withStopWords.setStopWords(Collections.singletonList("rain"));
+        TopicRequest withStopPhrases = request();
+        withStopPhrases.setStopPhrases(Collections.singletonList("rain"));
+
+        assertNotEquals(TopicJobJournal.fingerprint(plain), TopicJobJournal.fingerprint(withStopWords));
+        assertNotEquals(TopicJobJournal.fingerprint(withStopWords), TopicJobJournal.fingerprint(withStopPhrases));
+    }
+
+    @Test
+    public void requestWithoutStopWordsIsSubmittedAndRecorded() throws Exception {
+        String operationLocation = mServer.url("/operations/1").toString();
+        mServer.enqueue(new MockResponse().setResponseCode(202)
+                .setHeader(TopicJobTracker.HEADER_OPERATION_LOCATION, operationLocation));
+        mServer.enqueue(new MockResponse().setBody("{\"status\":\"Succeeded\"}"));
+        ServiceRequestClient client = new ServiceRequestClient.Builder("key")
+                .setBaseUrl(mServer.url("/").toString())
+                .build();
+        TopicJobJournal journal = new TopicJobJournal(new File(mFolder.getRoot(), "topics.journal"));
+        PollingPolicy policy = new PollingPolicy(0, 10, 1, 10, TimeUnit.SECONDS);
+        TopicJobTracker tracker = new TopicJobTracker(client, policy, 1, journal);
+        TopicRequest request = request();
+        request.setStopWords(null);
+        request.setStopPhrases(null);
+
+        try {
+            TopicResponse response = tracker.submit(request).timeout(10, TimeUnit.SECONDS).toBlocking().single();
+
+            assertEquals("Succeeded", response.getStatus());
+            assertEquals(TopicJobJournal.State.SUCCEEDED,
+                    journal.find(TopicJobJournal.fingerprint(request)).getState());
+        } finally {
+            tracker.shutdown();
+        }
+    }
+
+    private static TopicRequest request() {
+        TopicRequest request = new TopicRequest();
+        request.addDocument(new RequestDoc("1", "Rain all day"));
+        request.addDocument(new RequestDoc("2", "Sunny and warm"));
+        return request;
+    }
+
+}
@@ -56,7 +56,6 @@ import com.microsoft.cognitive.textanalytics.sample.model.QuestionList;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
@@ -69,7 +68,6 @@ import retrofit2.converter.gson.GsonConverterFactory;
 import rx.Observable;
 import rx.Subscriber;
 import rx.android.schedulers.AndroidSchedulers;
-import rx.functions.Func1;
 import rx.schedulers.Schedulers;
 import rx.subscriptions.CompositeSubscription;
 
@@ -111,7 +109,7 @@ public class DetectedTopicActivity extends AppCompatActivity implements View.OnC
         setContentView(R.layout.activity_detected_topic);
         String subscriptionKey = getIntent().getStringExtra(SUBSCRIPTION_KEY);
 
-        mRequest = new ServiceRequestClient(subscriptionKey);
+        mRequest = new ServiceRequestClient.Builder(subscriptionKey).build();
         mSubscriptions = new CompositeSubscription();
 
         mNumberOfSOTitles = (TextView) findViewById(R.id.no_of_so_questions);
@@ -272,32 +270,12 @@ public class DetectedTopicActivity extends AppCompatActivity implements View.OnC
     }
 
     /**
-     * Get detected topics from over 100 text records, polling every 30 seconds until we reach "Succeeded" status
+     * Get detected topics from over 100 text records, polling with backoff until the status is "Succeeded" or "Failed"
      */
     private void getDetectedTopics() {
 
-        mSubscriptions.add(mRequest.getTopicsRx(mOperationId)
-                // Skip while the status is not yet "Succeeded"
-                .skipWhile(new Func1<TopicResponse, Boolean>() {
-                    @Override
-                    public Boolean call(TopicResponse topicResponse) {
-                        boolean toSkip = (!topicResponse.getStatus().equals("Succeeded"));
-                        Log.i(TAG, "In skipWhile(), status is now " + topicResponse.getStatus());
-                        return toSkip;
-                    }
-                })// Polling every 60 seconds
-                .repeatWhen(new Func1<Observable<? extends Void>, Observable<?>>() {
-                    @Override
-                    public Observable<?> call(Observable<? extends Void> observable) {
-                        return observable.delay(60, TimeUnit.SECONDS);
-                    }
-                }) // Keep polling until the status becomes "Succeeded"
-                .takeUntil(new Func1<TopicResponse, Boolean>() {
-                    @Override
-                    public Boolean call(TopicResponse topicResponse) {
-                        return topicResponse.getStatus().equals("Succeeded");
-                    }
-                })
+        // Only the final response is emitted, intermediate "Running" statuses are polled internally
+        mSubscriptions.add(mRequest.pollTopicsRx(mOperationId)
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new Subscriber<TopicResponse>() {
@@ -62,8 +62,6 @@ import com.microsoft.cognitive.textanalytics.retrofit.ServiceRequestClient;
 import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Response;
 
 /**
  * Sample Android app demonstrate the Text Analytics APIs
@@ -96,13 +94,13 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
 
 
     private ServiceCall mLanguageServiceCall;
-    private ServiceCallback mLanguageCallback;
+    private ServiceCallback<LanguageResponse> mLanguageCallback;
 
     private ServiceCall mKeyPhrasesCall;
-    private ServiceCallback mKeyPhrasesCallback;
+    private ServiceCallback<KeyPhrasesResponse> mKeyPhrasesCallback;
 
     private ServiceCall mSentimentCall;
-    private ServiceCallback mSentimentCallback;
+    private ServiceCallback<SentimentResponse> mSentimentCallback;
 
 
     //region Activity lifecycle
@@ -175,7 +173,7 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
         ((Button) findViewById(R.id.goto_detected_topics)).setOnClickListener(this);
 
         // Request for network calls
-        mRequest = new ServiceRequestClient(mSubscriptionKey);
+        mRequest = new ServiceRequestClient.Builder(mSubscriptionKey).build();
     }
 
     /**
@@ -278,21 +276,22 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
     private void getLanguages() {
         showProgressDialog();
 
-        mLanguageCallback = new ServiceCallback(mRequest.getRetrofit()) {
+        mLanguageCallback = new ServiceCallback<LanguageResponse>(mRequest) {
             @Override
-            public void onResponse(Call call, Response response) {
-                super.onResponse(call, response);
-                LanguageResponse languageResponse = (LanguageResponse) response.body();
-                if (response != null && response.isSuccessful()) {
-                    String text = languageResponse.getDocuments().get(0).getDetectedLanguages().get(0).getName();
-                    mDetectedLanguage.setText(text);
-                }
+            public void onSuccess(LanguageResponse languageResponse) {
+                String text = languageResponse.getDocuments().get(0).getDetectedLanguages().get(0).getName();
+                mDetectedLanguage.setText(text);
                 dismissProgressDialog();
             }
 
             @Override
-            public void onFailure(Call call, Throwable t) {
-                super.onFailure(call, t);
+            public void onError(Throwable t) {
+                super.onError(t);
+                dismissProgressDialog();
+            }
+
+            @Override
+            public void onCancel() {
                 dismissProgressDialog();
             }
         };
@@ -312,25 +311,26 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
     private void getKeyPhrases() {
         showProgressDialog();
 
-        mKeyPhrasesCallback = new ServiceCallback(mRequest.getRetrofit()) {
+        mKeyPhrasesCallback = new ServiceCallback<KeyPhrasesResponse>(mRequest) {
             @Override
-            public void onResponse(Call call, Response response) {
-                super.onResponse(call, response);
-                KeyPhrasesResponse keyPhrasesResponse = (KeyPhrasesResponse) response.body();
-                if (response != null && response.isSuccessful()) {
-                    List<String> keyPhrasesStringList = keyPhrasesResponse.getDocuments().get(0).getKeyPhrases();
-                    String keyPhrasesString = keyPhrasesStringList.get(0);
-                    for (int i = 1; i < keyPhrasesStringList.size(); i++) {
-                        keyPhrasesString += ", " + keyPhrasesStringList.get(i);
-                    }
-                    mKeyPhrases.setText(keyPhrasesString);
+            public void onSuccess(KeyPhrasesResponse keyPhrasesResponse) {
+                List<String> keyPhrasesStringList = keyPhrasesResponse.getDocuments().get(0).getKeyPhrases();
+                String keyPhrasesString = keyPhrasesStringList.get(0);
+                for (int i = 1; i < keyPhrasesStringList.size(); i++) {
+                    keyPhrasesString += ", " + keyPhrasesStringList.get(i);
                 }
+                mKeyPhrases.setText(keyPhrasesString);
+                dismissProgressDialog();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                super.onError(t);
                 dismissProgressDialog();
             }
 
             @Override
-            public void onFailure(Call call, Throwable t) {
-                super.onFailure(call, t);
+            public void onCancel() {
                 dismissProgressDialog();
             }
         };
@@ -349,20 +349,21 @@ public class MainActivity extends AppCompatActivity implements View.OnClickListe
     private void getSentimentScore() {
         showProgressDialog();
 
-        mSentimentCallback = new ServiceCallback(mRequest.getRetrofit()) {
+        mSentimentCallback = new ServiceCallback<SentimentResponse>(mRequest) {
             @Override
-            public void onResponse(Call call, Response response) {
-                super.onResponse(call, response);
-                SentimentResponse sentimentResponse = (SentimentResponse) response.body();
-                if (response != null && response.isSuccessful()) {
-                    mSentimentScore.setText(sentimentResponse.getDocuments().get(0).getScore().toString());
-                }
+            public void onSuccess(SentimentResponse sentimentResponse) {
+                mSentimentScore.setText(sentimentResponse.getDocuments().get(0).getScore().toString());
+                dismissProgressDialog();
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                super.onError(t);
                 dismissProgressDialog();
             }
 
             @Override
-            public void onFailure(Call call, Throwable t) {
-                super.onFailure(call, t);
+            public void onCancel() {
                 dismissProgressDialog();
             }
         };